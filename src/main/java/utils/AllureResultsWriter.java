@@ -0,0 +1,200 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Writes report events as Allure result files ({@code <uuid>-result.json} plus
+ * copied screenshots and {@code environment.properties}) for {@code allure
+ * generate}. Each log entry becomes a step; the test status is the worst one
+ * logged, with warnings reported as broken. Results are written on
+ * {@link #flush()}, since the event stream has no explicit end of a test.
+ */
+public class AllureResultsWriter implements ReportWriter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final int MAX_STEP_NAME = 500;
+
+    private final Path resultsDir;
+    private final Map<Long, Result> results = new LinkedHashMap<>();
+    private final Properties environment = new Properties();
+
+    public AllureResultsWriter(Path resultsDir) {
+        this.resultsDir = resultsDir;
+    }
+
+    @Override
+    public void createTest(long testId, long timestamp, String name, String description) {
+        Result result = new Result(UUID.randomUUID().toString(), timestamp);
+        result.json.put("uuid", result.uuid);
+        result.json.put("historyId", UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString());
+        result.json.put("name", name);
+        result.json.put("fullName", name);
+        if (description != null) {
+            result.json.put("description", description);
+        }
+        result.json.put("stage", "finished");
+        result.json.put("start", timestamp);
+        results.put(testId, result);
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, String details) {
+        Result result = results.get(testId);
+        if (result != null) {
+            result.step(timestamp, status, plainText(details));
+        }
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, Throwable throwable) {
+        Result result = results.get(testId);
+        if (result != null) {
+            StringWriter trace = new StringWriter();
+            throwable.printStackTrace(new PrintWriter(trace));
+            String text = trace.toString();
+            int firstLine = text.indexOf('\n');
+            String message = firstLine < 0 ? text : text.substring(0, firstLine).trim();
+            result.step(timestamp, status, message);
+            if (result.message == null) {
+                result.message = message;
+                result.trace = text;
+            }
+        }
+    }
+
+    @Override
+    public void assignCategory(long testId, String... categories) {
+        addLabels(testId, "tag", categories);
+    }
+
+    @Override
+    public void assignAuthor(long testId, String... authors) {
+        addLabels(testId, "owner", authors);
+    }
+
+    @Override
+    public void addScreenCapture(long testId, String path, String title) {
+        Result result = results.get(testId);
+        Path source = Paths.get(path);
+        if (result == null || !Files.isRegularFile(source)) {
+            return;
+        }
+        String fileName = source.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot);
+        String target = UUID.randomUUID() + "-attachment" + extension;
+        try {
+            Files.createDirectories(resultsDir);
+            Files.copy(source, resultsDir.resolve(target), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ObjectNode attachment = result.json.withArray("attachments").addObject();
+        attachment.put("name", title == null ? fileName : title);
+        attachment.put("source", target);
+        attachment.put("type", extension.equalsIgnoreCase(".png") ? "image/png" : "application/octet-stream");
+    }
+
+    @Override
+    public void setSystemInfo(String key, String value) {
+        environment.setProperty(key, value);
+    }
+
+    @Override
+    public void flush() {
+        try {
+            Files.createDirectories(resultsDir);
+            for (Result result : results.values()) {
+                ObjectNode json = result.json;
+                json.put("status", allureStatus(result.status));
+                json.put("stop", result.stop);
+                if (result.message != null) {
+                    ObjectNode statusDetails = json.putObject("statusDetails");
+                    statusDetails.put("message", result.message);
+                    statusDetails.put("trace", result.trace);
+                }
+                MAPPER.writeValue(resultsDir.resolve(result.uuid + "-result.json").toFile(), json);
+            }
+            if (!environment.isEmpty()) {
+                try (OutputStream out = Files.newOutputStream(resultsDir.resolve("environment.properties"))) {
+                    environment.store(out, null);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addLabels(long testId, String label, String... values) {
+        Result result = results.get(testId);
+        if (result != null) {
+            ArrayNode labels = result.json.withArray("labels");
+            for (String value : values) {
+                labels.addObject().put("name", label).put("value", value);
+            }
+        }
+    }
+
+    private static String allureStatus(Status status) {
+        switch (status) {
+            case FAIL:
+                return "failed";
+            case WARNING:
+                return "broken";
+            case SKIP:
+                return "skipped";
+            default:
+                return "passed";
+        }
+    }
+
+    private static String plainText(String details) {
+        String text = SPACES.matcher(TAGS.matcher(details).replaceAll(" ")).replaceAll(" ").trim();
+        return text.length() > MAX_STEP_NAME ? text.substring(0, MAX_STEP_NAME) + "..." : text;
+    }
+
+    private static final class Result {
+        final String uuid;
+        final ObjectNode json = MAPPER.createObjectNode();
+        Status status = Status.PASS;
+        long stop;
+        String message;
+        String trace;
+
+        Result(String uuid, long start) {
+            this.uuid = uuid;
+            this.stop = start;
+        }
+
+        void step(long timestamp, Status logStatus, String name) {
+            status = Status.max(status, logStatus);
+            stop = Math.max(stop, timestamp);
+            ObjectNode step = json.withArray("steps").addObject();
+            step.put("name", name);
+            step.put("status", allureStatus(logStatus));
+            step.put("stage", "finished");
+            step.put("start", timestamp);
+            step.put("stop", timestamp);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package utils;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+
+/**
+ * Renders cell values as text the same way for every Excel reader, so a data
+ * provider sees identical rows whether the sheet was loaded by {@link ExcelReader},
+ * streamed by {@link StreamingExcelReader} or served from a {@link ColumnarSheetCache}.
+ *
+ * <p>Numbers and dates are formatted as Excel displays them, formula cells yield
+ * their cached result rather than the formula, booleans are {@code true}/{@code false}
+ * and errors their code such as {@code #DIV/0!}.
+ *
+ * <p>Cache files hold text rendered by this class, so any change to its output
+ * must come with a bump of {@code ColumnarSheetCache.VERSION}.
+ *
+ * <p>Not thread-safe: POI's formatter caches parsed formats, so each reader keeps
+ * its own instance.
+ */
+public class CellFormatter {
+    private final DataFormatter formatter = new DataFormatter();
+
+    /** Text of a cell of a workbook loaded by POI. */
+    public String format(Cell cell) {
+        CellType type = cell.getCellType();
+        if (type == CellType.FORMULA) {
+            if (cell instanceof XSSFCell && !((XSSFCell) cell).getCTCell().isSetV()) {
+                // Never calculated: the file holds no result, which POI would report as 0
+                return "";
+            }
+            type = cell.getCachedFormulaResultType();
+        }
+        switch (type) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                CellStyle style = cell.getCellStyle();
+                return style == null
+                    ? formatNumber(cell.getNumericCellValue(), 0, null)
+                    : formatNumber(cell.getNumericCellValue(), style.getDataFormat(), style.getDataFormatString());
+            case BOOLEAN:
+                return formatBoolean(cell.getBooleanCellValue());
+            case ERROR:
+                return FormulaError.forInt(cell.getErrorCellValue()).getString();
+            default:
+                return "";
+        }
+    }
+
+    /** Number in the given cell format; a null format string falls back to the built-in one of the index. */
+    public String formatNumber(double value, int formatIndex, String formatString) {
+        if (formatString == null) {
+            formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+        }
+        if (formatString == null) {
+            formatIndex = 0;
+            formatString = BuiltinFormats.getBuiltinFormat(0);
+        }
+        return formatter.formatRawCellContents(value, formatIndex, formatString);
+    }
+
+    public String formatBoolean(boolean value) {
+        return value ? "true" : "false";
+    }
+}
@@ -0,0 +1,388 @@
+package utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compiled, memory-mapped copy of a workbook's cell text, so {@link ExcelReader}
+ * parses an .xlsx through POI only the first time it sees its content.
+ *
+ * <p>Cache files live in {@code excel.cache.dir} (system property, default
+ * {@code target/excel-cache}) and are named after the workbook, a hash of its
+ * absolute path and the SHA-256 of its bytes, so any edit to the workbook misses
+ * and recompiles, the stale file of the same workbook is deleted, and workbooks
+ * of the same name in different directories keep separate caches. Set {@code excel.cache.enabled=false} to
+ * always read through POI.
+ *
+ * <p>Layout: a header, one dictionary of every distinct cell text in the
+ * workbook (offsets, then UTF-8 bytes; id 0 is {@code ""}), then per sheet its
+ * name id, dimensions, a bitmap of the rows that exist and the cells stored
+ * column by column as dictionary ids of 1, 2 or 4 bytes depending on the
+ * dictionary size. Loading maps the file and reads nothing else; strings are
+ * decoded on first access.
+ */
+public final class ColumnarSheetCache {
+    private static final Logger log = LoggerFactory.getLogger(ColumnarSheetCache.class);
+    private static final int MAGIC = 0x58434F4C;
+    // Bump with any change to the layout or to how CellFormatter renders cells, since cached texts are not re-rendered
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".xcol";
+
+    private ColumnarSheetCache() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("excel.cache.enabled", "true"));
+    }
+
+    public static Path getCacheDir() {
+        return Paths.get(System.getProperty("excel.cache.dir", "target/excel-cache"));
+    }
+
+    /** Cache file for the workbook's current content, whether or not it exists yet. */
+    public static Path cacheFileFor(String filePath) {
+        Path source = Paths.get(filePath);
+        return getCacheDir().resolve(baseName(source) + "-" + pathHash(source) + "-" + sha256(source) + SUFFIX);
+    }
+
+    /** Maps a compiled workbook, or returns null if the file is missing or unreadable. */
+    public static CachedWorkbook load(Path cacheFile) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CachedWorkbook(buffer);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable Excel cache {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Compiles every sheet of a loaded workbook into {@code cacheFile}, storing
+     * each cell as {@code cellText} renders it, and deletes older compilations of
+     * the same workbook. Failures are reported and otherwise ignored, since the
+     * workbook itself has already been read.
+     */
+    public static void store(Workbook workbook, Path cacheFile, Function<Cell, String> cellText) {
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            temp = Files.createTempFile(cacheFile.getParent(), "compiling-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                write(workbook, cellText, out);
+            }
+            try {
+                Files.move(temp, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            deleteStale(cacheFile);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write Excel cache {}: {}", cacheFile, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left for the next compilation to overwrite
+                }
+            }
+        }
+    }
+
+    private static void write(Workbook workbook, Function<Cell, String> cellText, DataOutputStream out) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        dictionary.put("", 0);
+        List<int[][]> sheetCells = new ArrayList<>();
+        int sheetCount = workbook.getNumberOfSheets();
+        int[] nameIds = new int[sheetCount];
+        int[] headerWidths = new int[sheetCount];
+        List<boolean[]> presentRows = new ArrayList<>();
+        for (int s = 0; s < sheetCount; s++) {
+            Sheet sheet = workbook.getSheetAt(s);
+            nameIds[s] = dictionary.computeIfAbsent(sheet.getSheetName(), k -> dictionary.size());
+            int rowCount = sheet.getLastRowNum() + 1;
+            int width = 0;
+            for (Row row : sheet) {
+                width = Math.max(width, row.getLastCellNum());
+            }
+            int[][] columns = new int[width][rowCount];
+            boolean[] present = new boolean[rowCount];
+            for (Row row : sheet) {
+                present[row.getRowNum()] = true;
+                for (Cell cell : row) {
+                    columns[cell.getColumnIndex()][row.getRowNum()] =
+                        dictionary.computeIfAbsent(cellText.apply(cell), k -> dictionary.size());
+                }
+            }
+            Row header = sheet.getRow(0);
+            headerWidths[s] = header == null ? -1 : header.getLastCellNum();
+            sheetCells.add(columns);
+            presentRows.add(present);
+        }
+
+        int idWidth = dictionary.size() <= 1 << 8 ? 1 : dictionary.size() <= 1 << 16 ? 2 : 4;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sheetCount);
+        out.writeInt(dictionary.size());
+        out.writeByte(idWidth);
+        List<byte[]> encoded = new ArrayList<>(dictionary.size());
+        int offset = 0;
+        for (String text : dictionary.keySet()) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            out.writeInt(offset);
+            offset += bytes.length;
+        }
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+        for (int s = 0; s < sheetCount; s++) {
+            int[][] columns = sheetCells.get(s);
+            boolean[] present = presentRows.get(s);
+            out.writeInt(nameIds[s]);
+            out.writeInt(present.length);
+            out.writeInt(columns.length);
+            out.writeInt(headerWidths[s]);
+            byte[] bitmap = new byte[(present.length + 7) / 8];
+            for (int r = 0; r < present.length; r++) {
+                if (present[r]) {
+                    bitmap[r >> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            out.write(bitmap);
+            for (int[] column : columns) {
+                for (int id : column) {
+                    writeId(out, id, idWidth);
+                }
+            }
+        }
+    }
+
+    private static void writeId(DataOutputStream out, int id, int idWidth) throws IOException {
+        if (idWidth == 1) {
+            out.writeByte(id);
+        } else if (idWidth == 2) {
+            out.writeShort(id);
+        } else {
+            out.writeInt(id);
+        }
+    }
+
+    private static void deleteStale(Path cacheFile) {
+        String name = cacheFile.getFileName().toString();
+        String prefix = name.substring(0, name.length() - SUFFIX.length() - 64);
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(cacheFile.getParent(), prefix + "*" + SUFFIX)) {
+            for (Path sibling : siblings) {
+                String siblingName = sibling.getFileName().toString();
+                // Same workbook name and path followed by a different content hash
+                if (!sibling.equals(cacheFile) && siblingName.length() == name.length()) {
+                    Files.deleteIfExists(sibling);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to delete stale Excel caches next to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private static String baseName(Path source) {
+        return source.getFileName().toString().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    // Short, since it only has to tell apart workbooks of the same name
+    private static String pathHash(Path source) {
+        MessageDigest digest = newSha256();
+        digest.update(source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest()).substring(0, 16);
+    }
+
+    private static String sha256(Path source) {
+        try (InputStream in = Files.newInputStream(source)) {
+            MessageDigest digest = newSha256();
+            byte[] chunk = new byte[1 << 16];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                digest.update(chunk, 0, read);
+            }
+            return hex(digest.digest());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /** A mapped cache file. Read-only and safe to share between threads. */
+    public static final class CachedWorkbook {
+        private final ByteBuffer buffer;
+        private final int idWidth;
+        private final int offsetsStart;
+        private final int stringsStart;
+        private final String[] decoded;
+        private final List<CachedSheet> sheets = new ArrayList<>();
+
+        CachedWorkbook(ByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("not an Excel cache of version " + VERSION);
+            }
+            int sheetCount = buffer.getInt(8);
+            int dictionarySize = buffer.getInt(12);
+            idWidth = buffer.get(16);
+            offsetsStart = 17;
+            stringsStart = offsetsStart + (dictionarySize + 1) * 4;
+            decoded = new String[dictionarySize];
+            int position = stringsStart + buffer.getInt(offsetsStart + dictionarySize * 4);
+            for (int s = 0; s < sheetCount; s++) {
+                CachedSheet sheet = new CachedSheet(this, position);
+                sheets.add(sheet);
+                position = sheet.end;
+            }
+            if (position != buffer.limit()) {
+                throw new IllegalStateException("truncated or padded: expected " + position + " bytes, found " + buffer.limit());
+            }
+        }
+
+        /** Sheet by name, ignoring case as POI does, or null. */
+        public CachedSheet getSheet(String name) {
+            for (CachedSheet sheet : sheets) {
+                if (sheet.getSheetName().equalsIgnoreCase(name)) {
+                    return sheet;
+                }
+            }
+            return null;
+        }
+
+        public CachedSheet getSheetAt(int index) {
+            if (index < 0 || index >= sheets.size()) {
+                throw new IllegalArgumentException("Sheet index (" + index + ") is out of range (0.." + (sheets.size() - 1) + ")");
+            }
+            return sheets.get(index);
+        }
+
+        public int getNumberOfSheets() {
+            return sheets.size();
+        }
+
+        String text(int id) {
+            String text = decoded[id];
+            if (text == null) {
+                int start = buffer.getInt(offsetsStart + id * 4);
+                int end = buffer.getInt(offsetsStart + (id + 1) * 4);
+                byte[] bytes = new byte[end - start];
+                ByteBuffer view = buffer.duplicate();
+                view.position(stringsStart + start);
+                view.get(bytes);
+                text = new String(bytes, StandardCharsets.UTF_8);
+                decoded[id] = text;
+            }
+            return text;
+        }
+
+        int id(int position) {
+            if (idWidth == 1) {
+                return buffer.get(position) & 0xFF;
+            }
+            if (idWidth == 2) {
+                return buffer.getShort(position) & 0xFFFF;
+            }
+            return buffer.getInt(position);
+        }
+    }
+
+    /** One compiled sheet; row and column numbers are zero-based as in POI. */
+    public static final class CachedSheet {
+        private final CachedWorkbook workbook;
+        private final String name;
+        private final int rowCount;
+        private final int width;
+        private final int headerWidth;
+        private final int bitmapStart;
+        private final int cellsStart;
+        private final int end;
+
+        CachedSheet(CachedWorkbook workbook, int position) {
+            this.workbook = workbook;
+            ByteBuffer buffer = workbook.buffer;
+            name = workbook.text(buffer.getInt(position));
+            rowCount = buffer.getInt(position + 4);
+            width = buffer.getInt(position + 8);
+            headerWidth = buffer.getInt(position + 12);
+            bitmapStart = position + 16;
+            cellsStart = bitmapStart + (rowCount + 7) / 8;
+            end = cellsStart + width * rowCount * workbook.idWidth;
+        }
+
+        public String getSheetName() {
+            return name;
+        }
+
+        public int getLastRowNum() {
+            return rowCount - 1;
+        }
+
+        /** Whether the row exists in the workbook, as opposed to being skipped entirely. */
+        public boolean hasRow(int rowNum) {
+            return rowNum >= 0 && rowNum < rowCount
+                && (workbook.buffer.get(bitmapStart + (rowNum >> 3)) & (1 << (rowNum & 7))) != 0;
+        }
+
+        /** Cells in the header row, or -1 if the sheet has none. */
+        public int getHeaderWidth() {
+            return headerWidth;
+        }
+
+        /** Text of the cell, {@code ""} when the row or cell does not exist. */
+        public String getCellData(int rowNum, int colNum) {
+            if (rowNum < 0 || rowNum >= rowCount || colNum < 0 || colNum >= width) {
+                return "";
+            }
+            return workbook.text(workbook.id(cellsStart + (colNum * rowCount + rowNum) * workbook.idWidth));
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
 public class ConfigLoader {
+    private static final Logger log = LoggerFactory.getLogger(ConfigLoader.class);
     private static final Properties properties = new Properties();
     private static final String CONFIG_FILE = "config.properties";
 
@@ -13,17 +17,17 @@ public class ConfigLoader {
             if (input != null) {
                 properties.load(input);
             } else {
-                System.out.println("Warning: Default config file not found in resources: " + CONFIG_FILE + ". Using empty properties.");
+                log.warn("Default config file not found in resources: {}. Using empty properties.", CONFIG_FILE);
             }
         } catch (IOException e) {
-            System.err.println("Warning: Error loading default config file: " + e.getMessage() + ". Using empty properties.");
+            log.warn("Error loading default config file: {}. Using empty properties.", e.getMessage());
         }
     }
 
     public static String get(String key) {
         String value = properties.getProperty(key);
         if (value == null || value.trim().isEmpty()) {
-            System.err.println("Warning: Missing or empty config key: " + key);
+            log.warn("Missing or empty config key: {}", key);
             return "";
         }
         return value;
@@ -47,10 +51,10 @@ public class ConfigLoader {
             if (input != null) {
                 config.load(input);
             } else {
-                System.err.println("Warning: Config file not found in resources: " + configFileName + ". Using empty properties.");
+                log.warn("Config file not found in resources: {}. Using empty properties.", configFileName);
             }
         } catch (IOException e) {
-            System.err.println("Warning: Error loading config file: " + configFileName + " - " + e.getMessage() + ". Using empty properties.");
+            log.warn("Error loading config file: {} - {}. Using empty properties.", configFileName, e.getMessage());
         }
         return config;
     }
@@ -2,38 +2,87 @@ package utils;
 
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Reads a whole .xlsx workbook for random access by row and column.
+ * Large data-driven sheets that are only read top to bottom should use
+ * {@link StreamingExcelReader}, which keeps memory constant.
+ *
+ * <p>The first read of a workbook's content goes through POI and compiles it
+ * into a {@link ColumnarSheetCache}; later readers of the same bytes map that
+ * cache instead and never load POI's model.
+ */
 public class ExcelReader {
+    private static final Logger log = LoggerFactory.getLogger(ExcelReader.class);
+    private final CellFormatter formatter = new CellFormatter();
     private Workbook workbook;
     private Sheet sheet;
+    private ColumnarSheetCache.CachedWorkbook cachedWorkbook;
+    private ColumnarSheetCache.CachedSheet cachedSheet;
+    private Map<String, Integer> headerIndex;
 
     public ExcelReader(String filePath) {
-        try {
-            FileInputStream fis = new FileInputStream(filePath);
+        Path cacheFile = ColumnarSheetCache.isEnabled() ? ColumnarSheetCache.cacheFileFor(filePath) : null;
+        if (cacheFile != null) {
+            cachedWorkbook = ColumnarSheetCache.load(cacheFile);
+            if (cachedWorkbook != null) {
+                return;
+            }
+        }
+        try (FileInputStream fis = new FileInputStream(filePath)) {
             workbook = new XSSFWorkbook(fis);
         } catch (IOException e) {
             throw new RuntimeException("Error reading Excel file: " + e.getMessage());
         }
+        if (cacheFile != null) {
+            ColumnarSheetCache.store(workbook, cacheFile, this::getCellValueAsString);
+        }
+    }
+
+    /** Streams the rows of one sheet as header-keyed maps without loading the workbook. */
+    public static StreamingExcelReader stream(String filePath, String sheetName) {
+        return new StreamingExcelReader(filePath, sheetName);
+    }
+
+    /** Whether this reader serves a compiled cache rather than a workbook parsed by POI. */
+    public boolean isCached() {
+        return cachedWorkbook != null;
     }
 
     public void setSheet(String sheetName) {
-        sheet = workbook.getSheet(sheetName);
-        if (sheet == null) {
+        if (cachedWorkbook != null) {
+            cachedSheet = cachedWorkbook.getSheet(sheetName);
+        } else {
+            sheet = workbook.getSheet(sheetName);
+        }
+        if (sheet == null && cachedSheet == null) {
             throw new RuntimeException("Sheet '" + sheetName + "' not found");
         }
+        headerIndex = null;
     }
 
     public void setSheet(int sheetIndex) {
-        sheet = workbook.getSheetAt(sheetIndex);
+        if (cachedWorkbook != null) {
+            cachedSheet = cachedWorkbook.getSheetAt(sheetIndex);
+        } else {
+            sheet = workbook.getSheetAt(sheetIndex);
+        }
+        headerIndex = null;
     }
 
     public String getCellData(int rowNum, int colNum) {
+        if (cachedSheet != null) {
+            return cachedSheet.getCellData(rowNum, colNum);
+        }
         Row row = sheet.getRow(rowNum);
         if (row == null) {
             return "";
@@ -50,49 +99,51 @@ public class ExcelReader {
         return getCellData(rowNum, colNum);
     }
 
+    // Compiled into ColumnarSheetCache files: changing the rendering must bump ColumnarSheetCache.VERSION
     private String getCellValueAsString(Cell cell) {
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((int) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
-        }
+        return formatter.format(cell);
     }
 
     private int getColumnIndex(String colName) {
-        Row headerRow = sheet.getRow(0);
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null && colName.equals(cell.getStringCellValue())) {
-                return i;
+        Integer index = getHeaderIndex().get(colName);
+        if (index == null) {
+            throw new RuntimeException("Column '" + colName + "' not found");
+        }
+        return index;
+    }
+
+    // Built once per sheet so lookups by column name don't rescan the header row
+    private Map<String, Integer> getHeaderIndex() {
+        if (headerIndex == null) {
+            Map<String, Integer> index = new HashMap<>();
+            int colCount = getHeaderWidth();
+            for (int i = 0; i < colCount; i++) {
+                index.putIfAbsent(getCellData(0, i), i);
             }
+            headerIndex = index;
         }
-        throw new RuntimeException("Column '" + colName + "' not found");
+        return headerIndex;
     }
 
     public List<Map<String, String>> getDataAsMap() {
+        if (cachedSheet != null) {
+            return getCachedDataAsMap();
+        }
         List<Map<String, String>> data = new ArrayList<>();
         Row headerRow = sheet.getRow(0);
         int colCount = headerRow.getLastCellNum();
+        String[] headers = new String[colCount];
+        for (int j = 0; j < colCount; j++) {
+            headers[j] = getCellData(0, j);
+        }
         
         for (int i = 1; i <= sheet.getLastRowNum(); i++) {
             Row row = sheet.getRow(i);
             if (row != null) {
                 Map<String, String> rowData = new HashMap<>();
                 for (int j = 0; j < colCount; j++) {
-                    String header = getCellValueAsString(headerRow.getCell(j));
-                    String value = getCellData(i, j);
-                    rowData.put(header, value);
+                    Cell cell = row.getCell(j);
+                    rowData.put(headers[j], cell == null ? "" : getCellValueAsString(cell));
                 }
                 data.add(rowData);
             }
@@ -100,13 +151,43 @@ public class ExcelReader {
         return data;
     }
 
+    private List<Map<String, String>> getCachedDataAsMap() {
+        int colCount = cachedSheet.getHeaderWidth();
+        if (colCount < 0) {
+            throw new RuntimeException("Sheet '" + cachedSheet.getSheetName() + "' has no header row");
+        }
+        String[] headers = new String[colCount];
+        for (int j = 0; j < colCount; j++) {
+            headers[j] = cachedSheet.getCellData(0, j);
+        }
+        List<Map<String, String>> data = new ArrayList<>();
+        for (int i = 1; i <= cachedSheet.getLastRowNum(); i++) {
+            if (cachedSheet.hasRow(i)) {
+                Map<String, String> rowData = new HashMap<>();
+                for (int j = 0; j < colCount; j++) {
+                    rowData.put(headers[j], cachedSheet.getCellData(i, j));
+                }
+                data.add(rowData);
+            }
+        }
+        return data;
+    }
+
+    private int getHeaderWidth() {
+        if (cachedSheet != null) {
+            return Math.max(cachedSheet.getHeaderWidth(), 0);
+        }
+        Row headerRow = sheet.getRow(0);
+        return headerRow == null ? 0 : Math.max(headerRow.getLastCellNum(), 0);
+    }
+
     public void close() {
         try {
             if (workbook != null) {
                 workbook.close();
             }
         } catch (IOException e) {
-            System.err.println("Error closing workbook: " + e.getMessage());
+            log.error("Error closing workbook: {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,102 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes report events into an in-memory {@link ExtentReports} model and
+ * rewrites its HTML on {@link #flush()}. The model keeps every test and log
+ * entry until the run ends; use {@link ReportEventLog} when that is too much.
+ */
+public class ExtentReportWriter implements ReportWriter {
+    private final ExtentReports reports;
+    private final Map<Long, ExtentTest> tests = new HashMap<>();
+
+    public ExtentReportWriter(ExtentReports reports) {
+        this.reports = reports;
+    }
+
+    public ExtentReports getExtentReports() {
+        return reports;
+    }
+
+    @Override
+    public void createTest(long testId, long timestamp, String name, String description) {
+        ExtentTest test = description == null ? reports.createTest(name) : reports.createTest(name, description);
+        Date at = new Date(timestamp);
+        test.getModel().setStartTime(at);
+        test.getModel().setEndTime(at);
+        // Replayed tests predate the report object itself
+        if (at.before(reports.getReport().getStartTime())) {
+            reports.getReport().setStartTime(at);
+        }
+        tests.put(testId, test);
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, String details) {
+        ExtentTest test = tests.get(testId);
+        if (test != null) {
+            stamp(test.log(status, details), timestamp);
+        }
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, Throwable throwable) {
+        ExtentTest test = tests.get(testId);
+        if (test != null) {
+            stamp(test.log(status, throwable), timestamp);
+        }
+    }
+
+    @Override
+    public void assignCategory(long testId, String... categories) {
+        ExtentTest test = tests.get(testId);
+        if (test != null) {
+            test.assignCategory(categories);
+        }
+    }
+
+    @Override
+    public void assignAuthor(long testId, String... authors) {
+        ExtentTest test = tests.get(testId);
+        if (test != null) {
+            test.assignAuthor(authors);
+        }
+    }
+
+    @Override
+    public void addScreenCapture(long testId, String path, String title) {
+        ExtentTest test = tests.get(testId);
+        if (test != null) {
+            test.addScreenCaptureFromPath(path, title);
+        }
+    }
+
+    @Override
+    public void setSystemInfo(String key, String value) {
+        reports.setSystemInfo(key, value);
+    }
+
+    @Override
+    public void flush() {
+        reports.flush();
+    }
+
+    private static void stamp(ExtentTest test, long timestamp) {
+        Test model = test.getModel();
+        List<Log> logs = model.getLogs();
+        Date at = new Date(timestamp);
+        logs.get(logs.size() - 1).setTimestamp(at);
+        // Extent stamps the end time with the current time on every log
+        model.setEndTime(at);
+    }
+}
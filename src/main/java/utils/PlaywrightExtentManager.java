@@ -1,14 +1,14 @@
 package utils;
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 
 public class PlaywrightExtentManager {
     private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
+    private static volatile ReportSink sink;
+    private static ThreadLocal<ReportTest> test = new ThreadLocal<>();
 
-    public static ExtentReports getInstance() {
+    public static synchronized ExtentReports getInstance() {
         if (extent == null) {
             createInstance();
         }
@@ -31,13 +31,14 @@ public class PlaywrightExtentManager {
         extent.setSystemInfo("OS", System.getProperty("os.name"));
         extent.setSystemInfo("Java Version", System.getProperty("java.version"));
         extent.setSystemInfo("User Name", System.getProperty("user.name"));
+        sink = new ReportSink("playwright", extent, ReportSink.DEFAULT_FLUSH_INTERVAL_MILLIS);
     }
 
-    public static ExtentTest getTest() {
+    public static ReportTest getTest() {
         return test.get();
     }
 
-    public static void setTest(ExtentTest extentTest) {
+    public static void setTest(ReportTest extentTest) {
         test.set(extentTest);
     }
 
@@ -46,8 +47,8 @@ public class PlaywrightExtentManager {
     }
 
     public static void flushReport() {
-        if (extent != null) {
-            extent.flush();
+        if (sink != null) {
+            sink.flush();
         }
     }
 
@@ -59,7 +60,10 @@ public class PlaywrightExtentManager {
         return extent;
     }
 
-    public static ExtentTest createTest(String testName, String description) {
-        return getInstance().createTest(testName, description);
+    public static ReportTest createTest(String testName, String description) {
+        if (sink == null) {
+            getInstance();
+        }
+        return sink.createTest(testName, description);
     }
 }
@@ -0,0 +1,251 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends report events to a JSON Lines file instead of building a report in
+ * memory. Memory use is a fixed write buffer no matter how many tests and log
+ * entries a run produces; {@link ReportRenderer} turns the file into Extent
+ * HTML or Allure results afterwards.
+ *
+ * <p>One object per line, told apart by {@code "e"}:
+ * <pre>
+ * {"e":"start","version":1,"ts":1700000000000}
+ * {"e":"test","id":1,"ts":...,"name":"...","desc":"..."}
+ * {"e":"log","id":1,"ts":...,"status":"PASS","details":"..."}
+ * {"e":"log","id":1,"ts":...,"status":"FAIL","trace":"java.lang.AssertionError: ..."}
+ * {"e":"category","id":1,"values":["..."]}
+ * {"e":"author","id":1,"values":["..."]}
+ * {"e":"screenshot","id":1,"path":"...","title":"..."}
+ * {"e":"info","key":"...","value":"..."}
+ * </pre>
+ * Lines are only ever appended, so a run that dies loses at most the unflushed
+ * buffer and possibly leaves one partial last line, which the renderer skips.
+ */
+public class ReportEventLog implements ReportWriter {
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ChannelOutput out;
+    private final JsonGenerator json;
+
+    public ReportEventLog(Path path) {
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new ChannelOutput(channel, BUFFER_BYTES);
+            this.json = JSON.createGenerator(out, JsonEncoding.UTF8);
+            json.setRootValueSeparator(null);
+            json.writeStartObject();
+            json.writeStringField("e", "start");
+            json.writeNumberField("version", FORMAT_VERSION);
+            json.writeNumberField("ts", System.currentTimeMillis());
+            endRecord();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open report event log: " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Bytes handed to the file so far, including the still-buffered tail. */
+    public long getBytesWritten() {
+        return out.written;
+    }
+
+    @Override
+    public void createTest(long testId, long timestamp, String name, String description) {
+        try {
+            startRecord("test", testId);
+            json.writeNumberField("ts", timestamp);
+            json.writeStringField("name", name);
+            if (description != null) {
+                json.writeStringField("desc", description);
+            }
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, String details) {
+        writeLog(testId, timestamp, status, "details", details == null ? "" : details);
+    }
+
+    @Override
+    public void log(long testId, long timestamp, Status status, Throwable throwable) {
+        StringWriter trace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(trace));
+        writeLog(testId, timestamp, status, "trace", trace.toString());
+    }
+
+    @Override
+    public void assignCategory(long testId, String... categories) {
+        writeValues("category", testId, categories);
+    }
+
+    @Override
+    public void assignAuthor(long testId, String... authors) {
+        writeValues("author", testId, authors);
+    }
+
+    @Override
+    public void addScreenCapture(long testId, String path, String title) {
+        try {
+            startRecord("screenshot", testId);
+            json.writeStringField("path", path);
+            if (title != null) {
+                json.writeStringField("title", title);
+            }
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void setSystemInfo(String key, String value) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("e", "info");
+            json.writeStringField("key", key);
+            json.writeStringField("value", value);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Hands the buffer to the OS; cheap enough to run on every sink flush interval. */
+    @Override
+    public void flush() {
+        try {
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            json.close();
+            out.drain();
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLog(long testId, long timestamp, Status status, String field, String text) {
+        try {
+            startRecord("log", testId);
+            json.writeNumberField("ts", timestamp);
+            json.writeStringField("status", status.name());
+            json.writeStringField(field, text);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeValues(String event, long testId, String... values) {
+        try {
+            startRecord(event, testId);
+            json.writeArrayFieldStart("values");
+            for (String value : values) {
+                json.writeString(value);
+            }
+            json.writeEndArray();
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startRecord(String event, long testId) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("e", event);
+        json.writeNumberField("id", testId);
+    }
+
+    private void endRecord() throws IOException {
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /** Fixed-size buffer in front of the channel; full buffers go straight to the file. */
+    private static final class ChannelOutput extends OutputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long written;
+
+        ChannelOutput(FileChannel channel, int capacity) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            written += length;
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
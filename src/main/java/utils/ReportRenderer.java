@@ -0,0 +1,176 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds reports offline from a {@link ReportEventLog}. The log is read one
+ * line at a time and replayed into a {@link ReportWriter}, so the same Extent
+ * and Allure output can be produced after the run, on another machine, or
+ * again with a different writer.
+ *
+ * <pre>
+ * java -cp ... utils.ReportRenderer test-output/Test_Events_....jsonl \
+ *     --extent test-output/Rendered_Report.html --allure target/allure-results
+ * </pre>
+ */
+public class ReportRenderer {
+    private static final Logger log = LoggerFactory.getLogger(ReportRenderer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length % 2 == 0) {
+            System.err.println("Usage: ReportRenderer <events.jsonl> [--extent <report.html>] [--allure <results-dir>]");
+            System.exit(2);
+        }
+        Path eventLog = Paths.get(args[0]);
+        for (int i = 1; i < args.length; i += 2) {
+            if ("--extent".equals(args[i])) {
+                renderExtent(eventLog, args[i + 1]);
+                System.out.println("Extent report written to: " + args[i + 1]);
+            } else if ("--allure".equals(args[i])) {
+                renderAllure(eventLog, Paths.get(args[i + 1]));
+                System.out.println("Allure results written to: " + args[i + 1]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /** Renders the event log as a Spark HTML report with default settings. */
+    public static void renderExtent(Path eventLog, String htmlPath) {
+        ExtentReports reports = new ExtentReports();
+        reports.attachReporter(new ExtentSparkReporter(htmlPath));
+        replay(eventLog, new ExtentReportWriter(reports));
+    }
+
+    public static void renderAllure(Path eventLog, Path resultsDir) {
+        replay(eventLog, new AllureResultsWriter(resultsDir));
+    }
+
+    /**
+     * Feeds every event in the log to {@code writer} and closes it. A partial
+     * last line, left by a run that died mid-write, is skipped.
+     *
+     * @return the number of events replayed
+     */
+    public static long replay(Path eventLog, ReportWriter writer) {
+        long events = 0;
+        long lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(eventLog, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode event;
+                try {
+                    event = MAPPER.readTree(line);
+                } catch (JsonProcessingException e) {
+                    log.warn("Skipping unreadable report event at {}:{}", eventLog, lineNumber);
+                    continue;
+                }
+                if (apply(event, writer)) {
+                    events++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read report event log: " + eventLog, e);
+        }
+        writer.close();
+        return events;
+    }
+
+    private static boolean apply(JsonNode event, ReportWriter writer) {
+        long id = event.path("id").asLong();
+        long ts = event.path("ts").asLong();
+        switch (event.path("e").asText()) {
+            case "test":
+                writer.createTest(id, ts, event.path("name").asText(), text(event, "desc"));
+                return true;
+            case "log":
+                Status status = Status.valueOf(event.path("status").asText());
+                if (event.has("trace")) {
+                    writer.log(id, ts, status, new RecordedThrowable(event.path("trace").asText()));
+                } else {
+                    writer.log(id, ts, status, event.path("details").asText());
+                }
+                return true;
+            case "category":
+                writer.assignCategory(id, values(event));
+                return true;
+            case "author":
+                writer.assignAuthor(id, values(event));
+                return true;
+            case "screenshot":
+                writer.addScreenCapture(id, event.path("path").asText(), text(event, "title"));
+                return true;
+            case "info":
+                writer.setSystemInfo(event.path("key").asText(), event.path("value").asText());
+                return true;
+            default:
+                // "start" and anything newer than this renderer
+                return false;
+        }
+    }
+
+    private static String text(JsonNode event, String field) {
+        JsonNode value = event.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String[] values(JsonNode event) {
+        JsonNode values = event.path("values");
+        String[] result = new String[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i).asText();
+        }
+        return result;
+    }
+
+    /**
+     * A throwable that prints a stack trace recorded elsewhere, so writers that
+     * format exceptions from {@link Throwable#printStackTrace} show the original.
+     */
+    static final class RecordedThrowable extends Throwable {
+        private final String trace;
+
+        RecordedThrowable(String trace) {
+            super(null, null, false, false);
+            this.trace = trace;
+        }
+
+        @Override
+        public String toString() {
+            int end = trace.indexOf('\n');
+            return (end < 0 ? trace : trace.substring(0, end)).trim();
+        }
+
+        @Override
+        public void printStackTrace(PrintWriter writer) {
+            writer.print(trace);
+        }
+
+        @Override
+        public void printStackTrace(PrintStream stream) {
+            stream.print(trace);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer in front of a {@link ReportWriter}, so test threads report
+ * without locking each other out.
+ *
+ * <p>Test threads only append events (new tests, log entries, categories,
+ * system info) to a lock-free queue through {@link ReportTest} handles. One
+ * background thread drains the queue in batches and is the only thread that
+ * touches the writer: an in-memory Extent model ({@link ExtentReportWriter}) or
+ * an append-only {@link ReportEventLog}. It flushes the writer whenever
+ * something changed and {@code flushIntervalMillis} has passed, so a run that
+ * dies late has at most that much unwritten. {@link #flush()} waits until everything queued
+ * before it is on disk. A shutdown hook drains and flushes what is left when
+ * the JVM exits without {@link #close()}.
+ */
+public class ReportSink {
+    private static final Logger log = LoggerFactory.getLogger(ReportSink.class);
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5000;
+
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long FLUSH_WAIT_SECONDS = 60;
+
+    private final String name;
+    private final ReportWriter reportWriter;
+    private final long flushIntervalNanos;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong testIds = new AtomicLong();
+    private volatile boolean running = true;
+
+    public ReportSink(String name, ExtentReports reports, long flushIntervalMillis) {
+        this(name, new ExtentReportWriter(reports), flushIntervalMillis);
+    }
+
+    public ReportSink(String name, ReportWriter reportWriter, long flushIntervalMillis) {
+        this.name = name;
+        this.reportWriter = reportWriter;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.writer = new Thread(this::run, "report-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        this.shutdownHook = new Thread(this::close, "report-shutdown-" + name);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /** Queues a new top-level test and returns its handle. */
+    public ReportTest createTest(String testName, String description) {
+        long id = testIds.incrementAndGet();
+        long timestamp = System.currentTimeMillis();
+        enqueue(writer -> writer.createTest(id, timestamp, testName, description));
+        return new ReportTest(this, id, testName);
+    }
+
+    public void setSystemInfo(String key, String value) {
+        enqueue(writer -> writer.setSystemInfo(key, value));
+    }
+
+    /**
+     * Waits until every event queued before this call has been applied and the
+     * writer flushed. Returns early, with a warning, if the writer is stuck.
+     */
+    public void flush() {
+        CountDownLatch done = new CountDownLatch(1);
+        if (!enqueue(new Barrier(done))) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            if (!done.await(FLUSH_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Report {} not flushed after {}s; {} events still queued", name, FLUSH_WAIT_SECONDS, queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Asks for the writer to be flushed as soon as the queued events are applied, without waiting. */
+    public void requestFlush() {
+        if (enqueue(new Barrier(null))) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /** Applies everything queued, closes the writer and stops the writer thread. Later events are dropped. */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(FLUSH_WAIT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            drainAfterStop();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    public ReportWriter getReportWriter() {
+        return reportWriter;
+    }
+
+    /** The Extent model being written, or null when the sink writes an event log. */
+    public ExtentReports getExtentReports() {
+        return reportWriter instanceof ExtentReportWriter
+            ? ((ExtentReportWriter) reportWriter).getExtentReports() : null;
+    }
+
+    /** Events applied to the report so far. */
+    public long getWrittenEvents() {
+        return written.get();
+    }
+
+    /** Times the writer has been flushed. */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /** Events that arrived after {@link #close()}. */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    boolean enqueue(Event event) {
+        if (closed.get()) {
+            drop();
+            return false;
+        }
+        queue.offer(event);
+        if (closed.get() && !writer.isAlive()) {
+            // Raced with close(): the writer may have stopped before this event was queued
+            drainAfterStop();
+        }
+        return true;
+    }
+
+    /**
+     * Empties the queue once the writer thread is gone. Events that slipped in
+     * after it saw the queue empty are counted as dropped, and flush() callers
+     * waiting on a barrier are released instead of timing out.
+     */
+    private void drainAfterStop() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            if (event instanceof Barrier) {
+                ((Barrier) event).release();
+            } else {
+                drop();
+            }
+        }
+    }
+
+    private void drop() {
+        if (dropped.getAndIncrement() == 0) {
+            log.warn("Report {} is closed; dropping late report events", name);
+        }
+    }
+
+    private void run() {
+        boolean dirty = false;
+        long lastFlush = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            int applied = 0;
+            Event event;
+            while (applied < MAX_BATCH && (event = queue.poll()) != null) {
+                applied++;
+                if (event instanceof Barrier) {
+                    if (dirty || ((Barrier) event).done != null) {
+                        flushReports();
+                        dirty = false;
+                        lastFlush = System.nanoTime();
+                    }
+                    ((Barrier) event).release();
+                    continue;
+                }
+                try {
+                    event.apply(reportWriter);
+                    written.incrementAndGet();
+                    dirty = true;
+                } catch (RuntimeException e) {
+                    log.error("Failed to write report event to {}: {}", name, e.getMessage());
+                }
+            }
+            if (dirty && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flushReports();
+                dirty = false;
+                lastFlush = System.nanoTime();
+            }
+            if (applied == 0) {
+                // The queue was seen empty after running was cleared, so nothing can be left behind
+                if (stopping) {
+                    closeWriter();
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void flushReports() {
+        try {
+            reportWriter.flush();
+            flushes.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush report {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            reportWriter.close();
+        } catch (RuntimeException e) {
+            log.error("Failed to close report {}: {}", name, e.getMessage());
+        }
+    }
+
+    /** A change to the report, applied on the writer thread. */
+    interface Event {
+        void apply(ReportWriter writer);
+    }
+
+    private static final class Barrier implements Event {
+        private final CountDownLatch done;
+
+        Barrier(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @Override
+        public void apply(ReportWriter writer) {
+        }
+
+        void release() {
+            if (done != null) {
+                done.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.Markup;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A test in a {@link ReportSink}, standing in for Extent's {@code ExtentTest}:
+ * every call queues an event and returns at once, from any thread. Calls from one thread
+ * appear in the report in the order they were made.
+ */
+public class ReportTest {
+    private final ReportSink sink;
+    private final long id;
+    private final String name;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.PASS);
+
+    ReportTest(ReportSink sink, long id, String name) {
+        this.sink = sink;
+        this.id = id;
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Worst status logged so far, as Extent will compute it; {@link Status#PASS} if nothing was. */
+    public Status getStatus() {
+        return status.get();
+    }
+
+    public ReportTest log(Status logStatus, String details) {
+        record(logStatus);
+        long timestamp = System.currentTimeMillis();
+        sink.enqueue(writer -> writer.log(id, timestamp, logStatus, details));
+        return this;
+    }
+
+    public ReportTest log(Status logStatus, Markup markup) {
+        // Extent stores a markup entry as its rendered HTML
+        return log(logStatus, markup.getMarkup());
+    }
+
+    public ReportTest log(Status logStatus, Throwable throwable) {
+        record(logStatus);
+        long timestamp = System.currentTimeMillis();
+        sink.enqueue(writer -> writer.log(id, timestamp, logStatus, throwable));
+        return this;
+    }
+
+    public ReportTest info(String details) {
+        return log(Status.INFO, details);
+    }
+
+    public ReportTest pass(String details) {
+        return log(Status.PASS, details);
+    }
+
+    public ReportTest fail(String details) {
+        return log(Status.FAIL, details);
+    }
+
+    public ReportTest skip(String details) {
+        return log(Status.SKIP, details);
+    }
+
+    public ReportTest warning(String details) {
+        return log(Status.WARNING, details);
+    }
+
+    public ReportTest assignCategory(String... categories) {
+        sink.enqueue(writer -> writer.assignCategory(id, categories));
+        return this;
+    }
+
+    public ReportTest assignAuthor(String... authors) {
+        sink.enqueue(writer -> writer.assignAuthor(id, authors));
+        return this;
+    }
+
+    public ReportTest addScreenCaptureFromPath(String path, String title) {
+        sink.enqueue(writer -> writer.addScreenCapture(id, path, title));
+        return this;
+    }
+
+    private void record(Status logStatus) {
+        status.accumulateAndGet(logStatus, Status::max);
+    }
+}
@@ -0,0 +1,35 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+
+/**
+ * Where a {@link ReportSink} applies report events. Calls come from the sink's
+ * single writer thread, or from {@link ReportRenderer} replaying an event log,
+ * so implementations need no locking. Tests are identified by the id the sink
+ * handed out, and every entry carries the wall-clock time it was reported at
+ * rather than the time it reached the writer.
+ */
+public interface ReportWriter {
+
+    void createTest(long testId, long timestamp, String name, String description);
+
+    void log(long testId, long timestamp, Status status, String details);
+
+    void log(long testId, long timestamp, Status status, Throwable throwable);
+
+    void assignCategory(long testId, String... categories);
+
+    void assignAuthor(long testId, String... authors);
+
+    void addScreenCapture(long testId, String path, String title);
+
+    void setSystemInfo(String key, String value);
+
+    /** Makes everything written so far durable. */
+    void flush();
+
+    /** Flushes and releases the writer; called once, after the last event. */
+    default void close() {
+        flush();
+    }
+}
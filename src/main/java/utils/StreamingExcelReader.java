@@ -0,0 +1,314 @@
+package utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads one sheet of an .xlsx workbook row by row without building the workbook
+ * in memory, for data-driven sheets too large for {@link ExcelReader}.
+ *
+ * <p>The sheet XML is pulled through StAX one {@code <row>} at a time, so memory
+ * stays constant in the number of rows; only the workbook's shared string table
+ * is held. The first row is the header, indexed once; every later row is
+ * returned as a map from header to cell text, with {@code ""} for blank cells.
+ * Cells are rendered by {@link CellFormatter}, exactly as {@link ExcelReader}
+ * renders them.
+ *
+ * <p>Not thread-safe. Close the reader, or iterate it to the end through
+ * {@link #asDataProvider()}, to release the file.
+ */
+public class StreamingExcelReader implements Iterator<Map<String, String>>, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(StreamingExcelReader.class);
+    private final OPCPackage pkg;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final CellFormatter formatter = new CellFormatter();
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final List<String> headers;
+    private final Map<String, Integer> headerIndex = new HashMap<>();
+    private String[] nextRow;
+    private int rowNumber;
+    private boolean closed;
+
+    public StreamingExcelReader(String filePath, String sheetName) {
+        this(filePath, sheetName, -1);
+    }
+
+    public StreamingExcelReader(String filePath, int sheetIndex) {
+        this(filePath, null, sheetIndex);
+    }
+
+    private StreamingExcelReader(String filePath, String sheetName, int sheetIndex) {
+        try {
+            pkg = OPCPackage.open(new File(filePath), PackageAccess.READ);
+        } catch (OpenXML4JException | RuntimeException e) {
+            throw new RuntimeException("Error reading Excel file: " + e.getMessage(), e);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            styles = reader.getStylesTable();
+            sheetStream = openSheet(reader, sheetName, sheetIndex);
+            xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheetStream);
+            String[] headerRow = readRow(null);
+            if (headerRow == null) {
+                throw new RuntimeException("Sheet '" + describe(sheetName, sheetIndex) + "' has no header row");
+            }
+            headers = Collections.unmodifiableList(Arrays.asList(headerRow));
+            for (int i = 0; i < headerRow.length; i++) {
+                headerIndex.putIfAbsent(headerRow[i], i);
+            }
+            nextRow = readRow(headerRow.length);
+        } catch (IOException | OpenXML4JException | SAXException | XMLStreamException e) {
+            pkg.revert();
+            throw new RuntimeException("Error reading Excel file: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /** Header cells in column order. */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /** Zero-based column of the header, looked up in the index built from the header row. */
+    public int getColumnIndex(String colName) {
+        Integer index = headerIndex.get(colName);
+        if (index == null) {
+            throw new RuntimeException("Column '" + colName + "' not found");
+        }
+        return index;
+    }
+
+    /** Data rows returned so far, not counting the header. */
+    public int getRowCount() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRow != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (nextRow == null) {
+            throw new NoSuchElementException();
+        }
+        String[] row = nextRow;
+        try {
+            nextRow = readRow(headers.size());
+        } catch (XMLStreamException e) {
+            nextRow = null;
+            throw new RuntimeException("Error reading Excel row " + (rowNumber + 2) + ": " + e.getMessage(), e);
+        }
+        rowNumber++;
+        Map<String, String> rowData = new LinkedHashMap<>();
+        for (int i = 0; i < row.length; i++) {
+            rowData.put(headers.get(i), row[i]);
+        }
+        return rowData;
+    }
+
+    /**
+     * Adapts the remaining rows for a TestNG {@code @DataProvider} returning
+     * {@code Iterator<Object[]>}: each invocation gets one row map as its only
+     * parameter, and the reader closes itself after the last row.
+     */
+    public Iterator<Object[]> asDataProvider() {
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                if (StreamingExcelReader.this.hasNext()) {
+                    return true;
+                }
+                close();
+                return false;
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[] {StreamingExcelReader.this.next()};
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextRow = null;
+        try {
+            xml.close();
+            sheetStream.close();
+        } catch (XMLStreamException | IOException e) {
+            log.error("Error closing sheet stream: {}", e.getMessage());
+        } finally {
+            // Read-only packages are released without saving
+            pkg.revert();
+        }
+    }
+
+    private static InputStream openSheet(XSSFReader reader, String sheetName, int sheetIndex)
+            throws IOException, OpenXML4JException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        int index = 0;
+        while (sheets.hasNext()) {
+            InputStream stream = sheets.next();
+            if (sheetName != null ? sheetName.equals(sheets.getSheetName()) : index == sheetIndex) {
+                return stream;
+            }
+            stream.close();
+            index++;
+        }
+        throw new RuntimeException("Sheet '" + describe(sheetName, sheetIndex) + "' not found");
+    }
+
+    private static String describe(String sheetName, int sheetIndex) {
+        return sheetName != null ? sheetName : String.valueOf(sheetIndex);
+    }
+
+    /**
+     * Advances to the next {@code <row>} and returns its cells, or null at the end
+     * of the sheet. With a width, cells beyond it are dropped and missing ones are
+     * {@code ""}; without one (the header row) the row is as wide as its last cell.
+     */
+    private String[] readRow(Integer width) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                return readCells(width);
+            }
+        }
+        return null;
+    }
+
+    private String[] readCells(Integer width) throws XMLStreamException {
+        String[] cells = new String[width != null ? width : 16];
+        int lastColumn = -1;
+        int column = -1;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(xml.getLocalName())) {
+                continue;
+            }
+            String ref = xml.getAttributeValue(null, "r");
+            column = ref != null ? columnOf(ref) : column + 1;
+            String value = readCell(xml.getAttributeValue(null, "t"), xml.getAttributeValue(null, "s"));
+            if (width == null && column >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, column + 1));
+            }
+            if (column < cells.length) {
+                cells[column] = value;
+                lastColumn = Math.max(lastColumn, column);
+            }
+        }
+        if (width == null) {
+            cells = Arrays.copyOf(cells, lastColumn + 1);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == null) {
+                cells[i] = "";
+            }
+        }
+        return cells;
+    }
+
+    /** Reads the current {@code <c>} element through its end tag and formats its value. */
+    private String readCell(String type, String styleIndex) throws XMLStreamException {
+        String value = null;
+        StringBuilder inline = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String element = xml.getLocalName();
+            if ("v".equals(element)) {
+                value = xml.getElementText();
+            } else if ("t".equals(element)) {
+                if (inline == null) {
+                    inline = new StringBuilder();
+                }
+                inline.append(xml.getElementText());
+            } else if ("f".equals(element)) {
+                xml.getElementText();
+            }
+        }
+        if ("inlineStr".equals(type)) {
+            return inline != null ? inline.toString() : "";
+        }
+        if (value == null) {
+            return "";
+        }
+        if (type == null || "n".equals(type)) {
+            return formatNumber(value, styleIndex);
+        }
+        switch (type) {
+            case "s":
+                return sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+            case "b":
+                return formatter.formatBoolean("1".equals(value));
+            default:
+                // "str" formula results, "e" errors and "d" ISO dates are kept as written
+                return value;
+        }
+    }
+
+    private String formatNumber(String value, String styleIndex) {
+        double number = Double.parseDouble(value);
+        XSSFCellStyle style = styleIndex == null || styles == null ? null : styles.getStyleAt(Integer.parseInt(styleIndex));
+        if (style == null) {
+            return formatter.formatNumber(number, 0, null);
+        }
+        return formatter.formatNumber(number, style.getDataFormat(), style.getDataFormatString());
+    }
+
+    /** Zero-based column of a cell reference such as {@code AB12}. */
+    private static int columnOf(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
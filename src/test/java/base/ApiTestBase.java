@@ -1,11 +1,15 @@
 package base;
 
 import com.microsoft.playwright.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import utils.UnifiedMockServer;
 import config.TestConfigManager;
+import utils.PlaywrightContextPool;
 import utils.ServiceStartupHelper;
 
 public class ApiTestBase {
+    private static final Logger log = LoggerFactory.getLogger(ApiTestBase.class);
     protected Playwright playwright;
     protected APIRequestContext apiContext;
     protected static UnifiedMockServer mockServer;
@@ -13,24 +17,21 @@ public class ApiTestBase {
     @org.testng.annotations.BeforeSuite
     public void setUpApiContext() {
         try {
-            playwright = Playwright.create();
-            apiContext = playwright.request().newContext();
+            // Start the shared Playwright drivers up front; classes lease them in @BeforeClass
+            PlaywrightContextPool.getInstance().warmUp(TestConfigManager.getPlaywrightPoolWarmUp());
             
             if (TestConfigManager.isMockMode()) {
-                // Start unified mock server using singleton
-                mockServer = UnifiedMockServer.getInstance();
-                mockServer.start();
+                // Take a reference to the shared unified mock server
+                mockServer = UnifiedMockServer.acquire();
                 
-                // Small delay to ensure server is ready
-                Thread.sleep(2000);
-                System.out.println("API Context initialized with unified mock server on port " + UnifiedMockServer.getPort());
+                log.info("API Context initialized with unified mock server on port {}", UnifiedMockServer.getPort());
             } else {
                 // Wait for real services to be ready
-                System.out.println("API Context initialized for real services testing");
+                log.info("API Context initialized for real services testing");
                 if (TestConfigManager.isRealServicesEnabled()) {
                     boolean servicesReady = ServiceStartupHelper.waitForAllServices();
                     if (!servicesReady) {
-                        System.err.println("Warning: Some real services may not be ready. Tests may fail.");
+                        log.warn("Some real services may not be ready. Tests may fail.");
                     }
                 }
             }
@@ -39,18 +40,28 @@ public class ApiTestBase {
         }
     }
 
+    @org.testng.annotations.BeforeClass
+    public void leaseApiContext() {
+        PlaywrightContextPool.Lease lease = PlaywrightContextPool.getInstance().lease();
+        playwright = lease.playwright();
+        apiContext = lease.context();
+    }
+
+    @org.testng.annotations.AfterClass
+    public void releaseApiContext() {
+        PlaywrightContextPool.getInstance().release();
+        playwright = null;
+        apiContext = null;
+    }
+
     @org.testng.annotations.AfterSuite
     public void tearDownApiContext() {
-        if (apiContext != null) {
-            apiContext.dispose();
-        }
-        if (playwright != null) {
-            playwright.close();
-        }
+        PlaywrightContextPool.getInstance().shutdown();
         if (TestConfigManager.isMockMode() && mockServer != null) {
-            UnifiedMockServer.stopInstance();
-            System.out.println("Unified mock server stopped!");
+            UnifiedMockServer.release();
+            mockServer = null;
+            log.info("Unified mock server released!");
         }
-        System.out.println("API Context closed!");
+        log.info("API Context closed!");
     }
 }
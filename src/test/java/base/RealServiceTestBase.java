@@ -1,64 +1,101 @@
 package base;
 
 import config.MicroservicesConfig;
-import com.microsoft.playwright.Playwright;
 import com.microsoft.playwright.APIResponse;
 import com.microsoft.playwright.APIRequestContext;
 import com.microsoft.playwright.options.RequestOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.ITestResult;
 import utils.ExtentManager;
-import com.aventstack.extentreports.ExtentTest;
+import utils.PlaywrightContextPool;
+import utils.ReportTest;
+import utils.ResponseLogPolicy;
+import utils.ServiceReadinessRegistry;
+import utils.TestLogContext;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.HdrHistogram.Histogram;
+import performance.LatencyRecorder;
+import performance.LatencyReports;
+import performance.LoadGenerator;
+import performance.LoadTestResult;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 public class RealServiceTestBase {
-    protected Playwright playwright;
-    protected APIRequestContext apiContext;
-    protected ExtentTest extentTest;
+    private static final Logger log = LoggerFactory.getLogger(RealServiceTestBase.class);
+    protected ReportTest extentTest;
     protected String testName;
     protected long testStartTime;
+    private boolean mockServerAcquired;
+    private utils.UnifiedMockServer isolatedMockServer;
+    
+    // Timing of every request issued through this class, looked up by verifyResponseTime
+    private final Map<APIResponse, RequestTiming> requestTimings = Collections.synchronizedMap(new WeakHashMap<>());
+    
+    // Responses logged by the current test; their bodies are only decoded in full if it fails
+    private final Deque<LoggedResponse> testResponses = new ArrayDeque<>();
     
     @BeforeClass
     public void setUpRealServiceContext() {
         try {
-            playwright = Playwright.create();
-            apiContext = playwright.request().newContext();
+            // Lease this thread's Playwright context from the suite-wide pool
+            PlaywrightContextPool.getInstance().lease();
             
             // Initialize ExtentReports
             ExtentManager.initializeReport();
             
-            // If in mock mode, start the unified mock server
+            // If in mock mode, start this class's own mock server or take a reference to the shared one
             if (config.TestConfigManager.isMockMode()) {
-                System.out.println("Mock mode: Starting unified mock server...");
-                utils.UnifiedMockServer mockServer = utils.UnifiedMockServer.getInstance();
-                mockServer.start();
-                System.out.println("Unified mock server started successfully!");
+                if (config.TestConfigManager.isMockServerPerClass()) {
+                    isolatedMockServer = new utils.UnifiedMockServer(0);
+                    isolatedMockServer.start();
+                    MicroservicesConfig.setThreadMockServerPort(isolatedMockServer.getLocalPort());
+                    log.info("Isolated mock server ready on port {}", isolatedMockServer.getLocalPort());
+                } else {
+                    utils.UnifiedMockServer.acquire();
+                    mockServerAcquired = true;
+                    log.info("Unified mock server ready ({} users)", utils.UnifiedMockServer.getReferenceCount());
+                }
             }
             
-            System.out.println("Real service test context initialized!");
+            log.info("Real service test context initialized!");
             if (config.TestConfigManager.isMockMode()) {
-                System.out.println("Testing against mock services:");
+                log.info("Testing against mock services:");
             } else {
-                System.out.println("Testing against real microservices:");
+                log.info("Testing against real microservices:");
             }
-            System.out.println("- Service Registry: " + MicroservicesConfig.getServiceRegistryUrl());
-            System.out.println("- OPC UA Service: " + MicroservicesConfig.getOpcUaServiceUrl());
-            System.out.println("- Read Data Service: " + MicroservicesConfig.getReadDataServiceUrl());
-            System.out.println("- Kafka Service: " + MicroservicesConfig.getKafkaServiceUrl());
-            System.out.println("- Write Data Service: " + MicroservicesConfig.getWriteDataServiceUrl());
+            log.info("- Service Registry: {}", MicroservicesConfig.getServiceRegistryUrl());
+            log.info("- OPC UA Service: {}", MicroservicesConfig.getOpcUaServiceUrl());
+            log.info("- Read Data Service: {}", MicroservicesConfig.getReadDataServiceUrl());
+            log.info("- Kafka Service: {}", MicroservicesConfig.getKafkaServiceUrl());
+            log.info("- Write Data Service: {}", MicroservicesConfig.getWriteDataServiceUrl());
             
         } catch (Exception e) {
-            System.err.println("Failed to setup real service test context: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to setup real service test context", e);
             throw new RuntimeException("Failed to setup real service test context: " + e.getMessage(), e);
         }
     }
@@ -66,41 +103,41 @@ public class RealServiceTestBase {
     @AfterClass
     public void tearDownRealServiceContext() {
         try {
-            if (apiContext != null) {
-                apiContext.dispose();
-            }
-            if (playwright != null) {
-                playwright.close();
-            }
-            if (ExtentManager.getExtentReports() != null) {
-                ExtentManager.flushReport();
-            }
+            PlaywrightContextPool.getInstance().release();
+            // The report is also rewritten periodically, so finishing a class need not wait for the file
+            ExtentManager.requestFlush();
             
-            // Stop unified mock server if in mock mode
-            if (config.TestConfigManager.isMockMode()) {
-                utils.UnifiedMockServer.stopInstance();
+            // Only stops the mock server if no other class (or the suite listener) still uses it
+            if (mockServerAcquired) {
+                mockServerAcquired = false;
+                utils.UnifiedMockServer.release();
+            }
+            if (isolatedMockServer != null) {
+                MicroservicesConfig.setThreadMockServerPort(null);
+                isolatedMockServer.stop();
+                isolatedMockServer = null;
             }
             
-            System.out.println("Real service test context closed!");
+            log.info("Real service test context closed!");
         } catch (Exception e) {
-            System.err.println("Error during cleanup: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error during cleanup", e);
         }
     }
     
     @BeforeMethod
     public void setUpTest(ITestResult result) {
+        TestLogContext.begin(result);
         try {
             testName = result.getMethod().getMethodName();
             testStartTime = System.currentTimeMillis();
+            testResponses.clear();
             
             // Create ExtentTest instance
             extentTest = ExtentManager.createTest(testName, "Testing " + testName + " with real microservices");
             
-            System.out.println("Starting test: " + testName);
+            log.info("Starting test: {}", testName);
         } catch (Exception e) {
-            System.err.println("Error setting up test: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error setting up test", e);
         }
     }
     
@@ -113,21 +150,24 @@ public class RealServiceTestBase {
                 if (extentTest != null) {
                     extentTest.log(Status.PASS, "Test passed in " + testDuration + "ms");
                 }
-                System.out.println("Test completed successfully in " + testDuration + "ms");
+                log.info("Test completed successfully in {}ms", testDuration);
             } else if (result.getStatus() == ITestResult.FAILURE) {
                 if (extentTest != null) {
                     extentTest.log(Status.FAIL, "Test failed: " + result.getThrowable().getMessage());
                 }
-                System.out.println("Test failed: " + result.getThrowable().getMessage());
+                log.info("Test failed: {}", result.getThrowable().getMessage());
+                logFailedTestResponses();
             } else if (result.getStatus() == ITestResult.SKIP) {
                 if (extentTest != null) {
                     extentTest.log(Status.SKIP, "Test skipped");
                 }
-                System.out.println("Test skipped");
+                log.info("Test skipped");
             }
         } catch (Exception e) {
-            System.err.println("Error during test teardown: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error during test teardown", e);
+        } finally {
+            testResponses.clear();
+            TestLogContext.end();
         }
     }
     
@@ -141,7 +181,7 @@ public class RealServiceTestBase {
                 extentTest.log(Status.INFO, "Response status verified: " + response.status());
             }
         } catch (Exception e) {
-            System.err.println("Error verifying response status: " + e.getMessage());
+            log.error("Error verifying response status: {}", e.getMessage());
             throw e;
         }
     }
@@ -155,7 +195,7 @@ public class RealServiceTestBase {
                 extentTest.log(Status.INFO, "Response contains expected text: " + expectedText);
             }
         } catch (Exception e) {
-            System.err.println("Error verifying response contains: " + e.getMessage());
+            log.error("Error verifying response contains: {}", e.getMessage());
             throw e;
         }
     }
@@ -169,23 +209,51 @@ public class RealServiceTestBase {
                 extentTest.log(Status.INFO, "Response is valid JSON");
             }
         } catch (Exception e) {
-            System.err.println("Error verifying JSON response: " + e.getMessage());
+            log.error("Error verifying JSON response: {}", e.getMessage());
             throw e;
         }
     }
     
+    /**
+     * Logs the response as {@link ResponseLogPolicy} allows: whole, truncated or
+     * only sampled. The body is fetched lazily, and the response is kept so that
+     * its full body can be logged if the test fails.
+     */
     protected void logApiResponse(APIResponse response) {
         try {
-            String responseText = response.text();
-            System.out.println("API Response: " + responseText);
+            RequestTiming timing = requestTimings.get(response);
+            String endpoint = timing != null ? timing.endpoint : ResponseLogPolicy.endpointOf(response.url());
+            Supplier<byte[]> body = ResponseLogPolicy.memoize(response::body);
+            String responseText = ResponseLogPolicy.shared().onResponse(endpoint, response.status(), body);
+            log.info("API Response: {}", responseText);
             if (extentTest != null) {
                 extentTest.log(Status.INFO, "API Response: " + responseText);
             }
+            
+            testResponses.addLast(new LoggedResponse(endpoint, response.status(), body));
+            while (testResponses.size() > config.TestConfigManager.getResponseLogFailureResponses()) {
+                testResponses.removeFirst();
+            }
         } catch (Exception e) {
-            System.err.println("Error logging API response: " + e.getMessage());
+            log.error("Error logging API response: {}", e.getMessage());
         }
     }
     
+    private void logFailedTestResponses() {
+        if (ResponseLogPolicy.shared().getMode() == ResponseLogPolicy.Mode.FULL) {
+            return;
+        }
+        for (LoggedResponse logged : testResponses) {
+            String fullBody = ResponseLogPolicy.fullBody(logged.body);
+            log.info("Full response from {} (HTTP {}): {}", logged.endpoint, logged.status, fullBody);
+            if (extentTest != null) {
+                extentTest.log(Status.INFO, "Full response from " + logged.endpoint + " (HTTP " + logged.status + ")");
+                extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(fullBody));
+            }
+        }
+    }
+
+    
     protected boolean checkServiceHealth(String serviceName) {
         try {
             String baseUrl = getServiceBaseUrl(serviceName);
@@ -193,7 +261,7 @@ public class RealServiceTestBase {
             if (config.TestConfigManager.isMockMode()) {
                 // For mock mode, use the specific service health endpoint
                 String healthEndpoint = baseUrl + "/actuator/health";
-                APIResponse response = apiContext.get(healthEndpoint);
+                APIResponse response = timedGet(serviceName + "Health", healthEndpoint);
                 boolean isHealthy = response.status() == 200;
                 if (extentTest != null) {
                     extentTest.log(isHealthy ? Status.PASS : Status.FAIL, 
@@ -201,7 +269,7 @@ public class RealServiceTestBase {
                 }
                 return isHealthy;
             } else {
-                APIResponse response = apiContext.get(baseUrl + "/actuator/health");
+                APIResponse response = timedGet(serviceName + "Health", baseUrl + "/actuator/health");
                 boolean isHealthy = response.status() == 200;
                 if (extentTest != null) {
                     extentTest.log(isHealthy ? Status.PASS : Status.FAIL, 
@@ -213,53 +281,126 @@ public class RealServiceTestBase {
             if (extentTest != null) {
                 extentTest.log(Status.FAIL, "Service " + serviceName + " health check failed: " + e.getMessage());
             }
-            System.err.println("Service health check failed: " + e.getMessage());
+            log.error("Service health check failed: {}", e.getMessage());
             return false;
         }
     }
     
     protected void waitForServiceReady(String serviceName, int maxWaitTime) {
+        waitForServicesReady(maxWaitTime, serviceName);
+    }
+    
+    /**
+     * Waits for the services concurrently. Readiness is tracked suite-wide by
+     * {@link ServiceReadinessRegistry}, so a service another class already confirmed
+     * returns immediately.
+     */
+    protected void waitForServicesReady(int maxWaitTime, String... serviceNames) {
         // If in mock mode, skip service health check as mock server handles this
         if (config.TestConfigManager.isMockMode()) {
-            if (extentTest != null) {
-                extentTest.log(Status.PASS, "Mock mode: Service " + serviceName + " is ready");
+            for (String serviceName : serviceNames) {
+                if (extentTest != null) {
+                    extentTest.log(Status.PASS, "Mock mode: Service " + serviceName + " is ready");
+                }
+                log.info("Mock mode: Service {} is ready", serviceName);
             }
-            System.out.println("Mock mode: Service " + serviceName + " is ready");
             return;
         }
         
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < maxWaitTime) {
-            if (checkServiceHealth(serviceName)) {
+        Duration timeout = Duration.ofMillis(maxWaitTime);
+        Map<String, CompletableFuture<Boolean>> readiness = new LinkedHashMap<>();
+        for (String serviceName : serviceNames) {
+            readiness.put(serviceName, ServiceReadinessRegistry.getInstance()
+                .whenReady(serviceName, getServiceBaseUrl(serviceName), timeout));
+        }
+        try {
+            CompletableFuture.allOf(readiness.values().toArray(new CompletableFuture[0]))
+                .get(maxWaitTime, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Services still pending are reported below
+        }
+        
+        for (Map.Entry<String, CompletableFuture<Boolean>> service : readiness.entrySet()) {
+            if (service.getValue().getNow(false)) {
                 if (extentTest != null) {
-                    extentTest.log(Status.PASS, "Service " + serviceName + " is ready");
+                    extentTest.log(Status.PASS, "Service " + service.getKey() + " is ready");
+                }
+                log.info("Service {} is ready", service.getKey());
+            } else {
+                // Instead of failing, log a warning and continue
+                String message = "Service " + service.getKey() + " did not become ready within " + maxWaitTime + "ms - continuing with tests";
+                log.warn("{}", message);
+                if (extentTest != null) {
+                    extentTest.log(Status.WARNING, message);
                 }
-                System.out.println("Service " + serviceName + " is ready");
-                return;
             }
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+        }
+    }
+    
+    /**
+     * Asserts that the request behind {@code response} completed within {@code maxResponseTime}
+     * milliseconds. The endpoint's p95/p99 budgets are checked once at suite end
+     * (see {@link #verifyLatencySlos()}).
+     */
+    protected void verifyResponseTime(APIResponse response, long maxResponseTime) {
+        RequestTiming timing = requestTimings.get(response);
+        if (timing == null) {
+            if (extentTest != null) {
+                extentTest.log(Status.WARNING, "Response time not measured: response was not issued through the test base API methods");
             }
+            return;
         }
         
-        // Instead of failing, log a warning and continue
-        String message = "Service " + serviceName + " did not become ready within " + maxWaitTime + "ms - continuing with tests";
-        System.err.println("WARNING: " + message);
+        String message = String.format("Response time for %s: %.3fms (max: %dms)",
+            timing.endpoint, timing.nanos / 1_000_000.0, maxResponseTime);
         if (extentTest != null) {
-            extentTest.log(Status.WARNING, message);
+            extentTest.log(Status.INFO, message);
+        }
+        if (!MicroservicesConfig.isResponseTimeValidationEnabled()) {
+            return;
         }
+        Assert.assertTrue(timing.nanos <= TimeUnit.MILLISECONDS.toNanos(maxResponseTime), message);
+    }
+    
+    /**
+     * Checks each endpoint's suite-wide latency distribution against slo.&lt;endpoint&gt;.p95 and
+     * slo.&lt;endpoint&gt;.p99 (milliseconds), once, after every test has run, so one slow call
+     * fails the suite's SLO rather than whichever test happens to come next. Endpoints with
+     * fewer than slo.min.samples requests are skipped: their tail percentiles are noise.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void verifyLatencySlos() {
+        if (!MicroservicesConfig.isResponseTimeValidationEnabled()) {
+            return;
+        }
+        List<String> violations = new ArrayList<>();
+        for (String endpoint : LatencyRecorder.shared().getOperations()) {
+            long p95Budget = MicroservicesConfig.getLatencySloP95Millis(endpoint);
+            long p99Budget = MicroservicesConfig.getLatencySloP99Millis(endpoint);
+            if (p95Budget <= 0 && p99Budget <= 0) {
+                continue;
+            }
+            Histogram histogram = LatencyRecorder.shared().snapshot(endpoint);
+            if (histogram.getTotalCount() < MicroservicesConfig.getLatencySloMinSamples()) {
+                continue;
+            }
+            checkPercentileBudget(violations, endpoint, histogram, 95.0, p95Budget);
+            checkPercentileBudget(violations, endpoint, histogram, 99.0, p99Budget);
+        }
+        Assert.assertTrue(violations.isEmpty(), String.join("; ", violations));
     }
     
-    protected void verifyResponseTime(APIResponse response, long maxResponseTime) {
-        try {
-            if (extentTest != null) {
-                extentTest.log(Status.INFO, "Response time verification (max: " + maxResponseTime + "ms)");
-            }
-        } catch (Exception e) {
-            System.err.println("Error verifying response time: " + e.getMessage());
+    private static void checkPercentileBudget(List<String> violations, String endpoint, Histogram histogram,
+                                              double percentile, long budgetMillis) {
+        if (budgetMillis <= 0) {
+            return;
+        }
+        long valueNanos = histogram.getValueAtPercentile(percentile);
+        if (valueNanos > TimeUnit.MILLISECONDS.toNanos(budgetMillis)) {
+            violations.add(String.format("%s p%.0f latency %.3fms exceeds SLO budget of %dms over %d requests",
+                endpoint, percentile, valueNanos / 1_000_000.0, budgetMillis, histogram.getTotalCount()));
         }
     }
     
@@ -272,7 +413,7 @@ public class RealServiceTestBase {
                 extentTest.log(Status.INFO, "Response size verified: " + responseBody.length + " bytes");
             }
         } catch (Exception e) {
-            System.err.println("Error verifying response size: " + e.getMessage());
+            log.error("Error verifying response size: {}", e.getMessage());
             throw e;
         }
     }
@@ -285,7 +426,7 @@ public class RealServiceTestBase {
             testData.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             return testData;
         } catch (Exception e) {
-            System.err.println("Error creating test data: " + e.getMessage());
+            log.error("Error creating test data: {}", e.getMessage());
             return new HashMap<>();
         }
     }
@@ -296,48 +437,68 @@ public class RealServiceTestBase {
                 extentTest.log(Status.INFO, "Test data cleaned up for node: " + nodeId);
             }
         } catch (Exception e) {
-            System.err.println("Error cleaning up test data: " + e.getMessage());
+            log.error("Error cleaning up test data: {}", e.getMessage());
         }
     }
     
     // ================= Performance Testing Utilities =================
     
     protected PerformanceMetrics measureApiPerformance(String operation, Runnable apiCall) {
-        long startTime = System.currentTimeMillis();
         long startMemory = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        long startTime = System.nanoTime();
         
         try {
             apiCall.run();
         } finally {
-            long endTime = System.currentTimeMillis();
+            long elapsed = System.nanoTime() - startTime;
             long endMemory = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
             
+            LatencyRecorder.shared().record(operation, elapsed);
+            // The distribution is only copied out of the recorder if asked for; the suite-end
+            // export puts the tables in the report (EnhancedTestListener.onFinish)
             PerformanceMetrics metrics = new PerformanceMetrics(
                 operation,
-                endTime - startTime,
-                endMemory - startMemory
+                elapsed,
+                endMemory - startMemory,
+                LatencyRecorder.shared()
             );
             
             if (extentTest != null) {
-                extentTest.log(Status.INFO, "Performance metrics: " + metrics);
+                extentTest.log(Status.INFO, String.format("Performance metrics: Operation: %s, Response Time: %.3fms, Memory Used: %d bytes",
+                    operation, elapsed / 1_000_000.0, endMemory - startMemory));
             }
             return metrics;
         }
     }
     
+    protected LoadTestResult runLoadTest(LoadGenerator generator) {
+        return reportLoadTestResult(generator.run());
+    }
+    
+    protected LoadTestResult reportLoadTestResult(LoadTestResult result) {
+        log.info("{}", result);
+        if (extentTest != null) {
+            extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(result.toString()));
+        }
+        for (LoadTestResult.EndpointStats stats : result.getEndpoints().values()) {
+            LatencyReports.attachToAllure(stats.getEndpoint(), stats.getHistogram());
+        }
+        return result;
+    }
+    
     // ================= API Methods =================
     
     // OPC UA Connection Service APIs
     protected APIResponse getOpcUaConnectionStatus() {
-        return apiContext.get(MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/status");
+        return timedGet("getOpcUaConnectionStatus", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/status");
     }
     
     protected APIResponse initOpcUaConnection() {
-        return apiContext.get(MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/init");
+        return timedGet("initOpcUaConnection", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/init");
     }
     
     protected APIResponse connectOpcUa() {
-        return apiContext.get(MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/connect");
+        return timedGet("connectOpcUa", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/connect");
     }
     
     // Read Data Service APIs
@@ -346,15 +507,15 @@ public class RealServiceTestBase {
         if (startingNode != null && !startingNode.isEmpty()) {
             url += "?startingNodeParam=" + startingNode;
         }
-        return apiContext.get(url);
+        return timedGet("browseTags", url);
     }
     
     protected APIResponse readValue(String nodeId) {
-        return apiContext.get(MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValue?nodeId=" + nodeId);
+        return timedGet("readValue", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValue?nodeId=" + nodeId);
     }
     
     protected APIResponse subscribeToData() {
-        return apiContext.get(MicroservicesConfig.getReadDataServiceUrl() + "/api/read/subscribeToData");
+        return timedGet("subscribeToData", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/subscribeToData");
     }
     
     protected APIResponse readNode(String nodeId) {
@@ -362,7 +523,7 @@ public class RealServiceTestBase {
         if (nodeId != null && !nodeId.isEmpty()) {
             url += "?nodeId=" + nodeId;
         }
-        return apiContext.get(url);
+        return timedGet("readNode", url);
     }
     
     protected APIResponse readNode2(String nodeId) {
@@ -370,7 +531,7 @@ public class RealServiceTestBase {
         if (nodeId != null && !nodeId.isEmpty()) {
             url += "?nodeId=" + nodeId;
         }
-        return apiContext.get(url);
+        return timedGet("readNode2", url);
     }
     
     protected APIResponse readTagValuesSimplified(String startingNode) {
@@ -378,7 +539,17 @@ public class RealServiceTestBase {
         if (startingNode != null && !startingNode.isEmpty()) {
             url += "?startingNode=" + startingNode;
         }
-        return apiContext.get(url);
+        return timedGet("readTagValuesSimplified", url);
+    }
+    
+    protected APIResponse readValues(List<String> nodeIds) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeIds", nodeIds);
+        
+        return timedPost("readValues", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValues",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
     }
     
     // Write Data Service APIs
@@ -387,7 +558,24 @@ public class RealServiceTestBase {
         payload.put("nodeId", nodeId);
         payload.put("value", value);
         
-        return apiContext.post(MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/write-node",
+        return timedPost("writeNode", MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/write-node",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
+    }
+    
+    protected APIResponse writeNodes(Map<String, Object> values) {
+        List<Map<String, Object>> writes = new ArrayList<>(values.size());
+        values.forEach((nodeId, value) -> {
+            Map<String, Object> write = new HashMap<>();
+            write.put("nodeId", nodeId);
+            write.put("value", value);
+            writes.add(write);
+        });
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("writes", writes);
+        
+        return timedPost("writeNodes", MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/writeNodes",
                 RequestOptions.create()
                         .setHeader("Content-Type", "application/json")
                         .setData(payload));
@@ -399,7 +587,7 @@ public class RealServiceTestBase {
         payload.put("nodeId", nodeId);
         payload.put("browseData", browseData);
         
-        return apiContext.post(MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/processBrowseData",
+        return timedPost("processBrowseData", MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/processBrowseData",
                 RequestOptions.create()
                         .setHeader("Content-Type", "application/json")
                         .setData(payload));
@@ -410,7 +598,7 @@ public class RealServiceTestBase {
         payload.put("previous", previous);
         payload.put("current", current);
         
-        return apiContext.post(MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/hasChanged",
+        return timedPost("hasChanged", MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/hasChanged",
                 RequestOptions.create()
                         .setHeader("Content-Type", "application/json")
                         .setData(payload));
@@ -418,20 +606,54 @@ public class RealServiceTestBase {
     
     // Value Converter APIs
     protected APIResponse convertValue(String variant) {
-        return apiContext.post(MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertValue?variant=" + variant);
+        return timedPost("convertValue", MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertValue?variant=" + variant);
     }
     
     protected APIResponse convertDataValue(String originalValue) {
-        return apiContext.post(MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertDataValue?originalValue=" + originalValue);
+        return timedPost("convertDataValue", MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertDataValue?originalValue=" + originalValue);
     }
     
     // Service Registry APIs
     protected APIResponse getServiceRegistryStatus() {
-        return apiContext.get(MicroservicesConfig.getServiceRegistryUrl() + "/actuator/health");
+        return timedGet("getServiceRegistryStatus", MicroservicesConfig.getServiceRegistryUrl() + "/actuator/health");
     }
     
     protected APIResponse getRegisteredServices() {
-        return apiContext.get(MicroservicesConfig.getServiceRegistryUrl() + "/eureka/apps");
+        return timedGet("getRegisteredServices", MicroservicesConfig.getServiceRegistryUrl() + "/eureka/apps");
+    }
+    
+    // ================= Request Timing =================
+    
+    /**
+     * Request context of the calling thread. Test methods running on other threads
+     * than the class (e.g. parallel data providers) get their own pooled context.
+     */
+    protected APIRequestContext context() {
+        return PlaywrightContextPool.getInstance().current().context();
+    }
+    
+    private APIResponse timedGet(String endpoint, String url) {
+        APIRequestContext context = context();
+        return timed(endpoint, () -> context.get(url));
+    }
+    
+    private APIResponse timedPost(String endpoint, String url) {
+        APIRequestContext context = context();
+        return timed(endpoint, () -> context.post(url));
+    }
+    
+    private APIResponse timedPost(String endpoint, String url, RequestOptions options) {
+        APIRequestContext context = context();
+        return timed(endpoint, () -> context.post(url, options));
+    }
+    
+    private APIResponse timed(String endpoint, Supplier<APIResponse> request) {
+        long start = System.nanoTime();
+        APIResponse response = request.get();
+        long elapsed = System.nanoTime() - start;
+        LatencyRecorder.shared().record(endpoint, elapsed);
+        requestTimings.put(response, new RequestTiming(endpoint, elapsed));
+        return response;
     }
     
     // ================= Utility Methods =================
@@ -455,33 +677,89 @@ public class RealServiceTestBase {
     
     // ================= Inner Classes =================
     
+    private static class LoggedResponse {
+        private final String endpoint;
+        private final int status;
+        private final Supplier<byte[]> body;
+        
+        LoggedResponse(String endpoint, int status, Supplier<byte[]> body) {
+            this.endpoint = endpoint;
+            this.status = status;
+            this.body = body;
+        }
+    }
+    
+    private static class RequestTiming {
+        private final String endpoint;
+        private final long nanos;
+        
+        RequestTiming(String endpoint, long nanos) {
+            this.endpoint = endpoint;
+            this.nanos = nanos;
+        }
+    }
+    
     public static class PerformanceMetrics {
         private final String operation;
-        private final long responseTime;
+        private final long responseTimeNanos;
         private final long memoryUsed;
+        private final LatencyRecorder recorder;
+        private Histogram distribution;
         
         public PerformanceMetrics(String operation, long responseTime, long memoryUsed) {
+            this(operation, responseTime * 1_000_000L, memoryUsed, (Histogram) null);
+        }
+        
+        public PerformanceMetrics(String operation, long responseTimeNanos, long memoryUsed, Histogram distribution) {
             this.operation = operation;
-            this.responseTime = responseTime;
+            this.responseTimeNanos = responseTimeNanos;
             this.memoryUsed = memoryUsed;
+            this.recorder = null;
+            this.distribution = distribution != null ? distribution : LatencyRecorder.newHistogram();
+        }
+        
+        /** Takes the distribution from {@code recorder} when it is first asked for, not per call. */
+        public PerformanceMetrics(String operation, long responseTimeNanos, long memoryUsed, LatencyRecorder recorder) {
+            this.operation = operation;
+            this.responseTimeNanos = responseTimeNanos;
+            this.memoryUsed = memoryUsed;
+            this.recorder = recorder;
         }
         
         public String getOperation() { 
             return operation; 
         }
         
+        /** Response time of this call in milliseconds. */
         public long getResponseTime() { 
-            return responseTime; 
+            return responseTimeNanos / 1_000_000L; 
+        }
+        
+        public long getResponseTimeNanos() {
+            return responseTimeNanos;
         }
         
         public long getMemoryUsed() { 
             return memoryUsed; 
         }
         
+        /** Every call recorded for this operation in the suite up to the first call of this method, in nanoseconds. */
+        public synchronized Histogram getDistribution() {
+            if (distribution == null) {
+                distribution = recorder.snapshot(operation);
+            }
+            return distribution;
+        }
+        
+        public long getPercentileNanos(double percentile) {
+            return getDistribution().getValueAtPercentile(percentile);
+        }
+        
         @Override
         public String toString() {
-            return String.format("Operation: %s, Response Time: %dms, Memory Used: %d bytes", 
-                operation, responseTime, memoryUsed);
+            return String.format("Operation: %s, Response Time: %.3fms, Memory Used: %d bytes, Samples: %d, p50: %dus, p99: %dus", 
+                operation, responseTimeNanos / 1_000_000.0, memoryUsed, getDistribution().getTotalCount(),
+                getPercentileNanos(50.0) / 1_000, getPercentileNanos(99.0) / 1_000);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,507 @@
+package clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.options.HttpHeader;
+import config.MicroservicesConfig;
+import performance.LatencyRecorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-blocking counterpart of {@link MicroservicesApiClient}. Every endpoint returns a
+ * {@code CompletableFuture<APIResponse>} so independent calls can overlap, e.g.
+ *
+ * <pre>
+ * CompletableFuture&lt;APIResponse&gt; browse = client.browseTags(node);
+ * CompletableFuture&lt;APIResponse&gt; read = client.readValue(tag);
+ * CompletableFuture.allOf(browse, read).join();
+ * </pre>
+ *
+ * <p>Requests go through the JDK {@link HttpClient} (HTTP/1.1, non-blocking I/O), so
+ * unlike Playwright's APIRequestContext one instance is safe to share between
+ * threads. At most {@code maxConnections} requests are in flight at once; further
+ * requests queue without blocking the caller and are sent as earlier ones
+ * complete, which bounds the connections opened per service. Latencies are
+ * recorded into {@link LatencyRecorder#shared()} under the method name, like the
+ * synchronous test base does.
+ *
+ * <p>{@link #readValueBatched} and {@link #writeNodeBatched} take one tag each but
+ * are sent through the batch endpoints by a {@link MicroBatcher}: concurrent
+ * calls within {@code async.client.batch.max.delay.ms} of each other share one
+ * request of up to {@code async.client.batch.max.size} tags.
+ * {@link #hasChangedIncremental} likewise sends the Kafka service only what
+ * changed in a node's tree since its last check ({@link ChangeTracker}).
+ */
+public class AsyncMicroservicesApiClient {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] SERVICES = {"opcconnection", "readdata", "kafka", "writedata"};
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+    private final int batchMaxSize;
+    private final Duration batchMaxDelay;
+    private MicroBatcher<String, Map<String, Object>> readBatcher;
+    private MicroBatcher<Map<String, Object>, Map<String, Object>> writeBatcher;
+    private ChangeTracker changeTracker;
+    private volatile boolean disposed;
+
+    public AsyncMicroservicesApiClient() {
+        this(MicroservicesConfig.getAsyncClientMaxConnections(),
+            Duration.ofMillis(MicroservicesConfig.getTestTimeout()));
+    }
+
+    public AsyncMicroservicesApiClient(int maxConnections, Duration requestTimeout) {
+        this(maxConnections, requestTimeout, MicroservicesConfig.getAsyncClientBatchMaxSize(),
+            Duration.ofMillis(MicroservicesConfig.getAsyncClientBatchMaxDelayMs()));
+    }
+
+    public AsyncMicroservicesApiClient(int maxConnections, Duration requestTimeout, int batchMaxSize, Duration batchMaxDelay) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        if (batchMaxSize <= 0) {
+            throw new IllegalArgumentException("batchMaxSize must be positive");
+        }
+        this.batchMaxSize = batchMaxSize;
+        this.batchMaxDelay = batchMaxDelay;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.permits = new Semaphore(maxConnections);
+    }
+
+    // ================= OPC UA Connection Service APIs =================
+
+    public CompletableFuture<APIResponse> getOpcUaConnectionStatus() {
+        return get("getOpcUaConnectionStatus", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/status");
+    }
+
+    public CompletableFuture<APIResponse> initOpcUaConnection() {
+        return get("initOpcUaConnection", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/init");
+    }
+
+    public CompletableFuture<APIResponse> connectOpcUa() {
+        return get("connectOpcUa", MicroservicesConfig.getOpcUaServiceUrl() + "/api/connection/connect");
+    }
+
+    // ================= Read Data Service APIs =================
+
+    public CompletableFuture<APIResponse> browseTags(String startingNode) {
+        return get("browseTags", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/browse"
+            + query("startingNodeParam", startingNode));
+    }
+
+    public CompletableFuture<APIResponse> readValue(String nodeId) {
+        return get("readValue", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValue?nodeId=" + encode(nodeId));
+    }
+
+    public CompletableFuture<APIResponse> subscribeToData() {
+        return get("subscribeToData", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/subscribeToData");
+    }
+
+    public CompletableFuture<APIResponse> readNode(String nodeId) {
+        return get("readNode", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/read-node" + query("nodeId", nodeId));
+    }
+
+    public CompletableFuture<APIResponse> readNode2(String nodeId) {
+        return get("readNode2", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/read-node2" + query("nodeId", nodeId));
+    }
+
+    public CompletableFuture<APIResponse> readTagValuesSimplified(String startingNode) {
+        return get("readTagValuesSimplified", MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readTagValuesSimplified"
+            + query("startingNode", startingNode));
+    }
+
+    /** Reads many tags in one request; the response holds one result per node, in request order. */
+    public CompletableFuture<APIResponse> readValues(List<String> nodeIds) {
+        return readValues(MicroservicesConfig.getReadDataServiceUrl(), nodeIds);
+    }
+
+    // ================= Write Data Service APIs =================
+
+    public CompletableFuture<APIResponse> writeNode(String nodeId, Object value) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeId", nodeId);
+        payload.put("value", value);
+        return postJson("writeNode", MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/write-node", payload);
+    }
+
+    /** Writes many tags in one request, in the map's iteration order; see {@link #readValues(List)}. */
+    public CompletableFuture<APIResponse> writeNodes(Map<String, Object> values) {
+        List<Map<String, Object>> writes = new ArrayList<>(values.size());
+        values.forEach((nodeId, value) -> writes.add(writeEntry(nodeId, value)));
+        return writeNodes(MicroservicesConfig.getWriteDataServiceUrl(), writes);
+    }
+
+    // ================= Micro-batched APIs =================
+
+    /**
+     * Reads one tag through the batch endpoint, sharing the request with other
+     * reads issued at about the same time. Completes with the tag's entry of the
+     * batch result ({@code nodeId}, {@code statusCode} and, if good, {@code value},
+     * {@code dataType}, {@code sourceTimestamp}); fails if the batch request fails.
+     */
+    public CompletableFuture<Map<String, Object>> readValueBatched(String nodeId) {
+        return getReadBatcher().submit(nodeId);
+    }
+
+    /** Writes one tag through the batch endpoint; completes with its {@code nodeId} and {@code statusCode}. */
+    public CompletableFuture<Map<String, Object>> writeNodeBatched(String nodeId, Object value) {
+        return getWriteBatcher().submit(writeEntry(nodeId, value));
+    }
+
+    /**
+     * Batcher behind {@link #readValueBatched}. Created on first use; the service
+     * URL is resolved then, on the calling thread, since batches are also sent
+     * from the batcher's timer thread.
+     */
+    public synchronized MicroBatcher<String, Map<String, Object>> getReadBatcher() {
+        if (readBatcher == null) {
+            String serviceUrl = MicroservicesConfig.getReadDataServiceUrl();
+            readBatcher = new MicroBatcher<>("readValues", batchMaxSize, batchMaxDelay,
+                nodeIds -> readValues(serviceUrl, nodeIds).thenApply(AsyncMicroservicesApiClient::batchResults));
+        }
+        return readBatcher;
+    }
+
+    /** Batcher behind {@link #writeNodeBatched}; see {@link #getReadBatcher()}. */
+    public synchronized MicroBatcher<Map<String, Object>, Map<String, Object>> getWriteBatcher() {
+        if (writeBatcher == null) {
+            String serviceUrl = MicroservicesConfig.getWriteDataServiceUrl();
+            writeBatcher = new MicroBatcher<>("writeNodes", batchMaxSize, batchMaxDelay,
+                writes -> writeNodes(serviceUrl, writes).thenApply(AsyncMicroservicesApiClient::batchResults));
+        }
+        return writeBatcher;
+    }
+
+    // ================= Kafka Service APIs =================
+
+    public CompletableFuture<APIResponse> processBrowseData(String nodeId, Map<String, Object> browseData) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeId", nodeId);
+        payload.put("browseData", browseData);
+        return postJson("processBrowseData", MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/processBrowseData", payload);
+    }
+
+    public CompletableFuture<APIResponse> hasChanged(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("previous", previous);
+        payload.put("current", current);
+        return postJson("hasChanged", MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/hasChanged", payload);
+    }
+
+    /**
+     * Checks the node's tree for changes since its last check, sending only the
+     * delta once the service knows the node; see {@link ChangeTracker}.
+     */
+    public CompletableFuture<Map<String, Object>> hasChangedIncremental(String nodeId, Object current) {
+        return getChangeTracker().hasChanged(nodeId, current);
+    }
+
+    /** Tracker behind {@link #hasChangedIncremental}; created on first use, resolving the service URL then. */
+    public synchronized ChangeTracker getChangeTracker() {
+        if (changeTracker == null) {
+            String url = MicroservicesConfig.getKafkaServiceUrl() + "/api/kafkaBrowse/hasChanged";
+            changeTracker = new ChangeTracker((kind, body) ->
+                post(kind, url, HttpRequest.BodyPublishers.ofByteArray(body), "application/json"));
+        }
+        return changeTracker;
+    }
+
+    // ================= Value Converter APIs =================
+
+    public CompletableFuture<APIResponse> convertValue(String variant) {
+        return post("convertValue", MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertValue?variant="
+            + encode(variant), HttpRequest.BodyPublishers.noBody(), null);
+    }
+
+    public CompletableFuture<APIResponse> convertDataValue(String originalValue) {
+        return post("convertDataValue", MicroservicesConfig.getKafkaServiceUrl() + "/api/opcUaValueConverter/convertDataValue?originalValue="
+            + encode(originalValue), HttpRequest.BodyPublishers.noBody(), null);
+    }
+
+    // ================= Service Registry APIs =================
+
+    public CompletableFuture<APIResponse> getServiceRegistryStatus() {
+        return get("getServiceRegistryStatus", MicroservicesConfig.getServiceRegistryUrl() + "/actuator/health");
+    }
+
+    public CompletableFuture<APIResponse> getRegisteredServices() {
+        return get("getRegisteredServices", MicroservicesConfig.getServiceRegistryUrl() + "/eureka/apps");
+    }
+
+    // ================= Health Check APIs =================
+
+    public CompletableFuture<APIResponse> checkServiceHealth(String serviceName) {
+        return get(serviceName + "Health", getServiceBaseUrl(serviceName) + "/actuator/health");
+    }
+
+    /**
+     * Checks the four WMS services concurrently. Completes with service name to
+     * health (status 200) once every check has answered; failed checks count as down.
+     */
+    public CompletableFuture<Map<String, Boolean>> checkAllServicesHealth() {
+        Map<String, CompletableFuture<Boolean>> checks = new LinkedHashMap<>();
+        for (String service : SERVICES) {
+            checks.put(service, checkServiceHealth(service)
+                .thenApply(response -> response.status() == 200)
+                .exceptionally(e -> false));
+        }
+        return CompletableFuture.allOf(checks.values().toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                Map<String, Boolean> health = new LinkedHashMap<>();
+                checks.forEach((service, check) -> health.put(service, check.join()));
+                return health;
+            });
+    }
+
+    // ================= Utility Methods =================
+
+    private CompletableFuture<APIResponse> readValues(String serviceUrl, List<String> nodeIds) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeIds", nodeIds);
+        return postJson("readValues", serviceUrl + "/api/read/readValues", payload);
+    }
+
+    private CompletableFuture<APIResponse> writeNodes(String serviceUrl, List<Map<String, Object>> writes) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("writes", writes);
+        return postJson("writeNodes", serviceUrl + "/api/write/writeNodes", payload);
+    }
+
+    private static Map<String, Object> writeEntry(String nodeId, Object value) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("nodeId", nodeId);
+        entry.put("value", value);
+        return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> batchResults(APIResponse response) {
+        if (response.status() != 200) {
+            throw new RuntimeException("Batch request to " + response.url() + " answered " + response.status() + ": " + response.text());
+        }
+        try {
+            Object results = MAPPER.readValue(response.body(), Map.class).get("results");
+            if (!(results instanceof List)) {
+                throw new RuntimeException("Batch response from " + response.url() + " has no results list");
+            }
+            return (List<Map<String, Object>>) results;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse batch response from " + response.url() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private CompletableFuture<APIResponse> get(String endpoint, String url) {
+        return submit(endpoint, newRequest(url).GET().build());
+    }
+
+    private CompletableFuture<APIResponse> postJson(String endpoint, String url, Object payload) {
+        try {
+            return post(endpoint, url, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(payload)), "application/json");
+        } catch (JsonProcessingException e) {
+            CompletableFuture<APIResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new RuntimeException("Failed to serialize request payload: " + e.getMessage(), e));
+            return failed;
+        }
+    }
+
+    private CompletableFuture<APIResponse> post(String endpoint, String url, HttpRequest.BodyPublisher body, String contentType) {
+        HttpRequest.Builder builder = newRequest(url).POST(body);
+        if (contentType != null) {
+            builder.header("Content-Type", contentType);
+        }
+        return submit(endpoint, builder.build());
+    }
+
+    private HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+    }
+
+    private CompletableFuture<APIResponse> submit(String endpoint, HttpRequest request) {
+        PendingRequest next = new PendingRequest(endpoint, request);
+        if (disposed) {
+            next.result.completeExceptionally(new IllegalStateException("Client has been disposed"));
+            return next.result;
+        }
+        pending.add(next);
+        dispatch();
+        return next.result;
+    }
+
+    /**
+     * Sends queued requests while permits are available. Called after every enqueue and
+     * every completion, so a request queued while all permits were taken is picked up
+     * by whichever in-flight request finishes first.
+     */
+    private void dispatch() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            PendingRequest next = pending.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            long start = System.nanoTime();
+            httpClient.sendAsync(next.request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    permits.release();
+                    if (error != null) {
+                        next.result.completeExceptionally(error);
+                    } else {
+                        LatencyRecorder.shared().record(next.endpoint, System.nanoTime() - start);
+                        next.result.complete(new HttpApiResponse(response));
+                    }
+                    dispatch();
+                });
+        }
+    }
+
+    private static String query(String name, String value) {
+        return value != null && !value.isEmpty() ? "?" + name + "=" + encode(value) : "";
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    private String getServiceBaseUrl(String serviceName) {
+        switch (serviceName.toLowerCase()) {
+            case "opcconnection":
+                return MicroservicesConfig.getOpcUaServiceUrl();
+            case "readdata":
+                return MicroservicesConfig.getReadDataServiceUrl();
+            case "kafka":
+                return MicroservicesConfig.getKafkaServiceUrl();
+            case "writedata":
+                return MicroservicesConfig.getWriteDataServiceUrl();
+            case "serviceregistry":
+                return MicroservicesConfig.getServiceRegistryUrl();
+            default:
+                throw new IllegalArgumentException("Unknown service: " + serviceName);
+        }
+    }
+
+    /**
+     * Fails requests that have not been sent yet, including open batches; in-flight
+     * requests still complete.
+     */
+    public void dispose() {
+        disposed = true;
+        synchronized (this) {
+            if (readBatcher != null) {
+                readBatcher.close();
+            }
+            if (writeBatcher != null) {
+                writeBatcher.close();
+            }
+        }
+        PendingRequest next;
+        while ((next = pending.poll()) != null) {
+            next.result.completeExceptionally(new IllegalStateException("Client has been disposed"));
+        }
+    }
+
+    // ================= Inner Classes =================
+
+    private static class PendingRequest {
+        private final String endpoint;
+        private final HttpRequest request;
+        private final CompletableFuture<APIResponse> result = new CompletableFuture<>();
+
+        PendingRequest(String endpoint, HttpRequest request) {
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+    }
+
+    /** Exposes a JDK HTTP response through Playwright's APIResponse so test helpers work with both clients. */
+    private static class HttpApiResponse implements APIResponse {
+        private final HttpResponse<byte[]> response;
+
+        HttpApiResponse(HttpResponse<byte[]> response) {
+            this.response = response;
+        }
+
+        @Override
+        public byte[] body() {
+            return response.body();
+        }
+
+        @Override
+        public void dispose() {
+            // Body is fully buffered, nothing to release
+        }
+
+        @Override
+        public Map<String, String> headers() {
+            Map<String, String> headers = new HashMap<>();
+            response.headers().map().forEach((name, values) ->
+                headers.put(name.toLowerCase(), String.join(", ", values)));
+            return headers;
+        }
+
+        @Override
+        public List<HttpHeader> headersArray() {
+            List<HttpHeader> headers = new ArrayList<>();
+            response.headers().map().forEach((name, values) -> {
+                for (String value : values) {
+                    HttpHeader header = new HttpHeader();
+                    header.name = name;
+                    header.value = value;
+                    headers.add(header);
+                }
+            });
+            return headers;
+        }
+
+        @Override
+        public boolean ok() {
+            return response.statusCode() >= 200 && response.statusCode() < 300;
+        }
+
+        @Override
+        public int status() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String statusText() {
+            // HTTP/1.1 reason phrases are not exposed by java.net.http
+            return "";
+        }
+
+        @Override
+        public String text() {
+            return new String(response.body(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String url() {
+            return response.uri().toString();
+        }
+    }
+}
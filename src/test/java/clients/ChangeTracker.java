@@ -0,0 +1,182 @@
+package clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.APIResponse;
+import utils.ChangeDetector;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Client side of incremental hasChanged: remembers the last tree the service
+ * acknowledged for each node and sends only the difference.
+ *
+ * <p>The first check of a node sends the whole tree with its {@code nodeId}.
+ * Later checks diff the new tree against the acknowledged one locally
+ * ({@link ChangeDetector}) and send just the delta with the version it applies
+ * to; if nothing changed, no request is made at all and the answer is built
+ * here. When the service has lost the node or moved on (409, e.g. after a
+ * restart or a concurrent check of the same node), the whole tree is sent
+ * again. So the bytes on the wire follow the size of the change, not of the
+ * tree. Safe to use from any number of threads.
+ */
+public class ChangeTracker {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BiFunction<String, byte[], CompletableFuture<APIResponse>> transport;
+    private final Map<String, Acknowledged> acknowledged = new ConcurrentHashMap<>();
+    private final AtomicLong fullRequests = new AtomicLong();
+    private final AtomicLong deltaRequests = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * @param transport posts a JSON body to the hasChanged endpoint; the first
+     *                  argument names the request kind for latency recording
+     */
+    public ChangeTracker(BiFunction<String, byte[], CompletableFuture<APIResponse>> transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Checks the node's tree for changes since the last check. Completes with the
+     * service's answer ({@code hasChanged}, {@code version}, {@code changes} counts
+     * and the {@code added}/{@code removed}/{@code changed} paths).
+     */
+    public CompletableFuture<Map<String, Object>> hasChanged(String nodeId, Object current) {
+        ChangeDetector.Snapshot snapshot = ChangeDetector.snapshot(current);
+        Acknowledged last = acknowledged.get(nodeId);
+        if (last == null) {
+            return sendFull(nodeId, current, snapshot);
+        }
+        ChangeDetector.Diff diff = ChangeDetector.diff(last.snapshot, snapshot);
+        if (diff.isEmpty()) {
+            unchanged.incrementAndGet();
+            return CompletableFuture.completedFuture(unchangedAnswer(nodeId, last.version));
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("nodeId", nodeId);
+        payload.put("baseVersion", last.version);
+        payload.put("delta", diff.toDelta());
+        deltaRequests.incrementAndGet();
+        return send("hasChangedDelta", payload).thenCompose(response -> {
+            if (response.status() == 409) {
+                resyncs.incrementAndGet();
+                return sendFull(nodeId, current, snapshot);
+            }
+            Map<String, Object> answer = answer(response);
+            acknowledge(nodeId, snapshot, answer);
+            return CompletableFuture.completedFuture(answer);
+        });
+    }
+
+    /** Drops what is remembered of the node, so its next check sends the whole tree. */
+    public void forget(String nodeId) {
+        acknowledged.remove(nodeId);
+    }
+
+    public long getFullRequests() {
+        return fullRequests.get();
+    }
+
+    public long getDeltaRequests() {
+        return deltaRequests.get();
+    }
+
+    /** Checks answered locally because the tree had not changed. */
+    public long getUnchangedChecks() {
+        return unchanged.get();
+    }
+
+    /** Deltas the service refused, each followed by a full request. */
+    public long getResyncs() {
+        return resyncs.get();
+    }
+
+    /** Request body bytes sent, full and delta requests together. */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    private CompletableFuture<Map<String, Object>> sendFull(String nodeId, Object current, ChangeDetector.Snapshot snapshot) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("nodeId", nodeId);
+        payload.put("current", current);
+        fullRequests.incrementAndGet();
+        return send("hasChangedFull", payload).thenApply(response -> {
+            Map<String, Object> answer = answer(response);
+            acknowledge(nodeId, snapshot, answer);
+            return answer;
+        });
+    }
+
+    private CompletableFuture<APIResponse> send(String kind, Map<String, Object> payload) {
+        byte[] body;
+        try {
+            body = MAPPER.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to serialize hasChanged payload: " + e.getMessage(), e));
+        }
+        bytesSent.addAndGet(body.length);
+        return transport.apply(kind, body);
+    }
+
+    private void acknowledge(String nodeId, ChangeDetector.Snapshot snapshot, Map<String, Object> answer) {
+        long version = ((Number) answer.get("version")).longValue();
+        // A slower answer for an older version must not replace a newer one
+        acknowledged.merge(nodeId, new Acknowledged(snapshot, version),
+            (existing, update) -> update.version >= existing.version ? update : existing);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> answer(APIResponse response) {
+        if (response.status() != 200) {
+            throw new RuntimeException("hasChanged at " + response.url() + " answered " + response.status() + ": " + response.text());
+        }
+        try {
+            Map<String, Object> answer = MAPPER.readValue(response.body(), Map.class);
+            if (!(answer.get("version") instanceof Number)) {
+                throw new RuntimeException("hasChanged answer from " + response.url() + " has no version; the service does not track nodes");
+            }
+            return answer;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse hasChanged answer from " + response.url() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> unchangedAnswer(String nodeId, long version) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("added", 0);
+        counts.put("removed", 0);
+        counts.put("changed", 0);
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("status", "success");
+        answer.put("nodeId", nodeId);
+        answer.put("version", version);
+        answer.put("hasChanged", false);
+        answer.put("changes", counts);
+        answer.put("added", Collections.emptyList());
+        answer.put("removed", Collections.emptyList());
+        answer.put("changed", Collections.emptyList());
+        answer.put("timestamp", System.currentTimeMillis());
+        return answer;
+    }
+
+    private static final class Acknowledged {
+        private final ChangeDetector.Snapshot snapshot;
+        private final long version;
+
+        Acknowledged(ChangeDetector.Snapshot snapshot, long version) {
+            this.snapshot = snapshot;
+            this.version = version;
+        }
+    }
+}
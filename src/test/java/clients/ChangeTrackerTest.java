@@ -0,0 +1,113 @@
+package clients;
+
+import config.MicroservicesConfig;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import utils.LightweightMockServer;
+import utils.UnifiedMockServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ChangeTrackerTest {
+    private LightweightMockServer server;
+    private AsyncMicroservicesApiClient client;
+    private AsyncMicroservicesApiClient otherClient;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new LightweightMockServer(new UnifiedMockServer(), 0);
+        server.start();
+        MicroservicesConfig.setThreadMockServerPort(server.getPort());
+        client = new AsyncMicroservicesApiClient(4, Duration.ofSeconds(10));
+        otherClient = new AsyncMicroservicesApiClient(4, Duration.ofSeconds(10));
+        // Trackers resolve the service URL when created, so create them while this thread points at the server
+        client.getChangeTracker();
+        otherClient.getChangeTracker();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        MicroservicesConfig.setThreadMockServerPort(null);
+        client.dispose();
+        otherClient.dispose();
+        server.stop();
+    }
+
+    @Test
+    public void testOnlyChangesAreSentAfterTheFirstCheck() throws Exception {
+        ChangeTracker tracker = client.getChangeTracker();
+        Map<String, Object> tree = browseTree(2_000);
+        long fullBefore = tracker.getFullRequests();
+        long deltaBefore = tracker.getDeltaRequests();
+        long bytesBefore = tracker.getBytesSent();
+
+        Map<String, Object> first = check(client, "ns=3;s=Line1", tree);
+        long fullBytes = tracker.getBytesSent() - bytesBefore;
+        Map<String, Object> unchanged = check(client, "ns=3;s=Line1", browseTree(2_000));
+        tag(tree, 1234).put("value", -1.5);
+        Map<String, Object> changed = check(client, "ns=3;s=Line1", tree);
+        long deltaBytes = tracker.getBytesSent() - bytesBefore - fullBytes;
+
+        assertEquals(first.get("hasChanged"), true);
+        assertEquals(first.get("added"), List.of(""));
+        assertEquals(unchanged.get("hasChanged"), false);
+        assertEquals(changed.get("hasChanged"), true);
+        assertEquals(changed.get("changed"), List.of("/tags/1234/value"));
+        assertEquals(((Number) changed.get("version")).longValue(), ((Number) first.get("version")).longValue() + 1);
+        assertEquals(tracker.getFullRequests() - fullBefore, 1);
+        assertEquals(tracker.getDeltaRequests() - deltaBefore, 1);
+        assertTrue(deltaBytes * 100 < fullBytes, "Delta of " + deltaBytes + " bytes vs full tree of " + fullBytes);
+    }
+
+    @Test
+    public void testStaleDeltaFallsBackToFullTree() throws Exception {
+        Map<String, Object> tree = browseTree(10);
+        check(client, "ns=3;s=Line2", tree);
+        check(otherClient, "ns=3;s=Line2", tree);
+
+        Map<String, Object> moved = browseTree(10);
+        tag(moved, 1).put("value", 100.0);
+        check(client, "ns=3;s=Line2", moved);
+        Map<String, Object> stale = browseTree(10);
+        tag(stale, 2).put("value", 200.0);
+        Map<String, Object> answer = check(otherClient, "ns=3;s=Line2", stale);
+
+        assertEquals(otherClient.getChangeTracker().getResyncs(), 1);
+        assertEquals(answer.get("hasChanged"), true);
+        // Compared with what the service last saw, the other client's tree undid one change and made another
+        assertEquals(answer.get("changed"), List.of("/tags/1/value", "/tags/2/value"));
+    }
+
+    private static Map<String, Object> check(AsyncMicroservicesApiClient client, String nodeId, Map<String, Object> tree) throws Exception {
+        return client.hasChangedIncremental(nodeId, tree).get(10, TimeUnit.SECONDS);
+    }
+
+    private static Map<String, Object> browseTree(int tags) {
+        List<Object> list = new ArrayList<>(tags);
+        for (int i = 0; i < tags; i++) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("nodeId", "ns=4;i=" + (i + 1));
+            tag.put("browseName", "Tag_" + (i + 1));
+            tag.put("dataType", "Double");
+            tag.put("value", i * 0.5);
+            list.add(tag);
+        }
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("nodeId", "ns=3;s=\"WMS TO PLC\"");
+        tree.put("tags", list);
+        return tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> tag(Map<String, Object> tree, int index) {
+        return (Map<String, Object>) ((List<Object>) tree.get("tags")).get(index);
+    }
+}
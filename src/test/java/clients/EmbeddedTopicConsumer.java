@@ -0,0 +1,73 @@
+package clients;
+
+import org.apache.kafka.common.record.Record;
+import utils.EmbeddedKafkaBroker;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link TopicConsumer} of a topic on the in-process {@link EmbeddedKafkaBroker}. */
+public class EmbeddedTopicConsumer implements TopicConsumer {
+    private static final int MAX_POLL_RECORDS = 10_000;
+
+    private final EmbeddedKafkaBroker broker;
+    private final String topic;
+    private final long[] positions;
+
+    public EmbeddedTopicConsumer(String topic) {
+        this(EmbeddedKafkaBroker.getInstance(), topic);
+    }
+
+    public EmbeddedTopicConsumer(EmbeddedKafkaBroker broker, String topic) {
+        this.broker = broker;
+        this.topic = topic;
+        this.positions = new long[broker.partitionCount(topic)];
+        for (int p = 0; p < positions.length; p++) {
+            positions[p] = broker.startOffset(topic, p);
+        }
+    }
+
+    @Override
+    public void seekToEnd() {
+        for (int p = 0; p < positions.length; p++) {
+            positions[p] = broker.endOffset(topic, p);
+        }
+    }
+
+    @Override
+    public List<TopicRecord> poll(Duration timeout) {
+        List<TopicRecord> polled = fetch();
+        if (polled.isEmpty() && broker.awaitRecords(topic, positions, timeout)) {
+            polled = fetch();
+        }
+        return polled;
+    }
+
+    private List<TopicRecord> fetch() {
+        List<TopicRecord> polled = new ArrayList<>();
+        for (int p = 0; p < positions.length && polled.size() < MAX_POLL_RECORDS; p++) {
+            for (Record record : broker.fetch(topic, p, positions[p], MAX_POLL_RECORDS - polled.size())) {
+                polled.add(new TopicRecord(topic, p, record.offset(), record.timestamp(),
+                    bytes(record.key()), bytes(record.value())));
+                positions[p] = record.offset() + 1;
+            }
+        }
+        return polled;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        // Nothing held: positions live in this object only
+    }
+}
@@ -0,0 +1,72 @@
+package clients;
+
+import config.MicroservicesConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * {@link TopicConsumer} of a topic on the real cluster ({@code kafka.bootstrap.servers}).
+ * Partitions are assigned directly and no offsets are committed, so it never
+ * joins or disturbs the services' consumer groups.
+ */
+public class KafkaTopicConsumer implements TopicConsumer {
+    private final KafkaConsumer<byte[], byte[]> consumer;
+
+    public KafkaTopicConsumer(String topic) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, MicroservicesConfig.getKafkaBootstrapServers());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10_000);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "test-framework-" + topic);
+        consumer = new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        try {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic, Duration.ofSeconds(30));
+            if (partitions == null || partitions.isEmpty()) {
+                throw new IllegalStateException("Topic " + topic + " does not exist on "
+                    + MicroservicesConfig.getKafkaBootstrapServers());
+            }
+            List<TopicPartition> assigned = new ArrayList<>();
+            for (PartitionInfo partition : partitions) {
+                assigned.add(new TopicPartition(topic, partition.partition()));
+            }
+            consumer.assign(assigned);
+        } catch (RuntimeException e) {
+            consumer.close();
+            throw new RuntimeException("Failed to subscribe to Kafka topic " + topic + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void seekToEnd() {
+        consumer.seekToEnd(consumer.assignment());
+        // seekToEnd is lazy; resolve the positions now so records produced from here on are not skipped
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.position(partition);
+        }
+    }
+
+    @Override
+    public List<TopicRecord> poll(Duration timeout) {
+        List<TopicRecord> polled = new ArrayList<>();
+        for (ConsumerRecord<byte[], byte[]> record : consumer.poll(timeout)) {
+            polled.add(new TopicRecord(record.topic(), record.partition(), record.offset(), record.timestamp(),
+                record.key(), record.value()));
+        }
+        return polled;
+    }
+
+    @Override
+    public void close() {
+        consumer.close(Duration.ofSeconds(5));
+    }
+}
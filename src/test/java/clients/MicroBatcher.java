@@ -0,0 +1,179 @@
+package clients;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Collects single-item calls into batches for an endpoint that takes many items
+ * per request.
+ *
+ * <p>{@link #submit} queues an item and returns a future for its result. A batch
+ * is sent when it holds {@code maxBatchSize} items, or {@code maxDelay} after its
+ * first item arrived, whichever comes first; so under load requests are full
+ * and a lone call waits at most {@code maxDelay}. The flush function receives
+ * the items in submission order and must complete with one result per item in
+ * the same order. If it fails, or answers with a different number of results,
+ * every future of the batch fails. Safe to use from any number of threads.
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "micro-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Function<List<I>, CompletableFuture<List<O>>> flush;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+
+    private List<I> batchItems;
+    private List<CompletableFuture<O>> batchResults;
+    private ScheduledFuture<?> lingerTimer;
+    private boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, Function<List<I>, CompletableFuture<List<O>>> flush) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("maxDelay must not be negative");
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.flush = flush;
+    }
+
+    public CompletableFuture<O> submit(I item) {
+        CompletableFuture<O> result = new CompletableFuture<>();
+        List<I> fullItems = null;
+        List<CompletableFuture<O>> fullResults = null;
+        synchronized (this) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Batcher " + name + " is closed"));
+                return result;
+            }
+            if (batchItems == null) {
+                batchItems = new ArrayList<>(Math.min(maxBatchSize, 1024));
+                batchResults = new ArrayList<>(Math.min(maxBatchSize, 1024));
+                if (maxBatchSize > 1) {
+                    List<I> lingering = batchItems;
+                    lingerTimer = TIMER.schedule(() -> flushIfCurrent(lingering), maxDelayNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            batchItems.add(item);
+            batchResults.add(result);
+            if (batchItems.size() >= maxBatchSize) {
+                fullItems = batchItems;
+                fullResults = batchResults;
+                detachBatch();
+            }
+        }
+        if (fullItems != null) {
+            send(fullItems, fullResults);
+        }
+        return result;
+    }
+
+    /** Sends the open batch now instead of waiting for it to fill or linger out. */
+    public void flush() {
+        List<I> openItems;
+        List<CompletableFuture<O>> openResults;
+        synchronized (this) {
+            if (batchItems == null) {
+                return;
+            }
+            openItems = batchItems;
+            openResults = batchResults;
+            detachBatch();
+        }
+        send(openItems, openResults);
+    }
+
+    /** Sends what is queued and rejects further submissions. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getItemCount() {
+        return items.get();
+    }
+
+    public double getAverageBatchSize() {
+        long sent = batches.get();
+        return sent == 0 ? 0 : (double) items.get() / sent;
+    }
+
+    private void flushIfCurrent(List<I> lingering) {
+        List<CompletableFuture<O>> lingeringResults;
+        synchronized (this) {
+            // The batch may have filled up and been sent since the timer was armed
+            if (batchItems != lingering) {
+                return;
+            }
+            lingeringResults = batchResults;
+            batchItems = null;
+            batchResults = null;
+            lingerTimer = null;
+        }
+        send(lingering, lingeringResults);
+    }
+
+    private void detachBatch() {
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+        batchItems = null;
+        batchResults = null;
+    }
+
+    private void send(List<I> batch, List<CompletableFuture<O>> results) {
+        batches.incrementAndGet();
+        items.addAndGet(batch.size());
+        CompletableFuture<List<O>> answer;
+        try {
+            answer = flush.apply(batch);
+        } catch (RuntimeException e) {
+            fail(results, e);
+            return;
+        }
+        answer.whenComplete((values, error) -> {
+            if (error != null) {
+                fail(results, error);
+            } else if (values == null || values.size() != results.size()) {
+                fail(results, new IllegalStateException("Batch " + name + " of " + results.size() + " items answered with "
+                    + (values == null ? "no" : String.valueOf(values.size())) + " results"));
+            } else {
+                for (int i = 0; i < results.size(); i++) {
+                    results.get(i).complete(values.get(i));
+                }
+            }
+        });
+    }
+
+    private static <O> void fail(List<CompletableFuture<O>> results, Throwable error) {
+        for (CompletableFuture<O> result : results) {
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package clients;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class MicroBatcherTest {
+
+    @Test
+    public void testFullBatchIsSentWithoutWaiting() throws Exception {
+        List<List<Integer>> sent = new CopyOnWriteArrayList<>();
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("square", 4, Duration.ofMinutes(1), batch -> {
+            sent.add(batch);
+            return CompletableFuture.completedFuture(squares(batch));
+        });
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            results.add(batcher.submit(i));
+        }
+
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(results.get(i - 1).get(1, TimeUnit.SECONDS).intValue(), i * i);
+        }
+        assertEquals(sent, List.of(List.of(1, 2, 3, 4), List.of(5, 6, 7, 8)));
+        assertEquals(batcher.getAverageBatchSize(), 4.0);
+    }
+
+    @Test
+    public void testPartialBatchIsSentAfterMaxDelay() throws Exception {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("square", 100, Duration.ofMillis(20),
+            batch -> CompletableFuture.completedFuture(squares(batch)));
+
+        long start = System.nanoTime();
+        CompletableFuture<Integer> first = batcher.submit(3);
+        CompletableFuture<Integer> second = batcher.submit(4);
+        assertEquals(second.get(5, TimeUnit.SECONDS).intValue(), 16);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(first.get().intValue(), 9);
+        assertEquals(batcher.getBatchCount(), 1);
+        assertTrue(waitedMillis >= 15, "Lingering batch was sent after " + waitedMillis + "ms");
+    }
+
+    @Test
+    public void testConcurrentSubmittersShareBatches() throws Exception {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("square", 50, Duration.ofMillis(5),
+            batch -> CompletableFuture.supplyAsync(() -> squares(batch)));
+        int threads = 4;
+        int perThread = 2_500;
+        List<CompletableFuture<Integer>> results = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    int value = base + i;
+                    results.add(batcher.submit(value).thenApply(square -> {
+                        assertEquals(square.intValue(), value * value);
+                        return square;
+                    }));
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(batcher.getItemCount(), threads * perThread);
+        assertTrue(batcher.getAverageBatchSize() > 10, "Average batch of " + batcher.getAverageBatchSize());
+    }
+
+    @Test
+    public void testFailedOrMismatchedBatchFailsEveryItem() {
+        MicroBatcher<Integer, Integer> failing = new MicroBatcher<>("failing", 2, Duration.ofMinutes(1),
+            batch -> CompletableFuture.failedFuture(new RuntimeException("service down")));
+        CompletableFuture<Integer> first = failing.submit(1);
+        CompletableFuture<Integer> second = failing.submit(2);
+        assertFailure(first, "service down");
+        assertFailure(second, "service down");
+
+        MicroBatcher<Integer, Integer> truncating = new MicroBatcher<>("short", 2, Duration.ofMinutes(1),
+            batch -> CompletableFuture.completedFuture(List.of(1)));
+        CompletableFuture<Integer> third = truncating.submit(1);
+        truncating.submit(2);
+        assertFailure(third, "answered with 1 results");
+
+        MicroBatcher<Integer, Integer> throwing = new MicroBatcher<>("throwing", 1, Duration.ZERO, batch -> {
+            throw new IllegalStateException("cannot serialize");
+        });
+        assertFailure(throwing.submit(1), "cannot serialize");
+    }
+
+    @Test
+    public void testCloseSendsOpenBatchAndRejectsNewItems() throws Exception {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("square", 100, Duration.ofMinutes(1),
+            batch -> CompletableFuture.completedFuture(squares(batch)));
+        CompletableFuture<Integer> queued = batcher.submit(5);
+
+        batcher.close();
+
+        assertEquals(queued.get(1, TimeUnit.SECONDS).intValue(), 25);
+        assertFailure(batcher.submit(6), "closed");
+    }
+
+    private static List<Integer> squares(List<Integer> batch) {
+        List<Integer> squares = new ArrayList<>(batch.size());
+        for (Integer value : batch) {
+            squares.add(value * value);
+        }
+        return squares;
+    }
+
+    private static void assertFailure(CompletableFuture<?> result, String message) {
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            fail("Expected failure containing '" + message + "'");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains(message), e.getCause().getMessage());
+        } catch (Exception e) {
+            fail("Unexpected " + e, e);
+        }
+    }
+}
@@ -11,6 +11,8 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import org.testng.Assert;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +22,7 @@ public class MicroservicesApiClient {
     private Playwright playwright;
     private APIRequestContext apiContext;
     private RequestSpecification restAssuredSpec;
+    private final SubscriptionStreamConsumer streamConsumer = new SubscriptionStreamConsumer();
     
     public MicroservicesApiClient(Playwright playwright) {
         this.playwright = playwright;
@@ -90,6 +93,32 @@ public class MicroservicesApiClient {
         return apiContext.get(url);
     }
     
+    /**
+     * Reads many tags in one request. The response holds one result per node in
+     * request order, each with its own {@code statusCode}; unknown nodes don't fail
+     * the request. The service takes at most 10000 nodes per request.
+     */
+    public APIResponse readValues(List<String> nodeIds) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeIds", nodeIds);
+    
+        return apiContext.post(MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValues",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
+    }
+    
+    // ================= Subscription Streaming =================
+    
+    /**
+     * Consumes the read service's subscription stream at the given update rate for
+     * the given duration and reports end-to-end latency, dropped and out-of-order
+     * updates. Null or empty nodeIds leaves the choice of nodes to the service.
+     */
+    public SubscriptionStreamConsumer.Stats consumeSubscriptionStream(int updatesPerSecond, Duration duration, List<String> nodeIds) {
+        return streamConsumer.subscribe(updatesPerSecond, duration, nodeIds);
+    }
+    
     // ================= Write Data Service APIs =================
     
     public APIResponse writeNode(String nodeId, Object value) {
@@ -103,6 +132,27 @@ public class MicroservicesApiClient {
                         .setData(payload));
     }
     
+    /**
+     * Writes many tags in one request, in the map's iteration order (pass a
+     * LinkedHashMap to control it); see {@link #readValues(List)}.
+     */
+    public APIResponse writeNodes(Map<String, Object> values) {
+        List<Map<String, Object>> writes = new ArrayList<>(values.size());
+        values.forEach((nodeId, value) -> {
+            Map<String, Object> write = new HashMap<>();
+            write.put("nodeId", nodeId);
+            write.put("value", value);
+            writes.add(write);
+        });
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("writes", writes);
+    
+        return apiContext.post(MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/writeNodes",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
+    }
+    
     // ================= Kafka Service APIs =================
     
     public APIResponse processBrowseData(String nodeId, Map<String, Object> browseData) {
@@ -87,6 +87,21 @@ public class SimpleApiClient {
         return apiContext.get(url);
     }
 
+    /**
+     * Reads many tags in one request. The response holds one result per node in
+     * request order, each with its own {@code statusCode}; unknown nodes don't fail
+     * the request. The service takes at most 10000 nodes per request.
+     */
+    public APIResponse readValues(List<String> nodeIds) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("nodeIds", nodeIds);
+
+        return apiContext.post(MicroservicesConfig.getReadDataServiceUrl() + "/api/read/readValues",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
+    }
+
     // ================= Write Data Service APIs =================
 
     public APIResponse writeNode(String nodeId, Object value) {
@@ -100,6 +115,27 @@ public class SimpleApiClient {
                         .setData(payload));
     }
 
+    /**
+     * Writes many tags in one request, in the map's iteration order (pass a
+     * LinkedHashMap to control it); see {@link #readValues(List)}.
+     */
+    public APIResponse writeNodes(Map<String, Object> values) {
+        List<Map<String, Object>> writes = new ArrayList<>(values.size());
+        values.forEach((nodeId, value) -> {
+            Map<String, Object> write = new HashMap<>();
+            write.put("nodeId", nodeId);
+            write.put("value", value);
+            writes.add(write);
+        });
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("writes", writes);
+
+        return apiContext.post(MicroservicesConfig.getWriteDataServiceUrl() + "/api/write/writeNodes",
+                RequestOptions.create()
+                        .setHeader("Content-Type", "application/json")
+                        .setData(payload));
+    }
+
     // ================= Kafka Service APIs =================
 
     public APIResponse processBrowseData(String nodeId, Map<String, Object> browseData) {
@@ -0,0 +1,207 @@
+package clients;
+
+import config.MicroservicesConfig;
+import org.HdrHistogram.Histogram;
+import performance.LatencyRecorder;
+import utils.EventFields;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the read service's subscription stream (server-sent events) and
+ * measures what arrives.
+ *
+ * <p>Each {@code data:} line carries a {@code seq} number and the epoch
+ * microsecond {@code sentAt} at which the server produced the update; an
+ * {@code event: end} carries the server's {@code lastSeq}. From these the
+ * consumer derives end-to-end latency (receive time minus {@code sentAt}, so
+ * across machines it includes their clock offset), updates never received,
+ * updates received after a later one and duplicates. Only the two numeric
+ * fields are pulled out of each event, without a JSON parse, so one consumer
+ * thread keeps up with 100k updates/s.
+ */
+public class SubscriptionStreamConsumer {
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    /**
+     * Opens a stream of {@code updatesPerSecond} updates lasting {@code duration}
+     * on the given nodes (the service's default nodes if null or empty) and
+     * consumes it to the end.
+     */
+    public Stats subscribe(int updatesPerSecond, Duration duration, List<String> nodeIds) {
+        StringBuilder url = new StringBuilder(MicroservicesConfig.getReadDataServiceUrl())
+            .append("/api/read/subscriptionStream?rate=").append(updatesPerSecond)
+            .append("&durationMs=").append(duration.toMillis());
+        if (nodeIds != null && !nodeIds.isEmpty()) {
+            url.append("&nodeIds=").append(URLEncoder.encode(String.join(",", nodeIds), StandardCharsets.UTF_8));
+        }
+        return consume(URI.create(url.toString()));
+    }
+
+    public Stats consume(URI streamUri) {
+        HttpRequest request = HttpRequest.newBuilder(streamUri)
+            .header("Accept", "text/event-stream")
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        try {
+            HttpResponse<InputStream> response = HTTP.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException("Subscription stream " + streamUri + " answered " + response.statusCode()
+                        + ": " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                return consume(body);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to consume subscription stream " + streamUri + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while consuming subscription stream " + streamUri, e);
+        }
+    }
+
+    /** Reads events until the stream's end event or end of input. */
+    public Stats consume(InputStream events) throws IOException {
+        Stats stats = new Stats();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(events, StandardCharsets.UTF_8), 64 * 1024);
+        String eventType = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                eventType = null;
+            } else if (line.startsWith("event:")) {
+                eventType = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if ("end".equals(eventType)) {
+                    stats.end(EventFields.longField(line, "\"lastSeq\":"));
+                    break;
+                }
+                long seq = EventFields.longField(line, "\"seq\":");
+                long sentAt = EventFields.longField(line, "\"sentAt\":");
+                if (seq >= 0) {
+                    stats.update(seq, sentAt, EventFields.epochMicros());
+                }
+            }
+        }
+        stats.finish();
+        return stats;
+    }
+
+    // ================= Results =================
+
+    /** What one consumer saw of a stream; latencies are in nanoseconds. */
+    public static final class Stats {
+        private final Histogram latency = LatencyRecorder.newHistogram();
+        private final BitSet seen = new BitSet();
+        private final long startNanos = System.nanoTime();
+        private long base = -1;
+        private long received;
+        private long distinct;
+        private long duplicates;
+        private long outOfOrder;
+        private long highestSeq = -1;
+        private long lowestSeq = Long.MAX_VALUE;
+        private long lastSeq = -1;
+        private boolean completed;
+        private long durationNanos;
+
+        void update(long seq, long sentAtMicros, long receivedAtMicros) {
+            received++;
+            if (sentAtMicros >= 0) {
+                long nanos = TimeUnit.MICROSECONDS.toNanos(receivedAtMicros - sentAtMicros);
+                latency.recordValue(Math.max(1, Math.min(nanos, latency.getHighestTrackableValue())));
+            }
+            if (base < 0) {
+                base = Math.max(0, seq - 1);
+            }
+            if (seq <= highestSeq) {
+                if (seq > base && seq - base <= Integer.MAX_VALUE && seen.get((int) (seq - base))) {
+                    duplicates++;
+                    return;
+                }
+                outOfOrder++;
+            }
+            if (seq > base && seq - base <= Integer.MAX_VALUE) {
+                seen.set((int) (seq - base));
+            }
+            distinct++;
+            highestSeq = Math.max(highestSeq, seq);
+            lowestSeq = Math.min(lowestSeq, seq);
+        }
+
+        void end(long serverLastSeq) {
+            completed = true;
+            lastSeq = serverLastSeq;
+        }
+
+        void finish() {
+            durationNanos = System.nanoTime() - startNanos;
+            if (lastSeq < 0) {
+                lastSeq = highestSeq;
+            }
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        /** Updates between the first one received and the stream's last sequence number that never arrived. */
+        public long getDropped() {
+            return distinct == 0 ? Math.max(0, lastSeq) : Math.max(0, lastSeq - lowestSeq + 1 - distinct);
+        }
+
+        public long getOutOfOrder() {
+            return outOfOrder;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getLastSeq() {
+            return lastSeq;
+        }
+
+        /** Whether the server's end event arrived, i.e. the stream was not cut off. */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public Histogram getLatencyHistogram() {
+            return latency;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public double getUpdatesPerSecond() {
+            return durationNanos == 0 ? 0 : received * 1e9 / durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("received=%d (%.0f/s), dropped=%d, outOfOrder=%d, duplicates=%d, completed=%s, "
+                    + "latency p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                received, getUpdatesPerSecond(), getDropped(), outOfOrder, duplicates, completed,
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package clients;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import utils.LightweightMockServer;
+import utils.UnifiedMockServer;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.*;
+
+public class SubscriptionStreamConsumerTest {
+    private final SubscriptionStreamConsumer consumer = new SubscriptionStreamConsumer();
+    private LightweightMockServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new LightweightMockServer(new UnifiedMockServer(), 0);
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void testCountsDropsReorderingAndDuplicates() throws Exception {
+        long now = System.currentTimeMillis() * 1000;
+        StringBuilder events = new StringBuilder();
+        for (long seq : new long[] {1, 2, 4, 3, 3, 6, 8}) {
+            events.append("id: ").append(seq).append('\n')
+                .append("data: {\"seq\":").append(seq).append(",\"nodeId\":\"ns=4;i=1\",\"value\":1.0,\"sentAt\":")
+                .append(now).append("}\n\n");
+        }
+        events.append("event: end\ndata: {\"lastSeq\":9,\"sent\":7}\n\n");
+
+        SubscriptionStreamConsumer.Stats stats = consumer.consume(new ByteArrayInputStream(events.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(stats.isCompleted());
+        assertEquals(stats.getReceived(), 7);
+        assertEquals(stats.getOutOfOrder(), 1);
+        assertEquals(stats.getDuplicates(), 1);
+        assertEquals(stats.getDropped(), 9 - 6);
+        assertEquals(stats.getLatencyHistogram().getTotalCount(), 7);
+    }
+
+    @Test
+    public void testConsumesMockStreamAtRate() {
+        SubscriptionStreamConsumer.Stats stats = consumer.consume(uri("rate=20000&durationMs=1000"));
+
+        assertTrue(stats.isCompleted(), stats.toString());
+        assertTrue(stats.getLastSeq() > 15_000, "Mock produced only " + stats.getLastSeq() + " updates: " + stats);
+        assertEquals(stats.getReceived(), stats.getLastSeq());
+        assertEquals(stats.getDropped(), 0);
+        assertEquals(stats.getOutOfOrder(), 0);
+        assertTrue(stats.getLatencyHistogram().getValueAtPercentile(50) < 1_000_000_000L, stats.toString());
+    }
+
+    @Test
+    public void testSimulatedQueueLossIsReportedAsDrops() {
+        SubscriptionStreamConsumer.Stats stats = consumer.consume(uri("rate=10000&durationMs=500&dropRate=0.05"));
+
+        assertTrue(stats.isCompleted());
+        assertEquals(stats.getReceived() + stats.getDropped(), stats.getLastSeq());
+        assertTrue(stats.getDropped() > 0, stats.toString());
+    }
+
+    @Test
+    public void testRejectsNonNumericNodes() {
+        try {
+            consumer.consume(uri("nodeIds=MCOM&durationMs=100"));
+            fail("String node must not be streamable");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("400"), e.getMessage());
+        }
+    }
+
+    private URI uri(String query) {
+        return URI.create("http://localhost:" + server.getPort() + "/read/api/read/subscriptionStream?" + query);
+    }
+}
@@ -0,0 +1,31 @@
+package clients;
+
+import config.TestConfigManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reads every partition of one topic, without a consumer group: the test sees
+ * all records from where it {@link #seekToEnd() started}, whoever else consumes.
+ * Not safe for use from several threads.
+ */
+public interface TopicConsumer extends AutoCloseable {
+
+    /**
+     * Consumer of the topic on the broker behind the Kafka service: the embedded
+     * broker of the mock server in mock mode, {@code kafka.bootstrap.servers} otherwise.
+     */
+    static TopicConsumer forTopic(String topic) {
+        return TestConfigManager.isMockMode() ? new EmbeddedTopicConsumer(topic) : new KafkaTopicConsumer(topic);
+    }
+
+    /** Skips what is already on the topic, so the next poll returns only records produced from now on. */
+    void seekToEnd();
+
+    /** Records after the current position, waiting up to the timeout for the first one; empty if none arrived. */
+    List<TopicRecord> poll(Duration timeout);
+
+    @Override
+    void close();
+}
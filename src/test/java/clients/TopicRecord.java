@@ -0,0 +1,60 @@
+package clients;
+
+import java.nio.charset.StandardCharsets;
+
+/** One record consumed from a topic; the timestamp is the producer's create time in epoch milliseconds. */
+public final class TopicRecord {
+    private final String topic;
+    private final int partition;
+    private final long offset;
+    private final long timestamp;
+    private final byte[] key;
+    private final byte[] value;
+
+    public TopicRecord(String topic, int partition, long offset, long timestamp, byte[] key, byte[] value) {
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+        this.timestamp = timestamp;
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte[] getKey() {
+        return key;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public String getKeyAsString() {
+        return key == null ? null : new String(key, StandardCharsets.UTF_8);
+    }
+
+    public String getValueAsString() {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return topic + "-" + partition + "@" + offset + " key=" + getKeyAsString()
+            + " (" + (value == null ? 0 : value.length) + " bytes)";
+    }
+}
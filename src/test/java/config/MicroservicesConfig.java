@@ -1,10 +1,14 @@
 package config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
 public class MicroservicesConfig {
+    private static final Logger log = LoggerFactory.getLogger(MicroservicesConfig.class);
     private static Properties config;
     
     static {
@@ -13,35 +17,65 @@ public class MicroservicesConfig {
             if (input != null) {
                 config.load(input);
             } else {
-                System.err.println("Warning: microservices-config.properties not found in resources. Using default values.");
+                log.warn("microservices-config.properties not found in resources. Using default values.");
             }
         } catch (IOException e) {
-            System.err.println("Warning: Error loading microservices-config.properties: " + e.getMessage() + ". Using default values.");
+            log.warn("Error loading microservices-config.properties: {}. Using default values.", e.getMessage());
         }
     }
     
-    // Helper method to safely parse integer properties
+    // Helper method to safely parse integer properties (system properties take precedence)
     private static int getIntProperty(String key, int defaultValue) {
         try {
-            String value = config.getProperty(key);
+            String value = System.getProperty(key, config.getProperty(key));
             return value != null ? Integer.parseInt(value) : defaultValue;
         } catch (NumberFormatException e) {
-            System.err.println("Warning: Invalid integer value for key '" + key + "', using default: " + defaultValue);
+            log.warn("Invalid integer value for key '{}', using default: {}", key, defaultValue);
             return defaultValue;
         }
     }
     
-    // Helper method to safely parse boolean properties
+    // Helper method to safely parse boolean properties (system properties take precedence)
     private static boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = config.getProperty(key);
+        String value = System.getProperty(key, config.getProperty(key));
         return value != null ? Boolean.parseBoolean(value) : defaultValue;
     }
     
+    // Mock Server Configuration
+    // Port the unified mock server is bound to; published once it starts, since it may be ephemeral
+    private static volatile int mockServerPort = TestConfigManager.getMockServerPort();
+    private static final ThreadLocal<Integer> threadMockServerPort = new InheritableThreadLocal<>();
+    
+    public static String getMockServerUrl() {
+        return "http://localhost:" + getMockServerPort();
+    }
+    
+    public static int getMockServerPort() {
+        Integer threadPort = threadMockServerPort.get();
+        return threadPort != null ? threadPort : mockServerPort;
+    }
+    
+    public static void setMockServerPort(int port) {
+        mockServerPort = port;
+    }
+    
+    /**
+     * Points the calling thread, and threads it starts afterwards, at its own mock
+     * server instance instead of the shared one; {@code null} reverts to the shared one.
+     */
+    public static void setThreadMockServerPort(Integer port) {
+        if (port == null) {
+            threadMockServerPort.remove();
+        } else {
+            threadMockServerPort.set(port);
+        }
+    }
+    
     // Service Registry Configuration
     public static String getServiceRegistryUrl() {
         // Check if we're in mock mode and use unified mock server
         if (TestConfigManager.isMockMode()) {
-            return "http://localhost:8085/eureka";
+            return getMockServerUrl() + "/eureka";
         }
         return config.getProperty("service.registry.url", "http://localhost:8761");
     }
@@ -54,7 +88,7 @@ public class MicroservicesConfig {
     public static String getOpcUaServiceUrl() {
         // Check if we're in mock mode and use unified mock server
         if (TestConfigManager.isMockMode()) {
-            return "http://localhost:8085/opcua";
+            return getMockServerUrl() + "/opcua";
         }
         return config.getProperty("opcua.service.url", "http://localhost:8081");
     }
@@ -95,7 +129,7 @@ public class MicroservicesConfig {
     public static String getReadDataServiceUrl() {
         // Check if we're in mock mode and use unified mock server
         if (TestConfigManager.isMockMode()) {
-            return "http://localhost:8085/read";
+            return getMockServerUrl() + "/read";
         }
         return config.getProperty("readdata.service.url", "http://localhost:8082");
     }
@@ -108,7 +142,7 @@ public class MicroservicesConfig {
     public static String getKafkaServiceUrl() {
         // Check if we're in mock mode and use unified mock server
         if (TestConfigManager.isMockMode()) {
-            return "http://localhost:8085/kafka";
+            return getMockServerUrl() + "/kafka";
         }
         return config.getProperty("kafka.service.url", "http://localhost:8083");
     }
@@ -129,7 +163,7 @@ public class MicroservicesConfig {
     public static String getWriteDataServiceUrl() {
         // Check if we're in mock mode and use unified mock server
         if (TestConfigManager.isMockMode()) {
-            return "http://localhost:8085/write";
+            return getMockServerUrl() + "/write";
         }
         return config.getProperty("writedata.service.url", "http://localhost:8084");
     }
@@ -155,6 +189,18 @@ public class MicroservicesConfig {
         return getIntProperty("test.parallel.threads", 5);
     }
     
+    public static int getAsyncClientMaxConnections() {
+        return getIntProperty("async.client.max.connections", 8);
+    }
+    
+    public static int getAsyncClientBatchMaxSize() {
+        return getIntProperty("async.client.batch.max.size", 500);
+    }
+    
+    public static int getAsyncClientBatchMaxDelayMs() {
+        return getIntProperty("async.client.batch.max.delay.ms", 2);
+    }
+    
     // Performance Testing Configuration
     public static boolean isPerformanceTestEnabled() {
         return getBooleanProperty("performance.test.enabled", true);
@@ -172,6 +218,55 @@ public class MicroservicesConfig {
         return getIntProperty("performance.test.ramp.up", 60);
     }
     
+    public static int getPerformanceTestArrivalRate() {
+        return getIntProperty("performance.test.arrival.rate", 2000);
+    }
+    
+    public static int getPerformanceTestMaxConcurrency() {
+        return getIntProperty("performance.test.arrival.max.concurrency", 50);
+    }
+    
+    public static int getPerformanceTestStreamRate() {
+        return getIntProperty("performance.test.stream.rate", 10000);
+    }
+    
+    public static int getPerformanceTestStreamDuration() {
+        return getIntProperty("performance.test.stream.duration", 30);
+    }
+    
+    public static int getPerformanceTestBatchTags() {
+        return getIntProperty("performance.test.batch.tags", 5000);
+    }
+    
+    public static int getPerformanceTestKafkaMessages() {
+        return getIntProperty("performance.test.kafka.messages", 5000);
+    }
+    
+    public static int getPerformanceTestKafkaTagsPerMessage() {
+        return getIntProperty("performance.test.kafka.tags.per.message", 20);
+    }
+    
+    public static int getPerformanceTestChangeTags() {
+        return getIntProperty("performance.test.change.tags", 20000);
+    }
+    
+    public static int getPerformanceTestChangeRounds() {
+        return getIntProperty("performance.test.change.rounds", 20);
+    }
+    
+    // Latency SLO Configuration (milliseconds per endpoint, 0 = no budget)
+    public static int getLatencySloP95Millis(String endpoint) {
+        return getIntProperty("slo." + endpoint + ".p95", 0);
+    }
+    
+    public static int getLatencySloP99Millis(String endpoint) {
+        return getIntProperty("slo." + endpoint + ".p99", 0);
+    }
+    
+    public static int getLatencySloMinSamples() {
+        return getIntProperty("slo.min.samples", 100);
+    }
+    
     // Validation Configuration
     public static boolean isSchemaValidationEnabled() {
         return getBooleanProperty("validation.schema.enabled", true);
@@ -71,5 +71,32 @@ public class MicroservicesConfigTest {
         // Just verify they don't throw exceptions - the actual values depend on config
         assertTrue(true); // If we get here, no exceptions were thrown
     }
+    
+    @Test
+    public void testLatencySloConfiguration() {
+        assertTrue(MicroservicesConfig.getLatencySloMinSamples() > 0);
+        assertTrue(MicroservicesConfig.getLatencySloP95Millis("readValue") > 0);
+        assertTrue(MicroservicesConfig.getLatencySloP99Millis("readValue") >= MicroservicesConfig.getLatencySloP95Millis("readValue"));
+        assertEquals(MicroservicesConfig.getLatencySloP95Millis("unknownEndpoint"), 0);
+    }
+    
+    @Test
+    public void testThreadMockServerPortOverride() throws InterruptedException {
+        int sharedPort = MicroservicesConfig.getMockServerPort();
+        MicroservicesConfig.setThreadMockServerPort(49999);
+        try {
+            assertEquals(MicroservicesConfig.getMockServerUrl(), "http://localhost:49999");
+            int[] childPort = new int[1];
+            Thread child = new Thread(() -> childPort[0] = MicroservicesConfig.getMockServerPort());
+            child.start();
+            child.join();
+            assertEquals(childPort[0], 49999);
+            if (TestConfigManager.isMockMode()) {
+                assertEquals(MicroservicesConfig.getReadDataServiceUrl(), "http://localhost:49999/read");
+            }
+        } finally {
+            MicroservicesConfig.setThreadMockServerPort(null);
+        }
+        assertEquals(MicroservicesConfig.getMockServerPort(), sharedPort);
+    }
 }
-
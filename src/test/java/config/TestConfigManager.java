@@ -1,10 +1,16 @@
 package config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 public class TestConfigManager {
+    private static final Logger log = LoggerFactory.getLogger(TestConfigManager.class);
     private static Properties config;
     
     static {
@@ -12,20 +18,20 @@ public class TestConfigManager {
         try (InputStream input = TestConfigManager.class.getClassLoader().getResourceAsStream("test-config-comprehensive.properties")) {
             if (input != null) {
                 config.load(input);
-                System.out.println("Loaded comprehensive test configuration");
+                log.info("Loaded comprehensive test configuration");
             } else {
                 // Fallback to default config
                 try (InputStream fallbackInput = TestConfigManager.class.getClassLoader().getResourceAsStream("test-config.properties")) {
                     if (fallbackInput != null) {
                         config.load(fallbackInput);
-                        System.out.println("Loaded fallback test configuration");
+                        log.info("Loaded fallback test configuration");
                     } else {
-                        System.err.println("Warning: No test configuration files found. Using default values.");
+                        log.warn("No test configuration files found. Using default values.");
                     }
                 }
             }
         } catch (IOException e) {
-            System.err.println("Warning: Error loading test configuration: " + e.getMessage() + ". Using default values.");
+            log.warn("Error loading test configuration: {}. Using default values.", e.getMessage());
         }
     }
     
@@ -46,8 +52,90 @@ public class TestConfigManager {
         return "real".equalsIgnoreCase(getTestMode());
     }
     
+    /** Configured mock server port; 0 binds an ephemeral port (see MicroservicesConfig.getMockServerPort for the bound one). */
     public static int getMockServerPort() {
-        return Integer.parseInt(config.getProperty("mock.server.port", "8081"));
+        String systemProperty = System.getProperty("mock.server.port");
+        if (systemProperty != null && !systemProperty.isEmpty()) {
+            return Integer.parseInt(systemProperty);
+        }
+        return Integer.parseInt(config.getProperty("mock.server.port", "0"));
+    }
+    
+    /** "suite" shares one mock server between all classes; "class" gives each class its own instance. */
+    public static boolean isMockServerPerClass() {
+        String systemProperty = System.getProperty("mock.server.isolation");
+        if (systemProperty != null && !systemProperty.isEmpty()) {
+            return "class".equalsIgnoreCase(systemProperty);
+        }
+        return "class".equalsIgnoreCase(config.getProperty("mock.server.isolation", "suite"));
+    }
+    
+    /** Engine serving the mock endpoints: "lightweight" (JDK HttpServer) or "spring" (Spring Boot + Tomcat). */
+    public static String getMockServerEngine() {
+        String systemProperty = System.getProperty("mock.server.engine");
+        if (systemProperty != null && !systemProperty.isEmpty()) {
+            return systemProperty;
+        }
+        return config.getProperty("mock.server.engine", "lightweight");
+    }
+    
+    public static boolean isLightweightMockServerEngine() {
+        return !"spring".equalsIgnoreCase(getMockServerEngine());
+    }
+    
+    /** Classpath resource the mock server's simulated address space is seeded from. */
+    public static String getMockAddressSpaceSeed() {
+        return config.getProperty("mock.address.space.seed", "mock-address-space.csv");
+    }
+    
+    /** Number of generated Double tags (ns=4;i=1..N) added to the simulated address space. */
+    public static int getMockAddressSpaceGeneratedTags() {
+        String systemProperty = System.getProperty("mock.address.space.generated.tags");
+        if (systemProperty != null && !systemProperty.isEmpty()) {
+            return Integer.parseInt(systemProperty);
+        }
+        return Integer.parseInt(config.getProperty("mock.address.space.generated.tags", "0"));
+    }
+    
+    /** Node trees the mock Kafka service's hasChanged keeps for incremental checks; the least recently used go first. */
+    public static int getMockChangeTrackedNodes() {
+        return Integer.parseInt(config.getProperty("mock.change.tracked.nodes", "1024"));
+    }
+    
+    /**
+     * Fault injection settings of the mock server: every {@code mock.fault.*} key
+     * from the config file and system properties (which win), without the prefix.
+     */
+    public static Map<String, String> getMockFaultSettings() {
+        return getSettingsWithPrefix("mock.fault.");
+    }
+    
+    /**
+     * Embedded Kafka broker and producer settings of the mock Kafka service: every
+     * {@code mock.kafka.*} key from the config file and system properties (which win),
+     * without the prefix.
+     */
+    public static Map<String, String> getMockKafkaSettings() {
+        return getSettingsWithPrefix("mock.kafka.");
+    }
+    
+    /**
+     * Every key starting with {@code prefix} from the config file and system
+     * properties (which win), with the prefix removed.
+     */
+    private static Map<String, String> getSettingsWithPrefix(String prefix) {
+        Map<String, String> settings = new TreeMap<>();
+        for (String name : config.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                settings.put(name.substring(prefix.length()), config.getProperty(name));
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                settings.put(name.substring(prefix.length()), System.getProperty(name));
+            }
+        }
+        return settings;
     }
     
     public static boolean isMockServicesEnabled() {
@@ -71,6 +159,10 @@ public class TestConfigManager {
         return Integer.parseInt(config.getProperty("real.services.check.interval", "5"));
     }
     
+    public static int getRealServicesProbeInitialBackoff() {
+        return Integer.parseInt(config.getProperty("real.services.probe.initial.backoff", "200"));
+    }
+    
     public static boolean isHealthCheckEnabled() {
         return Boolean.parseBoolean(config.getProperty("health.check.enabled", "true"));
     }
@@ -79,6 +171,10 @@ public class TestConfigManager {
         return Integer.parseInt(config.getProperty("health.check.timeout", "30"));
     }
     
+    public static int getHealthCheckCacheTtl() {
+        return Integer.parseInt(config.getProperty("health.check.cache.ttl", "60"));
+    }
+    
     public static int getHealthCheckRetryCount() {
         return Integer.parseInt(config.getProperty("health.check.retry.count", "3"));
     }
@@ -91,6 +187,29 @@ public class TestConfigManager {
         return Integer.parseInt(config.getProperty("test.parallel.threads", "3"));
     }
     
+    public static int getPlaywrightPoolMaxSize() {
+        // One per parallel TestNG thread at least, otherwise one per core
+        String defaultSize = String.valueOf(Math.max(Runtime.getRuntime().availableProcessors(), getTestParallelThreads()));
+        return Integer.parseInt(config.getProperty("playwright.pool.max.size", defaultSize));
+    }
+    
+    public static int getPlaywrightPoolWarmUp() {
+        return Integer.parseInt(config.getProperty("playwright.pool.warmup", String.valueOf(getTestParallelThreads())));
+    }
+    
+    public static int getDataProviderPrefetchRows() {
+        return Integer.parseInt(config.getProperty("data.provider.prefetch.rows", "4096"));
+    }
+    
+    public static int getDataProviderChunkRows() {
+        return Integer.parseInt(config.getProperty("data.provider.chunk.rows", "256"));
+    }
+    
+    public static int getDataProviderDecodeThreads() {
+        return Integer.parseInt(config.getProperty("data.provider.decode.threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+    
     public static int getTestTimeout() {
         return Integer.parseInt(config.getProperty("test.timeout", "30000"));
     }
@@ -110,5 +229,42 @@ public class TestConfigManager {
     public static boolean isAllureReportEnabled() {
         return Boolean.parseBoolean(config.getProperty("report.allure.enabled", "true"));
     }
+    
+    public static int getReportFlushIntervalMillis() {
+        return Integer.parseInt(config.getProperty("report.flush.interval.ms", "5000"));
+    }
+    
+    public static boolean isReportEventLogEnabled() {
+        return Boolean.parseBoolean(config.getProperty("report.event.log.enabled", "false"));
+    }
+    
+    /**
+     * Whether the event log is replayed into the HTML report in the test JVM at suite end.
+     * Off by default: the replay holds the whole Extent model, which soak runs cannot afford.
+     */
+    public static boolean isReportEventLogRenderEnabled() {
+        return Boolean.parseBoolean(config.getProperty("report.event.log.render", "false"));
+    }
+    
+    /** How API response bodies are logged: "full", "truncate" or "sample" (see utils.ResponseLogPolicy). */
+    public static String getResponseLogMode() {
+        String systemProperty = System.getProperty("response.log.mode");
+        if (systemProperty != null && !systemProperty.isEmpty()) {
+            return systemProperty;
+        }
+        return config.getProperty("response.log.mode", "truncate");
+    }
+    
+    public static int getResponseLogMaxBytes() {
+        return Integer.parseInt(config.getProperty("response.log.max.bytes", "2048"));
+    }
+    
+    public static int getResponseLogSamplesPerEndpoint() {
+        return Integer.parseInt(config.getProperty("response.log.samples.per.endpoint", "5"));
+    }
+    
+    public static int getResponseLogFailureResponses() {
+        return Integer.parseInt(config.getProperty("response.log.failure.responses", "20"));
+    }
 }
 
@@ -0,0 +1,27 @@
+package performance;
+
+import clients.MicroservicesApiClient;
+import com.microsoft.playwright.APIResponse;
+
+/**
+ * One API call issued by a load driver against the calling worker's own client.
+ * Responses with status &gt;= 400, and calls that throw, count as errors.
+ */
+public interface ApiOperation {
+    APIResponse execute(MicroservicesApiClient client);
+
+    /**
+     * Frees the body of a response whose status has been read. Playwright keeps
+     * every body until the context is disposed, so long runs would grow without it.
+     */
+    static void release(APIResponse response) {
+        if (response == null) {
+            return;
+        }
+        try {
+            response.dispose();
+        } catch (RuntimeException e) {
+            // The context is already gone, and the body with it
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package performance;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Per-tag cost of moving a set of tags one per request versus many per request.
+ *
+ * <p>{@link #run} issues every call of a mode at once (the async client queues
+ * what exceeds its connection limit) and waits for all of them. Each call covers
+ * {@code tagsPerCall} tags, and its latency is recorded once per tag it carried,
+ * so the percentiles are what a single tag waited, including time spent queued
+ * behind other requests or lingering in a micro-batch. Throughput is tags per
+ * second of wall time for the whole set.
+ */
+public final class BatchingBenchmark {
+
+    private BatchingBenchmark() {
+    }
+
+    /**
+     * Moves {@code tags} tags in calls of {@code tagsPerCall}; {@code call} issues
+     * call {@code n}, covering tags {@code n * tagsPerCall} up to the next call's
+     * first, and completes with whether all of its tags succeeded.
+     */
+    public static Result run(String mode, int tags, int tagsPerCall, IntFunction<CompletableFuture<Boolean>> call) {
+        if (tags <= 0 || tagsPerCall <= 0) {
+            throw new IllegalArgumentException("tags and tagsPerCall must be positive");
+        }
+        int calls = (tags + tagsPerCall - 1) / tagsPerCall;
+        Histogram latency = LatencyRecorder.newHistogram();
+        AtomicLong failedTags = new AtomicLong();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(calls);
+        long start = System.nanoTime();
+        for (int n = 0; n < calls; n++) {
+            int carried = Math.min(tagsPerCall, tags - n * tagsPerCall);
+            long sent = System.nanoTime();
+            CompletableFuture<Boolean> result;
+            try {
+                result = call.apply(n);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            pending.add(result.handle((ok, error) -> {
+                long nanos = System.nanoTime() - sent;
+                synchronized (latency) {
+                    latency.recordValueWithCount(Math.max(1, Math.min(nanos, latency.getHighestTrackableValue())), carried);
+                }
+                if (error != null || !Boolean.TRUE.equals(ok)) {
+                    failedTags.addAndGet(carried);
+                }
+                return null;
+            }));
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(10, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Batching benchmark " + mode + " did not finish within 10 minutes", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during batching benchmark " + mode, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Batching benchmark " + mode + " failed: " + e.getMessage(), e);
+        }
+        return new Result(mode, tags, calls, failedTags.get(), latency, System.nanoTime() - start);
+    }
+
+    /** Side-by-side table of several modes over the same tags. */
+    public static String compare(String operation, Result... results) {
+        StringBuilder table = new StringBuilder(String.format("%s per-tag latency and throughput%n", operation));
+        table.append(String.format("%-14s %8s %8s %8s %12s %10s %10s %10s%n",
+            "mode", "tags", "calls", "failed", "tags/s", "p50 ms", "p99 ms", "max ms"));
+        for (Result result : results) {
+            Histogram latency = result.getLatencyHistogram();
+            table.append(String.format("%-14s %8d %8d %8d %12.0f %10.3f %10.3f %10.3f%n",
+                result.getMode(), result.getTags(), result.getCalls(), result.getFailedTags(), result.getTagsPerSecond(),
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6, latency.getMaxValue() / 1e6));
+        }
+        return table.toString();
+    }
+
+    /** One mode's outcome; latencies are in nanoseconds, one sample per tag. */
+    public static final class Result {
+        private final String mode;
+        private final int tags;
+        private final int calls;
+        private final long failedTags;
+        private final Histogram latency;
+        private final long elapsedNanos;
+
+        Result(String mode, int tags, int calls, long failedTags, Histogram latency, long elapsedNanos) {
+            this.mode = mode;
+            this.tags = tags;
+            this.calls = calls;
+            this.failedTags = failedTags;
+            this.latency = latency;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public int getTags() {
+            return tags;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+
+        public long getFailedTags() {
+            return failedTags;
+        }
+
+        public Histogram getLatencyHistogram() {
+            return latency;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getTagsPerSecond() {
+            return elapsedNanos == 0 ? 0 : tags * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d tags in %d calls, %d failed, %.0f tags/s, per-tag p50=%.3fms p99=%.3fms",
+                mode, tags, calls, failedTags, getTagsPerSecond(),
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package performance;
+
+import clients.MicroservicesApiClient;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.Playwright;
+import config.MicroservicesConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load driver. Requests are scheduled at a fixed arrival rate: request
+ * {@code n} is due at {@code start + n / rate}, whether or not earlier requests
+ * have completed. Latency is measured from that intended send time, so when the
+ * service stalls and the workers fall behind, the time spent waiting for a free
+ * worker is charged to the requests that waited instead of silently lowering the
+ * request rate (coordinated omission). Service time from the actual send is
+ * reported alongside for comparison.
+ *
+ * <p>Workers claim the next slot from a shared counter only when they are free,
+ * so {@code maxConcurrency} bounds the requests in flight; pick it large enough
+ * that rate &times; expected latency fits, otherwise the backlog shows up as
+ * growing response times.
+ */
+public class ConstantArrivalRateDriver {
+    private static final Logger log = LoggerFactory.getLogger(ConstantArrivalRateDriver.class);
+
+    private final double requestsPerSecond;
+    private final long durationMillis;
+    private final int maxConcurrency;
+    private final Map<String, ApiOperation> operations = new LinkedHashMap<>();
+
+    public ConstantArrivalRateDriver(double requestsPerSecond, long durationMillis, int maxConcurrency) {
+        if (requestsPerSecond <= 0 || durationMillis <= 0 || maxConcurrency <= 0) {
+            throw new IllegalArgumentException("rate, duration and concurrency must be positive");
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.durationMillis = durationMillis;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Builds the driver from performance.test.arrival.rate, performance.test.duration
+     * and performance.test.arrival.max.concurrency.
+     */
+    public static ConstantArrivalRateDriver fromConfig() {
+        return new ConstantArrivalRateDriver(
+            MicroservicesConfig.getPerformanceTestArrivalRate(),
+            TimeUnit.SECONDS.toMillis(MicroservicesConfig.getPerformanceTestDuration()),
+            MicroservicesConfig.getPerformanceTestMaxConcurrency());
+    }
+
+    public ConstantArrivalRateDriver addOperation(String endpoint, ApiOperation operation) {
+        if (operations.putIfAbsent(endpoint, operation) != null) {
+            throw new IllegalArgumentException("Operation already registered: " + endpoint);
+        }
+        return this;
+    }
+
+    public LoadTestResult run() {
+        if (operations.isEmpty()) {
+            throw new IllegalStateException("No operations registered");
+        }
+
+        String[] names = operations.keySet().toArray(new String[0]);
+        ApiOperation[] ops = operations.values().toArray(new ApiOperation[0]);
+        long intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        long totalRequests = (long) (requestsPerSecond * durationMillis / 1000.0);
+
+        AtomicLong nextSlot = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(maxConcurrency);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicReference<Throwable> setupFailure = new AtomicReference<>();
+        long[] startNanos = new long[1];
+        LatencyRecorder responseTimes = new LatencyRecorder();
+        LatencyRecorder serviceTimes = new LatencyRecorder();
+        List<Worker> workers = new ArrayList<>(maxConcurrency);
+        List<Thread> threads = new ArrayList<>(maxConcurrency);
+
+        for (int i = 0; i < maxConcurrency; i++) {
+            Worker worker = new Worker(names, responseTimes, serviceTimes);
+            workers.add(worker);
+            Thread thread = new Thread(() -> {
+                try (Playwright playwright = Playwright.create()) {
+                    MicroservicesApiClient client = new MicroservicesApiClient(playwright);
+                    try {
+                        ready.countDown();
+                        go.await();
+                        worker.run(client, ops, nextSlot, totalRequests, startNanos[0], intervalNanos);
+                    } finally {
+                        client.dispose();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable t) {
+                    setupFailure.compareAndSet(null, t);
+                    ready.countDown();
+                }
+            }, "arrival-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+
+        log.info("Starting open-model load run: {} req/s for {}ms ({} requests, max {} in flight), endpoints {}",
+            Math.round(requestsPerSecond), durationMillis, totalRequests, maxConcurrency, operations.keySet());
+        threads.forEach(Thread::start);
+
+        try {
+            ready.await();
+            if (setupFailure.get() != null) {
+                nextSlot.set(totalRequests);
+                go.countDown();
+                joinAll(threads);
+                throw new RuntimeException("Failed to start load workers: " + setupFailure.get().getMessage(), setupFailure.get());
+            }
+            startNanos[0] = System.nanoTime();
+            go.countDown();
+            joinAll(threads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load run interrupted", e);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos[0];
+
+        Map<String, LoadTestResult.EndpointStats> responseStats = new LinkedHashMap<>();
+        Map<String, LoadTestResult.EndpointStats> serviceStats = new LinkedHashMap<>();
+        for (int op = 0; op < names.length; op++) {
+            long errors = 0;
+            for (Worker worker : workers) {
+                errors += worker.errors[op];
+            }
+            responseStats.put(names[op],
+                LoadTestResult.EndpointStats.from(names[op], responseTimes.snapshot(names[op]), errors, elapsedNanos));
+            serviceStats.put(names[op],
+                LoadTestResult.EndpointStats.from(names[op], serviceTimes.snapshot(names[op]), errors, elapsedNanos));
+        }
+        return new LoadTestResult(String.format("Open-model %.0f req/s", requestsPerSecond),
+            elapsedNanos, responseStats, serviceStats);
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static class Worker {
+        private final String[] names;
+        private final LatencyRecorder responseTimes;
+        private final LatencyRecorder serviceTimes;
+        private final long[] errors;
+
+        Worker(String[] names, LatencyRecorder responseTimes, LatencyRecorder serviceTimes) {
+            this.names = names;
+            this.responseTimes = responseTimes;
+            this.serviceTimes = serviceTimes;
+            this.errors = new long[names.length];
+        }
+
+        void run(MicroservicesApiClient client, ApiOperation[] ops, AtomicLong nextSlot,
+                 long totalRequests, long runStartNanos, long intervalNanos) {
+            long slot;
+            while ((slot = nextSlot.getAndIncrement()) < totalRequests) {
+                long intended = runStartNanos + slot * intervalNanos;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                int op = (int) (slot % ops.length);
+                long sent = System.nanoTime();
+                long done;
+                boolean ok;
+                APIResponse response = null;
+                try {
+                    response = ops[op].execute(client);
+                    ok = response.status() < 400;
+                } catch (Exception e) {
+                    ok = false;
+                } finally {
+                    done = System.nanoTime();
+                    ApiOperation.release(response);
+                }
+                responseTimes.record(names[op], done - intended);
+                serviceTimes.record(names[op], done - sent);
+                if (!ok) {
+                    errors[op]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package performance;
+
+import clients.AsyncMicroservicesApiClient;
+import clients.TopicConsumer;
+import clients.TopicRecord;
+import config.TestConfigManager;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.EmbeddedKafkaProducer;
+import utils.EventFields;
+import utils.UnifiedMockServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes browse data through the Kafka service and measures what lands on the
+ * browse topic.
+ *
+ * <p>{@link #run} posts {@code messages} processBrowseData requests, at most
+ * {@code concurrency} in flight, each carrying a run id, a sequence number, the
+ * epoch microsecond {@code sentAt} and a browse result of {@code tagsPerMessage}
+ * tags. Meanwhile the calling thread consumes the topic and matches what
+ * arrives by run id and sequence number. Two latencies are recorded per
+ * message: end to end (consumed minus {@code sentAt}) and broker (consumed minus
+ * the record's create timestamp, so only millisecond resolution), the part
+ * batching and compression in the service's producer add. Throughput is
+ * messages consumed per second from the first request to the last record. In
+ * mock mode the mock Kafka service's producer reports how many batches the run
+ * took and how well they compressed.
+ */
+public final class KafkaPipelineBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(KafkaPipelineBenchmark.class);
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private KafkaPipelineBenchmark() {
+    }
+
+    public static Result run(String label, AsyncMicroservicesApiClient client, TopicConsumer consumer,
+                             int messages, int tagsPerMessage, int concurrency) {
+        if (messages <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("messages and concurrency must be positive");
+        }
+        String runId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        byte[] runMarker = ("\"runId\":\"" + runId + "\"").getBytes(StandardCharsets.UTF_8);
+        List<Map<String, Object>> tags = browseResult(tagsPerMessage);
+        EmbeddedKafkaProducer producer = TestConfigManager.isMockMode() ? UnifiedMockServer.getKafkaServiceProducer() : null;
+        EmbeddedKafkaProducer.Stats producerBefore = producer == null ? null : producer.getStats();
+        consumer.seekToEnd();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long start = System.nanoTime();
+        // Created on this thread, so it inherits the per-thread mock server URL
+        Thread sender = new Thread(() -> {
+            for (int seq = 1; seq <= messages; seq++) {
+                inFlight.acquireUninterruptibly();
+                Map<String, Object> browseData = new LinkedHashMap<>();
+                browseData.put("runId", runId);
+                browseData.put("seq", seq);
+                browseData.put("sentAt", EventFields.epochMicros());
+                browseData.put("tags", tags);
+                try {
+                    client.processBrowseData("ns=4;i=" + (seq % 1000 + 1), browseData).whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error == null && response.status() == 200) {
+                            accepted.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    failed.incrementAndGet();
+                }
+            }
+        }, "kafka-pipeline-sender");
+        sender.setDaemon(true);
+        sender.start();
+
+        Histogram endToEnd = LatencyRecorder.newHistogram();
+        Histogram broker = LatencyRecorder.newHistogram();
+        BitSet seen = new BitSet(messages + 1);
+        long received = 0;
+        long duplicates = 0;
+        long bytes = 0;
+        long lastProgress = System.nanoTime();
+        long lastReceived = start;
+        while (true) {
+            boolean sending = sender.isAlive() || accepted.get() + failed.get() < messages;
+            if (!sending && received >= accepted.get()) {
+                break;
+            }
+            if (System.nanoTime() - lastProgress > IDLE_TIMEOUT_NANOS) {
+                log.warn("Kafka pipeline {}: nothing consumed for 10s, giving up on {} messages", label, accepted.get() - received);
+                break;
+            }
+            for (TopicRecord record : consumer.poll(Duration.ofMillis(100))) {
+                byte[] value = record.getValue();
+                if (value == null || EventFields.indexOf(value, runMarker, 0) < 0) {
+                    continue;
+                }
+                long seq = EventFields.longField(value, "\"seq\":");
+                if (seq <= 0 || seq > messages) {
+                    continue;
+                }
+                if (seen.get((int) seq)) {
+                    duplicates++;
+                    continue;
+                }
+                seen.set((int) seq);
+                received++;
+                bytes += value.length;
+                long nowMicros = EventFields.epochMicros();
+                long sentAt = EventFields.longField(value, "\"sentAt\":");
+                if (sentAt > 0) {
+                    record(endToEnd, TimeUnit.MICROSECONDS.toNanos(nowMicros - sentAt));
+                }
+                record(broker, TimeUnit.MICROSECONDS.toNanos(nowMicros - record.getTimestamp() * 1000));
+                lastProgress = System.nanoTime();
+                lastReceived = lastProgress;
+            }
+        }
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        EmbeddedKafkaProducer.Stats producerStats = null;
+        if (producer != null) {
+            producer.flush();
+            producerStats = producer.getStats().since(producerBefore);
+        }
+        return new Result(label, messages, failed.get(), accepted.get(), received, duplicates, bytes,
+            endToEnd, broker, lastReceived - start, producerStats);
+    }
+
+    /** Side-by-side table of several runs. */
+    public static String compare(Result... results) {
+        StringBuilder table = new StringBuilder(String.format("Kafka browse pipeline: service -> topic -> consumer%n"));
+        table.append(String.format("%-22s %7s %7s %5s %9s %7s %9s %9s %9s %8s %7s%n",
+            "config", "sent", "missing", "dup", "msg/s", "MB/s", "e2e p50", "e2e p99", "brk p99", "rec/bat", "ratio"));
+        for (Result result : results) {
+            EmbeddedKafkaProducer.Stats producer = result.getProducerStats();
+            table.append(String.format("%-22s %7d %7d %5d %9.0f %7.2f %9.2f %9.2f %9.2f %8s %7s%n",
+                result.getLabel(), result.getSent(), result.getMissing(), result.getDuplicates(),
+                result.getMessagesPerSecond(), result.getBytesPerSecond() / 1e6,
+                result.getEndToEndHistogram().getValueAtPercentile(50) / 1e6,
+                result.getEndToEndHistogram().getValueAtPercentile(99) / 1e6,
+                result.getBrokerHistogram().getValueAtPercentile(99) / 1e6,
+                producer == null ? "-" : String.format("%.1f", producer.getAverageBatchRecords()),
+                producer == null ? "-" : String.format("%.3f", producer.getCompressionRatio())));
+        }
+        return table.toString();
+    }
+
+    /** A browse result of generated tags, the same for every message as consecutive browses of one node are. */
+    private static List<Map<String, Object>> browseResult(int tagsPerMessage) {
+        List<Map<String, Object>> tags = new ArrayList<>(tagsPerMessage);
+        for (int i = 1; i <= tagsPerMessage; i++) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("nodeId", "ns=4;i=" + i);
+            tag.put("browseName", "Tag_" + i);
+            tag.put("dataType", "Double");
+            tag.put("value", i * 0.5);
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.max(1, Math.min(nanos, histogram.getHighestTrackableValue())));
+    }
+
+    // ================= Results =================
+
+    /** One run's outcome; latencies are in nanoseconds, one sample per message consumed. */
+    public static final class Result {
+        private final String label;
+        private final int sent;
+        private final long failedRequests;
+        private final long accepted;
+        private final long received;
+        private final long duplicates;
+        private final long bytes;
+        private final Histogram endToEnd;
+        private final Histogram broker;
+        private final long elapsedNanos;
+        private final EmbeddedKafkaProducer.Stats producerStats;
+
+        Result(String label, int sent, long failedRequests, long accepted, long received, long duplicates, long bytes,
+               Histogram endToEnd, Histogram broker, long elapsedNanos, EmbeddedKafkaProducer.Stats producerStats) {
+            this.label = label;
+            this.sent = sent;
+            this.failedRequests = failedRequests;
+            this.accepted = accepted;
+            this.received = received;
+            this.duplicates = duplicates;
+            this.bytes = bytes;
+            this.endToEnd = endToEnd;
+            this.broker = broker;
+            this.elapsedNanos = elapsedNanos;
+            this.producerStats = producerStats;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getSent() {
+            return sent;
+        }
+
+        /** Requests the service did not answer with 200; nothing is expected on the topic for them. */
+        public long getFailedRequests() {
+            return failedRequests;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        /** Accepted messages that never reached the consumer. */
+        public long getMissing() {
+            return Math.max(0, accepted - received);
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public Histogram getEndToEndHistogram() {
+            return endToEnd;
+        }
+
+        public Histogram getBrokerHistogram() {
+            return broker;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getMessagesPerSecond() {
+            return elapsedNanos == 0 ? 0 : received * 1e9 / elapsedNanos;
+        }
+
+        /** Record value bytes consumed per second, before compression. */
+        public double getBytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+        }
+
+        /** Batches and compression of the mock Kafka service's producer during the run; null in real mode. */
+        public EmbeddedKafkaProducer.Stats getProducerStats() {
+            return producerStats;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d sent, %d failed, %d received (%.0f msg/s), %d missing, %d duplicates, "
+                    + "end-to-end p50=%.2fms p99=%.2fms, broker p99=%.2fms%s",
+                label, sent, failedRequests, received, getMessagesPerSecond(), getMissing(), duplicates,
+                endToEnd.getValueAtPercentile(50) / 1e6, endToEnd.getValueAtPercentile(99) / 1e6,
+                broker.getValueAtPercentile(99) / 1e6, producerStats == null ? "" : ", producer " + producerStats);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package performance;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanosecond latency recorder keyed by operation name, backed by HdrHistogram.
+ *
+ * <p>Every recording thread gets its own {@link SingleWriterRecorder} per
+ * operation, so {@link #record(String, long)} is wait-free, never contends with
+ * other threads and does not allocate once a thread has recorded into an
+ * operation. Each histogram covers 1ns..10min at 3 significant digits, so the
+ * footprint is fixed no matter how many samples are recorded; values above the
+ * range are clamped to it. Readers fold the per-thread intervals into a
+ * cumulative histogram ({@link #snapshot(String)}) and a since-last-read one
+ * ({@link #intervalSnapshot(String)}). Recorders of threads that have ended are
+ * folded in and dropped whenever a new thread starts recording, so pools that
+ * run every task on a fresh thread (as CompletableFuture does on a single-CPU
+ * machine) don't accumulate one recorder per task.
+ */
+public class LatencyRecorder {
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final LatencyRecorder SHARED = new LatencyRecorder();
+
+    private final Map<String, OperationHistogram> operations = new ConcurrentHashMap<>();
+
+    /** Suite-wide recorder used by the test base classes. */
+    public static LatencyRecorder shared() {
+        return SHARED;
+    }
+
+    public static Histogram newHistogram() {
+        return new Histogram(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    public void record(String operation, long nanos) {
+        operation(operation).localWriter().recordValue(Math.max(1, Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+    }
+
+    /** Adds an already merged histogram (e.g. from another recorder) to the given operation. */
+    public void add(String operation, Histogram histogram) {
+        operation(operation).add(histogram);
+    }
+
+    /** Cumulative histogram for the operation since the recorder was created or reset. */
+    public Histogram snapshot(String operation) {
+        OperationHistogram histogram = operations.get(operation);
+        return histogram == null ? newHistogram() : histogram.snapshot();
+    }
+
+    /** Histogram of values recorded since the previous interval snapshot of the operation. */
+    public Histogram intervalSnapshot(String operation) {
+        OperationHistogram histogram = operations.get(operation);
+        return histogram == null ? newHistogram() : histogram.intervalSnapshot();
+    }
+
+    public Set<String> getOperations() {
+        return new TreeSet<>(operations.keySet());
+    }
+
+    public void reset() {
+        operations.values().forEach(OperationHistogram::reset);
+    }
+
+    int getWriterCount(String operation) {
+        OperationHistogram histogram = operations.get(operation);
+        return histogram == null ? 0 : histogram.getWriterCount();
+    }
+
+    private OperationHistogram operation(String operation) {
+        OperationHistogram histogram = operations.get(operation);
+        if (histogram == null) {
+            histogram = operations.computeIfAbsent(operation, name -> new OperationHistogram());
+        }
+        return histogram;
+    }
+
+    // ================= Inner Classes =================
+
+    private static class OperationHistogram {
+        private final CopyOnWriteArrayList<ThreadWriter> writers = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<SingleWriterRecorder> localWriter = ThreadLocal.withInitial(this::newWriter);
+        private final Histogram accumulated = newHistogram();
+        private final Histogram sinceLastInterval = newHistogram();
+        private final Histogram scratch = newHistogram();
+
+        private synchronized SingleWriterRecorder newWriter() {
+            for (ThreadWriter writer : writers) {
+                if (!writer.isOwnerAlive()) {
+                    fold(writer.recorder);
+                    writers.remove(writer);
+                }
+            }
+            SingleWriterRecorder recorder = new SingleWriterRecorder(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            writers.add(new ThreadWriter(Thread.currentThread(), recorder));
+            return recorder;
+        }
+
+        SingleWriterRecorder localWriter() {
+            return localWriter.get();
+        }
+
+        int getWriterCount() {
+            return writers.size();
+        }
+
+        synchronized void add(Histogram histogram) {
+            accumulated.add(histogram);
+            sinceLastInterval.add(histogram);
+        }
+
+        synchronized Histogram snapshot() {
+            drain();
+            return accumulated.copy();
+        }
+
+        synchronized Histogram intervalSnapshot() {
+            drain();
+            Histogram interval = sinceLastInterval.copy();
+            sinceLastInterval.reset();
+            return interval;
+        }
+
+        synchronized void reset() {
+            drain();
+            accumulated.reset();
+            sinceLastInterval.reset();
+        }
+
+        private void drain() {
+            for (ThreadWriter writer : writers) {
+                fold(writer.recorder);
+            }
+        }
+
+        private void fold(SingleWriterRecorder recorder) {
+            recorder.getIntervalHistogramInto(scratch);
+            accumulated.add(scratch);
+            sinceLastInterval.add(scratch);
+        }
+    }
+
+    private static class ThreadWriter {
+        private final WeakReference<Thread> owner;
+        private final SingleWriterRecorder recorder;
+
+        ThreadWriter(Thread owner, SingleWriterRecorder recorder) {
+            this.owner = new WeakReference<>(owner);
+            this.recorder = recorder;
+        }
+
+        boolean isOwnerAlive() {
+            Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+    }
+}
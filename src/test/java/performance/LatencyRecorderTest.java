@@ -0,0 +1,83 @@
+package performance;
+
+import org.HdrHistogram.Histogram;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testConcurrentRecordingIsMergedPerOperation() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        int threads = 4;
+        int samplesPerThread = 100_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= samplesPerThread; i++) {
+                    recorder.record("read", i * 1_000L);
+                    recorder.record("write", 5_000_000L);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Histogram read = recorder.snapshot("read");
+        assertEquals(read.getTotalCount(), (long) threads * samplesPerThread);
+        assertEquals(read.getValueAtPercentile(50.0), 50_000_000L, 50_000_000L * 0.001);
+        assertEquals(read.getMaxValue(), 100_000_000L, 100_000_000L * 0.001);
+        assertEquals(recorder.snapshot("write").getTotalCount(), (long) threads * samplesPerThread);
+        assertEquals(recorder.getOperations().size(), 2);
+    }
+
+    @Test
+    public void testRecordersOfEndedThreadsAreFoldedAndDropped() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int task = 0; task < 200; task++) {
+            Thread shortLived = new Thread(() -> recorder.record("op", 1_000));
+            shortLived.start();
+            shortLived.join();
+        }
+
+        assertTrue(recorder.getWriterCount("op") <= 2, recorder.getWriterCount("op") + " recorders kept for ended threads");
+        assertEquals(recorder.snapshot("op").getTotalCount(), 200);
+    }
+
+    @Test
+    public void testIntervalSnapshotOnlyContainsNewSamples() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("op", 1_000);
+        recorder.record("op", 2_000);
+        assertEquals(recorder.intervalSnapshot("op").getTotalCount(), 2);
+
+        recorder.record("op", 3_000);
+        assertEquals(recorder.intervalSnapshot("op").getTotalCount(), 1);
+        assertEquals(recorder.intervalSnapshot("op").getTotalCount(), 0);
+        assertEquals(recorder.snapshot("op").getTotalCount(), 3);
+    }
+
+    @Test
+    public void testOutOfRangeValuesAreClamped() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("op", 0);
+        recorder.record("op", TimeUnit.HOURS.toNanos(1));
+
+        Histogram histogram = recorder.snapshot("op");
+        assertEquals(histogram.getTotalCount(), 2);
+        assertTrue(histogram.getMaxValue() <= TimeUnit.MINUTES.toNanos(10) * 1.001);
+    }
+
+    @Test
+    public void testUnknownOperationHasEmptySnapshot() {
+        assertEquals(new LatencyRecorder().snapshot("missing").getTotalCount(), 0);
+    }
+}
@@ -0,0 +1,91 @@
+package performance;
+
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Renders recorded latency histograms for the reports: a compact percentile
+ * table for Extent, and the full HdrHistogram percentile distribution (.hgrm,
+ * values in microseconds) for Allure attachments and files under
+ * test-output/latency. The .hgrm files can be plotted with the HdrHistogram
+ * plotter to compare runs.
+ */
+public final class LatencyReports {
+    private static final Logger log = LoggerFactory.getLogger(LatencyReports.class);
+    public static final String OUTPUT_DIR = "test-output/latency";
+
+    private static final double[] TABLE_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private LatencyReports() {
+    }
+
+    /** Percentile rows (first row is the header) in microseconds, suitable for MarkupHelper.createTable. */
+    public static String[][] percentileTable(Histogram histogram) {
+        String[][] rows = new String[TABLE_PERCENTILES.length + 3][];
+        rows[0] = new String[]{"percentile", "latency (us)"};
+        for (int i = 0; i < TABLE_PERCENTILES.length; i++) {
+            rows[i + 1] = new String[]{"p" + formatPercentile(TABLE_PERCENTILES[i]),
+                micros(histogram.getValueAtPercentile(TABLE_PERCENTILES[i]))};
+        }
+        rows[rows.length - 2] = new String[]{"max", micros(histogram.getMaxValue())};
+        rows[rows.length - 1] = new String[]{"count", String.valueOf(histogram.getTotalCount())};
+        return rows;
+    }
+
+    /** Full percentile distribution in HdrHistogram's .hgrm text format, values in microseconds. */
+    public static String percentileDistribution(Histogram histogram) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(buffer, true, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MICRO);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to render latency distribution: " + e.getMessage(), e);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public static void attachToAllure(String operation, Histogram histogram) {
+        Allure.addAttachment(operation + " latency distribution", "text/plain",
+            percentileDistribution(histogram), ".hgrm");
+    }
+
+    /** Writes one .hgrm file per operation of the recorder to {@link #OUTPUT_DIR}. */
+    public static void writeDistributions(LatencyRecorder recorder) {
+        Path dir = Paths.get(OUTPUT_DIR);
+        try {
+            Files.createDirectories(dir);
+            for (String operation : recorder.getOperations()) {
+                Histogram histogram = recorder.snapshot(operation);
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                Files.write(dir.resolve(fileName(operation)),
+                    percentileDistribution(histogram).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            log.error("Failed to write latency distributions: {}", e.getMessage());
+        }
+    }
+
+    private static String fileName(String operation) {
+        return operation.replaceAll("[^A-Za-z0-9._-]+", "_") + ".hgrm";
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / NANOS_PER_MICRO);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,175 @@
+package performance;
+
+import clients.MicroservicesApiClient;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.Playwright;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Closed-loop load generator. Each virtual user owns a Playwright instance and a
+ * {@link MicroservicesApiClient} (Playwright objects are not thread-safe) and
+ * cycles through the registered operations back to back until the run ends.
+ * Users are brought online evenly across the ramp-up period.
+ *
+ * <pre>
+ * LoadTestResult result = new LoadGenerator(LoadProfile.fromConfig())
+ *     .addOperation("readValue", client -&gt; client.readValue("ns=3;s=\"PLC_To_WMS\""))
+ *     .addOperation("writeNode", client -&gt; client.writeNode("ns=3;s=DataBlocksGlobal", 42))
+ *     .run();
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final LoadProfile profile;
+    private final Map<String, ApiOperation> operations = new LinkedHashMap<>();
+
+    public LoadGenerator(LoadProfile profile) {
+        this.profile = profile;
+    }
+
+    public LoadGenerator addOperation(String endpoint, ApiOperation operation) {
+        if (operations.putIfAbsent(endpoint, operation) != null) {
+            throw new IllegalArgumentException("Operation already registered: " + endpoint);
+        }
+        return this;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public LoadTestResult run() {
+        if (operations.isEmpty()) {
+            throw new IllegalStateException("No operations registered");
+        }
+
+        String[] names = operations.keySet().toArray(new String[0]);
+        ApiOperation[] ops = operations.values().toArray(new ApiOperation[0]);
+        int users = profile.getVirtualUsers();
+
+        CountDownLatch ready = new CountDownLatch(users);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicReference<Throwable> setupFailure = new AtomicReference<>();
+        long[] startNanos = new long[1];
+        LatencyRecorder latencies = new LatencyRecorder();
+        List<VirtualUser> virtualUsers = new ArrayList<>(users);
+        List<Thread> threads = new ArrayList<>(users);
+
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(i, names, ops, latencies);
+            virtualUsers.add(user);
+            Thread thread = new Thread(() -> {
+                try (Playwright playwright = Playwright.create()) {
+                    MicroservicesApiClient client = new MicroservicesApiClient(playwright);
+                    try {
+                        ready.countDown();
+                        go.await();
+                        user.run(client, startNanos[0]);
+                    } finally {
+                        client.dispose();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable t) {
+                    setupFailure.compareAndSet(null, t);
+                    ready.countDown();
+                }
+            }, "load-vu-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+
+        log.info("Starting closed-loop load run: {}, endpoints {}", profile, operations.keySet());
+        threads.forEach(Thread::start);
+
+        try {
+            ready.await();
+            if (setupFailure.get() != null) {
+                go.countDown();
+                joinAll(threads);
+                throw new RuntimeException("Failed to start virtual users: " + setupFailure.get().getMessage(), setupFailure.get());
+            }
+            startNanos[0] = System.nanoTime();
+            go.countDown();
+            joinAll(threads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load run interrupted", e);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos[0];
+
+        Map<String, LoadTestResult.EndpointStats> stats = new LinkedHashMap<>();
+        for (int op = 0; op < names.length; op++) {
+            long errors = 0;
+            for (VirtualUser user : virtualUsers) {
+                errors += user.errors[op];
+            }
+            stats.put(names[op], LoadTestResult.EndpointStats.from(names[op], latencies.snapshot(names[op]), errors, elapsedNanos));
+        }
+        return new LoadTestResult("Closed-loop " + profile, elapsedNanos, stats);
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private class VirtualUser {
+        private final int index;
+        private final String[] names;
+        private final ApiOperation[] ops;
+        private final LatencyRecorder latencies;
+        private final long[] errors;
+
+        VirtualUser(int index, String[] names, ApiOperation[] ops, LatencyRecorder latencies) {
+            this.index = index;
+            this.names = names;
+            this.ops = ops;
+            this.latencies = latencies;
+            this.errors = new long[ops.length];
+        }
+
+        void run(MicroservicesApiClient client, long runStartNanos) throws InterruptedException {
+            long deadline = runStartNanos + TimeUnit.MILLISECONDS.toNanos(profile.getDurationMillis());
+            long startAt = runStartNanos + TimeUnit.MILLISECONDS.toNanos(profile.startOffsetMillis(index));
+            long wait = startAt - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            // Stagger the starting operation so users don't all hit the same endpoint in lockstep
+            int op = index % ops.length;
+            while (System.nanoTime() < deadline) {
+                long begin = System.nanoTime();
+                long end;
+                boolean ok;
+                APIResponse response = null;
+                try {
+                    response = ops[op].execute(client);
+                    ok = response.status() < 400;
+                } catch (Exception e) {
+                    ok = false;
+                } finally {
+                    end = System.nanoTime();
+                    ApiOperation.release(response);
+                }
+                latencies.record(names[op], end - begin);
+                if (!ok) {
+                    errors[op]++;
+                }
+                op = (op + 1) % ops.length;
+            }
+        }
+    }
+}
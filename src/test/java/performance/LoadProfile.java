@@ -0,0 +1,63 @@
+package performance;
+
+import config.MicroservicesConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shape of a closed-loop load run: how many virtual users, how long it takes to
+ * bring them all online and how long the whole run lasts (ramp-up included).
+ */
+public class LoadProfile {
+    private final int virtualUsers;
+    private final long rampUpMillis;
+    private final long durationMillis;
+
+    public LoadProfile(int virtualUsers, long rampUpMillis, long durationMillis) {
+        if (virtualUsers <= 0) {
+            throw new IllegalArgumentException("virtualUsers must be positive: " + virtualUsers);
+        }
+        if (rampUpMillis < 0 || durationMillis <= 0) {
+            throw new IllegalArgumentException("rampUp must be >= 0 and duration > 0");
+        }
+        if (rampUpMillis > durationMillis) {
+            throw new IllegalArgumentException("rampUp (" + rampUpMillis + "ms) exceeds duration (" + durationMillis + "ms)");
+        }
+        this.virtualUsers = virtualUsers;
+        this.rampUpMillis = rampUpMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Builds the profile from performance.test.users / performance.test.ramp.up /
+     * performance.test.duration (seconds) in microservices-config.properties.
+     */
+    public static LoadProfile fromConfig() {
+        return new LoadProfile(
+            MicroservicesConfig.getPerformanceTestUsers(),
+            TimeUnit.SECONDS.toMillis(MicroservicesConfig.getPerformanceTestRampUp()),
+            TimeUnit.SECONDS.toMillis(MicroservicesConfig.getPerformanceTestDuration()));
+    }
+
+    public int getVirtualUsers() {
+        return virtualUsers;
+    }
+
+    public long getRampUpMillis() {
+        return rampUpMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /** Offset from the start of the run at which the given virtual user starts issuing requests. */
+    long startOffsetMillis(int userIndex) {
+        return rampUpMillis * userIndex / virtualUsers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d users, %dms ramp-up, %dms duration", virtualUsers, rampUpMillis, durationMillis);
+    }
+}
@@ -0,0 +1,187 @@
+package performance;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a load run: per-endpoint request counts, errors, throughput and
+ * nanosecond latency percentiles. Open-model runs additionally carry service
+ * times (measured from the actual send) next to the response times (measured
+ * from the intended send time).
+ */
+public class LoadTestResult {
+    private final String description;
+    private final long elapsedNanos;
+    private final Map<String, EndpointStats> endpoints;
+    private final Map<String, EndpointStats> serviceTimes;
+
+    LoadTestResult(String description, long elapsedNanos, Map<String, EndpointStats> endpoints) {
+        this(description, elapsedNanos, endpoints, Collections.emptyMap());
+    }
+
+    LoadTestResult(String description, long elapsedNanos, Map<String, EndpointStats> endpoints,
+                   Map<String, EndpointStats> serviceTimes) {
+        this.description = description;
+        this.elapsedNanos = elapsedNanos;
+        this.endpoints = Collections.unmodifiableMap(new LinkedHashMap<>(endpoints));
+        this.serviceTimes = Collections.unmodifiableMap(new LinkedHashMap<>(serviceTimes));
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Map<String, EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    public EndpointStats getStats(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        if (stats == null) {
+            throw new IllegalArgumentException("No results recorded for endpoint: " + endpoint);
+        }
+        return stats;
+    }
+
+    /** Service times for open-model runs; empty for closed-loop runs where the two coincide. */
+    public Map<String, EndpointStats> getServiceTimes() {
+        return serviceTimes;
+    }
+
+    public long getTotalRequests() {
+        return endpoints.values().stream().mapToLong(EndpointStats::getCount).sum();
+    }
+
+    public long getTotalErrors() {
+        return endpoints.values().stream().mapToLong(EndpointStats::getErrors).sum();
+    }
+
+    public double getTotalThroughput() {
+        return getTotalRequests() / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s - %d requests in %.1fs (%.1f req/s), %d errors%n",
+            description, getTotalRequests(), elapsedNanos / 1_000_000_000.0, getTotalThroughput(), getTotalErrors()));
+        sb.append(String.format("%-28s %9s %7s %10s %10s %10s %10s %10s %10s%n",
+            "endpoint", "count", "errors", "req/s", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)"));
+        for (EndpointStats stats : endpoints.values()) {
+            sb.append(stats.toRow()).append(System.lineSeparator());
+        }
+        if (!serviceTimes.isEmpty()) {
+            sb.append("service time (from actual send):").append(System.lineSeparator());
+            for (EndpointStats stats : serviceTimes.values()) {
+                sb.append(stats.toRow()).append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+
+    // ================= Inner Classes =================
+
+    public static class EndpointStats {
+        private final String endpoint;
+        private final long count;
+        private final long errors;
+        private final double throughput;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long maxNanos;
+        private final Histogram histogram;
+
+        EndpointStats(String endpoint, long count, long errors, double throughput,
+                      long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos,
+                      Histogram histogram) {
+            this.endpoint = endpoint;
+            this.count = count;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+        }
+
+        static EndpointStats from(String endpoint, Histogram histogram, long errors, long elapsedNanos) {
+            long count = histogram.getTotalCount();
+            return new EndpointStats(endpoint, count, errors,
+                count / (elapsedNanos / 1_000_000_000.0),
+                histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(90.0),
+                histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue(),
+                histogram);
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0.0 : (double) errors / count;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /** Full latency distribution, e.g. for {@link LatencyReports#percentileDistribution(Histogram)}. */
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        String toRow() {
+            return String.format("%-28s %9d %7d %10.1f %10d %10d %10d %10d %10d",
+                endpoint, count, errors, throughput,
+                p50Nanos / 1_000, p90Nanos / 1_000, p99Nanos / 1_000, p999Nanos / 1_000, maxNanos / 1_000);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Endpoint: %s, Requests: %d, Errors: %d, Throughput: %.1f req/s, p50: %dns, p90: %dns, p99: %dns, p99.9: %dns",
+                endpoint, count, errors, throughput, p50Nanos, p90Nanos, p99Nanos, p999Nanos);
+        }
+    }
+}
@@ -5,10 +5,14 @@ import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.RequestOptions;
 import config.TestConfigManager;
 import config.MicroservicesConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.*;
+import utils.ResponseLogPolicy;
 
 public class ApiTestExecutor extends ApiTestBase {
+    private static final Logger log = LoggerFactory.getLogger(ApiTestExecutor.class);
     private APIRequestContext request;
 
     @BeforeClass
@@ -16,7 +20,7 @@ public class ApiTestExecutor extends ApiTestBase {
         // Use the inherited playwright instance from ApiTestBase
         String baseUrl;
         if (TestConfigManager.isMockMode()) {
-            baseUrl = "http://localhost:" + TestConfigManager.getMockServerPort();
+            baseUrl = MicroservicesConfig.getMockServerUrl();
         } else {
             baseUrl = MicroservicesConfig.getOpcUaServiceUrl();
         }
@@ -24,7 +28,7 @@ public class ApiTestExecutor extends ApiTestBase {
         request = playwright.request().newContext(new APIRequest.NewContextOptions()
                 .setBaseURL(baseUrl));
         
-        System.out.println("ApiTestExecutor configured with base URL: " + baseUrl);
+        log.info("ApiTestExecutor configured with base URL: {}", baseUrl);
     }
 
     @AfterClass
@@ -32,15 +36,21 @@ public class ApiTestExecutor extends ApiTestBase {
         if (request != null) request.dispose();
     }
 
+    // Bodies are logged as response.log.mode allows instead of decoded in full every time
+    private void logResponse(String label, APIResponse response) {
+        log.info("{}: {}", label, ResponseLogPolicy.shared().onResponse(
+                ResponseLogPolicy.endpointOf(response.url()), response.status(), response::body));
+    }
+
     // ================= OPC UA Connection APIs =================
 
     @Test
     public void testOpcConnectionStatus() {
         String url = "/opcua/api/connection/status";
-        System.out.println("Testing URL: " + url);
+        log.info("Testing URL: {}", url);
         APIResponse response = request.get(url);
-        System.out.println("Response status: " + response.status());
-        System.out.println("Response body: " + response.text());
+        log.info("Response status: {}", response.status());
+        logResponse("Response body", response);
         Assert.assertEquals(response.status(), 200);
         String body = response.text();
         Assert.assertTrue(body.contains("Connected") || body.contains("Disconnected"));
@@ -64,14 +74,14 @@ public class ApiTestExecutor extends ApiTestBase {
     public void testBrowseTags() {
         APIResponse response = request.get("/read/api/read/browse?startingNodeParam=ns=3;s=\"WMS TO PLC\"");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("Browse tags: " + response.text());
+        logResponse("Browse tags", response);
     }
 
     @Test
     public void testReadValue() {
         APIResponse response = request.get("/read/api/read/readValue?nodeId=ns=3;s=\"PLC_To_WMS\"");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("Read value: " + response.text());
+        logResponse("Read value", response);
     }
 
     @Test
@@ -84,14 +94,14 @@ public class ApiTestExecutor extends ApiTestBase {
     public void testReadNode() {
         APIResponse response = request.get("/read/api/read/read-node?nodeId=ns=3;s=DataBlocksGlobal");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("Read node values: " + response.text());
+        logResponse("Read node values", response);
     }
 
     @Test
     public void testReadNode2() {
         APIResponse response = request.get("/read/api/read/read-node2?nodeId=MCOM");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("Read node2 values: " + response.text());
+        logResponse("Read node2 values", response);
     }
 
     // ================= Write Data APIs =================
@@ -104,7 +114,7 @@ public class ApiTestExecutor extends ApiTestBase {
                         .setHeader("Content-Type", "application/json")
                         .setData(payload));
         Assert.assertEquals(response.status(), 200);
-        System.out.println("Write node response: " + response.text());
+        logResponse("Write node response", response);
     }
 
     // ================= Kafka APIs =================
@@ -127,7 +137,7 @@ public class ApiTestExecutor extends ApiTestBase {
                         .setHeader("Content-Type", "application/json")
                         .setData(payload));
         Assert.assertEquals(response.status(), 200);
-        System.out.println("HasChanged result: " + response.text());
+        logResponse("HasChanged result", response);
     }
 
     // ================= Value Converter APIs =================
@@ -136,13 +146,13 @@ public class ApiTestExecutor extends ApiTestBase {
     public void testConvertValue() {
         APIResponse response = request.post("/kafka/api/opcUaValueConverter/convertValue?variant=42");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("ConvertValue: " + response.text());
+        logResponse("ConvertValue", response);
     }
 
     @Test
     public void testConvertDataValue() {
         APIResponse response = request.post("/kafka/api/opcUaValueConverter/convertDataValue?originalValue=100");
         Assert.assertEquals(response.status(), 200);
-        System.out.println("ConvertDataValue: " + response.text());
+        logResponse("ConvertDataValue", response);
     }
 }
@@ -1,14 +1,21 @@
 package tests;
 
 import base.RealServiceTestBase;
+import clients.TopicConsumer;
+import clients.TopicRecord;
 import com.microsoft.playwright.APIResponse;
+import config.MicroservicesConfig;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
+import utils.LazyDataProviders;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.UUID;
 
 public class KafkaServiceTest extends RealServiceTestBase {
     
@@ -36,6 +43,27 @@ public class KafkaServiceTest extends RealServiceTestBase {
         logApiResponse(response);
     }
     
+    @Test(description = "Test processed browse data is published to the browse topic")
+    public void testProcessBrowseDataPublishesToBrowseTopic() {
+        String nodeId = "ns=3;s=DataBlocksGlobal";
+        String marker = "topic-check-" + UUID.randomUUID();
+        Map<String, Object> browseData = new HashMap<>();
+        browseData.put("tag", marker);
+        browseData.put("value", 42);
+        
+        try (TopicConsumer consumer = TopicConsumer.forTopic(MicroservicesConfig.getKafkaBrowseTopic())) {
+            consumer.seekToEnd();
+            APIResponse response = processBrowseData(nodeId, browseData);
+            verifyResponseStatus(response, 200);
+            
+            TopicRecord published = awaitPublished(consumer, marker, MAX_RESPONSE_TIME);
+            Assert.assertNotNull(published, "Browse data " + marker + " did not reach topic " + MicroservicesConfig.getKafkaBrowseTopic());
+            Assert.assertEquals(published.getKeyAsString(), nodeId, "Record should be keyed by node id");
+            
+            extentTest.log(com.aventstack.extentreports.Status.PASS, "Browse data published as " + published);
+        }
+    }
+    
     @Test(description = "Test process browse data with different data types", dataProvider = "browseDataProvider")
     public void testProcessBrowseDataWithDifferentTypes(String nodeId, Map<String, Object> browseData, String description) {
         APIResponse response = processBrowseData(nodeId, browseData);
@@ -83,6 +111,32 @@ public class KafkaServiceTest extends RealServiceTestBase {
         logApiResponse(response);
     }
     
+    @Test(description = "Test has changed reports added, removed and changed paths")
+    public void testHasChangedReportsStructuralDiff() {
+        Map<String, Object> previous = new HashMap<>();
+        previous.put("a", 1);
+        previous.put("b", "test");
+        previous.put("c", true);
+        
+        Map<String, Object> current = new HashMap<>();
+        current.put("a", 2);
+        current.put("b", "test");
+        current.put("d", "new");
+        
+        APIResponse response = hasChanged(previous, current);
+        
+        verifyResponseStatus(response, 200);
+        String body = response.text();
+        Assert.assertTrue(body.contains("\"hasChanged\":true"), "Expected a change: " + body);
+        Assert.assertTrue(body.contains("\"added\":[\"/d\"]"), "Expected /d added: " + body);
+        Assert.assertTrue(body.contains("\"removed\":[\"/c\"]"), "Expected /c removed: " + body);
+        Assert.assertTrue(body.contains("\"changed\":[\"/a\"]"), "Expected /a changed: " + body);
+        
+        APIResponse identical = hasChanged(previous, previous);
+        verifyResponseStatus(identical, 200);
+        Assert.assertTrue(identical.text().contains("\"hasChanged\":false"), "Expected no change: " + identical.text());
+    }
+    
     @Test(description = "Test has changed with null values")
     public void testHasChangedWithNullValues() {
         Map<String, Object> previous = new HashMap<>();
@@ -265,6 +319,20 @@ public class KafkaServiceTest extends RealServiceTestBase {
         logApiResponse(response);
     }
     
+    /** First record whose value carries the marker, or null once the timeout passes. */
+    private TopicRecord awaitPublished(TopicConsumer consumer, String marker, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            for (TopicRecord record : consumer.poll(Duration.ofMillis(200))) {
+                String value = record.getValueAsString();
+                if (value != null && value.contains(marker)) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+    
     private Map<String, Object> createBrowseDataMessage(String nodeId, String tag, Object value) {
         Map<String, Object> message = new HashMap<>();
         message.put("nodeId", nodeId);
@@ -288,29 +356,15 @@ public class KafkaServiceTest extends RealServiceTestBase {
     }
     
     @DataProvider(name = "browseDataProvider")
-    public Object[][] browseDataProvider() {
-        return new Object[][] {
-            {"ns=3;s=DataBlocksGlobal", createSimpleBrowseData("Tag1", 123), "Integer value"},
-            {"ns=3;s=DataBlocksGlobal", createSimpleBrowseData("Tag2", "String Value"), "String value"},
-            {"ns=3;s=DataBlocksGlobal", createSimpleBrowseData("Tag3", true), "Boolean value"},
-            {"ns=3;s=DataBlocksGlobal", createSimpleBrowseData("Tag4", 123.45), "Double value"},
-            {"ns=0;i=2253", createSimpleBrowseData("Tag5", 42), "Numeric node ID"},
-            {"ns=2;i=5001", createSimpleBrowseData("Tag6", "Another String"), "Another numeric node ID"}
-        };
+    public Iterator<Object[]> browseDataProvider() {
+        return LazyDataProviders.jsonl("testdata/browse-data.jsonl", row -> new Object[] {
+            row.get("nodeId"), createSimpleBrowseData((String) row.get("tag"), row.get("value")), row.get("description")});
     }
     
     @DataProvider(name = "convertValueProvider")
-    public Object[][] convertValueProvider() {
-        return new Object[][] {
-            {"42", "Integer string"},
-            {"123.45", "Double string"},
-            {"true", "Boolean string"},
-            {"false", "Boolean string"},
-            {"test", "String value"},
-            {"", "Empty string"},
-            {"null", "Null string"}
-        };
-     
+    public Iterator<Object[]> convertValueProvider() {
+        return LazyDataProviders.csv("testdata/convert-values.csv",
+            row -> new Object[] {row.get("variant"), row.get("description")});
     }
     
     private Map<String, Object> createSimpleBrowseData(String tag, Object value) {
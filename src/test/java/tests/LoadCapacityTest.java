@@ -0,0 +1,367 @@
+package tests;
+
+import base.RealServiceTestBase;
+import clients.AsyncMicroservicesApiClient;
+import clients.ChangeTracker;
+import clients.SubscriptionStreamConsumer;
+import clients.TopicConsumer;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.APIResponse;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.common.record.CompressionType;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import performance.BatchingBenchmark;
+import performance.ConstantArrivalRateDriver;
+import performance.KafkaPipelineBenchmark;
+import performance.LatencyRecorder;
+import performance.LatencyReports;
+import performance.LoadGenerator;
+import performance.LoadProfile;
+import performance.LoadTestResult;
+import utils.EmbeddedKafkaProducer;
+import utils.UnifiedMockServer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capacity run driven by performance.test.users / ramp.up / duration. Not part of
+ * testng.xml because a full profile runs for minutes; run it on demand, e.g.
+ * mvn test -Dtest=LoadCapacityTest -Dperformance.test.users=20 -Dperformance.test.duration=120
+ */
+public class LoadCapacityTest extends RealServiceTestBase {
+
+    private static final double MAX_ERROR_RATE = 0.05;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @BeforeClass
+    public void setUpLoadCapacityTests() {
+        waitForServicesReady(30000, "readdata", "writedata", "kafka");
+    }
+
+    @Test(description = "Closed-loop capacity run across read, write and Kafka endpoints")
+    public void testClosedLoopCapacity() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        LoadGenerator generator = new LoadGenerator(LoadProfile.fromConfig())
+            .addOperation("browseTags", client -> client.browseTags("ns=3;s=\"WMS TO PLC\""))
+            .addOperation("readValue", client -> client.readValue("ns=3;s=\"PLC_To_WMS\""))
+            .addOperation("writeNode", client -> client.writeNode("ns=3;s=DataBlocksGlobal", 42))
+            .addOperation("processBrowseData", client -> {
+                Map<String, Object> browseData = new HashMap<>();
+                browseData.put("tag", "PLC_To_WMS");
+                browseData.put("value", 42);
+                return client.processBrowseData("ns=3;s=DataBlocksGlobal", browseData);
+            });
+
+        LoadTestResult result = runLoadTest(generator);
+
+        for (LoadTestResult.EndpointStats stats : result.getEndpoints().values()) {
+            Assert.assertTrue(stats.getCount() > 0, "No requests completed for " + stats.getEndpoint());
+            Assert.assertTrue(stats.getErrorRate() <= MAX_ERROR_RATE,
+                stats.getEndpoint() + " error rate " + stats.getErrorRate() + " exceeds " + MAX_ERROR_RATE);
+        }
+    }
+
+    @Test(description = "Open-model readValue run at performance.test.arrival.rate")
+    public void testOpenModelReadValueLatency() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        ConstantArrivalRateDriver driver = ConstantArrivalRateDriver.fromConfig()
+            .addOperation("readValue", client -> client.readValue("ns=3;s=\"PLC_To_WMS\""));
+
+        LoadTestResult result = reportLoadTestResult(driver.run());
+
+        LoadTestResult.EndpointStats stats = result.getStats("readValue");
+        Assert.assertTrue(stats.getCount() > 0, "No readValue requests completed");
+        Assert.assertTrue(stats.getErrorRate() <= MAX_ERROR_RATE,
+            "readValue error rate " + stats.getErrorRate() + " exceeds " + MAX_ERROR_RATE);
+    }
+
+    @Test(description = "Subscription stream at performance.test.stream.rate updates/s")
+    public void testSubscriptionStreamLatency() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        int rate = config.MicroservicesConfig.getPerformanceTestStreamRate();
+        SubscriptionStreamConsumer.Stats stats = new SubscriptionStreamConsumer().subscribe(rate,
+            Duration.ofSeconds(config.MicroservicesConfig.getPerformanceTestStreamDuration()), null);
+
+        System.out.println("Subscription stream at " + rate + " updates/s: " + stats);
+        if (extentTest != null) {
+            extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(stats.toString()));
+        }
+        LatencyReports.attachToAllure("subscriptionStream", stats.getLatencyHistogram());
+
+        Assert.assertTrue(stats.isCompleted(), "Subscription stream was cut off: " + stats);
+        Assert.assertEquals(stats.getOutOfOrder(), 0, "Out-of-order updates: " + stats);
+        Assert.assertTrue(stats.getDropped() <= stats.getLastSeq() * MAX_ERROR_RATE, "Too many dropped updates: " + stats);
+    }
+
+    @Test(description = "Per-tag latency and throughput of single, batched and micro-batched reads")
+    public void testSingleVsBatchedReads() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        List<String> nodeIds = batchNodeIds();
+        int batchSize = config.MicroservicesConfig.getAsyncClientBatchMaxSize();
+        AsyncMicroservicesApiClient client = new AsyncMicroservicesApiClient();
+        try {
+            BatchingBenchmark.Result single = BatchingBenchmark.run("single", nodeIds.size(), 1,
+                n -> client.readValue(nodeIds.get(n)).thenApply(response -> response.status() == 200));
+            BatchingBenchmark.Result batched = BatchingBenchmark.run("batched", nodeIds.size(), batchSize,
+                n -> client.readValues(nodeIds.subList(n * batchSize, Math.min(nodeIds.size(), (n + 1) * batchSize)))
+                    .thenApply(LoadCapacityTest::isBatchWithoutFailures));
+            BatchingBenchmark.Result microBatched = BatchingBenchmark.run("micro-batched", nodeIds.size(), 1,
+                n -> client.readValueBatched(nodeIds.get(n)).thenApply(result -> "Good".equals(result.get("statusCode"))));
+
+            reportBatchingComparison("readValue", client.getReadBatcher().getAverageBatchSize(), single, batched, microBatched);
+            verifyBatchingGain(single, batched, microBatched);
+        } finally {
+            client.dispose();
+        }
+    }
+
+    @Test(description = "Per-tag latency and throughput of single, batched and micro-batched writes")
+    public void testSingleVsBatchedWrites() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        List<String> nodeIds = batchNodeIds();
+        int batchSize = config.MicroservicesConfig.getAsyncClientBatchMaxSize();
+        AsyncMicroservicesApiClient client = new AsyncMicroservicesApiClient();
+        try {
+            BatchingBenchmark.Result single = BatchingBenchmark.run("single", nodeIds.size(), 1,
+                n -> client.writeNode(nodeIds.get(n), (double) n).thenApply(response -> response.status() == 200));
+            BatchingBenchmark.Result batched = BatchingBenchmark.run("batched", nodeIds.size(), batchSize, n -> {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (int tag = n * batchSize; tag < Math.min(nodeIds.size(), (n + 1) * batchSize); tag++) {
+                    values.put(nodeIds.get(tag), (double) tag);
+                }
+                return client.writeNodes(values)
+                    .thenApply(LoadCapacityTest::isBatchWithoutFailures);
+            });
+            BatchingBenchmark.Result microBatched = BatchingBenchmark.run("micro-batched", nodeIds.size(), 1,
+                n -> client.writeNodeBatched(nodeIds.get(n), (double) n).thenApply(result -> "Good".equals(result.get("statusCode"))));
+
+            reportBatchingComparison("writeNode", client.getWriteBatcher().getAverageBatchSize(), single, batched, microBatched);
+            verifyBatchingGain(single, batched, microBatched);
+        } finally {
+            client.dispose();
+        }
+    }
+
+    @Test(description = "Produce-to-consume latency and throughput of the Kafka browse pipeline")
+    public void testKafkaPipelineThroughput() {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        int messages = config.MicroservicesConfig.getPerformanceTestKafkaMessages();
+        int tagsPerMessage = config.MicroservicesConfig.getPerformanceTestKafkaTagsPerMessage();
+        int concurrency = config.MicroservicesConfig.getAsyncClientMaxConnections();
+        List<KafkaPipelineBenchmark.Result> results = new ArrayList<>();
+        AsyncMicroservicesApiClient client = new AsyncMicroservicesApiClient();
+        try (TopicConsumer consumer = TopicConsumer.forTopic(config.MicroservicesConfig.getKafkaBrowseTopic())) {
+            if (config.TestConfigManager.isMockMode()) {
+                // Sizing matrix: the mock service's producer is reconfigured per run, the real one is what it is
+                EmbeddedKafkaProducer producer = UnifiedMockServer.getKafkaServiceProducer();
+                EmbeddedKafkaProducer.Settings original = producer.getSettings();
+                try {
+                    for (EmbeddedKafkaProducer.Settings settings : kafkaProducerMatrix(original.getBatchSize())) {
+                        producer.reconfigure(settings);
+                        String label = String.format("%dk linger=%d %s", settings.getBatchSize() / 1024,
+                            settings.getLingerMs(), settings.getCompression().name);
+                        results.add(KafkaPipelineBenchmark.run(label, client, consumer, messages, tagsPerMessage, concurrency));
+                    }
+                } finally {
+                    producer.reconfigure(original);
+                }
+            } else {
+                results.add(KafkaPipelineBenchmark.run("service", client, consumer, messages, tagsPerMessage, concurrency));
+            }
+        } finally {
+            client.dispose();
+        }
+
+        String table = KafkaPipelineBenchmark.compare(results.toArray(new KafkaPipelineBenchmark.Result[0]));
+        System.out.println(table);
+        if (extentTest != null) {
+            extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(table));
+        }
+        for (KafkaPipelineBenchmark.Result result : results) {
+            LatencyReports.attachToAllure("kafka pipeline " + result.getLabel() + " end-to-end", result.getEndToEndHistogram());
+            Assert.assertTrue(result.getFailedRequests() <= result.getSent() * MAX_ERROR_RATE, "Too many failed requests: " + result);
+            Assert.assertEquals(result.getMissing(), 0, "Messages never reached the topic: " + result);
+            Assert.assertEquals(result.getDuplicates(), 0, "Messages consumed twice: " + result);
+            EmbeddedKafkaProducer.Stats producer = result.getProducerStats();
+            if (producer != null && !result.getLabel().endsWith(" none")) {
+                Assert.assertTrue(producer.getCompressionRatio() < 1, "Compression did not shrink batches: " + result);
+            }
+        }
+    }
+
+    @Test(description = "Request size and latency of full versus incremental hasChanged on a large browse tree")
+    public void testFullVsIncrementalHasChanged() throws Exception {
+        if (!config.MicroservicesConfig.isPerformanceTestEnabled()) {
+            throw new SkipException("performance.test.enabled=false");
+        }
+
+        int tags = config.MicroservicesConfig.getPerformanceTestChangeTags();
+        int rounds = config.MicroservicesConfig.getPerformanceTestChangeRounds();
+        String nodeId = "ns=3;s=\"WMS TO PLC\"." + System.nanoTime();
+        ObjectMapper mapper = new ObjectMapper();
+        Histogram full = LatencyRecorder.newHistogram();
+        Histogram incremental = LatencyRecorder.newHistogram();
+        long fullBytes = 0;
+        AsyncMicroservicesApiClient client = new AsyncMicroservicesApiClient();
+        try {
+            ChangeTracker tracker = client.getChangeTracker();
+            // Round 0 introduces the node to the service; only the checks after it are measured
+            client.hasChangedIncremental(nodeId, browseTree(tags, 0)).get(1, TimeUnit.MINUTES);
+            long incrementalBytesBefore = tracker.getBytesSent();
+            for (int round = 1; round <= rounds; round++) {
+                Map<String, Object> previous = browseTree(tags, round - 1);
+                Map<String, Object> current = browseTree(tags, round);
+
+                long start = System.nanoTime();
+                APIResponse response = client.hasChanged(previous, current).get(1, TimeUnit.MINUTES);
+                full.recordValue(System.nanoTime() - start);
+                Assert.assertTrue(response.text().contains("\"hasChanged\":true"), "Full check missed the change: " + response.text());
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("previous", previous);
+                payload.put("current", current);
+                fullBytes += mapper.writeValueAsBytes(payload).length;
+
+                start = System.nanoTime();
+                Map<String, Object> answer = client.hasChangedIncremental(nodeId, current).get(1, TimeUnit.MINUTES);
+                incremental.recordValue(System.nanoTime() - start);
+                Assert.assertEquals(answer.get("hasChanged"), true, "Incremental check missed the change: " + answer);
+            }
+            long incrementalBytes = tracker.getBytesSent() - incrementalBytesBefore;
+
+            String table = String.format("hasChanged on %d tags, %d checks, %d tags changed per check%n", tags, rounds, changedPerRound(tags))
+                + String.format("%-12s %14s %10s %10s%n", "mode", "bytes/check", "p50 ms", "p99 ms")
+                + String.format("%-12s %14d %10.3f %10.3f%n", "full", fullBytes / rounds,
+                    full.getValueAtPercentile(50) / 1e6, full.getValueAtPercentile(99) / 1e6)
+                + String.format("%-12s %14d %10.3f %10.3f%n", "incremental", incrementalBytes / rounds,
+                    incremental.getValueAtPercentile(50) / 1e6, incremental.getValueAtPercentile(99) / 1e6);
+            System.out.println(table);
+            if (extentTest != null) {
+                extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(table));
+            }
+            LatencyReports.attachToAllure("hasChanged full", full);
+            LatencyReports.attachToAllure("hasChanged incremental", incremental);
+
+            Assert.assertEquals(tracker.getResyncs(), 0, "Deltas were refused");
+            Assert.assertTrue(incrementalBytes * 10 < fullBytes,
+                "Incremental checks sent " + incrementalBytes + " bytes vs " + fullBytes + " for full ones");
+        } finally {
+            client.dispose();
+        }
+    }
+
+    /**
+     * Browse tree of generated tags after {@code round} rounds of changes; each
+     * round moves the values of a different 0.5% of the tags.
+     */
+    private static Map<String, Object> browseTree(int tags, int round) {
+        int changed = changedPerRound(tags);
+        List<Object> list = new ArrayList<>(tags);
+        for (int i = 0; i < tags; i++) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("nodeId", "ns=4;i=" + (i + 1));
+            tag.put("browseName", "Tag_" + (i + 1));
+            tag.put("dataType", "Double");
+            int lastChange = i / changed <= round ? i / changed : 0;
+            tag.put("value", i * 0.5 + lastChange);
+            list.add(tag);
+        }
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("nodeId", "ns=3;s=\"WMS TO PLC\"");
+        tree.put("tags", list);
+        return tree;
+    }
+
+    private static int changedPerRound(int tags) {
+        return Math.max(1, tags / 200);
+    }
+
+    /** Linger without and with compression, and larger batches: the settings that decide the Kafka path's cost. */
+    private static List<EmbeddedKafkaProducer.Settings> kafkaProducerMatrix(int batchSize) {
+        return List.of(
+            new EmbeddedKafkaProducer.Settings(batchSize, 0, CompressionType.NONE),
+            new EmbeddedKafkaProducer.Settings(batchSize, 5, CompressionType.NONE),
+            new EmbeddedKafkaProducer.Settings(batchSize, 5, CompressionType.LZ4),
+            new EmbeddedKafkaProducer.Settings(batchSize, 5, CompressionType.SNAPPY),
+            new EmbeddedKafkaProducer.Settings(batchSize, 5, CompressionType.GZIP),
+            new EmbeddedKafkaProducer.Settings(batchSize, 5, CompressionType.ZSTD),
+            new EmbeddedKafkaProducer.Settings(batchSize * 4, 20, CompressionType.LZ4));
+    }
+
+    /**
+     * Distinct generated tags of the mock's simulated address space; against real
+     * services, which have no such namespace, a known node repeated.
+     */
+    private static List<String> batchNodeIds() {
+        int tags = config.MicroservicesConfig.getPerformanceTestBatchTags();
+        List<String> nodeIds = new ArrayList<>(tags);
+        for (int tag = 1; tag <= tags; tag++) {
+            nodeIds.add(config.TestConfigManager.isMockMode() ? "ns=4;i=" + tag : "ns=3;s=DataBlocksGlobal");
+        }
+        return nodeIds;
+    }
+
+    // A batch counts as good only if the service reports none of its nodes as failed
+    private static boolean isBatchWithoutFailures(APIResponse response) {
+        if (response.status() != 200) {
+            return false;
+        }
+        try {
+            JsonNode failed = JSON_MAPPER.readTree(response.body()).get("failed");
+            return failed != null && failed.canConvertToLong() && failed.asLong() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void reportBatchingComparison(String operation, double averageMicroBatch, BatchingBenchmark.Result... results) {
+        String table = BatchingBenchmark.compare(operation, results)
+            + String.format("micro-batched requests carried %.1f tags on average%n", averageMicroBatch);
+        System.out.println(table);
+        if (extentTest != null) {
+            extentTest.log(Status.INFO, MarkupHelper.createCodeBlock(table));
+        }
+        for (BatchingBenchmark.Result result : results) {
+            LatencyReports.attachToAllure(operation + " " + result.getMode() + " per tag", result.getLatencyHistogram());
+        }
+    }
+
+    private static void verifyBatchingGain(BatchingBenchmark.Result single, BatchingBenchmark.Result... batchedModes) {
+        Assert.assertTrue(single.getFailedTags() <= single.getTags() * MAX_ERROR_RATE, "Too many failed tags: " + single);
+        for (BatchingBenchmark.Result batched : batchedModes) {
+            Assert.assertTrue(batched.getFailedTags() <= batched.getTags() * MAX_ERROR_RATE, "Too many failed tags: " + batched);
+            Assert.assertTrue(batched.getTagsPerSecond() > single.getTagsPerSecond(),
+                "Batching did not raise throughput: " + batched + " vs " + single);
+        }
+    }
+}
@@ -6,7 +6,11 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
+import utils.LazyDataProviders;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -117,6 +121,22 @@ public class ReadDataServiceTest extends RealServiceTestBase {
         logApiResponse(response);
     }
     
+    @Test(description = "Test batch read of several nodes in one request")
+    public void testReadValuesBatch() {
+        List<String> nodeIds = Arrays.asList("ns=3;s=\"PLC_To_WMS\"", "ns=3;s=DataBlocksGlobal", "ns=999;s=InvalidNode");
+        APIResponse response = readValues(nodeIds);
+        
+        // An unknown node fails only its own entry, not the request
+        verifyResponseStatus(response, 200);
+        verifyJsonResponse(response);
+        verifyResponseTime(response, MAX_RESPONSE_TIME);
+        verifyResponseContains(response, "\"count\":3");
+        verifyResponseContains(response, "\"failed\":1");
+        verifyResponseContains(response, "\"statusCode\":\"BadNodeIdUnknown\"");
+        
+        logApiResponse(response);
+    }
+    
     @Test(description = "Test read data service health")
     public void testReadDataServiceHealth() {
         boolean isHealthy = checkServiceHealth(SERVICE_NAME);
@@ -189,14 +209,8 @@ public class ReadDataServiceTest extends RealServiceTestBase {
     }
     
     @DataProvider(name = "nodeIdProvider")
-    public Object[][] nodeIdProvider() {
-        return new Object[][] {
-            {"ns=3;s=\"PLC_To_WMS\"", "PLC to WMS communication node"},
-            {"ns=3;s=\"WMS_To_PLC\"", "WMS to PLC communication node"},
-            {"ns=3;s=DataBlocksGlobal", "Global data blocks node"},
-            {"ns=0;i=2253", "Numeric node ID"},
-            {"ns=2;i=5001", "Another numeric node ID"},
-            {"MCOM", "Communication node"}
-        };
+    public Iterator<Object[]> nodeIdProvider() {
+        return LazyDataProviders.csv("testdata/node-ids.csv",
+            row -> new Object[] {row.get("nodeId"), row.get("description")});
     }
 }
@@ -6,9 +6,12 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
+import utils.LazyDataProviders;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 public class WriteDataServiceTest extends RealServiceTestBase {
     
@@ -131,6 +134,25 @@ public class WriteDataServiceTest extends RealServiceTestBase {
             "Response time should be less than " + MAX_RESPONSE_TIME + "ms");
     }
     
+    @Test(description = "Test batch write of several nodes in one request")
+    public void testWriteNodesBatch() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("ns=3;s=DataBlocksGlobal", 123);
+        values.put("ns=3;s=\"WMS_To_PLC\".OrderNumber", "ORDER-4711");
+        values.put("ns=999;s=InvalidNode", 1);
+        
+        APIResponse response = writeNodes(values);
+        
+        // Valid writes are applied even though one node is unknown
+        verifyResponseStatus(response, 200);
+        verifyJsonResponse(response);
+        verifyResponseTime(response, MAX_RESPONSE_TIME);
+        verifyResponseContains(response, "\"status\":\"partial\"");
+        verifyResponseContains(response, "\"failed\":1");
+        
+        logApiResponse(response);
+    }
+    
     @Test(description = "Test write data service health")
     public void testWriteDataServiceHealth() {
         boolean isHealthy = checkServiceHealth(SERVICE_NAME);
@@ -228,17 +250,8 @@ public class WriteDataServiceTest extends RealServiceTestBase {
     }
     
     @DataProvider(name = "writeDataProvider")
-    public Object[][] writeDataProvider() {
-        return new Object[][] {
-            {"ns=3;s=DataBlocksGlobal", 123, "Integer value"},
-            {"ns=3;s=DataBlocksGlobal", "Test String", "String value"},
-            {"ns=3;s=DataBlocksGlobal", true, "Boolean value"},
-            {"ns=3;s=DataBlocksGlobal", 123.45, "Double value"},
-            {"ns=0;i=2253", 42, "Numeric node ID with integer"},
-            {"ns=2;i=5001", "Another Test", "Another numeric node ID with string"},
-            {"ns=999;s=InvalidNode", 123, "Invalid node ID"},
-            {"", 123, "Empty node ID"},
-            {"ns=3;s=DataBlocksGlobal", "", "Empty string value"}
-        };
+    public Iterator<Object[]> writeDataProvider() {
+        return LazyDataProviders.jsonl("testdata/write-data.jsonl",
+            row -> new Object[] {row.get("nodeId"), row.get("value"), row.get("description")});
     }
 }
@@ -0,0 +1,618 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Structural change detection between snapshots of JSON-like trees (maps, lists
+ * and scalars, as Jackson reads them), behind the Kafka service's hasChanged.
+ *
+ * <p>A {@link Snapshot} hashes every subtree (64 bits; map hashes do not depend
+ * on key order, list hashes do on positions). {@link #diff} walks two snapshots
+ * and descends only into subtrees whose hashes differ, so an unchanged branch of
+ * a large browse tree costs one comparison. The result names every added,
+ * removed and changed path as a JSON Pointer ({@code /tags/3/value}); list
+ * elements are matched by index, so an insertion in the middle of a list shows
+ * up as changes up to its end. A {@link Diff} converts to a delta
+ * ({@code {"set":{path:value}, "remove":[paths]}}) that {@link Snapshot#apply}
+ * applies in place, rehashing only the ancestors of the touched paths.
+ *
+ * <p>An instance keeps the last snapshot of each node with a version number
+ * that moves on every change, so a client that knows the version can send only
+ * what changed ({@link #applyDelta}) instead of the whole tree ({@link #track}).
+ * Updates of one node are serialized; different nodes proceed in parallel.
+ * At most {@code maxTrackedNodes} snapshots are kept: beyond that the least
+ * recently updated node is forgotten, so its next delta answers "unknown" and
+ * the client resends the full tree.
+ */
+public class ChangeDetector {
+    private static final long MAP_SEED = 0x6a09e667f3bcc908L;
+    private static final long LIST_SEED = 0xbb67ae8584caa73bL;
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    public static final int DEFAULT_MAX_TRACKED_NODES = 1024;
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final int maxTrackedNodes;
+
+    public ChangeDetector() {
+        this(DEFAULT_MAX_TRACKED_NODES);
+    }
+
+    public ChangeDetector(int maxTrackedNodes) {
+        this.maxTrackedNodes = Math.max(1, maxTrackedNodes);
+    }
+
+    /**
+     * Replaces the node's snapshot with {@code current} and returns what changed
+     * since the previous one; the first snapshot of a node reports the root as added.
+     */
+    public Update track(String nodeId, Object current) {
+        Snapshot snapshot = snapshot(current);
+        Tracked node = tracked.get(nodeId);
+        if (node == null) {
+            node = tracked.computeIfAbsent(nodeId, id -> new Tracked());
+            evictLeastRecentlyUsed(nodeId);
+        }
+        node.lastUsed = clock.incrementAndGet();
+        synchronized (node) {
+            Diff diff = diff(node.snapshot, snapshot);
+            if (node.snapshot == null || !diff.isEmpty()) {
+                node.snapshot = snapshot;
+                node.version++;
+            }
+            return new Update(node.version, diff);
+        }
+    }
+
+    /**
+     * Applies a delta to the node's snapshot if it is still at {@code baseVersion}
+     * and returns what actually changed (setting a path to its current value is
+     * no change). Returns null if the node is unknown or has moved on, in which
+     * case the caller must send the full tree to {@link #track}.
+     *
+     * @throws IllegalArgumentException if the delta is malformed or names a path whose parent does not exist
+     */
+    public Update applyDelta(String nodeId, long baseVersion, Map<String, Object> delta) {
+        Tracked node = tracked.get(nodeId);
+        if (node == null) {
+            return null;
+        }
+        node.lastUsed = clock.incrementAndGet();
+        synchronized (node) {
+            if (node.snapshot == null || node.version != baseVersion) {
+                return null;
+            }
+            Diff diff = node.snapshot.apply(delta);
+            if (!diff.isEmpty()) {
+                node.version++;
+            }
+            return new Update(node.version, diff);
+        }
+    }
+
+    /** Version of the node's snapshot, 0 if it is not tracked. */
+    public long getVersion(String nodeId) {
+        Tracked node = tracked.get(nodeId);
+        if (node == null) {
+            return 0;
+        }
+        synchronized (node) {
+            return node.version;
+        }
+    }
+
+    public void forget(String nodeId) {
+        tracked.remove(nodeId);
+    }
+
+    public int getTrackedCount() {
+        return tracked.size();
+    }
+
+    // Only runs when a new node arrives at a full map, so the linear scan is off the per-update path
+    private void evictLeastRecentlyUsed(String keep) {
+        while (tracked.size() > maxTrackedNodes) {
+            String oldest = null;
+            long oldestUse = Long.MAX_VALUE;
+            for (Map.Entry<String, Tracked> entry : tracked.entrySet()) {
+                if (!entry.getKey().equals(keep) && entry.getValue().lastUsed < oldestUse) {
+                    oldest = entry.getKey();
+                    oldestUse = entry.getValue().lastUsed;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            tracked.remove(oldest);
+        }
+    }
+
+    private static final class Tracked {
+        private volatile long lastUsed;
+        private Snapshot snapshot;
+        private long version;
+    }
+
+    /** Version a node's snapshot is at after an update and what the update changed. */
+    public static final class Update {
+        private final long version;
+        private final Diff diff;
+
+        Update(long version, Diff diff) {
+            this.version = version;
+            this.diff = diff;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Diff getDiff() {
+            return diff;
+        }
+    }
+
+    // ================= Snapshots =================
+
+    public static Snapshot snapshot(Object value) {
+        return new Snapshot(Node.of(value));
+    }
+
+    /** Paths added, removed and changed from {@code previous} (null: nothing) to {@code current}. */
+    public static Diff diff(Snapshot previous, Snapshot current) {
+        Diff diff = new Diff();
+        if (previous == null) {
+            diff.added("", current.root);
+        } else {
+            diff(previous.root, current.root, new StringBuilder(), diff);
+        }
+        return diff;
+    }
+
+    private static void diff(Node previous, Node current, StringBuilder path, Diff diff) {
+        if (previous.hash == current.hash && (current.kind != Kind.VALUE || Objects.equals(previous.value, current.value))) {
+            return;
+        }
+        int length = path.length();
+        if (previous.kind == Kind.MAP && current.kind == Kind.MAP) {
+            for (String key : previous.fields.keySet()) {
+                if (!current.fields.containsKey(key)) {
+                    diff.removed(appendToken(path, key).toString());
+                    path.setLength(length);
+                }
+            }
+            for (Map.Entry<String, Node> field : current.fields.entrySet()) {
+                Node before = previous.fields.get(field.getKey());
+                appendToken(path, field.getKey());
+                if (before == null) {
+                    diff.added(path.toString(), field.getValue());
+                } else {
+                    diff(before, field.getValue(), path, diff);
+                }
+                path.setLength(length);
+            }
+        } else if (previous.kind == Kind.LIST && current.kind == Kind.LIST) {
+            int common = Math.min(previous.items.size(), current.items.size());
+            for (int i = 0; i < common; i++) {
+                diff(previous.items.get(i), current.items.get(i), path.append('/').append(i), diff);
+                path.setLength(length);
+            }
+            for (int i = common; i < current.items.size(); i++) {
+                diff.added(path.append('/').append(i).toString(), current.items.get(i));
+                path.setLength(length);
+            }
+            // Highest index first, so the delta can remove them one after the other
+            for (int i = previous.items.size() - 1; i >= common; i--) {
+                diff.removed(path.append('/').append(i).toString());
+                path.setLength(length);
+            }
+        } else {
+            diff.changed(path.toString(), current);
+        }
+    }
+
+    /**
+     * Hashed tree of a JSON-like value. Only {@link #apply} changes it, so share a
+     * snapshot between threads only if nobody applies deltas to it.
+     */
+    public static final class Snapshot {
+        private Node root;
+
+        Snapshot(Node root) {
+            this.root = root;
+        }
+
+        public long hash() {
+            return root.hash;
+        }
+
+        /** Plain maps, lists and scalars equal to the snapshot. */
+        public Object toValue() {
+            return root.toValue();
+        }
+
+        /**
+         * Applies a delta in place: every path of {@code set} is added or replaced
+         * (list index == size appends), then every path of {@code remove} is
+         * removed in the given order (list elements shift down). Returns what
+         * actually changed.
+         */
+        @SuppressWarnings("unchecked")
+        public Diff apply(Map<String, Object> delta) {
+            Object set = delta.get("set");
+            Object remove = delta.get("remove");
+            if ((set != null && !(set instanceof Map)) || (remove != null && !(remove instanceof List))) {
+                throw new IllegalArgumentException("Delta must have a 'set' object and/or a 'remove' list");
+            }
+            Diff diff = new Diff();
+            if (set != null) {
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) set).entrySet()) {
+                    set(entry.getKey(), Node.of(entry.getValue()), diff);
+                }
+            }
+            if (remove != null) {
+                for (Object path : (List<Object>) remove) {
+                    remove(String.valueOf(path), diff);
+                }
+            }
+            return diff;
+        }
+
+        private void set(String path, Node value, Diff diff) {
+            List<String> tokens = parsePointer(path);
+            if (tokens.isEmpty()) {
+                if (root.hash != value.hash || !Objects.equals(root.value, value.value)) {
+                    diff.changed("", value);
+                    root = value;
+                }
+                return;
+            }
+            Node[] chain = chain(path, tokens);
+            Node parent = chain[chain.length - 1];
+            String last = tokens.get(tokens.size() - 1);
+            long before = parent.hash;
+            if (parent.kind == Kind.MAP) {
+                Node old = parent.fields.put(last, value);
+                if (old == null) {
+                    diff.added(path, value);
+                } else if (old.hash == value.hash && Objects.equals(old.value, value.value)) {
+                    parent.fields.put(last, old);
+                    return;
+                } else {
+                    diff.changed(path, value);
+                    parent.hash -= fieldHash(last, old.hash);
+                }
+                parent.hash += fieldHash(last, value.hash);
+            } else {
+                int index = index(path, last, parent.items.size());
+                if (index == parent.items.size()) {
+                    parent.items.add(value);
+                    diff.added(path, value);
+                } else {
+                    Node old = parent.items.get(index);
+                    if (old.hash == value.hash && Objects.equals(old.value, value.value)) {
+                        return;
+                    }
+                    parent.items.set(index, value);
+                    diff.changed(path, value);
+                    parent.hash -= itemHash(index, old.hash);
+                }
+                parent.hash += itemHash(index, value.hash);
+            }
+            rehashAncestors(chain, tokens, before);
+        }
+
+        private void remove(String path, Diff diff) {
+            List<String> tokens = parsePointer(path);
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Cannot remove the root");
+            }
+            Node[] chain = chain(path, tokens);
+            Node parent = chain[chain.length - 1];
+            String last = tokens.get(tokens.size() - 1);
+            long before = parent.hash;
+            if (parent.kind == Kind.MAP) {
+                Node old = parent.fields.remove(last);
+                if (old == null) {
+                    return;
+                }
+                parent.hash -= fieldHash(last, old.hash);
+            } else {
+                int index = index(path, last, parent.items.size() - 1);
+                parent.items.remove(index);
+                // Later elements moved down one position
+                parent.rehash();
+            }
+            diff.removed(path);
+            rehashAncestors(chain, tokens, before);
+        }
+
+        /** Root followed by each container on the way to the path's parent. */
+        private Node[] chain(String path, List<String> tokens) {
+            Node[] chain = new Node[tokens.size()];
+            Node node = root;
+            for (int depth = 0; depth < tokens.size(); depth++) {
+                if (node.kind == Kind.VALUE) {
+                    throw new IllegalArgumentException("Path " + path + " goes through a value");
+                }
+                chain[depth] = node;
+                if (depth < tokens.size() - 1) {
+                    String token = tokens.get(depth);
+                    node = node.kind == Kind.MAP ? node.fields.get(token) : node.items.get(index(path, token, node.items.size() - 1));
+                    if (node == null) {
+                        throw new IllegalArgumentException("Parent of " + path + " does not exist");
+                    }
+                }
+            }
+            return chain;
+        }
+
+        /** Carries a changed child hash up to the root, replacing only that child's share at each level. */
+        private static void rehashAncestors(Node[] chain, List<String> tokens, long childHashBefore) {
+            long before = childHashBefore;
+            for (int depth = chain.length - 2; depth >= 0; depth--) {
+                Node ancestor = chain[depth];
+                long ancestorBefore = ancestor.hash;
+                String token = tokens.get(depth);
+                long after = chain[depth + 1].hash;
+                if (ancestor.kind == Kind.MAP) {
+                    ancestor.hash += fieldHash(token, after) - fieldHash(token, before);
+                } else {
+                    int index = Integer.parseInt(token);
+                    ancestor.hash += itemHash(index, after) - itemHash(index, before);
+                }
+                before = ancestorBefore;
+            }
+        }
+
+        private static int index(String path, String token, int max) {
+            try {
+                int index = Integer.parseInt(token);
+                if (index >= 0 && index <= max) {
+                    return index;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException("Path " + path + ": '" + token + "' is not a list index from 0 to " + max);
+        }
+    }
+
+    // ================= Results =================
+
+    /** Paths added, removed and changed between two snapshots, in tree order. */
+    public static final class Diff {
+        private final List<String> added = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+        private final List<String> changed = new ArrayList<>();
+        private final Map<String, Node> values = new LinkedHashMap<>();
+
+        void added(String path, Node value) {
+            added.add(path);
+            values.put(path, value);
+        }
+
+        void removed(String path) {
+            removed.add(path);
+        }
+
+        void changed(String path, Node value) {
+            changed.add(path);
+            values.put(path, value);
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        public int size() {
+            return added.size() + removed.size() + changed.size();
+        }
+
+        public List<String> getAdded() {
+            return Collections.unmodifiableList(added);
+        }
+
+        public List<String> getRemoved() {
+            return Collections.unmodifiableList(removed);
+        }
+
+        public List<String> getChanged() {
+            return Collections.unmodifiableList(changed);
+        }
+
+        /** New value at an added or changed path. */
+        public Object getValue(String path) {
+            Node node = values.get(path);
+            return node == null ? null : node.toValue();
+        }
+
+        /** Delta that turns the earlier snapshot into the later one; see {@link Snapshot#apply}. */
+        public Map<String, Object> toDelta() {
+            Map<String, Object> set = new LinkedHashMap<>();
+            for (Map.Entry<String, Node> value : values.entrySet()) {
+                set.put(value.getKey(), value.getValue().toValue());
+            }
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("set", set);
+            delta.put("remove", new ArrayList<>(removed));
+            return delta;
+        }
+
+        @Override
+        public String toString() {
+            return "added=" + added + ", removed=" + removed + ", changed=" + changed;
+        }
+    }
+
+    // ================= Tree =================
+
+    private enum Kind { MAP, LIST, VALUE }
+
+    private static final class Node {
+        private final Kind kind;
+        private final Object value;
+        private final Map<String, Node> fields;
+        private final List<Node> items;
+        private long hash;
+
+        private Node(Kind kind, Object value, Map<String, Node> fields, List<Node> items) {
+            this.kind = kind;
+            this.value = value;
+            this.fields = fields;
+            this.items = items;
+        }
+
+        static Node of(Object value) {
+            Node node;
+            if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                node = new Node(Kind.MAP, null, new LinkedHashMap<>(Math.max(4, map.size() * 4 / 3 + 1)), null);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    node.fields.put(String.valueOf(entry.getKey()), of(entry.getValue()));
+                }
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                node = new Node(Kind.LIST, null, null, new ArrayList<>(list.size()));
+                for (Object item : list) {
+                    node.items.add(of(item));
+                }
+            } else {
+                node = new Node(Kind.VALUE, normalize(value), null, null);
+            }
+            node.rehash();
+            return node;
+        }
+
+        void rehash() {
+            if (kind == Kind.MAP) {
+                long sum = MAP_SEED;
+                for (Map.Entry<String, Node> field : fields.entrySet()) {
+                    sum += fieldHash(field.getKey(), field.getValue().hash);
+                }
+                hash = sum;
+            } else if (kind == Kind.LIST) {
+                long sum = LIST_SEED;
+                for (int i = 0; i < items.size(); i++) {
+                    sum += itemHash(i, items.get(i).hash);
+                }
+                hash = sum;
+            } else {
+                hash = scalarHash(value);
+            }
+        }
+
+        Object toValue() {
+            if (kind == Kind.MAP) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<String, Node> field : fields.entrySet()) {
+                    map.put(field.getKey(), field.getValue().toValue());
+                }
+                return map;
+            }
+            if (kind == Kind.LIST) {
+                List<Object> list = new ArrayList<>(items.size());
+                for (Node item : items) {
+                    list.add(item.toValue());
+                }
+                return list;
+            }
+            return value;
+        }
+    }
+
+    /** Numbers compare by value whatever their Java type (42, 42L and 42.0 are equal); other scalars as they are. */
+    private static Object normalize(Object value) {
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 9.0e15) {
+                return (long) number;
+            }
+            return number;
+        }
+        if (value == null || value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+    private static long scalarHash(Object value) {
+        if (value == null) {
+            return mix(0x1L);
+        }
+        if (value instanceof Long) {
+            return mix(0x2L ^ mix((Long) value));
+        }
+        if (value instanceof Double) {
+            return mix(0x3L ^ mix(Double.doubleToLongBits((Double) value)));
+        }
+        if (value instanceof Boolean) {
+            return mix((Boolean) value ? 0x4L : 0x5L);
+        }
+        return mix(0x6L ^ stringHash((String) value));
+    }
+
+    private static long fieldHash(String key, long childHash) {
+        return mix(stringHash(key) ^ Long.rotateLeft(childHash, 23));
+    }
+
+    private static long itemHash(int index, long childHash) {
+        return mix(childHash + (index + 1) * GOLDEN);
+    }
+
+    /** 64-bit FNV-1a over the UTF-16 code units. */
+    private static long stringHash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // ================= JSON Pointer =================
+
+    private static StringBuilder appendToken(StringBuilder path, String token) {
+        path.append('/');
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '~') {
+                path.append("~0");
+            } else if (c == '/') {
+                path.append("~1");
+            } else {
+                path.append(c);
+            }
+        }
+        return path;
+    }
+
+    private static List<String> parsePointer(String path) {
+        if (path.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (path.charAt(0) != '/') {
+            throw new IllegalArgumentException("Path " + path + " is not a JSON Pointer");
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : path.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,166 @@
+package utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class ChangeDetectorTest {
+
+    @Test
+    public void testDiffNamesAddedRemovedAndChangedPaths() {
+        Map<String, Object> previous = tree(3);
+        Map<String, Object> current = tree(3);
+        tag(current, 1).put("value", 99.5);
+        tags(current).add(newTag(4));
+        current.remove("server");
+        current.put("a/b~c", true);
+
+        ChangeDetector.Diff diff = ChangeDetector.diff(ChangeDetector.snapshot(previous), ChangeDetector.snapshot(current));
+
+        assertEquals(diff.getChanged(), List.of("/tags/1/value"));
+        assertEquals(diff.getAdded(), List.of("/tags/3", "/a~1b~0c"));
+        assertEquals(diff.getRemoved(), List.of("/server"));
+        assertEquals(diff.getValue("/tags/1/value"), 99.5);
+    }
+
+    @Test
+    public void testEqualTreesHashAlikeRegardlessOfKeyOrderAndNumberType() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("a", 1);
+        first.put("b", List.of(2.0, "x"));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("b", List.of(2L, "x"));
+        second.put("a", 1.0);
+
+        ChangeDetector.Snapshot one = ChangeDetector.snapshot(first);
+        ChangeDetector.Snapshot two = ChangeDetector.snapshot(second);
+
+        assertEquals(one.hash(), two.hash());
+        assertTrue(ChangeDetector.diff(one, two).isEmpty());
+        assertNotEquals(ChangeDetector.snapshot(List.of(1, 2)).hash(), ChangeDetector.snapshot(List.of(2, 1)).hash());
+        assertFalse(ChangeDetector.diff(ChangeDetector.snapshot("a"), ChangeDetector.snapshot("b")).isEmpty());
+    }
+
+    @Test
+    public void testAppliedDeltaReproducesTheNewTreeAndItsHash() {
+        Map<String, Object> previous = tree(50);
+        Map<String, Object> current = tree(47);
+        tag(current, 10).put("value", -1);
+        tag(current, 20).put("browseName", "renamed");
+        current.put("server", List.of("opc.tcp://plc:4840"));
+
+        ChangeDetector.Snapshot snapshot = ChangeDetector.snapshot(previous);
+        ChangeDetector.Diff diff = ChangeDetector.diff(snapshot, ChangeDetector.snapshot(current));
+        ChangeDetector.Diff applied = snapshot.apply(diff.toDelta());
+
+        assertEquals(snapshot.toValue(), ChangeDetector.snapshot(current).toValue());
+        assertEquals(snapshot.hash(), ChangeDetector.snapshot(current).hash());
+        assertEquals(applied.getRemoved(), List.of("/tags/49", "/tags/48", "/tags/47"));
+        assertEquals(applied.getChanged(), List.of("/server", "/tags/10/value", "/tags/20/browseName"));
+    }
+
+    @Test
+    public void testDeltaSettingCurrentValuesChangesNothing() {
+        ChangeDetector.Snapshot snapshot = ChangeDetector.snapshot(tree(2));
+        long hash = snapshot.hash();
+
+        ChangeDetector.Diff diff = snapshot.apply(Map.of("set", Map.of("/tags/0/value", 0.0, "/server", "opc.tcp://localhost:4840")));
+
+        assertTrue(diff.isEmpty(), diff.toString());
+        assertEquals(snapshot.hash(), hash);
+    }
+
+    @Test
+    public void testMalformedDeltasAreRejected() {
+        ChangeDetector.Snapshot snapshot = ChangeDetector.snapshot(tree(2));
+
+        assertThrows(IllegalArgumentException.class, () -> snapshot.apply(Map.of("set", Map.of("/missing/child", 1))));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.apply(Map.of("set", Map.of("/tags/5", 1))));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.apply(Map.of("set", Map.of("/server/x", 1))));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.apply(Map.of("remove", List.of(""))));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.apply(Map.of("set", List.of("/tags"))));
+    }
+
+    @Test
+    public void testTrackedNodesMoveVersionsOnlyOnChange() {
+        ChangeDetector detector = new ChangeDetector();
+
+        ChangeDetector.Update first = detector.track("ns=3;s=Line1", tree(5));
+        ChangeDetector.Update same = detector.track("ns=3;s=Line1", tree(5));
+        Map<String, Object> changed = tree(5);
+        tag(changed, 2).put("value", 7);
+        ChangeDetector.Update second = detector.track("ns=3;s=Line1", changed);
+
+        assertEquals(first.getDiff().getAdded(), List.of(""));
+        assertEquals(first.getVersion(), 1);
+        assertTrue(same.getDiff().isEmpty());
+        assertEquals(same.getVersion(), 1);
+        assertEquals(second.getDiff().getChanged(), List.of("/tags/2/value"));
+        assertEquals(second.getVersion(), 2);
+    }
+
+    @Test
+    public void testDeltaAgainstStaleVersionIsRefused() {
+        ChangeDetector detector = new ChangeDetector();
+        detector.track("node", tree(3));
+        Map<String, Object> delta = Map.of("set", Map.of("/tags/0/value", 5));
+
+        assertNull(detector.applyDelta("unknown", 1, delta));
+        ChangeDetector.Update applied = detector.applyDelta("node", 1, delta);
+        assertEquals(applied.getVersion(), 2);
+        assertEquals(applied.getDiff().getChanged(), List.of("/tags/0/value"));
+        assertNull(detector.applyDelta("node", 1, Map.of("set", Map.of("/tags/1/value", 5))));
+        assertEquals(detector.getVersion("node"), 2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedNodeIsEvictedBeyondTheBound() {
+        ChangeDetector detector = new ChangeDetector(2);
+        detector.track("a", tree(2));
+        detector.track("b", tree(2));
+        detector.applyDelta("a", 1, Map.of("set", Map.of("/tags/0/value", 5)));
+        detector.track("c", tree(2));
+
+        assertEquals(detector.getTrackedCount(), 2);
+        assertEquals(detector.getVersion("a"), 2);
+        assertEquals(detector.getVersion("c"), 1);
+        // The evicted node starts over, as after a restart of the service
+        assertNull(detector.applyDelta("b", 1, Map.of("set", Map.of("/tags/0/value", 5))));
+        assertEquals(detector.track("b", tree(2)).getVersion(), 1);
+        assertEquals(detector.getTrackedCount(), 2);
+    }
+
+    private static Map<String, Object> tree(int tags) {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("server", "opc.tcp://localhost:4840");
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < tags; i++) {
+            list.add(newTag(i));
+        }
+        tree.put("tags", list);
+        return tree;
+    }
+
+    private static Map<String, Object> newTag(int i) {
+        Map<String, Object> tag = new LinkedHashMap<>();
+        tag.put("nodeId", "ns=4;i=" + i);
+        tag.put("browseName", "Tag_" + i);
+        tag.put("value", i * 1.0);
+        return tag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> tags(Map<String, Object> tree) {
+        return (List<Object>) tree.get("tags");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> tag(Map<String, Object> tree, int index) {
+        return (Map<String, Object>) tags(tree).get(index);
+    }
+}
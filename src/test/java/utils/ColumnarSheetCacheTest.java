@@ -0,0 +1,282 @@
+package utils;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class ColumnarSheetCacheTest {
+    private static final Logger log = LoggerFactory.getLogger(ColumnarSheetCacheTest.class);
+    private Path workDir;
+    private String previousCacheDir;
+
+    @BeforeClass
+    public void useTemporaryCacheDir() throws IOException {
+        workDir = Files.createTempDirectory("excel-cache-test");
+        previousCacheDir = System.getProperty("excel.cache.dir");
+        System.setProperty("excel.cache.dir", workDir.resolve("cache").toString());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restoreCacheDir() throws IOException {
+        if (previousCacheDir == null) {
+            System.clearProperty("excel.cache.dir");
+        } else {
+            System.setProperty("excel.cache.dir", previousCacheDir);
+        }
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testCachedReaderAnswersLikePoi() throws IOException {
+        File file = mixedWorkbook("mixed.xlsx", "Tag_1");
+
+        ExcelReader compiling = new ExcelReader(file.getPath());
+        ExcelReader cached = new ExcelReader(file.getPath());
+
+        assertFalse(compiling.isCached());
+        assertTrue(cached.isCached());
+        for (String sheetName : new String[] {"Tags", "tags", "Empty"}) {
+            compiling.setSheet(sheetName);
+            cached.setSheet(sheetName);
+            for (int row = 0; row <= 6; row++) {
+                for (int col = 0; col <= 5; col++) {
+                    assertEquals(cached.getCellData(row, col), compiling.getCellData(row, col), sheetName + " " + row + "," + col);
+                }
+            }
+        }
+        compiling.setSheet(0);
+        cached.setSheet(0);
+        List<Map<String, String>> expected = compiling.getDataAsMap();
+        assertEquals(cached.getDataAsMap(), expected);
+        assertEquals(expected.size(), 3, "The skipped row is not a data row");
+        assertEquals(cached.getCellData(1, "browseName"), "Tag_1");
+        assertEquals(cached.getCellData(2, "unit"), "\u00b0C");
+        expectThrows(RuntimeException.class, () -> cached.setSheet("Missing"));
+        expectThrows(RuntimeException.class, () -> cached.getCellData(1, "missing"));
+        compiling.close();
+        cached.close();
+    }
+
+    @Test
+    public void testEveryReaderRendersCellsAlike() throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Cells");
+        String[] columns = {"integer", "fraction", "grouped", "date", "timestamp", "formula", "text", "flag", "check", "error"};
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < columns.length; c++) {
+            header.createCell(c).setCellValue(columns[c]);
+        }
+        CellStyle grouped = workbook.createCellStyle();
+        grouped.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        CellStyle date = workbook.createCellStyle();
+        date.setDataFormat((short) 14);
+        CellStyle timestamp = workbook.createCellStyle();
+        timestamp.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue(42);
+        row.createCell(1).setCellValue(3.75);
+        row.createCell(2).setCellValue(1234567.5);
+        row.getCell(2).setCellStyle(grouped);
+        row.createCell(3).setCellValue(LocalDateTime.of(2024, 1, 15, 0, 0));
+        row.getCell(3).setCellStyle(date);
+        row.createCell(4).setCellValue(LocalDateTime.of(2024, 1, 15, 8, 30));
+        row.getCell(4).setCellStyle(timestamp);
+        row.createCell(5).setCellFormula("A2*2");
+        row.createCell(6).setCellFormula("\"Tag_\"&A2");
+        row.createCell(7).setCellValue(false);
+        row.createCell(8).setCellFormula("A2>40");
+        row.createCell(9).setCellFormula("1/0");
+        workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+        File file = workDir.resolve("cells.xlsx").toFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+
+        ExcelReader poi = new ExcelReader(file.getPath());
+        ExcelReader cached = new ExcelReader(file.getPath());
+        poi.setSheet("Cells");
+        cached.setSheet("Cells");
+        Map<String, String> expected = poi.getDataAsMap().get(0);
+        Map<String, String> streamed;
+        try (StreamingExcelReader reader = ExcelReader.stream(file.getPath(), "Cells")) {
+            streamed = reader.next();
+        }
+
+        assertFalse(poi.isCached());
+        assertTrue(cached.isCached());
+        assertEquals(cached.getDataAsMap().get(0), expected);
+        assertEquals(streamed, expected);
+        assertEquals(expected.get("integer"), "42");
+        assertEquals(expected.get("fraction"), "3.75");
+        assertEquals(expected.get("date"), "1/15/24");
+        assertEquals(expected.get("timestamp"), "2024-01-15 08:30");
+        assertEquals(expected.get("formula"), "84");
+        assertEquals(expected.get("text"), "Tag_42");
+        assertEquals(expected.get("flag"), "false");
+        assertEquals(expected.get("check"), "true");
+        assertEquals(expected.get("error"), "#DIV/0!");
+        poi.close();
+        cached.close();
+    }
+
+    @Test
+    public void testChangedWorkbookRecompilesAndReplacesTheStaleCache() throws IOException {
+        File file = mixedWorkbook("changing.xlsx", "Tag_1");
+        new ExcelReader(file.getPath()).close();
+        Path first = ColumnarSheetCache.cacheFileFor(file.getPath());
+
+        mixedWorkbook("changing.xlsx", "Renamed");
+        ExcelReader reader = new ExcelReader(file.getPath());
+        Path second = ColumnarSheetCache.cacheFileFor(file.getPath());
+
+        assertFalse(reader.isCached(), "Edited workbook must be read through POI");
+        assertNotEquals(second, first);
+        assertTrue(Files.exists(second));
+        assertFalse(Files.exists(first), "Stale cache of the same workbook was kept");
+        ExcelReader recompiled = new ExcelReader(file.getPath());
+        recompiled.setSheet("Tags");
+        assertTrue(recompiled.isCached());
+        assertEquals(recompiled.getCellData(1, "browseName"), "Renamed");
+    }
+
+    @Test
+    public void testSameNamedWorkbooksInDifferentDirectoriesKeepTheirCaches() throws IOException {
+        Files.createDirectories(workDir.resolve("line1"));
+        Files.createDirectories(workDir.resolve("line2"));
+        File first = mixedWorkbook("line1/tags.xlsx", "Line1_Tag");
+        File second = mixedWorkbook("line2/tags.xlsx", "Line2_Tag");
+
+        new ExcelReader(first.getPath()).close();
+        new ExcelReader(second.getPath()).close();
+        ExcelReader firstAgain = new ExcelReader(first.getPath());
+        firstAgain.setSheet("Tags");
+
+        assertTrue(Files.exists(ColumnarSheetCache.cacheFileFor(first.getPath())), "Cache of the other directory's workbook was deleted");
+        assertTrue(Files.exists(ColumnarSheetCache.cacheFileFor(second.getPath())));
+        assertTrue(firstAgain.isCached());
+        assertEquals(firstAgain.getCellData(1, "browseName"), "Line1_Tag");
+    }
+
+    @Test
+    public void testCorruptCacheFallsBackToPoiAndIsRewritten() throws IOException {
+        File file = mixedWorkbook("corrupt.xlsx", "Tag_1");
+        new ExcelReader(file.getPath()).close();
+        Path cacheFile = ColumnarSheetCache.cacheFileFor(file.getPath());
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ExcelReader reader = new ExcelReader(file.getPath());
+        reader.setSheet("Tags");
+
+        assertFalse(reader.isCached());
+        assertEquals(reader.getCellData(1, "browseName"), "Tag_1");
+        assertEquals(Files.size(cacheFile), bytes.length);
+        assertTrue(new ExcelReader(file.getPath()).isCached());
+    }
+
+    @Test
+    public void testCachedLoadSkipsPoiAndIsCompact() throws IOException {
+        File file = workDir.resolve("large.xlsx").toFile();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        Sheet sheet = workbook.createSheet("Data");
+        Row header = sheet.createRow(0);
+        String[] columns = {"nodeId", "browseName", "dataType", "value", "unit"};
+        for (int c = 0; c < columns.length; c++) {
+            header.createCell(c).setCellValue(columns[c]);
+        }
+        int rows = 20_000;
+        for (int i = 1; i <= rows; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("ns=4;i=" + i);
+            row.createCell(1).setCellValue("Tag_" + i);
+            row.createCell(2).setCellValue(i % 3 == 0 ? "Double" : "Int32");
+            row.createCell(3).setCellValue(i % 100);
+            row.createCell(4).setCellValue(i % 2 == 0 ? "bar" : "mm");
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.dispose();
+        workbook.close();
+
+        long start = System.nanoTime();
+        ExcelReader compiling = new ExcelReader(file.getPath());
+        compiling.setSheet("Data");
+        List<Map<String, String>> expected = compiling.getDataAsMap();
+        long poiNanos = System.nanoTime() - start;
+        compiling.close();
+        start = System.nanoTime();
+        ExcelReader cached = new ExcelReader(file.getPath());
+        cached.setSheet("Data");
+        List<Map<String, String>> actual = cached.getDataAsMap();
+        long cachedNanos = System.nanoTime() - start;
+
+        assertTrue(cached.isCached());
+        assertEquals(actual, expected);
+        // Reported rather than asserted: wall-clock ratios depend on the machine and its load
+        log.info("Cached load of {} rows took {}ms, POI {}ms", rows, cachedNanos / 1_000_000, poiNanos / 1_000_000);
+        // 100k cells with about 40k distinct texts: 2-byte ids plus the dictionary
+        long cacheBytes = Files.size(ColumnarSheetCache.cacheFileFor(file.getPath()));
+        assertTrue(cacheBytes < rows * columns.length * 2 + 700_000, cacheBytes + " bytes");
+    }
+
+    private File mixedWorkbook(String name, String firstTag) throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Tags");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("nodeId");
+        header.createCell(1).setCellValue("browseName");
+        header.createCell(2).setCellValue("value");
+        header.createCell(3).setCellValue("enabled");
+        header.createCell(4).setCellValue("unit");
+        Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("ns=4;i=1");
+        first.createCell(1).setCellValue(firstTag);
+        first.createCell(2).setCellValue(42);
+        first.createCell(3).setCellValue(true);
+        first.createCell(4).setCellValue("bar");
+        Row second = sheet.createRow(2);
+        second.createCell(0).setCellValue("ns=4;i=2");
+        second.createCell(2).setCellFormula("C2*2");
+        second.createCell(4).setCellValue("\u00b0C");
+        // Row 3 is skipped entirely; row 4 is wider than the header
+        Row wide = sheet.createRow(4);
+        wide.createCell(0).setCellValue("ns=4;i=4");
+        wide.createCell(5).setCellValue("beyond header");
+        workbook.createSheet("Empty");
+        File file = workDir.resolve(name).toFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        return file;
+    }
+}
@@ -0,0 +1,297 @@
+package utils;
+
+import config.TestConfigManager;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MutableRecordBatch;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.RecordBatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for the Kafka cluster behind the Kafka service, so the
+ * browse pipeline can be exercised and sized without a broker.
+ *
+ * <p>Topics hold partitions of real Kafka record batches (magic v2, as built by
+ * {@link EmbeddedKafkaProducer} with kafka-clients' {@code MemoryRecordsBuilder}),
+ * so batch sizes, per-record overhead and compression ratios are those a real
+ * broker would store. Appending assigns offsets the way the partition leader
+ * does, by rewriting the batch's base offset; a fetch decompresses the batches
+ * covering the requested offset. Each partition keeps
+ * {@code mock.kafka.retention.bytes} and then deletes its oldest batches, moving
+ * its log start offset forward. Topics are created on first use with
+ * {@code mock.kafka.partitions} partitions. One broker serves the whole JVM
+ * ({@link #getInstance()}), so every mock server instance and engine publishes
+ * to the same topics the tests consume.
+ */
+public final class EmbeddedKafkaBroker {
+    private static final EmbeddedKafkaBroker INSTANCE = fromConfig();
+
+    private final int defaultPartitions;
+    private final long retentionBytes;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final Map<String, EmbeddedKafkaProducer> producers = new ConcurrentHashMap<>();
+
+    public EmbeddedKafkaBroker(int defaultPartitions, long retentionBytes) {
+        if (defaultPartitions <= 0) {
+            throw new IllegalArgumentException("defaultPartitions must be positive");
+        }
+        if (retentionBytes <= 0) {
+            throw new IllegalArgumentException("retentionBytes must be positive");
+        }
+        this.defaultPartitions = defaultPartitions;
+        this.retentionBytes = retentionBytes;
+    }
+
+    public static EmbeddedKafkaBroker getInstance() {
+        return INSTANCE;
+    }
+
+    private static EmbeddedKafkaBroker fromConfig() {
+        Map<String, String> settings = TestConfigManager.getMockKafkaSettings();
+        return new EmbeddedKafkaBroker(Integer.parseInt(settings.getOrDefault("partitions", "3").trim()),
+            Long.parseLong(settings.getOrDefault("retention.bytes", "67108864").trim()));
+    }
+
+    /**
+     * Producer with the given client id, created with the configured
+     * {@code mock.kafka.*} settings on first use. Callers naming the same client
+     * share it, so a benchmark can reconfigure the producer a service uses.
+     */
+    public EmbeddedKafkaProducer producer(String clientId) {
+        return producers.computeIfAbsent(clientId,
+            id -> new EmbeddedKafkaProducer(this, id, EmbeddedKafkaProducer.Settings.fromConfig()));
+    }
+
+    /** Creates the topic unless it exists; an existing topic keeps its partition count. */
+    public void createTopic(String name, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        topics.computeIfAbsent(name, topic -> new Topic(topic, partitions));
+    }
+
+    public int partitionCount(String topic) {
+        return topic(topic).partitions.length;
+    }
+
+    /**
+     * Appends the batches to the end of the partition and returns the offset
+     * assigned to their first record. The batches are owned by the log from then on.
+     */
+    public long append(String topic, int partition, MemoryRecords records) {
+        Topic log = topic(topic);
+        Partition target = log.partition(partition);
+        long baseOffset;
+        synchronized (log) {
+            baseOffset = target.nextOffset;
+            for (MutableRecordBatch batch : records.batches()) {
+                long lastOffset = target.nextOffset + (batch.lastOffset() - batch.baseOffset());
+                batch.setLastOffset(lastOffset);
+                target.batches.add(batch);
+                target.sizeInBytes += batch.sizeInBytes();
+                target.nextOffset = lastOffset + 1;
+                log.stats.batches++;
+                log.stats.records += lastOffset - batch.baseOffset() + 1;
+                log.stats.bytes += batch.sizeInBytes();
+            }
+            target.enforceRetention(retentionBytes);
+            log.notifyAll();
+        }
+        return baseOffset;
+    }
+
+    /**
+     * Records of the partition from {@code offset} on, at most about
+     * {@code maxRecords} (whole batches are returned). An offset before the log
+     * start reads from the log start; at or past the end the result is empty.
+     */
+    public List<Record> fetch(String topic, int partition, long offset, int maxRecords) {
+        Topic log = topic(topic);
+        Partition source = log.partition(partition);
+        List<RecordBatch> covering = new ArrayList<>();
+        synchronized (log) {
+            int records = 0;
+            for (int i = source.indexOf(offset); i < source.batches.size() && records < maxRecords; i++) {
+                RecordBatch batch = source.batches.get(i);
+                covering.add(batch);
+                records += (int) (batch.lastOffset() - Math.max(offset, batch.baseOffset()) + 1);
+            }
+        }
+        // Decompression happens outside the lock, so consumers don't hold up producers
+        List<Record> fetched = new ArrayList<>();
+        for (RecordBatch batch : covering) {
+            Iterator<Record> records = batch.iterator();
+            while (records.hasNext()) {
+                Record record = records.next();
+                if (record.offset() >= offset) {
+                    fetched.add(record);
+                }
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Waits until any partition of the topic has records at or after the given
+     * position (one entry per partition), or the timeout passes. Returns whether
+     * there is something to fetch.
+     */
+    public boolean awaitRecords(String topic, long[] positions, Duration timeout) {
+        Topic log = topic(topic);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (log) {
+            while (true) {
+                for (int p = 0; p < log.partitions.length && p < positions.length; p++) {
+                    if (log.partitions[p].nextOffset > positions[p]) {
+                        return true;
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(log, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    /** Offset the next record appended to the partition will get. */
+    public long endOffset(String topic, int partition) {
+        Topic log = topic(topic);
+        synchronized (log) {
+            return log.partition(partition).nextOffset;
+        }
+    }
+
+    /** First offset still retained in the partition. */
+    public long startOffset(String topic, int partition) {
+        Topic log = topic(topic);
+        synchronized (log) {
+            Partition source = log.partition(partition);
+            return source.batches.isEmpty() ? source.nextOffset : source.batches.get(0).baseOffset();
+        }
+    }
+
+    /** Totals appended to the topic since it was created, including deleted batches. */
+    public TopicStats getTopicStats(String topic) {
+        Topic log = topic(topic);
+        synchronized (log) {
+            return new TopicStats(log.stats.batches, log.stats.records, log.stats.bytes);
+        }
+    }
+
+    private Topic topic(String name) {
+        return topics.computeIfAbsent(name, topic -> new Topic(topic, defaultPartitions));
+    }
+
+    // ================= Log =================
+
+    private static final class Topic {
+        private final String name;
+        private final Partition[] partitions;
+        private final TopicStats stats = new TopicStats(0, 0, 0);
+
+        Topic(String name, int partitionCount) {
+            this.name = name;
+            this.partitions = new Partition[partitionCount];
+            for (int p = 0; p < partitionCount; p++) {
+                partitions[p] = new Partition();
+            }
+        }
+
+        Partition partition(int partition) {
+            if (partition < 0 || partition >= partitions.length) {
+                throw new IllegalArgumentException("Topic " + name + " has no partition " + partition
+                    + " (it has " + partitions.length + ")");
+            }
+            return partitions[partition];
+        }
+    }
+
+    private static final class Partition {
+        private final List<RecordBatch> batches = new ArrayList<>();
+        private long nextOffset;
+        private long sizeInBytes;
+
+        /** Index of the batch holding the offset: the first batch for offsets before the log start, the end past it. */
+        int indexOf(long offset) {
+            int low = 0;
+            int high = batches.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                RecordBatch batch = batches.get(mid);
+                if (batch.lastOffset() < offset) {
+                    low = mid + 1;
+                } else if (batch.baseOffset() > offset) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return low;
+        }
+
+        void enforceRetention(long retentionBytes) {
+            // Like segment deletion, never drops the active (last) batch
+            int expired = 0;
+            while (sizeInBytes > retentionBytes && expired < batches.size() - 1) {
+                sizeInBytes -= batches.get(expired).sizeInBytes();
+                expired++;
+            }
+            if (expired > 0) {
+                batches.subList(0, expired).clear();
+            }
+        }
+    }
+
+    // ================= Results =================
+
+    /** What a topic has been sent: record batches, records and their stored (possibly compressed) bytes. */
+    public static final class TopicStats {
+        private long batches;
+        private long records;
+        private long bytes;
+
+        TopicStats(long batches, long records, long bytes) {
+            this.batches = batches;
+            this.records = records;
+            this.bytes = bytes;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /** What was appended between an earlier snapshot and this one. */
+        public TopicStats since(TopicStats earlier) {
+            return new TopicStats(batches - earlier.batches, records - earlier.records, bytes - earlier.bytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("batches=%d, records=%d, bytes=%d (%.1f records/batch, %.0f bytes/record)",
+                batches, records, bytes, batches == 0 ? 0.0 : (double) records / batches,
+                records == 0 ? 0.0 : (double) bytes / records);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package utils;
+
+import clients.EmbeddedTopicConsumer;
+import clients.TopicRecord;
+import org.apache.kafka.common.record.CompressionType;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class EmbeddedKafkaBrokerTest {
+
+    @Test
+    public void testRecordsAreConsumedInOffsetOrderPerPartition() throws Exception {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(3, 1 << 20);
+        EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, "ordering",
+            new EmbeddedKafkaProducer.Settings(1024, 0, CompressionType.NONE));
+        EmbeddedTopicConsumer consumer = new EmbeddedTopicConsumer(broker, "browse");
+
+        List<CompletableFuture<Long>> offsets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            offsets.add(producer.send("browse", bytes("node-" + (i % 7)), bytes("value-" + i)));
+        }
+        producer.flush();
+
+        List<TopicRecord> consumed = consumeAll(consumer, 300);
+        Map<String, Integer> partitionOfKey = new HashMap<>();
+        Map<Integer, Long> lastOffset = new HashMap<>();
+        for (TopicRecord record : consumed) {
+            Integer previous = partitionOfKey.putIfAbsent(record.getKeyAsString(), record.getPartition());
+            assertTrue(previous == null || previous == record.getPartition(), "Key moved partitions: " + record);
+            assertEquals(record.getOffset(), lastOffset.getOrDefault(record.getPartition(), -1L) + 1, "Gap or reorder at " + record);
+            lastOffset.put(record.getPartition(), record.getOffset());
+        }
+        long total = 0;
+        for (int p = 0; p < 3; p++) {
+            total += broker.endOffset("browse", p);
+        }
+        assertEquals(total, 300);
+        assertEquals(offsets.get(299).get(1, TimeUnit.SECONDS).longValue(), lastOffsetOf(consumed, "value-299"));
+        // Records of one key keep their send order
+        assertTrue(indexOf(consumed, "value-7") < indexOf(consumed, "value-14"));
+        producer.close();
+    }
+
+    @Test
+    public void testLingerCollectsRecordsIntoOneBatch() throws Exception {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, 1 << 20);
+        EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, "lingering",
+            new EmbeddedKafkaProducer.Settings(1 << 20, 50, CompressionType.NONE));
+
+        long start = System.nanoTime();
+        CompletableFuture<Long> last = null;
+        for (int i = 0; i < 100; i++) {
+            last = producer.send("browse", null, bytes("value-" + i));
+        }
+        assertEquals(last.get(5, TimeUnit.SECONDS).longValue(), 99L);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(producer.getStats().getBatches(), 1);
+        assertEquals(broker.getTopicStats("browse").getRecords(), 100);
+        assertTrue(waitedMillis >= 40, "Batch was sent after " + waitedMillis + "ms");
+        producer.close();
+    }
+
+    @Test
+    public void testBatchSizeBoundsBatches() {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, 1 << 24);
+        EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, "bounded",
+            new EmbeddedKafkaProducer.Settings(4096, 1000, CompressionType.NONE));
+        byte[] value = new byte[500];
+
+        for (int i = 0; i < 100; i++) {
+            producer.send("browse", null, value);
+        }
+        producer.flush();
+
+        EmbeddedKafkaProducer.Stats stats = producer.getStats();
+        assertEquals(stats.getRecords(), 100);
+        // About 8 records of 500 bytes fit in 4KB; a lingering producer only sends full batches before the flush
+        assertTrue(stats.getBatches() >= 12 && stats.getBatches() <= 15, stats.toString());
+        assertTrue(stats.getCompressedBytes() / stats.getBatches() <= 4096 + 600, stats.toString());
+        producer.close();
+    }
+
+    @Test
+    public void testCompressedBatchesAreSmallerAndReadBack() {
+        for (CompressionType compression : new CompressionType[] {CompressionType.GZIP, CompressionType.LZ4,
+                CompressionType.SNAPPY, CompressionType.ZSTD}) {
+            EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, 1 << 24);
+            EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, compression.name,
+                new EmbeddedKafkaProducer.Settings(64 * 1024, 1000, compression));
+            String payload = "{\"nodeId\":\"ns=4;i=1\",\"browseName\":\"Tag_1\",\"dataType\":\"Double\"}".repeat(10);
+
+            for (int i = 0; i < 200; i++) {
+                producer.send("browse", bytes("node"), bytes(i + payload));
+            }
+            producer.flush();
+
+            EmbeddedKafkaProducer.Stats stats = producer.getStats();
+            assertTrue(stats.getCompressionRatio() < 0.5, compression.name + ": " + stats);
+            assertEquals(broker.getTopicStats("browse").getBytes(), stats.getCompressedBytes());
+            List<TopicRecord> consumed = consumeAll(new EmbeddedTopicConsumer(broker, "browse"), 200);
+            for (int i = 0; i < 200; i++) {
+                assertEquals(consumed.get(i).getValueAsString(), i + payload, compression.name);
+            }
+            producer.close();
+        }
+    }
+
+    @Test
+    public void testPollWaitsForAppendAndSeekToEndSkipsHistory() throws Exception {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(2, 1 << 20);
+        EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, "waiting",
+            new EmbeddedKafkaProducer.Settings(16384, 0, CompressionType.NONE));
+        producer.send("browse", bytes("old"), bytes("history")).get(1, TimeUnit.SECONDS);
+        EmbeddedTopicConsumer consumer = new EmbeddedTopicConsumer(broker, "browse");
+        consumer.seekToEnd();
+
+        assertTrue(consumer.poll(Duration.ofMillis(20)).isEmpty());
+        CompletableFuture.runAsync(() -> {
+            sleep(100);
+            producer.send("browse", bytes("new"), bytes("fresh"));
+        });
+        long start = System.nanoTime();
+        List<TopicRecord> polled = consumer.poll(Duration.ofSeconds(5));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(polled.size(), 1);
+        assertEquals(polled.get(0).getValueAsString(), "fresh");
+        assertTrue(waitedMillis < 2000, "Poll woke after " + waitedMillis + "ms");
+        producer.close();
+    }
+
+    @Test
+    public void testRetentionDeletesOldestBatches() {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, 10_000);
+        EmbeddedKafkaProducer producer = new EmbeddedKafkaProducer(broker, "retained",
+            new EmbeddedKafkaProducer.Settings(1024, 0, CompressionType.NONE));
+
+        for (int i = 0; i < 100; i++) {
+            producer.send("browse", null, new byte[900]);
+            producer.flush();
+        }
+
+        assertEquals(broker.endOffset("browse", 0), 100);
+        assertTrue(broker.startOffset("browse", 0) > 80, "Log start " + broker.startOffset("browse", 0));
+        // A consumer behind the log start resumes from it
+        assertEquals(broker.fetch("browse", 0, 0, 1).get(0).offset(), broker.startOffset("browse", 0));
+        producer.close();
+    }
+
+    private static List<TopicRecord> consumeAll(EmbeddedTopicConsumer consumer, int expected) {
+        List<TopicRecord> consumed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (consumed.size() < expected && System.nanoTime() < deadline) {
+            consumed.addAll(consumer.poll(Duration.ofMillis(100)));
+        }
+        assertEquals(consumed.size(), expected);
+        return consumed;
+    }
+
+    private static long lastOffsetOf(List<TopicRecord> records, String value) {
+        return records.get(indexOf(records, value)).getOffset();
+    }
+
+    private static int indexOf(List<TopicRecord> records, String value) {
+        for (int i = 0; i < records.size(); i++) {
+            if (value.equals(records.get(i).getValueAsString())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package utils;
+
+import config.TestConfigManager;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Producer for the {@link EmbeddedKafkaBroker} that batches like the Kafka client.
+ *
+ * <p>{@link #send} appends the record to the open batch of its partition (the
+ * key's murmur2 hash, as Kafka's default partitioner; round robin for null keys)
+ * and returns at once. A batch is closed when the next record no longer fits in
+ * {@code batch.size} bytes (after compression, as far as the builder can
+ * estimate it). A single sender thread appends closed batches to the broker, and
+ * open ones once they are {@code linger.ms} old, so with {@code linger.ms=0}
+ * batches still grow while the sender is busy, exactly as with a real producer
+ * under load. Each returned future completes with the record's offset once its
+ * batch is in the log. Safe to use from any number of threads.
+ */
+public class EmbeddedKafkaProducer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedKafkaProducer.class);
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EmbeddedKafkaBroker broker;
+    private final String clientId;
+    private final Map<String, Map<Integer, Batch>> open = new HashMap<>();
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final Thread sender;
+
+    private Settings settings;
+    private int inSender;
+    private long batches;
+    private long records;
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private boolean closed;
+
+    public EmbeddedKafkaProducer(EmbeddedKafkaBroker broker, String clientId, Settings settings) {
+        this.broker = broker;
+        this.clientId = clientId;
+        this.settings = settings;
+        this.sender = new Thread(this::sendLoop, "embedded-kafka-producer-" + clientId);
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /** Queues the record for the topic; completes with its offset in the log. */
+    public CompletableFuture<Long> send(String topic, byte[] key, byte[] value) {
+        int partitions = broker.partitionCount(topic);
+        int partition = key == null
+            ? Utils.toPositive(roundRobin.getAndIncrement()) % partitions
+            : Utils.toPositive(Utils.murmur2(key)) % partitions;
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        long timestamp = System.currentTimeMillis();
+        synchronized (this) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Producer " + clientId + " is closed"));
+                return result;
+            }
+            Map<Integer, Batch> topicBatches = open.computeIfAbsent(topic, name -> new HashMap<>());
+            Batch batch = topicBatches.get(partition);
+            if (batch != null && !batch.builder.hasRoomFor(timestamp, key, value, Record.EMPTY_HEADERS)) {
+                close(topicBatches, batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(topic, partition, settings);
+                topicBatches.put(partition, batch);
+                if (settings.lingerMs == 0) {
+                    notifyAll();
+                }
+            }
+            batch.builder.append(timestamp, key, value);
+            batch.results.add(result);
+            if (batch.builder.isFull()) {
+                close(topicBatches, batch);
+            }
+        }
+        return result;
+    }
+
+    /** Sends every open batch now and waits until all queued records are in the log. */
+    public synchronized void flush() {
+        for (Map<Integer, Batch> topicBatches : open.values()) {
+            for (Iterator<Batch> batches = topicBatches.values().iterator(); batches.hasNext(); ) {
+                ready.add(batches.next());
+                batches.remove();
+            }
+        }
+        notifyAll();
+        while (!ready.isEmpty() || inSender > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while flushing producer " + clientId, e);
+            }
+        }
+    }
+
+    /** Flushes what is queued under the old settings, then batches with the new ones. */
+    public synchronized void reconfigure(Settings newSettings) {
+        flush();
+        settings = newSettings;
+        log.info("Embedded Kafka producer {} reconfigured: {}", clientId, newSettings);
+    }
+
+    public synchronized Settings getSettings() {
+        return settings;
+    }
+
+    /** Batches sent so far and their sizes before and after compression. */
+    public synchronized Stats getStats() {
+        return new Stats(batches, records, uncompressedBytes, compressedBytes);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+    }
+
+    private void close(Map<Integer, Batch> topicBatches, Batch batch) {
+        topicBatches.remove(batch.partition);
+        ready.add(batch);
+        notifyAll();
+    }
+
+    // ================= Sender =================
+
+    private void sendLoop() {
+        List<Batch> sending = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                try {
+                    while (!collectSendable(sending)) {
+                        if (closed) {
+                            return;
+                        }
+                        long wait = nanosUntilLingerExpires();
+                        TimeUnit.NANOSECONDS.timedWait(this, wait);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                inSender = sending.size();
+            }
+            for (Batch batch : sending) {
+                send(batch);
+            }
+            sending.clear();
+            synchronized (this) {
+                inSender = 0;
+                notifyAll();
+            }
+        }
+    }
+
+    /** Moves closed batches, and open ones whose linger time has passed, into {@code sending}. */
+    private boolean collectSendable(List<Batch> sending) {
+        sending.addAll(ready);
+        ready.clear();
+        long now = System.nanoTime();
+        for (Map<Integer, Batch> topicBatches : open.values()) {
+            for (Iterator<Batch> batches = topicBatches.values().iterator(); batches.hasNext(); ) {
+                Batch batch = batches.next();
+                if (now - batch.createdNanos >= TimeUnit.MILLISECONDS.toNanos(batch.lingerMs)) {
+                    sending.add(batch);
+                    batches.remove();
+                }
+            }
+        }
+        return !sending.isEmpty();
+    }
+
+    private long nanosUntilLingerExpires() {
+        long wait = IDLE_WAIT_NANOS;
+        long now = System.nanoTime();
+        for (Map<Integer, Batch> topicBatches : open.values()) {
+            for (Batch batch : topicBatches.values()) {
+                wait = Math.min(wait, batch.createdNanos + TimeUnit.MILLISECONDS.toNanos(batch.lingerMs) - now);
+            }
+        }
+        return Math.max(1, wait);
+    }
+
+    private void send(Batch batch) {
+        try {
+            MemoryRecords built = batch.builder.build();
+            long baseOffset = broker.append(batch.topic, batch.partition, built);
+            synchronized (this) {
+                batches++;
+                records += batch.results.size();
+                uncompressedBytes += batch.builder.uncompressedBytesWritten();
+                compressedBytes += built.sizeInBytes();
+            }
+            for (int i = 0; i < batch.results.size(); i++) {
+                batch.results.get(i).complete(baseOffset + i);
+            }
+        } catch (RuntimeException e) {
+            for (CompletableFuture<Long> result : batch.results) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final String topic;
+        private final int partition;
+        private final int lingerMs;
+        private final long createdNanos = System.nanoTime();
+        private final MemoryRecordsBuilder builder;
+        private final List<CompletableFuture<Long>> results = new ArrayList<>();
+
+        Batch(String topic, int partition, Settings settings) {
+            this.topic = topic;
+            this.partition = partition;
+            this.lingerMs = settings.lingerMs;
+            // The buffer grows past batch.size for a single oversized record, as in the Kafka client
+            this.builder = MemoryRecords.builder(ByteBuffer.allocate(settings.batchSize), settings.compression,
+                TimestampType.CREATE_TIME, 0L);
+        }
+    }
+
+    // ================= Settings =================
+
+    /** The producer settings that shape batches: {@code batch.size}, {@code linger.ms} and {@code compression}. */
+    public static final class Settings {
+        private final int batchSize;
+        private final int lingerMs;
+        private final CompressionType compression;
+
+        public Settings(int batchSize, int lingerMs, CompressionType compression) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            if (lingerMs < 0) {
+                throw new IllegalArgumentException("lingerMs must not be negative");
+            }
+            this.batchSize = batchSize;
+            this.lingerMs = lingerMs;
+            this.compression = compression;
+        }
+
+        /** The {@code mock.kafka.batch.size}, {@code linger.ms} and {@code compression} settings. */
+        public static Settings fromConfig() {
+            Map<String, String> settings = TestConfigManager.getMockKafkaSettings();
+            return new Settings(Integer.parseInt(settings.getOrDefault("batch.size", "16384").trim()),
+                Integer.parseInt(settings.getOrDefault("linger.ms", "0").trim()),
+                CompressionType.forName(settings.getOrDefault("compression", "none").trim().toLowerCase()));
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public int getLingerMs() {
+            return lingerMs;
+        }
+
+        public CompressionType getCompression() {
+            return compression;
+        }
+
+        @Override
+        public String toString() {
+            return "batch.size=" + batchSize + ", linger.ms=" + lingerMs + ", compression=" + compression.name;
+        }
+    }
+
+    // ================= Results =================
+
+    /** Batches a producer sent, the records in them and their bytes before and after compression. */
+    public static final class Stats {
+        private final long batches;
+        private final long records;
+        private final long uncompressedBytes;
+        private final long compressedBytes;
+
+        Stats(long batches, long records, long uncompressedBytes, long compressedBytes) {
+            this.batches = batches;
+            this.records = records;
+            this.uncompressedBytes = uncompressedBytes;
+            this.compressedBytes = compressedBytes;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+
+        /** Bytes of the record batches as stored by the broker. */
+        public long getCompressedBytes() {
+            return compressedBytes;
+        }
+
+        public double getAverageBatchRecords() {
+            return batches == 0 ? 0 : (double) records / batches;
+        }
+
+        /** Stored bytes per uncompressed byte: 1 without compression, lower the better it compresses. */
+        public double getCompressionRatio() {
+            return uncompressedBytes == 0 ? 1 : (double) compressedBytes / uncompressedBytes;
+        }
+
+        /** What was sent between an earlier snapshot and this one. */
+        public Stats since(Stats earlier) {
+            return new Stats(batches - earlier.batches, records - earlier.records,
+                uncompressedBytes - earlier.uncompressedBytes, compressedBytes - earlier.compressedBytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("batches=%d, records=%d (%.1f/batch), bytes=%d -> %d (ratio %.3f)",
+                batches, records, getAverageBatchRecords(), uncompressedBytes, compressedBytes, getCompressionRatio());
+        }
+    }
+}
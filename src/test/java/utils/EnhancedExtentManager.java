@@ -1,162 +1,137 @@
 package utils;
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.markuputils.ExtentColor;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
-import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import com.aventstack.extentreports.reporter.configuration.ViewName;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import performance.LatencyReports;
 
-import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Name-keyed helpers over the suite report of {@link ExtentManager}; both
+ * write the same Enhanced_Test_Report file through its {@link ReportSink}.
+ */
 public class EnhancedExtentManager {
-    private static ExtentReports extentReports;
-    private static Map<String, ExtentTest> testMap = new HashMap<>();
-    private static String reportPath;
-    
-    public static void initializeReport() {
-        if (extentReports == null) {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            reportPath = "test-output/Enhanced_Test_Report_" + timestamp + ".html";
+    private static final Logger log = LoggerFactory.getLogger(EnhancedExtentManager.class);
+    private static final Map<String, ReportTest> testMap = new ConcurrentHashMap<>();
+    private static volatile boolean initialized;
+    
+    public static synchronized void initializeReport() {
+        if (!initialized) {
+            ReportSink sink = ExtentManager.getReportSink();
+            sink.setSystemInfo("User", System.getProperty("user.name"));
+            sink.setSystemInfo("Test Environment", "Real Microservices");
+            sink.setSystemInfo("Test Framework", "Playwright + TestNG");
+            sink.setSystemInfo("Report Generated", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            initialized = true;
             
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath)
-                    .viewConfigurer()
-                    .viewOrder()
-                    .as(new ViewName[]{
-                        ViewName.DASHBOARD,
-                        ViewName.TEST,
-                        ViewName.CATEGORY,
-                        ViewName.AUTHOR,
-                        ViewName.DEVICE,
-                        ViewName.EXCEPTION
-                    })
-                    .apply();
-            
-            // Configure the reporter
-            sparkReporter.config().setDocumentTitle("Microservices API Test Suite Report");
-            sparkReporter.config().setReportName("Enhanced API Test Report");
-            // Theme configuration removed in ExtentReports 5+
-            sparkReporter.config().setTimeStampFormat("yyyy-MM-dd HH:mm:ss");
-            sparkReporter.config().setCss(".nav-wrapper { background-color: #1f4e79; }");
-            sparkReporter.config().setCss(".brand-logo { color: white; }");
-            
-            extentReports = new ExtentReports();
-            extentReports.attachReporter(sparkReporter);
-            
-            // Add system information
-            extentReports.setSystemInfo("OS", System.getProperty("os.name"));
-            extentReports.setSystemInfo("Java Version", System.getProperty("java.version"));
-            extentReports.setSystemInfo("User", System.getProperty("user.name"));
-            extentReports.setSystemInfo("Test Environment", "Real Microservices");
-            extentReports.setSystemInfo("Test Framework", "Playwright + TestNG");
-            extentReports.setSystemInfo("Report Generated", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            
-            System.out.println("Enhanced ExtentReports initialized: " + reportPath);
+            log.info("Enhanced ExtentReports initialized: {}", getReportPath());
         }
     }
     
-    public static ExtentTest createTest(String testName, String description) {
-        if (extentReports == null) {
+    public static ReportTest createTest(String testName, String description) {
+        if (!initialized) {
             initializeReport();
         }
         
-        ExtentTest test = extentReports.createTest(testName, description);
+        ReportTest test = ExtentManager.createTest(testName, description);
         testMap.put(testName, test);
         return test;
     }
     
-    public static ExtentTest createTest(String testName, String description, String category) {
-        if (extentReports == null) {
-            initializeReport();
-        }
-        
-        ExtentTest test = extentReports.createTest(testName, description)
-                .assignCategory(category);
-        testMap.put(testName, test);
-        return test;
+    public static ReportTest createTest(String testName, String description, String category) {
+        return createTest(testName, description).assignCategory(category);
     }
     
-    public static ExtentTest createTest(String testName, String description, String category, String author) {
-        if (extentReports == null) {
-            initializeReport();
-        }
-        
-        ExtentTest test = extentReports.createTest(testName, description)
+    public static ReportTest createTest(String testName, String description, String category, String author) {
+        return createTest(testName, description)
                 .assignCategory(category)
                 .assignAuthor(author);
-        testMap.put(testName, test);
-        return test;
     }
     
-    public static ExtentTest getTest(String testName) {
+    public static ReportTest getTest(String testName) {
         return testMap.get(testName);
     }
     
     public static void logInfo(String testName, String message) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.INFO, message);
         }
     }
     
     public static void logPass(String testName, String message) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.PASS, MarkupHelper.createLabel(message, ExtentColor.GREEN));
         }
     }
     
     public static void logFail(String testName, String message) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.FAIL, MarkupHelper.createLabel(message, ExtentColor.RED));
         }
     }
     
     public static void logSkip(String testName, String message) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.SKIP, MarkupHelper.createLabel(message, ExtentColor.ORANGE));
         }
     }
     
     public static void logWarning(String testName, String message) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.WARNING, MarkupHelper.createLabel(message, ExtentColor.YELLOW));
         }
     }
     
     public static void addScreenshot(String testName, String screenshotPath, String description) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.addScreenCaptureFromPath(screenshotPath, description);
         }
     }
     
     public static void addApiResponse(String testName, String response, String description) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.INFO, description + ": " + response);
         }
     }
     
     public static void addPerformanceMetrics(String testName, String operation, long responseTime, long memoryUsed) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
-            String metrics = String.format("Operation: %s, Response Time: %dms, Memory Used: %d bytes", 
+            String metrics = String.format("Operation: %s, Response Time: %dms, Memory Used: %d bytes",
                 operation, responseTime, memoryUsed);
             test.log(Status.INFO, "Performance Metrics: " + metrics);
         }
     }
     
+    public static void addLatencyDistribution(String testName, String operation, Histogram histogram) {
+        ReportTest test = getTest(testName);
+        if (test != null) {
+            addLatencyDistribution(test, operation, histogram);
+        }
+    }
+    
+    public static void addLatencyDistribution(ReportTest test, String operation, Histogram histogram) {
+        test.log(Status.INFO, "Latency distribution: " + operation);
+        test.log(Status.INFO, MarkupHelper.createTable(LatencyReports.percentileTable(histogram)));
+    }
+    
     public static void addServiceHealthStatus(String testName, String serviceName, boolean isHealthy) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             String status = isHealthy ? "UP" : "DOWN";
             Status logStatus = isHealthy ? Status.PASS : Status.FAIL;
@@ -165,49 +140,47 @@ public class EnhancedExtentManager {
     }
     
     public static void addTestData(String testName, String dataType, Object data) {
-        ExtentTest test = getTest(testName);
+        ReportTest test = getTest(testName);
         if (test != null) {
             test.log(Status.INFO, dataType + ": " + data.toString());
         }
     }
     
     public static void flushReport() {
-        if (extentReports != null) {
-            extentReports.flush();
-            System.out.println("Enhanced ExtentReports flushed to: " + reportPath);
-        }
+        ExtentManager.flushReport();
     }
     
     public static ExtentReports getExtentReports() {
-        return extentReports;
+        return ExtentManager.getExtentReports();
     }
     
     public static String getReportPath() {
-        return reportPath;
+        return ExtentManager.getReportPath();
     }
     
     // Method to create a summary report
     public static void createSummaryReport() {
-        if (extentReports != null) {
+        if (initialized) {
+            ReportSink sink = ExtentManager.getReportSink();
             // Add summary information
-            extentReports.setSystemInfo("Total Tests", String.valueOf(testMap.size()));
+            sink.setSystemInfo("Total Tests", String.valueOf(testMap.size()));
             
             long passedTests = testMap.values().stream()
-                .mapToLong(test -> test.getModel().getStatus() == Status.PASS ? 1 : 0)
+                .mapToLong(test -> test.getStatus() == Status.PASS ? 1 : 0)
                 .sum();
             
             long failedTests = testMap.values().stream()
-                .mapToLong(test -> test.getModel().getStatus() == Status.FAIL ? 1 : 0)
+                .mapToLong(test -> test.getStatus() == Status.FAIL ? 1 : 0)
                 .sum();
             
             long skippedTests = testMap.values().stream()
-                .mapToLong(test -> test.getModel().getStatus() == Status.SKIP ? 1 : 0)
+                .mapToLong(test -> test.getStatus() == Status.SKIP ? 1 : 0)
                 .sum();
             
-            extentReports.setSystemInfo("Passed Tests", String.valueOf(passedTests));
-            extentReports.setSystemInfo("Failed Tests", String.valueOf(failedTests));
-            extentReports.setSystemInfo("Skipped Tests", String.valueOf(skippedTests));
-            extentReports.setSystemInfo("Success Rate", String.format("%.2f%%", (passedTests * 100.0 / testMap.size())));
+            sink.setSystemInfo("Passed Tests", String.valueOf(passedTests));
+            sink.setSystemInfo("Failed Tests", String.valueOf(failedTests));
+            sink.setSystemInfo("Skipped Tests", String.valueOf(skippedTests));
+            sink.setSystemInfo("Success Rate", String.format("%.2f%%", (passedTests * 100.0 / testMap.size())));
         }
     }
 }
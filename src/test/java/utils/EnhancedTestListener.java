@@ -1,21 +1,31 @@
 package utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.testng.ITestContext;
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import config.TestConfigManager;
+import org.HdrHistogram.Histogram;
+import performance.LatencyRecorder;
+import performance.LatencyReports;
 
-public class EnhancedTestListener implements ITestListener {
+import java.nio.file.Paths;
+
+public class EnhancedTestListener implements ITestListener, ISuiteListener {
+    private static final Logger log = LoggerFactory.getLogger(EnhancedTestListener.class);
     
     @Override
     public void onTestStart(ITestResult result) {
-        System.out.println("Starting test: " + result.getMethod().getMethodName());
+        TestLogContext.begin(result);
+        log.info("Starting test: {}", result.getMethod().getMethodName());
         
         // Create ExtentTest if ExtentReports is enabled
         if (TestConfigManager.isExtentReportEnabled()) {
-            ExtentTest extentTest = ExtentManager.createTest(
+            ReportTest extentTest = ExtentManager.createTest(
                 result.getMethod().getMethodName(),
                 "Test: " + result.getMethod().getMethodName()
             );
@@ -25,10 +35,10 @@ public class EnhancedTestListener implements ITestListener {
     
     @Override
     public void onTestSuccess(ITestResult result) {
-        System.out.println("Test passed: " + result.getMethod().getMethodName());
+        log.info("Test passed: {}", result.getMethod().getMethodName());
         
         if (TestConfigManager.isExtentReportEnabled()) {
-            ExtentTest extentTest = (ExtentTest) result.getAttribute("extentTest");
+            ReportTest extentTest = (ReportTest) result.getAttribute("extentTest");
             if (extentTest != null) {
                 extentTest.log(Status.PASS, "Test passed successfully");
             }
@@ -37,13 +47,13 @@ public class EnhancedTestListener implements ITestListener {
     
     @Override
     public void onTestFailure(ITestResult result) {
-        System.out.println("Test failed: " + result.getMethod().getMethodName());
+        log.info("Test failed: {}", result.getMethod().getMethodName());
         if (result.getThrowable() != null) {
-            System.err.println("Failure reason: " + result.getThrowable().getMessage());
+            log.warn("Failure reason: {}", result.getThrowable().getMessage());
         }
         
         if (TestConfigManager.isExtentReportEnabled()) {
-            ExtentTest extentTest = (ExtentTest) result.getAttribute("extentTest");
+            ReportTest extentTest = (ReportTest) result.getAttribute("extentTest");
             if (extentTest != null) {
                 extentTest.log(Status.FAIL, "Test failed: " + 
                     (result.getThrowable() != null ? result.getThrowable().getMessage() : "Unknown error"));
@@ -53,13 +63,13 @@ public class EnhancedTestListener implements ITestListener {
     
     @Override
     public void onTestSkipped(ITestResult result) {
-        System.out.println("Test skipped: " + result.getMethod().getMethodName());
+        log.info("Test skipped: {}", result.getMethod().getMethodName());
         if (result.getSkipCausedBy() != null && result.getSkipCausedBy().size() > 0) {
-            System.out.println("Skip reason: " + result.getSkipCausedBy().toString());
+            log.info("Skip reason: {}", result.getSkipCausedBy());
         }
         
         if (TestConfigManager.isExtentReportEnabled()) {
-            ExtentTest extentTest = (ExtentTest) result.getAttribute("extentTest");
+            ReportTest extentTest = (ReportTest) result.getAttribute("extentTest");
             if (extentTest != null) {
                 extentTest.log(Status.SKIP, "Test skipped: " + 
                     (result.getSkipCausedBy() != null ? result.getSkipCausedBy().toString() : "No reason provided"));
@@ -69,7 +79,7 @@ public class EnhancedTestListener implements ITestListener {
     
     @Override
     public void onStart(ITestContext context) {
-        System.out.println("Starting test suite: " + context.getName());
+        log.info("Starting test suite: {}", context.getName());
         
         // Initialize ExtentReports if enabled
         if (TestConfigManager.isExtentReportEnabled()) {
@@ -79,11 +89,41 @@ public class EnhancedTestListener implements ITestListener {
     
     @Override
     public void onFinish(ITestContext context) {
-        System.out.println("Finishing test suite: " + context.getName());
+        log.info("Finishing test suite: {}", context.getName());
+        
+        // Export the latency distributions recorded so far (cumulative across tests)
+        LatencyReports.writeDistributions(LatencyRecorder.shared());
         
         // Flush ExtentReports if enabled
         if (TestConfigManager.isExtentReportEnabled()) {
             ExtentManager.flushReport();
         }
     }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        ResponseLogPolicy.shared().writeSamples(Paths.get(ResponseLogPolicy.SAMPLES_FILE));
+        
+        // Last report write of the run; renders the HTML when events were streamed to a log
+        if (TestConfigManager.isExtentReportEnabled()) {
+            reportLatencyDistributions();
+            ExtentManager.closeReport();
+        }
+    }
+    
+    // One report entry with the suite-wide percentiles of every operation, copied out of the recorder once
+    private void reportLatencyDistributions() {
+        LatencyRecorder recorder = LatencyRecorder.shared();
+        ReportTest test = null;
+        for (String operation : recorder.getOperations()) {
+            Histogram histogram = recorder.snapshot(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            if (test == null) {
+                test = ExtentManager.createTest("Latency distributions", "Suite-wide latency per operation");
+            }
+            EnhancedExtentManager.addLatencyDistribution(test, operation, histogram);
+        }
+    }
 }
\ No newline at end of file
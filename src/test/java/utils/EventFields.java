@@ -0,0 +1,71 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Timestamps and field scanners shared by the producers and consumers of the
+ * flat JSON events of the subscription stream and the Kafka pipeline. Events are
+ * stamped with wall-clock microseconds so latencies can be measured across
+ * processes, and numeric fields are read by key without parsing the whole event.
+ */
+public final class EventFields {
+
+    private EventFields() {
+    }
+
+    /** Wall-clock time in microseconds since the epoch. */
+    public static long epochMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /** Unsigned number right after {@code key} (e.g. {@code "\"seq\":"}), or -1 if absent. */
+    public static long longField(String line, String key) {
+        int start = line.indexOf(key);
+        if (start < 0) {
+            return -1;
+        }
+        long value = 0;
+        boolean digits = false;
+        for (int pos = start + key.length(); pos < line.length(); pos++) {
+            char c = line.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            digits = true;
+        }
+        return digits ? value : -1;
+    }
+
+    /** Same as {@link #longField(String, String)} on an undecoded UTF-8 event. */
+    public static long longField(byte[] event, String key) {
+        byte[] pattern = key.getBytes(StandardCharsets.UTF_8);
+        int start = indexOf(event, pattern, 0);
+        if (start < 0) {
+            return -1;
+        }
+        long value = 0;
+        boolean digits = false;
+        for (int pos = start + pattern.length; pos < event.length && event[pos] >= '0' && event[pos] <= '9'; pos++) {
+            value = value * 10 + (event[pos] - '0');
+            digits = true;
+        }
+        return digits ? value : -1;
+    }
+
+    /** First index of {@code pattern} in {@code value} at or after {@code from}, or -1. */
+    public static int indexOf(byte[] value, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= value.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (value[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
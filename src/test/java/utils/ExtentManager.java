@@ -1,71 +1,133 @@
 package utils;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 import com.aventstack.extentreports.ExtentReports;
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-
-
-
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+/**
+ * The suite's HTML report. Tests are written through a {@link ReportSink}, so
+ * creating and logging to tests never blocks other test threads, and the file
+ * is rewritten every {@code report.flush.interval.ms} while the suite runs.
+ *
+ * <p>With {@code report.event.log.enabled} the sink appends to a
+ * {@link ReportEventLog} instead, keeping report memory constant for soak runs,
+ * and {@link #closeReport()} renders the HTML from it when the suite ends.
+ */
 public class ExtentManager {
+    private static final Logger log = LoggerFactory.getLogger(ExtentManager.class);
     private static ExtentReports extentReports;
-    private static final String REPORT_PATH = "test-output/Enhanced_Test_Report_" + 
-        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")) + ".html";
+    private static volatile ReportSink reportSink;
+    private static final String RUN_TIMESTAMP =
+        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+    private static final String REPORT_PATH = "test-output/Enhanced_Test_Report_" + RUN_TIMESTAMP + ".html";
+    private static final Path EVENT_LOG_PATH = Paths.get("test-output", "Test_Events_" + RUN_TIMESTAMP + ".jsonl");
 
+    /** The in-memory report model, or null when events are streamed to a log. */
     public static synchronized ExtentReports getExtentReports() {
-        if (extentReports == null) {
+        if (reportSink == null) {
             initializeReport();
         }
         return extentReports;
     }
 
     public static synchronized void initializeReport() {
-        if (extentReports == null) {
-            extentReports = new ExtentReports();
-            
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(REPORT_PATH);
-            // Theme configuration removed in ExtentReports 5+
-            sparkReporter.config().setDocumentTitle("Microservices API Test Report");
-            sparkReporter.config().setReportName("API Test Suite Results");
-            sparkReporter.config().setTimeStampFormat("yyyy-MM-dd HH:mm:ss");
-            
-            extentReports.attachReporter(sparkReporter);
+        if (reportSink == null) {
+            ReportWriter writer;
+            if (TestConfigManager.isReportEventLogEnabled()) {
+                writer = new ReportEventLog(EVENT_LOG_PATH);
+            } else {
+                extentReports = createExtentReports();
+                writer = new ExtentReportWriter(extentReports);
+            }
+            reportSink = new ReportSink("extent", writer, TestConfigManager.getReportFlushIntervalMillis());
             
             // Add system information
-            extentReports.setSystemInfo("OS", System.getProperty("os.name"));
-            extentReports.setSystemInfo("Java Version", System.getProperty("java.version"));
-            extentReports.setSystemInfo("Test Framework", "TestNG");
-            extentReports.setSystemInfo("Browser", "Playwright");
+            reportSink.setSystemInfo("OS", System.getProperty("os.name"));
+            reportSink.setSystemInfo("Java Version", System.getProperty("java.version"));
+            reportSink.setSystemInfo("Test Framework", "TestNG");
+            reportSink.setSystemInfo("Browser", "Playwright");
             
-            System.out.println("ExtentReports initialized: " + REPORT_PATH);
+            if (extentReports == null) {
+                log.info("Report events streaming to: {}", EVENT_LOG_PATH);
+            } else {
+                log.info("ExtentReports initialized: {}", REPORT_PATH);
+            }
+        }
+    }
+
+    private static ExtentReports createExtentReports() {
+        ExtentReports reports = new ExtentReports();
+        
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(REPORT_PATH);
+        // Theme configuration removed in ExtentReports 5+
+        sparkReporter.config().setDocumentTitle("Microservices API Test Report");
+        sparkReporter.config().setReportName("API Test Suite Results");
+        sparkReporter.config().setTimeStampFormat("yyyy-MM-dd HH:mm:ss");
+        
+        reports.attachReporter(sparkReporter);
+        return reports;
+    }
+
+    public static ReportSink getReportSink() {
+        ReportSink sink = reportSink;
+        if (sink == null) {
+            initializeReport();
+            sink = reportSink;
         }
+        return sink;
+    }
+
+    public static String getReportPath() {
+        return REPORT_PATH;
+    }
+
+    public static ReportTest createTest(String testName, String description) {
+        return getReportSink().createTest(testName, description);
     }
 
-    public static synchronized ExtentTest createTest(String testName, String description) {
-        ExtentReports reports = getExtentReports();
-        return reports.createTest(testName, description);
+    public static ReportTest createTest(String testName) {
+        return getReportSink().createTest(testName, null);
     }
 
-    public static synchronized ExtentTest createTest(String testName) {
-        ExtentReports reports = getExtentReports();
-        return reports.createTest(testName);
+    /** Writes everything reported so far to disk before returning. */
+    public static void flushReport() {
+        ReportSink sink = reportSink;
+        if (sink != null) {
+            sink.flush();
+            log.info("Enhanced ExtentReports flushed to: {}", (sink.getExtentReports() != null ? REPORT_PATH : EVENT_LOG_PATH.toString()));
+        }
     }
 
-    public static synchronized void flushReport() {
-        if (extentReports != null) {
-            extentReports.flush();
-            System.out.println("Enhanced ExtentReports flushed to: " + REPORT_PATH);
+    /** Has the report rewritten soon, without waiting for it. */
+    public static void requestFlush() {
+        ReportSink sink = reportSink;
+        if (sink != null) {
+            sink.requestFlush();
         }
     }
 
+    /**
+     * Closes the report at the end of the suite. Streamed events are rendered into the HTML
+     * report only if report.event.log.render is set; otherwise run {@link ReportRenderer} on the log.
+     */
     public static synchronized void closeReport() {
-        if (extentReports != null) {
-            extentReports.flush();
+        if (reportSink != null) {
+            reportSink.close();
+            if (extentReports == null && TestConfigManager.isReportEventLogRenderEnabled()) {
+                ReportRenderer.replay(EVENT_LOG_PATH, new ExtentReportWriter(createExtentReports()));
+                log.info("ExtentReports rendered from {} to: {}", EVENT_LOG_PATH, REPORT_PATH);
+            } else if (extentReports == null) {
+                log.info("Report events kept in {}; render them with utils.ReportRenderer", EVENT_LOG_PATH);
+            }
+            reportSink = null;
             extentReports = null;
-            System.out.println("ExtentReports closed");
+            log.info("ExtentReports closed");
         }
     }
 }
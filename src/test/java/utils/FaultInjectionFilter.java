@@ -0,0 +1,88 @@
+package utils;
+
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Spring engine counterpart of the fault handling in {@link LightweightMockServer}:
+ * runs the handler into a buffer, then switches the request to servlet async
+ * mode and lets the {@link FaultInjector} write the response later, so the
+ * Tomcat worker is released while the response is delayed or throttled.
+ */
+public class FaultInjectionFilter implements Filter {
+    private final FaultInjector faults;
+
+    public FaultInjectionFilter(FaultInjector faults) {
+        this.faults = faults;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        // Event streams are written over time by the handler itself and are never faulted
+        String accept = request.getHeader("Accept");
+        boolean eventStream = accept != null && accept.contains("text/event-stream");
+        FaultProfile profile = request.getDispatcherType() == DispatcherType.REQUEST && !eventStream
+            ? faults.profileFor(request.getRequestURI()) : null;
+        if (profile == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        HttpServletResponse response = (HttpServletResponse) res;
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, buffered);
+        if (response.isCommitted()) {
+            // Spring already sent an error page (e.g. a missing parameter); pass it through untouched
+            buffered.copyBodyToResponse();
+            return;
+        }
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(0);
+        faults.deliver(profile, request.getRequestURI(), buffered.getStatus(), buffered.getContentAsByteArray(), new AsyncSink(async, response));
+    }
+
+    private static final class AsyncSink implements FaultInjector.ResponseSink {
+        private final AsyncContext async;
+        private final HttpServletResponse response;
+
+        AsyncSink(AsyncContext async, HttpServletResponse response) {
+            this.async = async;
+            this.response = response;
+        }
+
+        @Override
+        public void begin(int status, int contentLength) {
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.setContentLength(contentLength);
+        }
+
+        @Override
+        public void write(byte[] body, int offset, int length) throws IOException {
+            ServletOutputStream out = response.getOutputStream();
+            out.write(body, offset, length);
+            out.flush();
+        }
+
+        @Override
+        public void complete() {
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container (client disconnect or shutdown)
+            }
+        }
+    }
+}
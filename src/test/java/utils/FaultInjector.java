@@ -0,0 +1,211 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies {@link FaultProfile}s to mock responses by route.
+ *
+ * <p>Profiles are keyed by path prefix; the longest matching prefix wins and
+ * paths without a profile are answered directly. A delayed response is parked
+ * on a shared {@link TimerWheel} rather than on a sleeping request thread, so the
+ * handler thread (a JDK HttpServer worker or a Tomcat thread, released through
+ * servlet async) goes back to the pool at once and thousands of slowed requests
+ * can be in flight together. Throttled bodies are written in 10ms chunks, each
+ * scheduled on the wheel after the previous one.
+ *
+ * <p>Profiles are read from {@code mock.fault.<name>.route} plus the settings
+ * listed in {@link FaultProfile#fromSettings}, and can be changed at runtime with
+ * {@link #setProfile}/{@link #clear}.
+ */
+public class FaultInjector {
+    private static final Logger log = LoggerFactory.getLogger(FaultInjector.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ExecutorService DISPATCHER = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), daemonThreads("mock-fault-"));
+    private static final TimerWheel WHEEL = new TimerWheel("mock-fault-timer", 1, TimeUnit.MILLISECONDS, 512, DISPATCHER);
+
+    private final Map<String, FaultProfile> profiles = new ConcurrentHashMap<>();
+    private volatile String[] prefixes = new String[0];
+    private final AtomicLong delayedResponses = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    /** Injector with the profiles configured under {@code mock.fault.*}. */
+    public static FaultInjector fromConfig() {
+        FaultInjector injector = new FaultInjector();
+        Map<String, Map<String, String>> byName = new TreeMap<>();
+        for (Map.Entry<String, String> entry : TestConfigManager.getMockFaultSettings().entrySet()) {
+            int dot = entry.getKey().indexOf('.');
+            if (dot > 0) {
+                byName.computeIfAbsent(entry.getKey().substring(0, dot), name -> new LinkedHashMap<>())
+                    .put(entry.getKey().substring(dot + 1), entry.getValue().trim());
+            }
+        }
+        for (Map.Entry<String, Map<String, String>> profile : byName.entrySet()) {
+            String route = profile.getValue().get("route");
+            if (route == null || route.isEmpty()) {
+                throw new IllegalArgumentException("Fault profile '" + profile.getKey() + "' has no mock.fault." + profile.getKey() + ".route");
+            }
+            injector.setProfile(route, FaultProfile.fromSettings(profile.getValue()));
+            log.info("Mock fault profile '{}' on {}: {}", profile.getKey(), route, injector.profiles.get(route));
+        }
+        return injector;
+    }
+
+    /** Applies the profile to every path starting with the prefix, replacing any profile on the same prefix. */
+    public synchronized void setProfile(String pathPrefix, FaultProfile profile) {
+        profiles.put(pathPrefix, profile);
+        updatePrefixes();
+    }
+
+    public synchronized void removeProfile(String pathPrefix) {
+        profiles.remove(pathPrefix);
+        updatePrefixes();
+    }
+
+    public synchronized void clear() {
+        profiles.clear();
+        updatePrefixes();
+    }
+
+    /** Profile for the path, or null if its responses are not faulted. */
+    public FaultProfile profileFor(String path) {
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return profiles.get(prefix);
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return prefixes.length == 0;
+    }
+
+    public long getDelayedResponseCount() {
+        return delayedResponses.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    private void updatePrefixes() {
+        // Longest prefix first, so the most specific route wins
+        prefixes = profiles.keySet().stream()
+            .sorted((a, b) -> b.length() != a.length() ? b.length() - a.length() : a.compareTo(b))
+            .toArray(String[]::new);
+    }
+
+    // ================= Delivery =================
+
+    /** Where a (possibly delayed, replaced or throttled) response is written. */
+    public interface ResponseSink {
+        void begin(int status, int contentLength) throws IOException;
+
+        void write(byte[] body, int offset, int length) throws IOException;
+
+        /** Ends the exchange; always called exactly once, also after a failed write. */
+        void complete();
+    }
+
+    /**
+     * Sends the handler's response through the profile: waits the sampled delay,
+     * possibly swaps in an error and writes the body at the profile's bandwidth.
+     * Returns at once; the sink is driven from the timer wheel's dispatcher.
+     */
+    public void deliver(FaultProfile profile, String path, int status, byte[] body, ResponseSink sink) {
+        if (profile.sampleError()) {
+            injectedErrors.incrementAndGet();
+            status = profile.getErrorStatus();
+            body = errorBody(status, path);
+        }
+        long delay = profile.getLatency().sampleNanos();
+        int finalStatus = status;
+        byte[] finalBody = body;
+        Runnable transmit = () -> transmit(profile, finalStatus, finalBody, sink);
+        if (delay > 0) {
+            delayedResponses.incrementAndGet();
+            WHEEL.schedule(transmit, delay, TimeUnit.NANOSECONDS);
+        } else {
+            transmit.run();
+        }
+    }
+
+    private static void transmit(FaultProfile profile, int status, byte[] body, ResponseSink sink) {
+        boolean chunked = profile.isThrottled() && body.length > 0;
+        try {
+            sink.begin(status, body.length);
+            if (!chunked) {
+                sink.write(body, 0, body.length);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client gave up or the server is stopping; nothing left to answer
+            sink.complete();
+            return;
+        }
+        if (chunked) {
+            writeChunk(profile, body, 0, sink);
+        } else {
+            sink.complete();
+        }
+    }
+
+    private static void writeChunk(FaultProfile profile, byte[] body, int offset, ResponseSink sink) {
+        int length = Math.min(profile.chunkSize(), body.length - offset);
+        try {
+            sink.write(body, offset, length);
+        } catch (IOException | RuntimeException e) {
+            sink.complete();
+            return;
+        }
+        int next = offset + length;
+        if (next >= body.length) {
+            sink.complete();
+            return;
+        }
+        WHEEL.schedule(() -> writeChunk(profile, body, next, sink), profile.transferNanos(length), TimeUnit.NANOSECONDS);
+    }
+
+    /** Spring Boot's error body, as the real services would answer. */
+    static byte[] errorBody(int status, String path) {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", OffsetDateTime.now().toString());
+        body.put("status", status);
+        body.put("error", httpStatus != null ? httpStatus.getReasonPhrase() : "Error");
+        body.put("message", "Injected fault");
+        body.put("path", path);
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize error body: " + e.getMessage(), e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
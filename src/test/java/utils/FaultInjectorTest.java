@@ -0,0 +1,173 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class FaultInjectorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final FaultInjector faults = new FaultInjector();
+    private LightweightMockServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new LightweightMockServer(new UnifiedMockServer(), 0, faults);
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearProfiles() {
+        faults.clear();
+    }
+
+    @Test
+    public void testLatencyAppliesOnlyToMatchingRoutes() throws Exception {
+        faults.setProfile("/read/api/", FaultProfile.latency(FaultProfile.Latency.fixed(150)));
+
+        long start = System.nanoTime();
+        assertEquals(get("/read/api/read/readValue?nodeId=MCOM").statusCode(), 200);
+        long delayedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        assertEquals(get("/opcua/actuator/health").statusCode(), 200);
+        long directMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(delayedMillis >= 150, "Delayed route answered after " + delayedMillis + "ms");
+        assertTrue(directMillis < delayedMillis, "Unprofiled route answered after " + directMillis + "ms");
+    }
+
+    @Test
+    public void testDelayedRequestsDoNotHoldServerThreads() throws Exception {
+        faults.setProfile("/read/api/", FaultProfile.latency(FaultProfile.Latency.fixed(300)));
+        int requests = 300;
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(client.sendAsync(request("/read/api/read/readValue?nodeId=MCOM"), HttpResponse.BodyHandlers.ofString()));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(response.get().statusCode(), 200);
+        }
+        long serverThreads = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().startsWith("mock-http-"))
+            .count();
+        assertTrue(serverThreads < requests / 2, serverThreads + " server threads for " + requests + " delayed requests");
+        assertTrue(elapsedMillis < requests * 300L / 10, "Delayed requests were serialized: " + elapsedMillis + "ms");
+    }
+
+    @Test
+    public void testErrorsReplaceResponses() throws Exception {
+        assertEquals(post("/kafka/api/kafkaBrowse/hasChanged", "{\"previous\":\"a\",\"current\":\"b\"}").statusCode(), 200);
+        faults.setProfile("/kafka/api/", FaultProfile.errors(1.0, 503));
+        long errorsBefore = faults.getInjectedErrorCount();
+
+        HttpResponse<String> response = post("/kafka/api/kafkaBrowse/hasChanged", "{\"previous\":\"a\",\"current\":\"b\"}");
+        assertEquals(response.statusCode(), 503);
+        Map<?, ?> body = MAPPER.readValue(response.body(), Map.class);
+        assertEquals(body.get("status"), 503);
+        assertEquals(body.get("error"), "Service Unavailable");
+        assertEquals(body.get("path"), "/kafka/api/kafkaBrowse/hasChanged");
+        assertEquals(faults.getInjectedErrorCount(), errorsBefore + 1);
+
+        faults.setProfile("/kafka/api/", FaultProfile.errors(0.5, 500));
+        int failures = 0;
+        for (int i = 0; i < 200; i++) {
+            if (post("/kafka/api/kafkaBrowse/hasChanged", "{\"previous\":\"a\",\"current\":\"b\"}").statusCode() == 500) {
+                failures++;
+            }
+        }
+        assertTrue(failures > 50 && failures < 150, failures + " of 200 requests failed at a 50% error rate");
+    }
+
+    @Test
+    public void testBandwidthThrottlesBodyWithoutCorruptingIt() throws Exception {
+        String group = URLEncoder.encode(SimulatedAddressSpace.GENERATED_ROOT + ".Group0", StandardCharsets.UTF_8);
+        String path = "/read/api/read/browse?startingNodeParam=" + group;
+        int size = get(path).body().length();
+        assertTrue(size > 20_000, "Browse body too small to throttle: " + size);
+
+        faults.setProfile("/read/api/read/browse", FaultProfile.bandwidth(size * 4L));
+        long start = System.nanoTime();
+        HttpResponse<String> response = get(path);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(response.statusCode(), 200);
+        assertEquals(((List<?>) MAPPER.readValue(response.body(), Map.class).get("tags")).size(), SimulatedAddressSpace.GROUP_SIZE);
+        assertTrue(elapsedMillis >= 200, "Body of " + size + "B at " + size * 4 + "B/s arrived after " + elapsedMillis + "ms");
+    }
+
+    @Test
+    public void testLatencyDistributions() {
+        Histogram logNormal = sample(FaultProfile.Latency.parse("lognormal:20:100"), 100_000);
+        assertEquals(logNormal.getValueAtPercentile(50) / 1e6, 20.0, 2.0);
+        assertEquals(logNormal.getValueAtPercentile(99) / 1e6, 100.0, 15.0);
+
+        Histogram uniform = sample(FaultProfile.Latency.parse("uniform:5:10"), 10_000);
+        assertTrue(uniform.getMinValue() >= TimeUnit.MILLISECONDS.toNanos(5) * 0.999);
+        assertTrue(uniform.getMaxValue() <= TimeUnit.MILLISECONDS.toNanos(10) * 1.001);
+
+        Histogram recorded = new Histogram(1, TimeUnit.MINUTES.toNanos(10), 3);
+        recorded.recordValueWithCount(TimeUnit.MILLISECONDS.toNanos(10), 90);
+        recorded.recordValueWithCount(TimeUnit.MILLISECONDS.toNanos(500), 10);
+        Histogram replayed = sample(FaultProfile.Latency.replay(recorded), 10_000);
+        assertEquals(replayed.getValueAtPercentile(50) / 1e6, 10.0, 0.1);
+        assertEquals(replayed.getValueAtPercentile(95) / 1e6, 500.0, 1.0);
+
+        assertEquals(FaultProfile.Latency.parse(null).sampleNanos(), 0);
+        assertEquals(FaultProfile.Latency.parse("fixed:1.5").sampleNanos(), 1_500_000);
+        assertThrows(IllegalArgumentException.class, () -> FaultProfile.Latency.parse("pareto:1:2"));
+        assertThrows(IllegalArgumentException.class, () -> FaultProfile.Latency.parse("uniform:5"));
+    }
+
+    private static Histogram sample(FaultProfile.Latency latency, int samples) {
+        Histogram histogram = new Histogram(1, TimeUnit.MINUTES.toNanos(10), 3);
+        for (int i = 0; i < samples; i++) {
+            histogram.recordValue(Math.max(1, latency.sampleNanos()));
+        }
+        return histogram;
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).GET().build();
+    }
+}
@@ -0,0 +1,252 @@
+package utils;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency, error and bandwidth behaviour injected into the mock responses of
+ * one route (see {@link FaultInjector}).
+ *
+ * <p>Every response first waits a delay drawn from the latency distribution,
+ * then with probability {@code errorRate} is replaced by an error with
+ * {@code errorStatus}, and finally has its body written no faster than
+ * {@code bandwidthBytesPerSecond} (0 = unthrottled).
+ */
+public final class FaultProfile {
+    private final Latency latency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final long bandwidthBytesPerSecond;
+
+    public FaultProfile(Latency latency, double errorRate, int errorStatus, long bandwidthBytesPerSecond) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be within [0, 1]: " + errorRate);
+        }
+        if (errorStatus < 400 || errorStatus > 599) {
+            throw new IllegalArgumentException("errorStatus must be a 4xx/5xx status: " + errorStatus);
+        }
+        if (bandwidthBytesPerSecond < 0) {
+            throw new IllegalArgumentException("bandwidth must be >= 0: " + bandwidthBytesPerSecond);
+        }
+        this.latency = latency != null ? latency : Latency.none();
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.bandwidthBytesPerSecond = bandwidthBytesPerSecond;
+    }
+
+    public static FaultProfile latency(Latency latency) {
+        return new FaultProfile(latency, 0, 503, 0);
+    }
+
+    public static FaultProfile errors(double errorRate, int errorStatus) {
+        return new FaultProfile(Latency.none(), errorRate, errorStatus, 0);
+    }
+
+    public static FaultProfile bandwidth(long bytesPerSecond) {
+        return new FaultProfile(Latency.none(), 0, 503, bytesPerSecond);
+    }
+
+    /**
+     * Builds a profile from its settings as written under {@code mock.fault.<name>.}:
+     * {@code latency}, {@code error.rate}, {@code error.status} (default 503) and
+     * {@code bandwidth} (bytes per second).
+     */
+    public static FaultProfile fromSettings(Map<String, String> settings) {
+        return new FaultProfile(
+            Latency.parse(settings.get("latency")),
+            Double.parseDouble(settings.getOrDefault("error.rate", "0")),
+            Integer.parseInt(settings.getOrDefault("error.status", "503")),
+            Long.parseLong(settings.getOrDefault("bandwidth", "0")));
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public long getBandwidthBytesPerSecond() {
+        return bandwidthBytesPerSecond;
+    }
+
+    public boolean isThrottled() {
+        return bandwidthBytesPerSecond > 0;
+    }
+
+    boolean sampleError() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    /** Bytes written per throttled chunk: 10ms worth of bandwidth. */
+    int chunkSize() {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bandwidthBytesPerSecond / 100));
+    }
+
+    long transferNanos(int bytes) {
+        return bytes * TimeUnit.SECONDS.toNanos(1) / bandwidthBytesPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency=%s, errorRate=%s, errorStatus=%d, bandwidth=%dB/s",
+            latency, errorRate, errorStatus, bandwidthBytesPerSecond);
+    }
+
+    // ================= Latency Distributions =================
+
+    /** Source of per-response delays, in nanoseconds. */
+    public interface Latency {
+        long sampleNanos();
+
+        static Latency none() {
+            return fixed(0);
+        }
+
+        static Latency fixed(double millis) {
+            long nanos = millisToNanos(millis);
+            return new Latency() {
+                public long sampleNanos() {
+                    return nanos;
+                }
+
+                public String toString() {
+                    return "fixed(" + millis + "ms)";
+                }
+            };
+        }
+
+        static Latency uniform(double minMillis, double maxMillis) {
+            if (maxMillis < minMillis) {
+                throw new IllegalArgumentException("uniform latency max < min: " + minMillis + ".." + maxMillis);
+            }
+            long min = millisToNanos(minMillis);
+            long max = millisToNanos(maxMillis);
+            return new Latency() {
+                public long sampleNanos() {
+                    return min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+                }
+
+                public String toString() {
+                    return "uniform(" + minMillis + "ms.." + maxMillis + "ms)";
+                }
+            };
+        }
+
+        /**
+         * Log-normal delays with the given median and 99th percentile, the usual
+         * shape of service latencies: most responses near the median, a long tail.
+         */
+        static Latency logNormal(double medianMillis, double p99Millis) {
+            if (medianMillis <= 0 || p99Millis < medianMillis) {
+                throw new IllegalArgumentException("log-normal latency needs 0 < median <= p99: " + medianMillis + ", " + p99Millis);
+            }
+            double mu = Math.log(millisToNanos(medianMillis));
+            // z-score of the 99th percentile of the standard normal distribution
+            double sigma = Math.log(p99Millis / medianMillis) / 2.3263478740408408;
+            return new Latency() {
+                public long sampleNanos() {
+                    return (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+                }
+
+                public String toString() {
+                    return "lognormal(median=" + medianMillis + "ms, p99=" + p99Millis + "ms)";
+                }
+            };
+        }
+
+        /** Replays a recorded distribution (nanosecond values), e.g. a LatencyRecorder snapshot of a real service. */
+        static Latency replay(Histogram recorded) {
+            if (recorded.getTotalCount() == 0) {
+                throw new IllegalArgumentException("Cannot replay an empty latency histogram");
+            }
+            Histogram histogram = recorded.copy();
+            return new Latency() {
+                public long sampleNanos() {
+                    return histogram.getValueAtPercentile(ThreadLocalRandom.current().nextDouble() * 100.0);
+                }
+
+                public String toString() {
+                    return "replay(" + histogram.getTotalCount() + " samples)";
+                }
+            };
+        }
+
+        /**
+         * Replays a histogram from a classpath resource of {@code <latency ms> <count>}
+         * lines ({@code #} starts a comment).
+         */
+        static Latency replay(String resource) {
+            Histogram histogram = new Histogram(1, TimeUnit.MINUTES.toNanos(10), 3);
+            try (InputStream input = FaultProfile.class.getClassLoader().getResourceAsStream(resource)) {
+                if (input == null) {
+                    throw new RuntimeException("Latency histogram not found on classpath: " + resource);
+                }
+                BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] fields = line.split("[\\s,]+");
+                    long nanos = Math.max(1, Math.min(millisToNanos(Double.parseDouble(fields[0])), histogram.getHighestTrackableValue()));
+                    histogram.recordValueWithCount(nanos, fields.length > 1 ? Long.parseLong(fields[1]) : 1);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read latency histogram " + resource + ": " + e.getMessage(), e);
+            }
+            return replay(histogram);
+        }
+
+        /**
+         * Parses {@code fixed:<ms>}, {@code uniform:<min ms>:<max ms>},
+         * {@code lognormal:<median ms>:<p99 ms>} or {@code histogram:<resource>};
+         * null or empty means no delay.
+         */
+        static Latency parse(String spec) {
+            if (spec == null || spec.isBlank()) {
+                return none();
+            }
+            String[] parts = spec.trim().split(":", 2);
+            String kind = parts[0].trim().toLowerCase();
+            String[] args = parts.length > 1 ? parts[1].split(":") : new String[0];
+            try {
+                switch (kind) {
+                    case "fixed":
+                        return fixed(Double.parseDouble(args[0]));
+                    case "uniform":
+                        return uniform(Double.parseDouble(args[0]), Double.parseDouble(args[1]));
+                    case "lognormal":
+                        return logNormal(Double.parseDouble(args[0]), Double.parseDouble(args[1]));
+                    case "histogram":
+                        return replay(parts[1].trim());
+                    default:
+                        throw new IllegalArgumentException("Unknown latency distribution '" + kind + "' in: " + spec);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed latency distribution: " + spec, e);
+            }
+        }
+
+        private static long millisToNanos(double millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Latency must be >= 0: " + millis);
+            }
+            return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
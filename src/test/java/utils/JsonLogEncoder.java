@@ -0,0 +1,107 @@
+package utils;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes each logging event as one JSON object per line:
+ * {@code {"ts":...,"level":"INFO","thread":"...","logger":"...","test":"...","msg":"..."}}
+ * with every MDC entry (such as the current test, see {@link TestLogContext})
+ * as a top-level field and the stack trace, if any, as {@code "error"}.
+ *
+ * <p>Built for the asynchronous appender's single worker thread: the line is
+ * assembled in a reused per-thread buffer and escaped by hand, so an event costs
+ * one byte array rather than a JSON tree.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+    private static final byte[] NO_BYTES = new byte[0];
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    @Override
+    public byte[] headerBytes() {
+        return NO_BYTES;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return NO_BYTES;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder json = buffers.get();
+        json.setLength(0);
+        json.append("{\"ts\":").append(event.getTimeStamp());
+        field(json, "level", event.getLevel().toString());
+        field(json, "thread", event.getThreadName());
+        field(json, "logger", event.getLoggerName());
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                field(json, entry.getKey(), entry.getValue());
+            }
+        }
+        field(json, "msg", event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(json, "error", ThrowableProxyUtil.asString(throwable));
+        }
+        json.append("}\n");
+        byte[] line = json.toString().getBytes(StandardCharsets.UTF_8);
+        if (json.capacity() > MAX_RETAINED_BUFFER) {
+            // One huge message should not pin a huge buffer for the rest of the run
+            buffers.remove();
+        }
+        return line;
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append(',');
+        string(json, name);
+        json.append(':');
+        if (value == null) {
+            json.append("null");
+        } else {
+            string(json, value);
+        }
+    }
+
+    private static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
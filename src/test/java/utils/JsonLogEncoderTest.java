@@ -0,0 +1,124 @@
+package utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.MDC;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class JsonLogEncoderTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testEventIsOneEscapedJsonLine() throws IOException {
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger("tests.Sample");
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN,
+            "Response {} had \"quotes\", a\ttab and\na newline \u0001", new IllegalStateException("boom"),
+            new Object[] {"/read/api/read/readValue"});
+        Map<String, String> mdc = new HashMap<>();
+        mdc.put(TestLogContext.TEST_KEY, "ApiTestExecutor.testReadValue");
+        event.setMDCPropertyMap(mdc);
+
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        assertTrue(line.endsWith("}\n"), line);
+        assertEquals(line.indexOf('\n'), line.length() - 1, "Embedded newlines must be escaped: " + line);
+        JsonNode json = MAPPER.readTree(line);
+        assertEquals(json.get("ts").asLong(), event.getTimeStamp());
+        assertEquals(json.get("level").asText(), "WARN");
+        assertEquals(json.get("logger").asText(), "tests.Sample");
+        assertEquals(json.get("thread").asText(), Thread.currentThread().getName());
+        assertEquals(json.get("test").asText(), "ApiTestExecutor.testReadValue");
+        assertEquals(json.get("msg").asText(),
+            "Response /read/api/read/readValue had \"quotes\", a\ttab and\na newline \u0001");
+        assertTrue(json.get("error").asText().startsWith("java.lang.IllegalStateException: boom"), json.get("error").asText());
+        assertTrue(json.get("error").asText().contains("at utils.JsonLogEncoderTest."), json.get("error").asText());
+    }
+
+    @Test
+    public void testConcurrentLoggingThroughAsyncAppender() throws Exception {
+        Path file = Files.createTempFile("test-run", ".jsonl");
+        LoggerContext context = new LoggerContext();
+        try {
+            JsonLogEncoder encoder = new JsonLogEncoder();
+            encoder.setContext(context);
+            encoder.start();
+            FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+            fileAppender.setContext(context);
+            fileAppender.setFile(file.toString());
+            fileAppender.setAppend(false);
+            fileAppender.setImmediateFlush(false);
+            fileAppender.setEncoder(encoder);
+            fileAppender.start();
+            // Blocking here, unlike logback-test.xml, so the test can count every event
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(256);
+            async.setDiscardingThreshold(0);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender);
+            async.start();
+            Logger logger = context.getLogger("tests.Concurrent");
+            logger.addAppender(async);
+
+            int threads = 8;
+            int events = 500;
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String test = "ConcurrentTest.worker" + t;
+                workers.add(new Thread(() -> {
+                    MDC.put(TestLogContext.TEST_KEY, test);
+                    try {
+                        for (int i = 0; i < events; i++) {
+                            logger.info("event {}", i);
+                        }
+                    } finally {
+                        MDC.remove(TestLogContext.TEST_KEY);
+                    }
+                }, "worker-" + t));
+            }
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            async.stop();
+            fileAppender.stop();
+
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertEquals(lines.size(), threads * events);
+            Map<String, Integer> perTest = new HashMap<>();
+            for (String line : lines) {
+                JsonNode json = MAPPER.readTree(line);
+                String test = json.get("test").asText();
+                assertEquals(json.get("thread").asText(), "worker-" + test.substring("ConcurrentTest.worker".length()), line);
+                perTest.merge(test, 1, Integer::sum);
+            }
+            assertEquals(perTest.size(), threads);
+            perTest.values().forEach(count -> assertEquals(count.intValue(), events));
+        } finally {
+            context.stop();
+            Files.delete(file);
+        }
+    }
+}
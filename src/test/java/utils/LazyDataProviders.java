@@ -0,0 +1,391 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Lazy {@code Iterator<Object[]>} sources for TestNG {@code @DataProvider}s, read
+ * from Excel sheets, CSV files and JSON Lines files.
+ *
+ * <p>Nothing is loaded up front: a reader thread pulls raw rows from the file in
+ * chunks of {@code data.provider.chunk.rows} and hands each chunk to a shared
+ * decoder pool ({@code data.provider.decode.threads}, one per core by default),
+ * which parses it and applies the caller's mapper. At most
+ * {@code data.provider.prefetch.rows} rows are read ahead of the tests, so the
+ * first invocation starts as soon as the first chunk is decoded and memory stays
+ * bounded however long the file is. Rows come out in file order.
+ *
+ * <p>The returned iterators are thread-safe, so they can back
+ * {@code @DataProvider(parallel = true)}. Mappers run on decoder threads, several
+ * at once. Paths are tried as files first and then as classpath resources.
+ */
+public final class LazyDataProviders {
+    private static final Logger log = LoggerFactory.getLogger(LazyDataProviders.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final AtomicInteger READER_IDS = new AtomicInteger();
+    private static volatile ExecutorService decoders;
+
+    private LazyDataProviders() {
+    }
+
+    /** Rows of an Excel sheet, read with {@link ExcelReader#stream}, as header-keyed maps. */
+    public static Iterator<Object[]> excel(String path, String sheetName, Function<Map<String, String>, Object[]> mapper) {
+        StreamingExcelReader reader = ExcelReader.stream(resolveFile(path).getPath(), sheetName);
+        return prefetch(path, reader, reader, mapper);
+    }
+
+    /** Rows of a comma-separated file; see {@link #csv(String, char, Function)}. */
+    public static Iterator<Object[]> csv(String path, Function<Map<String, String>, Object[]> mapper) {
+        return csv(path, ',', mapper);
+    }
+
+    /**
+     * Rows of a delimited file as maps keyed by its header line. Fields may be
+     * quoted, with {@code ""} for a quote and line breaks allowed inside quotes.
+     * Blank lines and lines starting with {@code #} are skipped; missing trailing
+     * fields are {@code ""}.
+     */
+    public static Iterator<Object[]> csv(String path, char delimiter, Function<Map<String, String>, Object[]> mapper) {
+        BufferedReader reader = open(path);
+        try {
+            Iterator<String> records = new CsvRecords(reader);
+            if (!records.hasNext()) {
+                throw new RuntimeException("CSV data file has no header: " + path);
+            }
+            List<String> header = parseCsvRecord(records.next(), delimiter);
+            return prefetch(path, records, reader, record -> {
+                List<String> fields = parseCsvRecord(record, delimiter);
+                if (fields.size() > header.size()) {
+                    throw new RuntimeException("CSV row in " + path + " has " + fields.size()
+                        + " fields but the header has " + header.size() + ": " + record);
+                }
+                Map<String, String> row = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    row.put(header.get(i), i < fields.size() ? fields.get(i) : "");
+                }
+                return mapper.apply(row);
+            });
+        } catch (RuntimeException e) {
+            closeQuietly(reader);
+            throw e;
+        }
+    }
+
+    /** Rows of a JSON Lines file, one JSON object per non-blank line. */
+    @SuppressWarnings("unchecked")
+    public static Iterator<Object[]> jsonl(String path, Function<Map<String, Object>, Object[]> mapper) {
+        BufferedReader reader = open(path);
+        Iterator<String> lines = reader.lines().filter(line -> !line.isBlank()).iterator();
+        return prefetch(path, lines, reader, line -> {
+            try {
+                return mapper.apply(MAPPER.readValue(line, Map.class));
+            } catch (IOException e) {
+                throw new RuntimeException("Invalid JSON line in " + path + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Reads {@code source} on a background thread and decodes its items on the
+     * decoder pool, keeping a bounded number of rows ahead of the consumer.
+     * {@code resource} is closed once the source is exhausted, fails, or the
+     * returned iterator is closed.
+     */
+    public static <T> Prefetcher prefetch(String name, Iterator<T> source, Closeable resource, Function<T, Object[]> decoder) {
+        int chunkRows = Math.max(1, TestConfigManager.getDataProviderChunkRows());
+        int chunksAhead = Math.max(1, TestConfigManager.getDataProviderPrefetchRows() / chunkRows);
+        return new Prefetcher(name, source, resource, decoder, chunkRows, chunksAhead);
+    }
+
+    private static ExecutorService decoders() {
+        if (decoders == null) {
+            synchronized (LazyDataProviders.class) {
+                if (decoders == null) {
+                    AtomicInteger ids = new AtomicInteger();
+                    decoders = Executors.newFixedThreadPool(Math.max(1, TestConfigManager.getDataProviderDecodeThreads()), task -> {
+                        Thread thread = new Thread(task, "data-provider-decoder-" + ids.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return decoders;
+    }
+
+    private static BufferedReader open(String path) {
+        try {
+            File file = new File(path);
+            InputStream input = file.isFile() ? Files.newInputStream(file.toPath())
+                : LazyDataProviders.class.getClassLoader().getResourceAsStream(path);
+            if (input == null) {
+                throw new RuntimeException("Data file not found on disk or classpath: " + path);
+            }
+            return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening data file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static File resolveFile(String path) {
+        File file = new File(path);
+        if (file.isFile()) {
+            return file;
+        }
+        URL resource = LazyDataProviders.class.getClassLoader().getResource(path);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            throw new RuntimeException("Data file not found on disk or classpath: " + path);
+        }
+        try {
+            return Paths.get(resource.toURI()).toFile();
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Invalid data file location " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    static List<String> parseCsvRecord(String record, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void closeQuietly(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error closing data file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Joins physical lines into CSV records (a quoted field may span lines) and
+     * skips blank and {@code #} comment lines.
+     */
+    private static final class CsvRecords implements Iterator<String> {
+        private final BufferedReader reader;
+        private String next;
+
+        CsvRecords(BufferedReader reader) {
+            this.reader = reader;
+            this.next = read();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String record = next;
+            next = read();
+            return record;
+        }
+
+        private String read() {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                } while (line != null && (line.isBlank() || line.startsWith("#")));
+                if (line == null) {
+                    return null;
+                }
+                StringBuilder record = new StringBuilder(line);
+                while (quoteCount(record) % 2 != 0) {
+                    String continuation = reader.readLine();
+                    if (continuation == null) {
+                        throw new RuntimeException("Unterminated quoted CSV field: " + record);
+                    }
+                    record.append('\n').append(continuation);
+                }
+                return record.toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static int quoteCount(CharSequence text) {
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Consumer side of a prefetching source. Chunks are queued as futures in file
+     * order; the bounded queue is what stops the reader thread running ahead.
+     */
+    public static final class Prefetcher implements Iterator<Object[]>, Closeable {
+        private static final CompletableFuture<List<Object[]>> END = CompletableFuture.completedFuture(null);
+        // How often a consumer waiting for rows checks whether it was closed or the reader died
+        private static final long POLL_MILLIS = 100;
+
+        private final String name;
+        private final BlockingQueue<CompletableFuture<List<Object[]>>> ahead;
+        private final Thread reader;
+        private List<Object[]> chunk;
+        private int index;
+        private boolean finished;
+        private volatile boolean closed;
+
+        <T> Prefetcher(String name, Iterator<T> source, Closeable resource, Function<T, Object[]> decoder,
+                       int chunkRows, int chunksAhead) {
+            this.name = name;
+            this.ahead = new ArrayBlockingQueue<>(chunksAhead);
+            this.reader = new Thread(() -> read(source, resource, decoder, chunkRows),
+                "data-provider-reader-" + READER_IDS.incrementAndGet());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            while (!finished && (chunk == null || index == chunk.size())) {
+                if (closed) {
+                    finished = true;
+                    break;
+                }
+                CompletableFuture<List<Object[]>> next;
+                try {
+                    next = ahead.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted waiting for data rows from " + name, e);
+                }
+                if (next == null) {
+                    // Everything the reader queued is visible once it has terminated
+                    if (!reader.isAlive() && ahead.isEmpty() && !closed) {
+                        finished = true;
+                        throw new IllegalStateException("Reader of " + name + " stopped without finishing the rows");
+                    }
+                    continue;
+                }
+                if (next == END) {
+                    finished = true;
+                    break;
+                }
+                try {
+                    chunk = next.join();
+                } catch (CompletionException e) {
+                    finished = true;
+                    close();
+                    Throwable cause = e.getCause();
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause
+                        : new RuntimeException("Error reading data rows from " + name + ": " + cause.getMessage(), cause);
+                }
+                index = 0;
+            }
+            return !finished;
+        }
+
+        @Override
+        public synchronized Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.get(index++);
+        }
+
+        /**
+         * Stops reading ahead and releases the file; only needed when a source is abandoned early.
+         * A consumer waiting in {@link #hasNext()}, now or later, sees the end of the rows.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            reader.interrupt();
+        }
+
+        private <T> void read(Iterator<T> source, Closeable resource, Function<T, Object[]> decoder, int chunkRows) {
+            try {
+                while (!closed && source.hasNext()) {
+                    List<T> raw = new ArrayList<>(chunkRows);
+                    while (raw.size() < chunkRows && source.hasNext()) {
+                        raw.add(source.next());
+                    }
+                    ahead.put(CompletableFuture.supplyAsync(() -> decode(raw, decoder), decoders()));
+                }
+                ahead.put(END);
+            } catch (InterruptedException e) {
+                // Closed by the consumer; nobody is waiting for more rows
+            } catch (RuntimeException e) {
+                try {
+                    ahead.put(CompletableFuture.failedFuture(e));
+                    ahead.put(END);
+                } catch (InterruptedException ignored) {
+                    // Closed by the consumer while reporting the failure
+                }
+            } finally {
+                closeQuietly(resource);
+            }
+        }
+
+        private static <T> List<Object[]> decode(List<T> raw, Function<T, Object[]> decoder) {
+            List<Object[]> rows = new ArrayList<>(raw.size());
+            for (T item : raw) {
+                rows.add(decoder.apply(item));
+            }
+            return rows;
+        }
+    }
+}
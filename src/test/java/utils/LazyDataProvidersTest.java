@@ -0,0 +1,263 @@
+package utils;
+
+import config.TestConfigManager;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.testng.Assert.*;
+
+public class LazyDataProvidersTest {
+    private final List<File> files = new ArrayList<>();
+
+    @AfterClass(alwaysRun = true)
+    public void deleteFiles() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCsvRowsHandleQuotesCommentsAndMissingFields() throws IOException {
+        File file = write("rows.csv", "# comment before the header\n"
+            + "nodeId,description,unit\n"
+            + "\"ns=3;s=\"\"PLC_To_WMS\"\"\",\"quoted, with comma\",bar\n"
+            + "\n"
+            + "# comment between rows\n"
+            + "ns=4;i=2,\"spans\ntwo lines\"\n"
+            + ",empty node id,\n");
+
+        List<Object[]> rows = drain(LazyDataProviders.csv(file.getPath(),
+            row -> new Object[] {row.get("nodeId"), row.get("description"), row.get("unit")}));
+
+        assertEquals(rows.size(), 3);
+        assertEquals(rows.get(0), new Object[] {"ns=3;s=\"PLC_To_WMS\"", "quoted, with comma", "bar"});
+        assertEquals(rows.get(1), new Object[] {"ns=4;i=2", "spans\ntwo lines", ""});
+        assertEquals(rows.get(2), new Object[] {"", "empty node id", ""});
+    }
+
+    @Test
+    public void testJsonlRowsKeepTypesAndFileOrderAcrossChunks() throws IOException {
+        int count = TestConfigManager.getDataProviderChunkRows() * 10 + 7;
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append("{\"index\": ").append(i).append(", \"value\": ").append(i % 2 == 0 ? i * 0.5 : "true").append("}\n");
+        }
+        File file = write("rows.jsonl", lines.toString());
+
+        List<Object[]> rows = drain(LazyDataProviders.jsonl(file.getPath(), row -> new Object[] {row.get("index"), row.get("value")}));
+
+        assertEquals(rows.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(rows.get(i)[0], i);
+        }
+        assertEquals(rows.get(4)[1], 2.0);
+        assertEquals(rows.get(5)[1], true);
+    }
+
+    @Test
+    public void testResourceDataFilesAreFoundOnTheClasspath() {
+        List<Object[]> rows = drain(LazyDataProviders.csv("testdata/convert-values.csv",
+            row -> new Object[] {row.get("variant"), row.get("description")}));
+
+        assertEquals(rows.get(0), new Object[] {"42", "Integer string"});
+        assertEquals(rows.get(5), new Object[] {"", "Empty string"});
+        expectThrows(RuntimeException.class, () -> LazyDataProviders.jsonl("testdata/missing.jsonl", row -> new Object[0]));
+    }
+
+    @Test
+    public void testExcelSheetRowsStreamThroughTheProvider() throws IOException {
+        File file = File.createTempFile("lazy-provider", ".xlsx");
+        files.add(file);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        Sheet sheet = workbook.createSheet("Writes");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("nodeId");
+        header.createCell(1).setCellValue("value");
+        for (int i = 1; i <= 1000; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("ns=4;i=" + i);
+            row.createCell(1).setCellValue(i);
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.dispose();
+        workbook.close();
+
+        List<Object[]> rows = drain(LazyDataProviders.excel(file.getPath(), "Writes",
+            row -> new Object[] {row.get("nodeId"), Integer.parseInt(row.get("value"))}));
+
+        assertEquals(rows.size(), 1000);
+        assertEquals(rows.get(999), new Object[] {"ns=4;i=1000", 1000});
+    }
+
+    @Test
+    public void testReadAheadIsBounded() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> endless = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return produced.incrementAndGet();
+            }
+        };
+        LazyDataProviders.Prefetcher provider = LazyDataProviders.prefetch("endless", endless, () -> { }, i -> new Object[] {i});
+
+        assertEquals(provider.next(), new Object[] {1});
+        Thread.sleep(300);
+        int bound = TestConfigManager.getDataProviderPrefetchRows() + 2 * TestConfigManager.getDataProviderChunkRows();
+        assertTrue(produced.get() <= bound, produced.get() + " rows read ahead, bound " + bound);
+        provider.close();
+    }
+
+    @Test
+    public void testCloseReleasesAConsumerWaitingForRows() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Iterator<Integer> stalled = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                // A source that never answers and ignores interrupts, like a hung network read
+                stuck.countDown();
+                while (release.getCount() > 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                return 0;
+            }
+        };
+        LazyDataProviders.Prefetcher provider = LazyDataProviders.prefetch("stalled", stalled, () -> { }, i -> new Object[] {i});
+        ExecutorService consumer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> hasNext = consumer.submit(provider::hasNext);
+            assertTrue(stuck.await(5, TimeUnit.SECONDS));
+
+            provider.close();
+
+            assertFalse(hasNext.get(5, TimeUnit.SECONDS));
+            assertFalse(provider.hasNext());
+        } finally {
+            release.countDown();
+            consumer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReaderDyingWithoutEndIsReported() {
+        Iterator<Integer> crashing = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                throw new Error("source crashed");
+            }
+        };
+        LazyDataProviders.Prefetcher provider = LazyDataProviders.prefetch("crashing", crashing, () -> { }, i -> new Object[] {i});
+
+        IllegalStateException error = expectThrows(IllegalStateException.class, provider::hasNext);
+        assertEquals(error.getMessage(), "Reader of crashing stopped without finishing the rows");
+        assertFalse(provider.hasNext());
+    }
+
+    @Test
+    public void testConcurrentConsumersSeeEveryRowOnce() throws Exception {
+        int count = 20_000;
+        Iterator<Integer> source = new Iterator<Integer>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        };
+        Iterator<Object[]> provider = LazyDataProviders.prefetch("counter", source, () -> { }, i -> new Object[] {i});
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService consumers = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            done.add(consumers.submit(() -> {
+                while (true) {
+                    Object[] row;
+                    // Another consumer must not take the last row between hasNext and next
+                    synchronized (provider) {
+                        if (!provider.hasNext()) {
+                            return;
+                        }
+                        row = provider.next();
+                    }
+                    if (!seen.add(row[0])) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        consumers.shutdown();
+
+        assertEquals(seen.size(), count);
+        assertEquals(duplicates.get(), 0);
+    }
+
+    @Test
+    public void testDecodeFailureSurfacesToTheConsumer() throws IOException {
+        File file = write("broken.jsonl", "{\"index\": 1}\n{not json\n");
+
+        Iterator<Object[]> provider = LazyDataProviders.jsonl(file.getPath(), row -> new Object[] {row.get("index")});
+
+        RuntimeException error = expectThrows(RuntimeException.class, () -> drain(provider));
+        assertTrue(error.getMessage().startsWith("Invalid JSON line in " + file.getPath()), error.getMessage());
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = File.createTempFile("lazy-provider", "-" + name);
+        files.add(file);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<Object[]> drain(Iterator<Object[]> provider) {
+        List<Object[]> rows = new ArrayList<>();
+        provider.forEachRemaining(rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,420 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the {@link UnifiedMockServer} endpoints from the JDK's built-in HTTP
+ * server instead of a Spring Boot application context.
+ *
+ * <p>The route table is built once from the {@code @GetMapping}/{@code @PostMapping}
+ * handler methods of the given controller, so both engines always expose the
+ * same endpoints; each route resolves its {@code @RequestParam} and
+ * {@code @RequestBody} arguments from the exchange and calls the handler
+ * directly, honouring the status of a returned {@code ResponseEntity}. Missing required parameters, unreadable bodies, unknown paths and
+ * wrong methods answer 400/404/405 with the same JSON error body Spring Boot
+ * produces. Starting takes a few milliseconds rather than the seconds Spring
+ * needs to boot Tomcat. Routes with a {@link FaultProfile} are answered through
+ * the {@link FaultInjector}, which completes the exchange later from its own
+ * threads. A {@code StreamingResponseBody} result (server-sent events) is
+ * written chunked on the worker thread until the handler's stream ends.
+ */
+public class LightweightMockServer {
+    private static final Logger log = LoggerFactory.getLogger(LightweightMockServer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY the body
+        // waits for the client's delayed ACK, adding ~40ms to every small response.
+        // Read once when the first HttpServer is created, so it must be set before that.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Object controller;
+    private final int port;
+    private final Map<String, Map<String, Route>> routes;
+    private final FaultInjector faults;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public LightweightMockServer(Object controller, int port) {
+        this(controller, port, new FaultInjector());
+    }
+
+    /** Server whose responses go through the given injector's latency/error/bandwidth profiles. */
+    public LightweightMockServer(Object controller, int port, FaultInjector faults) {
+        this.controller = controller;
+        this.port = port;
+        this.routes = buildRoutes(controller.getClass());
+        this.faults = faults;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        executor = null;
+    }
+
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public int getRouteCount() {
+        return routes.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // ================= Request Handling =================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int status;
+        byte[] body;
+        try {
+            Map<String, Route> byMethod = routes.get(path);
+            Route route = byMethod != null ? byMethod.get(exchange.getRequestMethod()) : null;
+            if (byMethod == null) {
+                status = 404;
+                body = errorBody(status, "Not Found", path);
+            } else if (route == null) {
+                status = 405;
+                body = errorBody(status, "Method Not Allowed", path);
+            } else {
+                Object result = route.invoke(controller, exchange);
+                status = 200;
+                String contentType = route.produces;
+                if (result instanceof ResponseEntity) {
+                    ResponseEntity<?> entity = (ResponseEntity<?>) result;
+                    status = entity.getStatusCodeValue();
+                    if (entity.getHeaders().getContentType() != null) {
+                        contentType = entity.getHeaders().getContentType().toString();
+                    }
+                    result = entity.getBody();
+                }
+                if (result instanceof StreamingResponseBody) {
+                    stream(exchange, status, contentType, (StreamingResponseBody) result);
+                    return;
+                }
+                // Handlers backed by a ResponseTemplate already return the serialized JSON
+                body = result instanceof byte[] ? (byte[]) result : MAPPER.writeValueAsBytes(result);
+            }
+        } catch (BadRequestException e) {
+            status = 400;
+            body = errorBody(status, "Bad Request", path);
+        } catch (Exception e) {
+            log.error("Mock handler for {} failed: {}", path, e.getMessage());
+            status = 500;
+            body = errorBody(status, "Internal Server Error", path);
+        }
+        
+        FaultProfile profile = faults.profileFor(path);
+        if (profile == null) {
+            try {
+                send(exchange, status, body);
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        // The exchange stays open after this worker returns; the injector completes it
+        faults.deliver(profile, path, status, body, new ExchangeSink(exchange));
+    }
+
+    /** Writes a streaming body on this worker thread until it returns; such responses are never faulted. */
+    private static void stream(HttpExchange exchange, int status, String contentType, StreamingResponseBody body) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        } catch (IOException e) {
+            // The consumer disconnected before the stream ended
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] errorBody(int status, String error, String path) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", OffsetDateTime.now().toString());
+        body.put("status", status);
+        body.put("error", error);
+        body.put("path", path);
+        return MAPPER.writeValueAsBytes(body);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // ================= Route Table =================
+
+    private static Map<String, Map<String, Route>> buildRoutes(Class<?> controllerType) {
+        DefaultParameterNameDiscoverer names = new DefaultParameterNameDiscoverer();
+        Map<String, Map<String, Route>> table = new HashMap<>();
+        for (Method method : controllerType.getMethods()) {
+            String httpMethod;
+            String[] paths;
+            GetMapping get = method.getAnnotation(GetMapping.class);
+            PostMapping post = method.getAnnotation(PostMapping.class);
+            if (get != null) {
+                httpMethod = "GET";
+                paths = get.value().length > 0 ? get.value() : get.path();
+            } else if (post != null) {
+                httpMethod = "POST";
+                paths = post.value().length > 0 ? post.value() : post.path();
+            } else {
+                continue;
+            }
+            String[] produces = get != null ? get.produces() : post.produces();
+            Route route = new Route(method, resolvers(method, names.getParameterNames(method)),
+                produces.length > 0 ? produces[0] : "application/json");
+            for (String path : paths) {
+                table.computeIfAbsent(path, p -> new HashMap<>()).put(httpMethod, route);
+            }
+        }
+        return Collections.unmodifiableMap(table);
+    }
+
+    private static ArgumentResolver[] resolvers(Method method, String[] parameterNames) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        ArgumentResolver[] resolvers = new ArgumentResolver[annotations.length];
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < annotations.length; i++) {
+            resolvers[i] = resolver(method, annotations[i], types[i], parameterNames != null ? parameterNames[i] : null);
+        }
+        return resolvers;
+    }
+
+    private static ArgumentResolver resolver(Method method, Annotation[] annotations, Class<?> type, String parameterName) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof RequestParam) {
+                RequestParam param = (RequestParam) annotation;
+                String name = !param.value().isEmpty() ? param.value() : !param.name().isEmpty() ? param.name() : parameterName;
+                if (name == null) {
+                    throw new IllegalStateException("Cannot resolve @RequestParam name on " + method);
+                }
+                String defaultValue = ValueConstants.DEFAULT_NONE.equals(param.defaultValue()) ? null : param.defaultValue();
+                boolean required = param.required() && defaultValue == null;
+                return request -> {
+                    String value = request.queryParams().get(name);
+                    if (value == null && required) {
+                        throw new BadRequestException();
+                    }
+                    return convert(value != null ? value : defaultValue, type);
+                };
+            }
+            if (annotation instanceof RequestBody) {
+                boolean required = ((RequestBody) annotation).required();
+                return request -> {
+                    Map<String, Object> body = request.jsonBody();
+                    if (body == null && required) {
+                        throw new BadRequestException();
+                    }
+                    return body;
+                };
+            }
+        }
+        throw new IllegalStateException("Unsupported parameter on mock handler " + method);
+    }
+
+    /** The simple conversions Spring applies to query parameters; unparseable values are a 400. */
+    private static Object convert(String value, Class<?> type) {
+        if (value == null || type == String.class) {
+            return value;
+        }
+        try {
+            if (type == int.class || type == Integer.class) {
+                return Integer.valueOf(value.trim());
+            }
+            if (type == long.class || type == Long.class) {
+                return Long.valueOf(value.trim());
+            }
+            if (type == double.class || type == Double.class) {
+                return Double.valueOf(value.trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value.trim());
+        }
+        throw new IllegalStateException("Unsupported @RequestParam type " + type.getName());
+    }
+
+    // ================= Inner Classes =================
+
+    private static final class Route {
+        private final Method handler;
+        private final ArgumentResolver[] resolvers;
+        private final String produces;
+
+        Route(Method handler, ArgumentResolver[] resolvers, String produces) {
+            this.handler = handler;
+            this.resolvers = resolvers;
+            this.produces = produces;
+        }
+
+        Object invoke(Object controller, HttpExchange exchange) throws Exception {
+            RequestData request = new RequestData(exchange);
+            Object[] args = new Object[resolvers.length];
+            for (int i = 0; i < resolvers.length; i++) {
+                args[i] = resolvers[i].resolve(request);
+            }
+            try {
+                return handler.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+    }
+
+    private interface ArgumentResolver {
+        Object resolve(RequestData request) throws IOException;
+    }
+
+    /** Lazily parsed query string and JSON body of one exchange. */
+    private static final class RequestData {
+        private final HttpExchange exchange;
+        private Map<String, String> queryParams;
+
+        RequestData(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        Map<String, String> queryParams() {
+            if (queryParams == null) {
+                queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+            }
+            return queryParams;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> jsonBody() throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readAllBytes();
+                if (bytes.length == 0) {
+                    return null;
+                }
+                try {
+                    return MAPPER.readValue(bytes, Map.class);
+                } catch (IOException e) {
+                    throw new BadRequestException();
+                }
+            }
+        }
+
+        private static Map<String, String> parseQuery(String rawQuery) {
+            Map<String, String> params = new HashMap<>();
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return params;
+            }
+            try {
+                for (String pair : rawQuery.split("&")) {
+                    int eq = pair.indexOf('=');
+                    String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                    String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                    params.putIfAbsent(key, value);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException();
+            }
+            return params;
+        }
+    }
+
+    /** Writes a fault-injected response into an exchange from the injector's threads. */
+    private static final class ExchangeSink implements FaultInjector.ResponseSink {
+        private final HttpExchange exchange;
+
+        ExchangeSink(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void begin(int status, int contentLength) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, contentLength);
+        }
+
+        @Override
+        public void write(byte[] body, int offset, int length) throws IOException {
+            OutputStream out = exchange.getResponseBody();
+            out.write(body, offset, length);
+            out.flush();
+        }
+
+        @Override
+        public void complete() {
+            exchange.close();
+        }
+    }
+
+    private static final class BadRequestException extends RuntimeException {
+        BadRequestException() {
+            super(null, null, false, false);
+        }
+    }
+}
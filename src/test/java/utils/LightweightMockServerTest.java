@@ -0,0 +1,110 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class LightweightMockServerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private LightweightMockServer server;
+    private long startMillis;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new LightweightMockServer(new UnifiedMockServer(), 0);
+        long start = System.nanoTime();
+        server.start();
+        startMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void testStartsQuicklyWithEveryControllerRoute() {
+        long handlers = Arrays.stream(UnifiedMockServer.class.getMethods())
+            .filter(m -> m.isAnnotationPresent(GetMapping.class) || m.isAnnotationPresent(PostMapping.class))
+            .count();
+        assertEquals(server.getRouteCount(), handlers);
+        assertTrue(startMillis < 500, "Lightweight mock server took " + startMillis + "ms to start");
+    }
+
+    @Test
+    public void testGetWithQueryParameter() throws Exception {
+        HttpResponse<String> response = get("/read/api/read/readValue?nodeId=ns%3D3%3Bs%3D%22PLC_To_WMS%22");
+        assertEquals(response.statusCode(), 200);
+        assertEquals(response.headers().firstValue("Content-Type").orElse(""), "application/json");
+        Map<?, ?> body = MAPPER.readValue(response.body(), Map.class);
+        assertEquals(body.get("nodeId"), "ns=3;s=\"PLC_To_WMS\"");
+        assertEquals(body.get("quality"), "GOOD");
+    }
+
+    @Test
+    public void testPostWithJsonBody() throws Exception {
+        HttpResponse<String> response = post("/write/api/write/write-node", "{\"nodeId\":\"ns=3;s=DataBlocksGlobal\",\"value\":42}");
+        assertEquals(response.statusCode(), 200);
+        Map<?, ?> body = MAPPER.readValue(response.body(), Map.class);
+        assertEquals(body.get("nodeId"), "ns=3;s=DataBlocksGlobal");
+        assertEquals(body.get("value"), 42);
+    }
+
+    @Test
+    public void testResponseEntityStatusIsPassedThrough() throws Exception {
+        HttpResponse<String> read = get("/read/api/read/readValue?nodeId=ns%3D999%3Bs%3DInvalidNode");
+        assertEquals(read.statusCode(), 404);
+        assertEquals(MAPPER.readValue(read.body(), Map.class).get("statusCode"), "BadNodeIdUnknown");
+        
+        HttpResponse<String> write = post("/write/api/write/write-node", "{\"nodeId\":\"ns=999;s=InvalidNode\",\"value\":1}");
+        assertEquals(write.statusCode(), 400);
+    }
+
+    @Test
+    public void testErrorsMatchSpringBoot() throws Exception {
+        assertError(get("/read/api/read/readValue"), 400, "/read/api/read/readValue");
+        assertError(post("/write/api/write/write-node", ""), 400, "/write/api/write/write-node");
+        assertError(post("/write/api/write/write-node", "{not json"), 400, "/write/api/write/write-node");
+        assertError(get("/read/api/does-not-exist"), 404, "/read/api/does-not-exist");
+        assertError(get("/write/api/write/write-node"), 405, "/write/api/write/write-node");
+    }
+
+    private void assertError(HttpResponse<String> response, int status, String path) throws Exception {
+        assertEquals(response.statusCode(), status);
+        Map<?, ?> body = MAPPER.readValue(response.body(), Map.class);
+        assertEquals(body.get("status"), status);
+        assertEquals(body.get("path"), path);
+        assertNotNull(body.get("error"));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,37 @@
+package utils;
+
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Holds a reference to the unified mock server for the whole suite.
+ *
+ * <p>Registered in testng.xml, so the server is started once before the first
+ * class and only stopped after the suite finishes, whatever order the parallel
+ * classes take and release their own references in.
+ */
+public class MockServerSuiteListener implements ISuiteListener {
+    private static final Logger log = LoggerFactory.getLogger(MockServerSuiteListener.class);
+    private boolean acquired;
+
+    @Override
+    public synchronized void onStart(ISuite suite) {
+        if (TestConfigManager.isMockMode() && !acquired) {
+            UnifiedMockServer.acquire();
+            acquired = true;
+            log.info("Mock server started for suite: {}", suite.getName());
+        }
+    }
+
+    @Override
+    public synchronized void onFinish(ISuite suite) {
+        if (acquired) {
+            acquired = false;
+            UnifiedMockServer.release();
+            log.info("Mock server released for suite: {}", suite.getName());
+        }
+    }
+}
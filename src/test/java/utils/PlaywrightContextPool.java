@@ -0,0 +1,260 @@
+package utils;
+
+import com.microsoft.playwright.APIRequestContext;
+import com.microsoft.playwright.Playwright;
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suite-wide pool of Playwright instances, each with one APIRequestContext.
+ *
+ * <p>Playwright objects must only be used by one thread at a time, so a lease is
+ * confined to the thread that took it: {@link #lease()} hands the calling thread
+ * its own entry (re-entrant, counted) and {@link #release()} returns it once the
+ * outermost holder is done. Released entries are validated and reused by the
+ * next thread, so test classes stop paying the Playwright driver start-up each
+ * time. At most {@code playwright.pool.max.size} entries are kept; if all of
+ * them are leased, a one-off entry is created rather than blocking, since the
+ * holders may be waiting on the requesting thread. Entries held by threads that
+ * have died are reclaimed, and broken entries are closed and replaced instead of
+ * being handed out again.
+ *
+ * <p>Contexts are reused as-is, so cookies set by one class are visible to the
+ * next; the WMS services are stateless and don't set any.
+ */
+public final class PlaywrightContextPool {
+    private static final Logger log = LoggerFactory.getLogger(PlaywrightContextPool.class);
+    private static final PlaywrightContextPool INSTANCE = new PlaywrightContextPool(
+        TestConfigManager.getPlaywrightPoolMaxSize());
+
+    private final int maxSize;
+    private final BlockingQueue<Lease> idle = new LinkedBlockingQueue<>();
+    private final Map<Thread, Lease> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    PlaywrightContextPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "playwright-pool-shutdown"));
+    }
+
+    public static PlaywrightContextPool getInstance() {
+        return INSTANCE;
+    }
+
+    /** Starts up to {@code count} Playwright drivers ahead of time so the first tests don't wait for them. */
+    public void warmUp(int count) {
+        int target = Math.min(count, maxSize);
+        while (created.get() < target && !shutdown) {
+            Lease lease = tryCreate();
+            if (lease == null) {
+                break;
+            }
+            idle.offer(lease);
+        }
+        log.info("Playwright context pool warmed up: {}/{} contexts", created.get(), maxSize);
+    }
+
+    /**
+     * Leases an entry to the calling thread, or returns the one it already holds.
+     * Every call must be paired with {@link #release()} on the same thread.
+     */
+    public Lease lease() {
+        Thread thread = Thread.currentThread();
+        Lease lease = leased.get(thread);
+        if (lease == null) {
+            lease = acquire();
+            leased.put(thread, lease);
+        }
+        lease.holdCount++;
+        return lease;
+    }
+
+    /** Lease held by the calling thread, taking one if it holds none. */
+    public Lease current() {
+        Lease lease = leased.get(Thread.currentThread());
+        return lease != null ? lease : lease();
+    }
+
+    /** Drops one hold of the calling thread's lease and returns it to the pool when none remain. */
+    public void release() {
+        Thread thread = Thread.currentThread();
+        Lease lease = leased.get(thread);
+        if (lease == null || --lease.holdCount > 0) {
+            return;
+        }
+        leased.remove(thread);
+        giveBack(lease);
+    }
+
+    /**
+     * Marks the calling thread's lease as broken, e.g. after the Playwright driver
+     * died. It is closed on release instead of being reused.
+     */
+    public void invalidate() {
+        Lease lease = leased.get(Thread.currentThread());
+        if (lease != null) {
+            lease.broken = true;
+        }
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        Lease lease;
+        while ((lease = idle.poll()) != null) {
+            close(lease);
+        }
+        for (Lease held : leased.values()) {
+            close(held);
+        }
+        leased.clear();
+    }
+
+    private Lease acquire() {
+        if (shutdown) {
+            throw new IllegalStateException("Playwright context pool has been shut down");
+        }
+        reclaimAbandoned();
+        Lease lease;
+        while ((lease = idle.poll()) != null) {
+            if (isHealthy(lease)) {
+                return lease;
+            }
+            discard(lease);
+        }
+        lease = tryCreate();
+        if (lease != null) {
+            return lease;
+        }
+        // Every pooled entry is held, typically by class threads waiting on helper threads
+        // they started. Blocking here could deadlock them, so hand out a one-off entry
+        // that is closed instead of pooled when released.
+        log.info("Playwright context pool exhausted ({} in use), creating an unpooled context for {}", maxSize, Thread.currentThread().getName());
+        return newLease(false);
+    }
+
+    private Lease tryCreate() {
+        int count;
+        do {
+            count = created.get();
+            if (count >= maxSize) {
+                return null;
+            }
+        } while (!created.compareAndSet(count, count + 1));
+
+        try {
+            return newLease(true);
+        } catch (RuntimeException e) {
+            created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private static Lease newLease(boolean pooled) {
+        try {
+            Playwright playwright = Playwright.create();
+            return new Lease(playwright, playwright.request().newContext(), pooled);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to create Playwright context: " + e.getMessage(), e);
+        }
+    }
+
+    /** Returns entries leased by threads that have terminated without releasing them. */
+    private void reclaimAbandoned() {
+        Iterator<Map.Entry<Thread, Lease>> entries = leased.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Thread, Lease> entry = entries.next();
+            if (!entry.getKey().isAlive()) {
+                entries.remove();
+                giveBack(entry.getValue());
+            }
+        }
+    }
+
+    private void giveBack(Lease lease) {
+        lease.holdCount = 0;
+        if (!lease.pooled) {
+            close(lease);
+        } else if (lease.broken || shutdown) {
+            discard(lease);
+        } else {
+            idle.offer(lease);
+        }
+    }
+
+    private boolean isHealthy(Lease lease) {
+        if (lease.broken) {
+            return false;
+        }
+        try {
+            // Round trip to the driver process without touching the network
+            lease.context.storageState();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Discarding broken Playwright context: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(Lease lease) {
+        close(lease);
+        created.decrementAndGet();
+    }
+
+    private static void close(Lease lease) {
+        try {
+            lease.context.dispose();
+        } catch (RuntimeException ignored) {
+            // Driver may already be gone
+        }
+        try {
+            lease.playwright.close();
+        } catch (RuntimeException ignored) {
+            // Driver may already be gone
+        }
+    }
+
+    // ================= Inner Classes =================
+
+    public static final class Lease {
+        private final Playwright playwright;
+        private final APIRequestContext context;
+        private final boolean pooled;
+        private int holdCount;
+        private volatile boolean broken;
+
+        private Lease(Playwright playwright, APIRequestContext context, boolean pooled) {
+            this.playwright = playwright;
+            this.context = context;
+            this.pooled = pooled;
+        }
+
+        /** Playwright instance of this lease, e.g. to create extra contexts with other options. */
+        public Playwright playwright() {
+            return playwright;
+        }
+
+        public APIRequestContext context() {
+            return context;
+        }
+    }
+}
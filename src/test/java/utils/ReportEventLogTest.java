@@ -0,0 +1,184 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.ExtentColor;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Test;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class ReportEventLogTest {
+    private Path workDir;
+
+    @BeforeClass
+    public void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("report-event-log-test");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testRenderedReportMatchesInMemoryReport() throws Exception {
+        ExtentReports direct = new ExtentReports();
+        direct.attachReporter(new ExtentSparkReporter(workDir.resolve("direct.html").toString()));
+        ReportSink directSink = new ReportSink("direct", direct, 60_000);
+        Path eventLog = workDir.resolve("events.jsonl");
+        ReportSink loggedSink = new ReportSink("logged", new ReportEventLog(eventLog), 60_000);
+        runScenario(directSink);
+        runScenario(loggedSink);
+        directSink.close();
+        loggedSink.close();
+        assertNull(loggedSink.getExtentReports(), "Event log mode keeps no Extent model");
+
+        long renderedAt = System.currentTimeMillis();
+        ExtentReports rendered = new ExtentReports();
+        rendered.attachReporter(new ExtentSparkReporter(workDir.resolve("rendered.html").toString()));
+        long events = ReportRenderer.replay(eventLog, new ExtentReportWriter(rendered));
+
+        assertEquals(events, loggedSink.getWrittenEvents());
+        List<Test> expected = direct.getReport().getTestList();
+        List<Test> actual = rendered.getReport().getTestList();
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Test want = expected.get(i);
+            Test got = actual.get(i);
+            assertEquals(got.getName(), want.getName());
+            assertEquals(got.getDescription(), want.getDescription());
+            assertEquals(got.getStatus(), want.getStatus(), got.getName());
+            assertEquals(names(got.getCategorySet()), names(want.getCategorySet()));
+            assertEquals(names(got.getAuthorSet()), names(want.getAuthorSet()));
+            assertEquals(got.getLogs().size(), want.getLogs().size());
+            for (int j = 0; j < want.getLogs().size(); j++) {
+                Log wantLog = want.getLogs().get(j);
+                Log gotLog = got.getLogs().get(j);
+                assertEquals(gotLog.getStatus(), wantLog.getStatus());
+                assertEquals(gotLog.getDetails(), wantLog.getDetails());
+                assertEquals(gotLog.hasException(), wantLog.hasException());
+                if (wantLog.hasException()) {
+                    assertEquals(gotLog.getException().getName(), wantLog.getException().getName());
+                    // Same throw site; the two scenario runs differ only in the caller's line
+                    assertTrue(gotLog.getException().getStackTrace().contains("at utils.ReportEventLogTest.runScenario("));
+                }
+                assertTrue(gotLog.getTimestamp().getTime() < renderedAt, "Log keeps the time it was reported");
+            }
+            assertTrue(got.getStartTime().getTime() < renderedAt);
+            assertTrue(got.getEndTime().getTime() < renderedAt);
+        }
+        assertEquals(rendered.getReport().getSystemEnvInfo().size(), direct.getReport().getSystemEnvInfo().size());
+        String html = Files.readString(workDir.resolve("rendered.html"), StandardCharsets.UTF_8);
+        assertTrue(html.contains("Write failed on ns=4;i=9"));
+    }
+
+    @org.testng.annotations.Test
+    public void testAllureResultsCarryStatusStepsAndLabels() throws Exception {
+        Path eventLog = workDir.resolve("allure-events.jsonl");
+        ReportSink sink = new ReportSink("allure", new ReportEventLog(eventLog), 60_000);
+        runScenario(sink);
+        sink.close();
+        Path resultsDir = workDir.resolve("allure-results");
+
+        ReportRenderer.renderAllure(eventLog, resultsDir);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> results = new HashMap<>();
+        try (Stream<Path> files = Files.list(resultsDir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith("-result.json")).collect(Collectors.toList())) {
+                JsonNode result = mapper.readTree(file.toFile());
+                results.put(result.get("name").asText(), result);
+            }
+        }
+        assertEquals(results.keySet(), java.util.Set.of("readTag", "writeTag", "skippedTag"));
+        JsonNode read = results.get("readTag");
+        assertEquals(read.get("status").asText(), "passed");
+        assertEquals(read.get("steps").size(), 3);
+        assertEquals(read.get("steps").get(1).get("name").asText(), "Read OK");
+        assertEquals(read.get("labels").get(0).get("name").asText(), "tag");
+        assertEquals(read.get("labels").get(0).get("value").asText(), "Read Data Service");
+        assertEquals(read.get("labels").get(1).get("name").asText(), "owner");
+        JsonNode write = results.get("writeTag");
+        assertEquals(write.get("status").asText(), "failed");
+        assertTrue(write.get("statusDetails").get("message").asText().startsWith("java.lang.IllegalStateException"));
+        assertTrue(write.get("stop").asLong() >= write.get("start").asLong());
+        assertEquals(results.get("skippedTag").get("status").asText(), "skipped");
+        Properties environment = new Properties();
+        try (InputStream in = Files.newInputStream(resultsDir.resolve("environment.properties"))) {
+            environment.load(in);
+        }
+        assertEquals(environment.getProperty("Environment"), "event-log-test");
+    }
+
+    @org.testng.annotations.Test
+    public void testPartialLastLineFromACrashedRunIsSkipped() throws IOException {
+        Path eventLog = workDir.resolve("crashed.jsonl");
+        ReportEventLog writer = new ReportEventLog(eventLog);
+        writer.createTest(1, 1000, "survivor", null);
+        for (int i = 0; i < 1000; i++) {
+            writer.log(1, 1000 + i, Status.INFO, "entry " + i);
+        }
+        writer.close();
+        byte[] partial = "{\"e\":\"log\",\"id\":1,\"ts\":3000,\"status\":\"FA".getBytes(StandardCharsets.UTF_8);
+        Files.write(eventLog, partial, StandardOpenOption.APPEND);
+        assertEquals(Files.size(eventLog), writer.getBytesWritten() + partial.length);
+
+        List<String> seen = new ArrayList<>();
+        long events = ReportRenderer.replay(eventLog, new AllureResultsWriter(workDir.resolve("crashed-results")) {
+            @Override
+            public void log(long testId, long timestamp, Status status, String details) {
+                seen.add(details);
+            }
+        });
+
+        assertEquals(events, 1001);
+        assertEquals(seen.size(), 1000);
+        assertEquals(seen.get(999), "entry 999");
+    }
+
+    private static void runScenario(ReportSink sink) {
+        sink.setSystemInfo("Environment", "event-log-test");
+        ReportTest read = sink.createTest("readTag", "Reads a tag")
+            .assignCategory("Read Data Service")
+            .assignAuthor("qa");
+        read.info("Reading ns=4;i=1");
+        read.log(Status.PASS, MarkupHelper.createLabel("Read OK", ExtentColor.GREEN));
+        read.log(Status.INFO, MarkupHelper.createCodeBlock("{\"value\": 42, \"unit\": \"\u00b0C\"}"));
+        ReportTest write = sink.createTest("writeTag", null);
+        write.info("Writing \"quoted\" value\nacross lines");
+        write.log(Status.FAIL, new IllegalStateException("Write failed on ns=4;i=9"));
+        write.pass("retry passed");
+        sink.createTest("skippedTag", "Skipped").skip("Service unavailable");
+    }
+
+    private static List<String> names(java.util.Set<? extends com.aventstack.extentreports.model.NamedAttribute> attributes) {
+        return attributes.stream().map(com.aventstack.extentreports.model.NamedAttribute::getName).sorted()
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,204 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Test;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class ReportSinkTest {
+    private Path workDir;
+
+    @BeforeClass
+    public void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("report-sink-test");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @org.testng.annotations.Test
+    public void testConcurrentTestsKeepEveryLogInOrder() throws Exception {
+        ExtentReports reports = reports("concurrent.html");
+        ReportSink sink = new ReportSink("concurrent", reports, 60_000);
+        int threads = 8;
+        int logsPerTest = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "test-" + t;
+            done.add(pool.submit(() -> {
+                start.await();
+                ReportTest test = sink.createTest(name, "Parallel test " + name);
+                for (int i = 0; i < logsPerTest; i++) {
+                    test.log(Status.INFO, name + " step " + i);
+                }
+                test.pass("done");
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        sink.flush();
+
+        List<Test> tests = reports.getReport().getTestList();
+        assertEquals(tests.size(), threads);
+        for (Test test : tests) {
+            assertEquals(test.getLogs().size(), logsPerTest + 1, test.getName());
+            for (int i = 0; i < logsPerTest; i++) {
+                assertEquals(test.getLogs().get(i).getDetails(), test.getName() + " step " + i);
+            }
+            assertEquals(test.getStatus(), Status.PASS);
+        }
+        assertEquals(sink.getWrittenEvents(), threads * (logsPerTest + 2L));
+        assertTrue(Files.readString(workDir.resolve("concurrent.html"), StandardCharsets.UTF_8).contains("test-7"));
+        sink.close();
+    }
+
+    @org.testng.annotations.Test
+    public void testReportIsRewrittenPeriodicallyWithoutFlushCalls() throws Exception {
+        Path file = workDir.resolve("periodic.html");
+        ReportSink sink = new ReportSink("periodic", reports("periodic.html"), 100);
+
+        sink.createTest("first", null).info("written before any flush call");
+        waitFor(() -> Files.exists(file) && read(file).contains("written before any flush call"));
+        long flushes = sink.getFlushCount();
+        Thread.sleep(300);
+
+        // Nothing changed, so the file is left alone
+        assertEquals(sink.getFlushCount(), flushes);
+        sink.createTest("second", null).fail("also written");
+        waitFor(() -> read(file).contains("also written"));
+        sink.close();
+    }
+
+    @org.testng.annotations.Test
+    public void testStatusIsKnownBeforeTheWriterCatchesUp() {
+        ReportSink sink = new ReportSink("status", reports("status.html"), 60_000);
+        ReportTest test = sink.createTest("status", "Status tracking");
+
+        assertEquals(test.getStatus(), Status.PASS);
+        test.info("step");
+        test.warning("slow");
+        assertEquals(test.getStatus(), Status.WARNING);
+        test.fail("broken");
+        test.pass("recovered");
+        assertEquals(test.getStatus(), Status.FAIL);
+        sink.close();
+    }
+
+    @org.testng.annotations.Test
+    public void testCloseWritesEverythingAndDropsLateEvents() throws IOException {
+        Path file = workDir.resolve("closed.html");
+        ReportSink sink = new ReportSink("closed", reports("closed.html"), 60_000);
+        ReportTest test = sink.createTest("closing", null);
+        for (int i = 0; i < 100; i++) {
+            test.info("before close " + i);
+        }
+
+        sink.close();
+        test.info("after close");
+        sink.flush();
+
+        assertTrue(read(file).contains("before close 99"));
+        assertEquals(sink.getDroppedEvents(), 2);
+        assertEquals(sink.getExtentReports().getReport().getTestList().get(0).getLogs().size(), 100);
+    }
+
+    @org.testng.annotations.Test
+    public void testEventsRacingCloseAreWrittenOrCountedAsDropped() throws Exception {
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; round++) {
+                ReportSink sink = new ReportSink("race-" + round, new ExtentReportWriter(new ExtentReports()), 60_000);
+                boolean flushers = round % 2 == 1;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> done = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    done.add(pool.submit(() -> {
+                        start.await();
+                        long events = 0;
+                        if (flushers) {
+                            // A barrier queued just as the writer stops must not leave flush() waiting for the timeout
+                            for (int i = 0; i < 200; i++) {
+                                long begin = System.nanoTime();
+                                sink.flush();
+                                assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(5), "flush() blocked after close");
+                            }
+                            return 0L;
+                        }
+                        ReportTest test = sink.createTest(Thread.currentThread().getName(), null);
+                        events++;
+                        for (int i = 0; i < 2000; i++) {
+                            test.info("step " + i);
+                            events++;
+                        }
+                        return events;
+                    }));
+                }
+                start.countDown();
+                sink.close();
+                long attempted = 0;
+                for (Future<Long> future : done) {
+                    attempted += future.get(30, TimeUnit.SECONDS);
+                }
+                if (!flushers) {
+                    assertEquals(sink.getWrittenEvents() + sink.getDroppedEvents(), attempted, "Round " + round);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ExtentReports reports(String fileName) {
+        ExtentReports reports = new ExtentReports();
+        reports.attachReporter(new ExtentSparkReporter(workDir.resolve(fileName).toString()));
+        return reports;
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Decides how much of each API response body is logged, so that logging does
+ * not cost more than the request under load.
+ *
+ * <ul>
+ *   <li>{@code full}: every body, decoded in full (the old behaviour).</li>
+ *   <li>{@code truncate}: every body, cut to its first and last
+ *       {@code response.log.max.bytes / 2} bytes; only those bytes are decoded.</li>
+ *   <li>{@code sample}: a one-line summary per response, and the body is not
+ *       fetched at all.</li>
+ * </ul>
+ *
+ * In every mode each endpoint also keeps a uniform reservoir sample of
+ * {@code response.log.samples.per.endpoint} truncated bodies over the whole
+ * run. A body is only fetched when the reservoir takes it. The samples are
+ * written by {@link #writeSamples(Path)}. Full bodies of a failed test are the
+ * caller's business: keep the body suppliers and call {@link #fullBody}.
+ */
+public class ResponseLogPolicy {
+    private static final Logger log = LoggerFactory.getLogger(ResponseLogPolicy.class);
+    public enum Mode { FULL, TRUNCATE, SAMPLE }
+
+    public static final String SAMPLES_FILE = "test-output/response-samples.json";
+
+    private static volatile ResponseLogPolicy shared;
+
+    private final Mode mode;
+    private final int maxBytes;
+    private final int samplesPerEndpoint;
+    private final Map<String, Reservoir> reservoirs = new ConcurrentHashMap<>();
+
+    public ResponseLogPolicy(Mode mode, int maxBytes, int samplesPerEndpoint) {
+        this.mode = mode;
+        this.maxBytes = Math.max(2, maxBytes);
+        this.samplesPerEndpoint = samplesPerEndpoint;
+    }
+
+    /** The suite-wide policy configured by {@code response.log.*} in the test configuration. */
+    public static ResponseLogPolicy shared() {
+        ResponseLogPolicy policy = shared;
+        if (policy == null) {
+            synchronized (ResponseLogPolicy.class) {
+                if (shared == null) {
+                    shared = new ResponseLogPolicy(
+                        Mode.valueOf(TestConfigManager.getResponseLogMode().toUpperCase()),
+                        TestConfigManager.getResponseLogMaxBytes(),
+                        TestConfigManager.getResponseLogSamplesPerEndpoint());
+                }
+                policy = shared;
+            }
+        }
+        return policy;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Offers a response to the endpoint's reservoir and returns what to log for
+     * it now. {@code body} is called at most once, and only if the mode or the
+     * reservoir needs it.
+     */
+    public String onResponse(String endpoint, int status, Supplier<byte[]> body) {
+        Supplier<byte[]> once = memoize(body);
+        Reservoir reservoir = reservoirs.computeIfAbsent(endpoint, key -> new Reservoir(samplesPerEndpoint));
+        reservoir.offer(status, once, maxBytes);
+        switch (mode) {
+            case FULL:
+                return fullBody(once);
+            case TRUNCATE:
+                return truncate(once.get(), maxBytes);
+            default:
+                return "HTTP " + status + " (body sampled, " + reservoir.seen() + " responses from " + endpoint + ")";
+        }
+    }
+
+    /** Decodes a whole body; meant for failures and {@link Mode#FULL}. */
+    public static String fullBody(Supplier<byte[]> body) {
+        byte[] bytes = body.get();
+        return bytes == null ? "" : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The body if it fits in {@code maxBytes}, otherwise its head and tail
+     * around an omission marker. Only the kept bytes are decoded, and the cuts
+     * are moved to UTF-8 character boundaries.
+     */
+    public static String truncate(byte[] body, int maxBytes) {
+        if (body == null) {
+            return "";
+        }
+        if (body.length <= maxBytes) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        int headEnd = maxBytes / 2;
+        while (headEnd > 0 && isContinuation(body[headEnd])) {
+            headEnd--;
+        }
+        int tailStart = body.length - maxBytes / 2;
+        while (tailStart < body.length && isContinuation(body[tailStart])) {
+            tailStart++;
+        }
+        return new String(body, 0, headEnd, StandardCharsets.UTF_8)
+            + "...[" + (tailStart - headEnd) + " of " + body.length + " bytes omitted]..."
+            + new String(body, tailStart, body.length - tailStart, StandardCharsets.UTF_8);
+    }
+
+    /** Sampled bodies per endpoint, each prefixed with its HTTP status. */
+    public Map<String, List<String>> getSamples() {
+        Map<String, List<String>> samples = new TreeMap<>();
+        reservoirs.forEach((endpoint, reservoir) -> samples.put(endpoint, reservoir.samples()));
+        return samples;
+    }
+
+    public long getResponseCount(String endpoint) {
+        Reservoir reservoir = reservoirs.get(endpoint);
+        return reservoir == null ? 0 : reservoir.seen();
+    }
+
+    /** Writes the reservoirs as JSON: endpoint to response count and sampled bodies. */
+    public void writeSamples(Path file) {
+        if (reservoirs.isEmpty()) {
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        getSamples().forEach((endpoint, bodies) -> {
+            ObjectNode entry = root.putObject(endpoint);
+            entry.put("responses", getResponseCount(endpoint));
+            bodies.forEach(entry.putArray("samples")::add);
+        });
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+        } catch (IOException e) {
+            log.error("Failed to write response samples: {}", e.getMessage());
+        }
+    }
+
+    /** The path of a request URL, without scheme, host or query: the key responses are sampled under. */
+    public static String endpointOf(String url) {
+        int hostStart = url.indexOf("://");
+        int pathStart = hostStart < 0 ? 0 : url.indexOf('/', hostStart + 3);
+        if (pathStart < 0) {
+            return "/";
+        }
+        int queryStart = url.indexOf('?', pathStart);
+        return queryStart < 0 ? url.substring(pathStart) : url.substring(pathStart, queryStart);
+    }
+
+    /** Wraps a body fetch so that it runs at most once, however many times the result is needed. */
+    public static Supplier<byte[]> memoize(Supplier<byte[]> body) {
+        return new Supplier<byte[]>() {
+            private byte[] bytes;
+            private boolean fetched;
+
+            @Override
+            public synchronized byte[] get() {
+                if (!fetched) {
+                    bytes = body.get();
+                    fetched = true;
+                }
+                return bytes;
+            }
+        };
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /** Algorithm R: after n offers each response has had a k/n chance of being kept. */
+    private static final class Reservoir {
+        private final String[] samples;
+        private long seen;
+
+        Reservoir(int size) {
+            this.samples = new String[Math.max(0, size)];
+        }
+
+        void offer(int status, Supplier<byte[]> body, int maxBytes) {
+            int slot;
+            synchronized (this) {
+                seen++;
+                long pick = seen <= samples.length ? seen - 1 : ThreadLocalRandom.current().nextLong(seen);
+                if (pick >= samples.length) {
+                    return;
+                }
+                slot = (int) pick;
+            }
+            // Fetched outside the lock; a racing offer for the same slot simply wins or loses
+            String sample = status + " " + truncate(body.get(), maxBytes);
+            synchronized (this) {
+                samples[slot] = sample;
+            }
+        }
+
+        synchronized long seen() {
+            return seen;
+        }
+
+        synchronized List<String> samples() {
+            List<String> kept = new ArrayList<>();
+            for (String sample : samples) {
+                if (sample != null) {
+                    kept.add(sample);
+                }
+            }
+            return kept;
+        }
+    }
+}
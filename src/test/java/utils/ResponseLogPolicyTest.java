@@ -0,0 +1,128 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.*;
+
+public class ResponseLogPolicyTest {
+
+    @Test
+    public void testTruncateKeepsHeadAndTailOnCharacterBoundaries() {
+        String body = "{\"unit\":\"\u00b0C\",\"values\":[" + "1,".repeat(1000) + "2],\"end\":\"\u00b0F\"}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        // The 10-byte head would end inside the degree sign, so it stops before it
+        String truncated = ResponseLogPolicy.truncate(bytes, 20);
+        assertTrue(truncated.startsWith("{\"unit\":\"...["), truncated);
+        assertTrue(truncated.endsWith("]...nd\":\"\u00b0F\"}"), truncated);
+        assertTrue(truncated.contains(" of " + bytes.length + " bytes omitted]..."), truncated);
+        // The 4-byte tail would start inside the degree sign, so it starts after it
+        truncated = ResponseLogPolicy.truncate(bytes, 8);
+        assertTrue(truncated.startsWith("{\"un...["), truncated);
+        assertTrue(truncated.endsWith("]...F\"}"), truncated);
+        assertFalse(truncated.contains("\uFFFD"), "A multi-byte character was cut: " + truncated);
+        assertEquals(ResponseLogPolicy.truncate("short".getBytes(StandardCharsets.UTF_8), 20), "short");
+        assertEquals(ResponseLogPolicy.truncate(null, 20), "");
+    }
+
+    @Test
+    public void testSampleModeOnlyFetchesBodiesTheReservoirKeeps() {
+        ResponseLogPolicy policy = new ResponseLogPolicy(ResponseLogPolicy.Mode.SAMPLE, 64, 5);
+        AtomicInteger fetches = new AtomicInteger();
+        int responses = 10_000;
+
+        String line = null;
+        for (int i = 0; i < responses; i++) {
+            int n = i;
+            line = policy.onResponse("/read/api/read/readValue", 200, () -> {
+                fetches.incrementAndGet();
+                return ("{\"n\":" + n + "}").getBytes(StandardCharsets.UTF_8);
+            });
+        }
+
+        assertEquals(line, "HTTP 200 (body sampled, 10000 responses from /read/api/read/readValue)");
+        assertEquals(policy.getResponseCount("/read/api/read/readValue"), responses);
+        List<String> samples = policy.getSamples().get("/read/api/read/readValue");
+        assertEquals(samples.size(), 5);
+        assertTrue(samples.get(0).startsWith("200 {\"n\":"), samples.get(0));
+        // Expected k * (1 + ln(n / k)), about 43; far below one fetch per response
+        assertTrue(fetches.get() >= 5 && fetches.get() < 200, fetches.get() + " bodies fetched");
+    }
+
+    @Test
+    public void testReservoirSampleIsUniform() {
+        int items = 20;
+        int size = 5;
+        int trials = 4000;
+        int[] kept = new int[items];
+        for (int trial = 0; trial < trials; trial++) {
+            ResponseLogPolicy policy = new ResponseLogPolicy(ResponseLogPolicy.Mode.SAMPLE, 64, size);
+            for (int i = 0; i < items; i++) {
+                String body = String.valueOf(i);
+                policy.onResponse("/endpoint", 200, () -> body.getBytes(StandardCharsets.UTF_8));
+            }
+            for (String sample : policy.getSamples().get("/endpoint")) {
+                kept[Integer.parseInt(sample.substring("200 ".length()))]++;
+            }
+        }
+        // Each item is kept with probability 5/20, so about 1000 times
+        for (int i = 0; i < items; i++) {
+            assertTrue(kept[i] > 850 && kept[i] < 1150, "Item " + i + " kept " + kept[i] + " times");
+        }
+    }
+
+    @Test
+    public void testModesAndSingleFetchPerResponse() {
+        String body = "x".repeat(100);
+        AtomicInteger fetches = new AtomicInteger();
+        Supplier<byte[]> counted = () -> {
+            fetches.incrementAndGet();
+            return body.getBytes(StandardCharsets.UTF_8);
+        };
+
+        String full = new ResponseLogPolicy(ResponseLogPolicy.Mode.FULL, 10, 1).onResponse("/a", 200, counted);
+        assertEquals(full, body);
+        assertEquals(fetches.get(), 1, "Reservoir and full logging share one fetch");
+        String truncated = new ResponseLogPolicy(ResponseLogPolicy.Mode.TRUNCATE, 10, 0).onResponse("/a", 200, counted);
+        assertEquals(truncated, "xxxxx...[90 of 100 bytes omitted]...xxxxx");
+
+        Supplier<byte[]> once = ResponseLogPolicy.memoize(counted);
+        fetches.set(0);
+        assertEquals(ResponseLogPolicy.fullBody(once), body);
+        assertEquals(ResponseLogPolicy.fullBody(once), body);
+        assertEquals(fetches.get(), 1);
+    }
+
+    @Test
+    public void testEndpointAndSamplesFile() throws IOException {
+        assertEquals(ResponseLogPolicy.endpointOf("http://localhost:8085/read/api/read/readValue?nodeId=ns=3;s=\"X\""),
+            "/read/api/read/readValue");
+        assertEquals(ResponseLogPolicy.endpointOf("http://localhost:8085"), "/");
+        assertEquals(ResponseLogPolicy.endpointOf("/opcua/api/connection/status"), "/opcua/api/connection/status");
+
+        ResponseLogPolicy policy = new ResponseLogPolicy(ResponseLogPolicy.Mode.TRUNCATE, 64, 2);
+        for (int i = 0; i < 3; i++) {
+            policy.onResponse("/write", 500, () -> "{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        Path file = Files.createTempFile("response-samples", ".json");
+        try {
+            policy.writeSamples(file);
+            JsonNode samples = new ObjectMapper().readTree(file.toFile()).get("/write");
+            assertEquals(samples.get("responses").asInt(), 3);
+            assertEquals(samples.get("samples").size(), 2);
+            assertEquals(samples.get("samples").get(0).asText(), "500 {\"error\":\"boom\"}");
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
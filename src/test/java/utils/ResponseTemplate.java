@@ -0,0 +1,250 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JSON response whose static parts are serialized once, with dynamic fields
+ * spliced in per request.
+ *
+ * <p>A template is compiled from a prototype (maps, lists and scalars, as a
+ * handler would return) in which dynamic values are {@link #slot(String)}
+ * markers. A marker can stand for a whole value ({@code "timestamp", slot("timestamp")})
+ * or be embedded in a string ({@code "mock-value-" + slot("timestamp")}).
+ * {@link #render(Object...)} takes the slot values in the order the names were
+ * given to {@link #compile} and writes the pre-serialized segments and the
+ * encoded values into one exactly-sized array. Numbers, booleans, null and
+ * plain ASCII strings are encoded in place, a {@code byte[]} for a whole-value
+ * slot is taken as already serialized JSON and copied verbatim; anything else
+ * (e.g. echoed request objects) goes through Jackson.
+ */
+public final class ResponseTemplate {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String MARKER_PREFIX = "@@slot:";
+    private static final String MARKER_SUFFIX = "@@";
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private final String[] slotNames;
+    private final byte[][] segments;
+    private final int[] gapSlots;
+    private final boolean[] gapEmbedded;
+    private final int staticLength;
+
+    private ResponseTemplate(String[] slotNames, byte[][] segments, int[] gapSlots, boolean[] gapEmbedded) {
+        this.slotNames = slotNames;
+        this.segments = segments;
+        this.gapSlots = gapSlots;
+        this.gapEmbedded = gapEmbedded;
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.staticLength = length;
+    }
+
+    /** Marker for a dynamic value in a template prototype. */
+    public static String slot(String name) {
+        return MARKER_PREFIX + name + MARKER_SUFFIX;
+    }
+
+    /**
+     * Serializes the prototype and splits it at its slot markers. Every marker
+     * must name one of {@code slotNames}; a name may be used several times.
+     */
+    public static ResponseTemplate compile(Object prototype, String... slotNames) {
+        String json;
+        try {
+            json = MAPPER.writeValueAsString(prototype);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response template: " + e.getMessage(), e);
+        }
+        List<String> names = Arrays.asList(slotNames);
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> gapSlots = new ArrayList<>();
+        List<Boolean> gapEmbedded = new ArrayList<>();
+        int from = 0;
+        int marker;
+        while ((marker = json.indexOf(MARKER_PREFIX, from)) >= 0) {
+            int nameEnd = json.indexOf(MARKER_SUFFIX, marker + MARKER_PREFIX.length());
+            String name = json.substring(marker + MARKER_PREFIX.length(), nameEnd);
+            int slotIndex = names.indexOf(name);
+            if (slotIndex < 0) {
+                throw new IllegalArgumentException("Template slot '" + name + "' is not declared in " + names);
+            }
+            int markerEnd = nameEnd + MARKER_SUFFIX.length();
+            boolean wholeValue = json.charAt(marker - 1) == '"' && json.charAt(markerEnd) == '"';
+            int segmentEnd = wholeValue ? marker - 1 : marker;
+            segments.add(json.substring(from, segmentEnd).getBytes(StandardCharsets.UTF_8));
+            gapSlots.add(slotIndex);
+            gapEmbedded.add(!wholeValue);
+            from = wholeValue ? markerEnd + 1 : markerEnd;
+        }
+        segments.add(json.substring(from).getBytes(StandardCharsets.UTF_8));
+
+        int[] slots = new int[gapSlots.size()];
+        boolean[] embedded = new boolean[gapSlots.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = gapSlots.get(i);
+            embedded[i] = gapEmbedded.get(i);
+        }
+        return new ResponseTemplate(slotNames.clone(), segments.toArray(new byte[0][]), slots, embedded);
+    }
+
+    /**
+     * Renders the response with the given slot values. Templates without slots
+     * return their shared pre-serialized bytes, which must not be modified.
+     */
+    public byte[] render(Object... values) {
+        if (values.length != slotNames.length) {
+            throw new IllegalArgumentException("Expected values for " + Arrays.toString(slotNames) + " but got " + values.length);
+        }
+        if (gapSlots.length == 0) {
+            return segments[0];
+        }
+
+        byte[][] encoded = null;
+        int length = staticLength;
+        for (int gap = 0; gap < gapSlots.length; gap++) {
+            Object value = values[gapSlots[gap]];
+            int size = inlineSize(value, gapEmbedded[gap]);
+            if (size < 0) {
+                if (encoded == null) {
+                    encoded = new byte[gapSlots.length][];
+                }
+                encoded[gap] = encode(value, gapEmbedded[gap]);
+                size = encoded[gap].length;
+            }
+            length += size;
+        }
+
+        byte[] out = new byte[length];
+        int pos = 0;
+        for (int gap = 0; gap < gapSlots.length; gap++) {
+            pos = copy(segments[gap], out, pos);
+            if (encoded != null && encoded[gap] != null) {
+                pos = copy(encoded[gap], out, pos);
+            } else {
+                pos = writeInline(values[gapSlots[gap]], gapEmbedded[gap], out, pos);
+            }
+        }
+        copy(segments[gapSlots.length], out, pos);
+        return out;
+    }
+
+    public List<String> getSlotNames() {
+        return Arrays.asList(slotNames.clone());
+    }
+
+    // ================= Value Encoding =================
+
+    /** Encoded size of values written straight into the output, -1 if the value needs Jackson. */
+    private static int inlineSize(Object value, boolean embedded) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return digits(((Number) value).longValue());
+        }
+        if (value == null) {
+            return NULL.length;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? TRUE.length : FALSE.length;
+        }
+        if (value instanceof byte[] && !embedded) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof String && isPlainAscii((String) value)) {
+            return ((String) value).length() + (embedded ? 0 : 2);
+        }
+        return -1;
+    }
+
+    private static int writeInline(Object value, boolean embedded, byte[] out, int pos) {
+        if (value instanceof Number) {
+            return writeLong(((Number) value).longValue(), out, pos);
+        }
+        if (value == null) {
+            return copy(NULL, out, pos);
+        }
+        if (value instanceof Boolean) {
+            return copy((Boolean) value ? TRUE : FALSE, out, pos);
+        }
+        if (value instanceof byte[]) {
+            return copy((byte[]) value, out, pos);
+        }
+        String text = (String) value;
+        if (!embedded) {
+            out[pos++] = '"';
+        }
+        for (int i = 0; i < text.length(); i++) {
+            out[pos++] = (byte) text.charAt(i);
+        }
+        if (!embedded) {
+            out[pos++] = '"';
+        }
+        return pos;
+    }
+
+    private static byte[] encode(Object value, boolean embedded) {
+        try {
+            if (!embedded) {
+                return MAPPER.writeValueAsBytes(value);
+            }
+            // Inside a string: the escaped text without the surrounding quotes
+            byte[] quoted = MAPPER.writeValueAsBytes(String.valueOf(value));
+            return Arrays.copyOfRange(quoted, 1, quoted.length - 1);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize template value: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isPlainAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int count = value < 0 ? 2 : 1;
+        long remaining = Math.abs(value);
+        while (remaining >= 10) {
+            remaining /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private static int writeLong(long value, byte[] out, int pos) {
+        if (value == Long.MIN_VALUE) {
+            return copy(Long.toString(value).getBytes(StandardCharsets.US_ASCII), out, pos);
+        }
+        int end = pos + digits(value);
+        if (value < 0) {
+            out[pos] = '-';
+            value = -value;
+        }
+        int i = end;
+        do {
+            out[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int copy(byte[] source, byte[] out, int pos) {
+        System.arraycopy(source, 0, out, pos, source.length);
+        return pos + source.length;
+    }
+}
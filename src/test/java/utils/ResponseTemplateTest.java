@@ -0,0 +1,63 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class ResponseTemplateTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testRendersSameJsonAsSerializingTheMap() throws Exception {
+        Map<String, Object> prototype = new LinkedHashMap<>();
+        prototype.put("status", "success");
+        prototype.put("nodeId", ResponseTemplate.slot("nodeId"));
+        prototype.put("value", "mock-value-" + ResponseTemplate.slot("timestamp"));
+        prototype.put("timestamp", ResponseTemplate.slot("timestamp"));
+        prototype.put("components", Map.of("db", Map.of("status", "UP")));
+        ResponseTemplate template = ResponseTemplate.compile(prototype, "nodeId", "timestamp");
+
+        byte[] rendered = template.render("ns=3;s=Tag", -1234567890123L);
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("status", "success");
+        expected.put("nodeId", "ns=3;s=Tag");
+        expected.put("value", "mock-value--1234567890123");
+        expected.put("timestamp", -1234567890123L);
+        expected.put("components", Map.of("db", Map.of("status", "UP")));
+        assertEquals(new String(rendered, StandardCharsets.UTF_8), MAPPER.writeValueAsString(expected));
+    }
+
+    @Test
+    public void testEscapesAndSerializesComplexValues() throws Exception {
+        Map<String, Object> prototype = new LinkedHashMap<>();
+        prototype.put("echo", ResponseTemplate.slot("echo"));
+        prototype.put("label", "processed-" + ResponseTemplate.slot("echo"));
+        ResponseTemplate template = ResponseTemplate.compile(prototype, "echo");
+
+        Object[] values = {"ns=3;s=\"WMS\" é\n", Map.of("tags", List.of(1, 2)), 2.5, true, null, 0};
+        for (Object value : values) {
+            Map<?, ?> parsed = MAPPER.readValue(template.render(value), Map.class);
+            assertEquals(MAPPER.writeValueAsString(parsed.get("echo")), MAPPER.writeValueAsString(value));
+            assertEquals(parsed.get("label"), "processed-" + value);
+        }
+    }
+
+    @Test
+    public void testStaticTemplateReturnsSharedBytes() {
+        ResponseTemplate template = ResponseTemplate.compile(Map.of("status", "UP"));
+        assertSame(template.render(), template.render());
+        assertEquals(new String(template.render(), StandardCharsets.UTF_8), "{\"status\":\"UP\"}");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUndeclaredSlotIsRejected() {
+        ResponseTemplate.compile(Map.of("timestamp", ResponseTemplate.slot("timestamp")), "time");
+    }
+}
@@ -0,0 +1,255 @@
+package utils;
+
+import config.TestConfigManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes service health endpoints concurrently until every service is up.
+ *
+ * <p>Each service is polled on its own schedule: the first probe goes out
+ * immediately, failed probes are retried after an exponentially growing delay
+ * (initial backoff doubling up to the max backoff) with random jitter, so
+ * services that come up early are confirmed early and a slow one doesn't hold
+ * up the checks of the others. {@link #awaitReady} returns as soon as the last
+ * service answers, and services confirmed once are remembered by this prober
+ * and not probed again. Probes use the JDK HttpClient, so no Playwright
+ * context is tied up while waiting.
+ */
+public class ServiceReadinessProber {
+    private static final ServiceReadinessProber SHARED = new ServiceReadinessProber(
+        Duration.ofSeconds(TestConfigManager.getHealthCheckTimeout()),
+        Duration.ofMillis(TestConfigManager.getRealServicesProbeInitialBackoff()),
+        Duration.ofSeconds(TestConfigManager.getRealServicesCheckInterval()));
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "readiness-prober");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Map<String, Long> readyServices = new ConcurrentHashMap<>();
+
+    public ServiceReadinessProber(Duration requestTimeout, Duration initialBackoff, Duration maxBackoff) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.initialBackoffMillis = Math.max(1, initialBackoff.toMillis());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+    }
+
+    public static ServiceReadinessProber shared() {
+        return SHARED;
+    }
+
+    /**
+     * Probes the given services (name to base URL) until all are ready or the
+     * timeout passes. Services this prober already confirmed are not probed again.
+     */
+    public ReadinessReport awaitReady(Map<String, String> services, Duration timeout) {
+        long start = System.nanoTime();
+        Map<String, ServiceTimeline> timelines = new LinkedHashMap<>();
+        List<CompletableFuture<ServiceTimeline>> pending = new ArrayList<>();
+        for (Map.Entry<String, String> service : services.entrySet()) {
+            ServiceTimeline timeline = new ServiceTimeline(service.getKey(), service.getValue(), start);
+            timelines.put(service.getKey(), timeline);
+            if (readyServices.containsKey(service.getValue())) {
+                timeline.markCached();
+            } else {
+                pending.add(startProbing(timeline, timeout));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Services that did not come up are reported as not ready
+        }
+        return new ReadinessReport(timelines, System.nanoTime() - start);
+    }
+
+    /**
+     * Probes one service with backoff until it is ready or the timeout passes. The
+     * returned future completes with the service's timeline either way; the ready
+     * cache is not consulted.
+     */
+    public CompletableFuture<ServiceTimeline> probeUntilReady(String service, String baseUrl, Duration timeout) {
+        return startProbing(new ServiceTimeline(service, baseUrl, System.nanoTime()), timeout);
+    }
+
+    private CompletableFuture<ServiceTimeline> startProbing(ServiceTimeline timeline, Duration timeout) {
+        probe(timeline, 0, System.nanoTime() + timeout.toNanos());
+        return timeline.result;
+    }
+
+    /** Checks a single service once, bypassing the ready cache. */
+    public CompletableFuture<Boolean> isReady(String baseUrl) {
+        return check(baseUrl);
+    }
+
+    public boolean isKnownReady(String baseUrl) {
+        return readyServices.containsKey(baseUrl);
+    }
+
+    /** Forgets that a service was ready, so the next {@link #awaitReady} probes it again. */
+    public void forget(String baseUrl) {
+        readyServices.remove(baseUrl);
+    }
+
+    private void probe(ServiceTimeline timeline, int attempt, long deadline) {
+        check(timeline.baseUrl).whenComplete((ready, error) -> {
+            boolean up = error == null && ready;
+            timeline.recordAttempt(up, error != null ? error.getMessage() : null);
+            if (up) {
+                readyServices.put(timeline.baseUrl, System.nanoTime());
+                timeline.result.complete(timeline);
+                return;
+            }
+            long delay = backoffMillis(attempt);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline) {
+                timeline.result.complete(timeline);
+                return;
+            }
+            SCHEDULER.schedule(() -> probe(timeline, attempt + 1, deadline), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /** Exponential backoff capped at the max backoff, with jitter in [delay/2, delay]. */
+    long backoffMillis(int attempt) {
+        long delay = initialBackoffMillis << Math.min(attempt, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /** Health endpoint answering 200, or failing that, anything below 500 from the base URL. */
+    private CompletableFuture<Boolean> check(String baseUrl) {
+        return get(baseUrl + "/actuator/health")
+            .thenCompose(status -> status == 200
+                ? CompletableFuture.completedFuture(true)
+                : get(baseUrl).thenApply(fallback -> fallback < 500));
+    }
+
+    private CompletableFuture<Integer> get(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenApply(HttpResponse::statusCode);
+    }
+
+    // ================= Inner Classes =================
+
+    public static class ServiceTimeline {
+        private final String service;
+        private final String baseUrl;
+        private final long startNanos;
+        private final List<String> attempts = Collections.synchronizedList(new ArrayList<>());
+        private volatile long readyAfterMillis = -1;
+        private volatile boolean cached;
+        private final CompletableFuture<ServiceTimeline> result = new CompletableFuture<>();
+
+        ServiceTimeline(String service, String baseUrl, long startNanos) {
+            this.service = service;
+            this.baseUrl = baseUrl;
+            this.startNanos = startNanos;
+        }
+
+        void markCached() {
+            cached = true;
+            readyAfterMillis = 0;
+        }
+
+        void recordAttempt(boolean up, String error) {
+            long offset = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            attempts.add("+" + offset + "ms " + (up ? "UP" : "DOWN" + (error != null ? " (" + error + ")" : "")));
+            if (up) {
+                readyAfterMillis = offset;
+            }
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public boolean isReady() {
+            return readyAfterMillis >= 0;
+        }
+
+        /** Milliseconds from the start of the wait until the service answered, -1 if it never did. */
+        public long getReadyAfterMillis() {
+            return readyAfterMillis;
+        }
+
+        public List<String> getAttempts() {
+            synchronized (attempts) {
+                return new ArrayList<>(attempts);
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (cached) {
+                return service + ": ready (cached)";
+            }
+            return service + ": " + (isReady() ? "ready after " + readyAfterMillis + "ms" : "NOT READY")
+                + ", attempts " + getAttempts();
+        }
+    }
+
+    public static class ReadinessReport {
+        private final Map<String, ServiceTimeline> timelines;
+        private final long elapsedNanos;
+
+        ReadinessReport(Map<String, ServiceTimeline> timelines, long elapsedNanos) {
+            this.timelines = Collections.unmodifiableMap(timelines);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isAllReady() {
+            return timelines.values().stream().allMatch(ServiceTimeline::isReady);
+        }
+
+        public Map<String, ServiceTimeline> getTimelines() {
+            return timelines;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Readiness after %dms: %s%n", getElapsedMillis(), isAllReady() ? "all ready" : "NOT all ready"));
+            for (ServiceTimeline timeline : timelines.values()) {
+                sb.append("  ").append(timeline).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package utils;
+
+import config.TestConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Suite-wide record of which services are known to be healthy.
+ *
+ * <p>A service confirmed healthy stays confirmed for {@code health.check.cache.ttl}
+ * seconds, so test classes asking for it during that time return immediately.
+ * Confirmed services are re-checked in the background before the TTL runs
+ * out; a service that fails the re-check drops out and the next caller probes
+ * it again. Callers that ask for the same unconfirmed service at the same time
+ * share one probe (see {@link ServiceReadinessProber#probeUntilReady}).
+ */
+public final class ServiceReadinessRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ServiceReadinessRegistry.class);
+    private static final ServiceReadinessRegistry INSTANCE = new ServiceReadinessRegistry(
+        ServiceReadinessProber.shared(), Duration.ofSeconds(TestConfigManager.getHealthCheckCacheTtl()));
+
+    private final ServiceReadinessProber prober;
+    private final long ttlNanos;
+    private final Map<String, Long> confirmedAt = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<ServiceReadinessProber.ServiceTimeline>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "readiness-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ServiceReadinessRegistry(ServiceReadinessProber prober, Duration ttl) {
+        this.prober = prober;
+        this.ttlNanos = ttl.toNanos();
+        long refreshMillis = Math.max(1, ttl.toMillis() / 2);
+        refresher.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static ServiceReadinessRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isConfirmed(String baseUrl) {
+        Long confirmed = confirmedAt.get(baseUrl);
+        return confirmed != null && System.nanoTime() - confirmed < ttlNanos;
+    }
+
+    /**
+     * Completes with true once the service is healthy, or false when the timeout
+     * passes first. Completes immediately while an earlier confirmation is within the TTL.
+     */
+    public CompletableFuture<Boolean> whenReady(String service, String baseUrl, Duration timeout) {
+        if (isConfirmed(baseUrl)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<ServiceReadinessProber.ServiceTimeline> probe = inFlight.computeIfAbsent(baseUrl, url ->
+            prober.probeUntilReady(service, url, timeout).whenComplete((timeline, error) -> {
+                if (timeline != null && timeline.isReady()) {
+                    confirmedAt.put(url, System.nanoTime());
+                }
+                log.info("Readiness probe {}", timeline);
+            }));
+        probe.whenComplete((timeline, error) -> inFlight.remove(baseUrl, probe));
+        return probe.handle((timeline, error) -> isConfirmed(baseUrl));
+    }
+
+    public boolean awaitReady(String service, String baseUrl, Duration timeout) {
+        try {
+            return whenReady(service, baseUrl, timeout).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /** Drops a confirmation, e.g. after a test deliberately took a service down. */
+    public void invalidate(String baseUrl) {
+        confirmedAt.remove(baseUrl);
+    }
+
+    private void refresh() {
+        for (String baseUrl : confirmedAt.keySet()) {
+            try {
+                if (prober.isReady(baseUrl).get(ttlNanos, TimeUnit.NANOSECONDS)) {
+                    confirmedAt.put(baseUrl, System.nanoTime());
+                } else {
+                    confirmedAt.remove(baseUrl);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                confirmedAt.remove(baseUrl);
+            }
+        }
+    }
+}
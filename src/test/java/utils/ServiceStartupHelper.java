@@ -2,104 +2,35 @@ package utils;
 
 import config.TestConfigManager;
 import config.MicroservicesConfig;
-import com.microsoft.playwright.Playwright;
-import com.microsoft.playwright.APIRequestContext;
-import com.microsoft.playwright.APIResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ServiceStartupHelper {
-    private static Playwright playwright;
-    private static APIRequestContext apiContext;
-    
-    private static void initializePlaywright() {
-        if (playwright == null) {
-            playwright = Playwright.create();
-            apiContext = playwright.request().newContext();
-        }
-    }
-
+    private static final Logger log = LoggerFactory.getLogger(ServiceStartupHelper.class);
     public static boolean waitForAllServices() {
-        System.out.println("Waiting for all microservices to be ready...");
-        
-        initializePlaywright();
+        log.info("Waiting for all microservices to be ready...");
         
-        String[] serviceUrls = {
-            MicroservicesConfig.getServiceRegistryUrl(),
-            MicroservicesConfig.getOpcUaServiceUrl(),
-            MicroservicesConfig.getReadDataServiceUrl(),
-            MicroservicesConfig.getKafkaServiceUrl(),
-            MicroservicesConfig.getWriteDataServiceUrl()
-        };
+        Map<String, String> services = new LinkedHashMap<>();
+        services.put("serviceregistry", MicroservicesConfig.getServiceRegistryUrl());
+        services.put("opcconnection", MicroservicesConfig.getOpcUaServiceUrl());
+        services.put("readdata", MicroservicesConfig.getReadDataServiceUrl());
+        services.put("kafka", MicroservicesConfig.getKafkaServiceUrl());
+        services.put("writedata", MicroservicesConfig.getWriteDataServiceUrl());
         
-        int timeoutSeconds = TestConfigManager.getRealServicesWaitTimeout();
-        int checkIntervalSeconds = TestConfigManager.getRealServicesCheckInterval();
+        // All services are probed in parallel, each with its own backoff
+        ServiceReadinessProber.ReadinessReport report = ServiceReadinessProber.shared()
+            .awaitReady(services, Duration.ofSeconds(TestConfigManager.getRealServicesWaitTimeout()));
+        log.info("{}", report.toString().trim());
         
-        Instant startTime = Instant.now();
-        
-        while (Duration.between(startTime, Instant.now()).getSeconds() < timeoutSeconds) {
-            boolean allServicesReady = true;
-            
-            for (String serviceUrl : serviceUrls) {
-                if (!isServiceReady(serviceUrl)) {
-                    allServicesReady = false;
-                    break;
-                }
-            }
-            
-            if (allServicesReady) {
-                System.out.println("✅ All services are ready!");
-                return true;
-            }
-            
-            try {
-                TimeUnit.SECONDS.sleep(checkIntervalSeconds);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("Service startup check interrupted");
-                return false;
-            }
+        if (report.isAllReady()) {
+            log.info("✅ All services are ready!");
+            return true;
         }
-        
-        System.err.println("ERROR: Timeout waiting for services to be ready");
+        log.error("Timeout waiting for services to be ready");
         return false;
     }
-    
-    private static boolean isServiceReady(String serviceUrl) {
-        try {
-            initializePlaywright();
-            
-            // Try health check endpoint first
-            String healthUrl = serviceUrl + "/actuator/health";
-            APIResponse response = apiContext.get(healthUrl);
-            
-            if (response.status() == 200) {
-                System.out.println("✅ Service ready: " + serviceUrl);
-                return true;
-            }
-            
-            // If health check fails, try basic connectivity
-            response = apiContext.get(serviceUrl);
-            if (response.status() < 500) { // Any response other than server error
-                System.out.println("SUCCESS: Service reachable: " + serviceUrl);
-                return true;
-            }
-            
-        } catch (Exception e) {
-            System.out.println("WAITING: Service not ready: " + serviceUrl + " - " + e.getMessage());
-        }
-        
-        return false;
-    }
-    
-    public static void cleanup() {
-        if (apiContext != null) {
-            apiContext.dispose();
-        }
-        if (playwright != null) {
-            playwright.close();
-        }
-    }
-}
\ No newline at end of file
+}
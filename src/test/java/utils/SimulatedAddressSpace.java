@@ -0,0 +1,508 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.TestConfigManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory OPC UA address space backing the mock read/write/browse endpoints.
+ *
+ * <p>Nodes come from a seed file ({@code nodeId|parentNodeId|browseName|dataType|initialValue},
+ * one per line) plus optionally a number of generated Double tags
+ * ({@code ns=4;i=1} .. {@code ns=4;i=N}) under {@code ns=4;s=Simulation}, grouped
+ * {@value #GROUP_SIZE} to a folder. The shape of the space is fixed once loaded;
+ * only values change. Values live in primitive arrays indexed by node ordinal
+ * (numbers and booleans as raw bits, strings and arbitrary JSON in a reference
+ * array for the seeded nodes), guarded by a fixed set of striped locks with
+ * optimistic reads, so a million generated tags cost two longs each and
+ * readers rarely block. Generated tags are never materialized as objects:
+ * their node ids are parsed back to ordinals and their browse entries are built
+ * on demand.
+ */
+public final class SimulatedAddressSpace {
+    public static final String GENERATED_ROOT = "ns=4;s=Simulation";
+    public static final int GROUP_SIZE = 1000;
+
+    private static final String GENERATED_PREFIX = "ns=4;i=";
+    private static final String GROUP_PREFIX = GENERATED_ROOT + ".Group";
+    private static final String OBJECTS_FOLDER = "ns=0;i=85";
+    private static final int STRIPES = 64;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Seeded nodes and generated group folders: ordinals [0, namedCount)
+    private final String[] nodeIds;
+    private final String[] names;
+    private final DataType[] types;
+    private final int[][] children;
+    private final Map<String, Integer> index;
+    private final int namedCount;
+    private final int firstGroup;
+
+    // Generated tags: ordinals [namedCount, namedCount + generatedCount)
+    private final int generatedCount;
+
+    private final long[] bits;
+    private final Object[] refs;
+    private final long[] sourceTimestamps;
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    private SimulatedAddressSpace(List<SeedNode> seed, int generatedTags) {
+        long now = System.currentTimeMillis();
+        List<SeedNode> nodes = new ArrayList<>(seed);
+        int groups = (generatedTags + GROUP_SIZE - 1) / GROUP_SIZE;
+        if (generatedTags > 0 && nodes.stream().noneMatch(node -> node.nodeId.equals(GENERATED_ROOT))) {
+            nodes.add(new SeedNode(GENERATED_ROOT, OBJECTS_FOLDER, "Simulation", DataType.OBJECT, null));
+        }
+        firstGroup = nodes.size();
+        for (int group = 0; group < groups; group++) {
+            nodes.add(new SeedNode(GROUP_PREFIX + group, GENERATED_ROOT, "Group" + group, DataType.OBJECT, null));
+        }
+
+        namedCount = nodes.size();
+        generatedCount = generatedTags;
+        nodeIds = new String[namedCount];
+        names = new String[namedCount];
+        types = new DataType[namedCount];
+        refs = new Object[namedCount];
+        bits = new long[namedCount + generatedCount];
+        sourceTimestamps = new long[namedCount + generatedCount];
+        Arrays.fill(sourceTimestamps, now);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < namedCount; ordinal++) {
+            SeedNode node = nodes.get(ordinal);
+            if (ordinals.put(node.nodeId, ordinal) != null) {
+                throw new IllegalArgumentException("Duplicate node in address space: " + node.nodeId);
+            }
+            nodeIds[ordinal] = node.nodeId;
+            names[ordinal] = node.browseName;
+            types[ordinal] = node.dataType;
+            store(ordinal, node.dataType, node.initialValue);
+        }
+        index = Collections.unmodifiableMap(ordinals);
+
+        List<List<Integer>> childLists = new ArrayList<>();
+        for (int ordinal = 0; ordinal < namedCount; ordinal++) {
+            childLists.add(new ArrayList<>());
+        }
+        for (int ordinal = 0; ordinal < namedCount; ordinal++) {
+            String parent = nodes.get(ordinal).parentNodeId;
+            if (parent == null) {
+                continue;
+            }
+            Integer parentOrdinal = ordinals.get(parent);
+            if (parentOrdinal == null) {
+                throw new IllegalArgumentException("Unknown parent " + parent + " of node " + nodeIds[ordinal]);
+            }
+            childLists.get(parentOrdinal).add(ordinal);
+        }
+        children = new int[namedCount][];
+        for (int ordinal = 0; ordinal < namedCount; ordinal++) {
+            children[ordinal] = childLists.get(ordinal).stream().mapToInt(Integer::intValue).toArray();
+        }
+        for (int tag = 0; tag < generatedCount; tag++) {
+            bits[namedCount + tag] = Double.doubleToRawLongBits(tag + 1);
+        }
+    }
+
+    /** Address space seeded from {@code mock.address.space.seed} plus {@code mock.address.space.generated.tags} tags. */
+    public static SimulatedAddressSpace fromConfig() {
+        String resource = TestConfigManager.getMockAddressSpaceSeed();
+        try (InputStream input = SimulatedAddressSpace.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new RuntimeException("Address space seed not found on classpath: " + resource);
+            }
+            return load(input, TestConfigManager.getMockAddressSpaceGeneratedTags());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load address space seed " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static SimulatedAddressSpace load(InputStream seed, int generatedTags) throws IOException {
+        List<SeedNode> nodes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(seed, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\|", -1);
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected nodeId|parentNodeId|browseName|dataType|initialValue");
+            }
+            DataType type = DataType.parse(fields[3].trim());
+            nodes.add(new SeedNode(fields[0].trim(), fields[1].trim().isEmpty() ? null : fields[1].trim(),
+                fields[2].trim(), type, type.parseInitial(fields[4].trim())));
+        }
+        return new SimulatedAddressSpace(nodes, generatedTags);
+    }
+
+    public int size() {
+        return namedCount + generatedCount;
+    }
+
+    /** Number of generated Double tags, {@code ns=4;i=1} .. {@code ns=4;i=N}. */
+    public int getGeneratedTagCount() {
+        return generatedCount;
+    }
+
+    public boolean contains(String nodeId) {
+        return ordinalOf(nodeId) >= 0;
+    }
+
+    /** Current value of a node, or null if the node doesn't exist. */
+    public DataValue read(String nodeId) {
+        int ordinal = ordinalOf(nodeId);
+        if (ordinal < 0) {
+            return null;
+        }
+        DataType type = typeOf(ordinal);
+        StampedLock lock = stripe(ordinal);
+        long stamp = lock.tryOptimisticRead();
+        Object value = load(ordinal, type);
+        long timestamp = sourceTimestamps[ordinal];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = load(ordinal, type);
+                timestamp = sourceTimestamps[ordinal];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return new DataValue(value, type, timestamp);
+    }
+
+    public StatusCode write(String nodeId, Object value) {
+        int ordinal = ordinalOf(nodeId);
+        if (ordinal < 0) {
+            return StatusCode.BAD_NODE_ID_UNKNOWN;
+        }
+        DataType type = typeOf(ordinal);
+        if (!type.accepts(value)) {
+            return StatusCode.BAD_TYPE_MISMATCH;
+        }
+        StampedLock lock = stripe(ordinal);
+        long stamp = lock.writeLock();
+        try {
+            store(ordinal, type, value);
+            sourceTimestamps[ordinal] = System.currentTimeMillis();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return StatusCode.GOOD;
+    }
+
+    /** Direct children of a node, or null if the node doesn't exist. */
+    public List<NodeRef> browse(String nodeId) {
+        int ordinal = ordinalOf(nodeId);
+        if (ordinal < 0) {
+            return null;
+        }
+        if (ordinal >= namedCount) {
+            return Collections.emptyList();
+        }
+        List<NodeRef> refs = new ArrayList<>();
+        for (int child : children[ordinal]) {
+            refs.add(new NodeRef(nodeIds[child], names[child], types[child]));
+        }
+        if (isGroup(ordinal)) {
+            int first = (ordinal - firstGroup) * GROUP_SIZE;
+            int last = Math.min(first + GROUP_SIZE, generatedCount);
+            for (int tag = first; tag < last; tag++) {
+                refs.add(new NodeRef(GENERATED_PREFIX + (tag + 1), "Tag" + (tag + 1), DataType.DOUBLE));
+            }
+        }
+        return refs;
+    }
+
+    /**
+     * Values of the nodes below (and including) the starting node that hold a
+     * value, depth first, up to {@code limit} entries. Null if the node doesn't exist.
+     */
+    public SubtreeValues readSubtree(String startNodeId, int limit) {
+        int start = ordinalOf(startNodeId);
+        if (start < 0) {
+            return null;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        boolean complete = collect(start, startNodeId, limit, values);
+        return new SubtreeValues(values, !complete);
+    }
+
+    private boolean collect(int ordinal, String nodeId, int limit, Map<String, Object> values) {
+        DataValue value = read(nodeId);
+        if (value.getValue() != null || value.getDataType() != DataType.OBJECT) {
+            if (values.size() >= limit) {
+                return false;
+            }
+            values.put(nodeId, value.getValue());
+        }
+        if (ordinal >= namedCount) {
+            return true;
+        }
+        for (NodeRef child : browse(nodeId)) {
+            if (!collect(ordinalOf(child.getNodeId()), child.getNodeId(), limit, values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ================= Storage =================
+
+    private int ordinalOf(String nodeId) {
+        if (nodeId == null) {
+            return -1;
+        }
+        Integer named = index.get(nodeId);
+        if (named != null) {
+            return named;
+        }
+        if (generatedCount == 0 || !nodeId.startsWith(GENERATED_PREFIX)) {
+            return -1;
+        }
+        try {
+            int tag = Integer.parseInt(nodeId, GENERATED_PREFIX.length(), nodeId.length(), 10);
+            return tag >= 1 && tag <= generatedCount ? namedCount + tag - 1 : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private DataType typeOf(int ordinal) {
+        return ordinal < namedCount ? types[ordinal] : DataType.DOUBLE;
+    }
+
+    private boolean isGroup(int ordinal) {
+        return ordinal >= firstGroup && ordinal < namedCount;
+    }
+
+    private StampedLock stripe(int ordinal) {
+        return stripes[ordinal & (STRIPES - 1)];
+    }
+
+    private Object load(int ordinal, DataType type) {
+        long raw = bits[ordinal];
+        switch (type) {
+            case BOOLEAN:
+                return raw != 0;
+            case INT32:
+                return (int) raw;
+            case INT64:
+                return raw;
+            case DOUBLE:
+                return Double.longBitsToDouble(raw);
+            default:
+                return refs[ordinal];
+        }
+    }
+
+    private void store(int ordinal, DataType type, Object value) {
+        switch (type) {
+            case BOOLEAN:
+                bits[ordinal] = Boolean.TRUE.equals(value) ? 1 : 0;
+                break;
+            case INT32:
+            case INT64:
+                bits[ordinal] = value != null ? ((Number) value).longValue() : 0;
+                break;
+            case DOUBLE:
+                bits[ordinal] = Double.doubleToRawLongBits(value != null ? ((Number) value).doubleValue() : 0);
+                break;
+            default:
+                refs[ordinal] = value;
+        }
+    }
+
+    // ================= Inner Classes =================
+
+    public enum DataType {
+        OBJECT("Object"),
+        BOOLEAN("Boolean"),
+        INT32("Int32"),
+        INT64("Int64"),
+        DOUBLE("Double"),
+        STRING("String");
+
+        private final String displayName;
+
+        DataType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        static DataType parse(String name) {
+            for (DataType type : values()) {
+                if (type.displayName.equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown data type: " + name);
+        }
+
+        boolean accepts(Object value) {
+            switch (this) {
+                case BOOLEAN:
+                    return value instanceof Boolean;
+                case INT32:
+                    return isIntegral(value) && ((Number) value).longValue() == ((Number) value).intValue();
+                case INT64:
+                    return isIntegral(value);
+                case DOUBLE:
+                    return value instanceof Number;
+                case STRING:
+                    return value == null || value instanceof String;
+                default:
+                    return true;
+            }
+        }
+
+        Object parseInitial(String text) {
+            if (text.isEmpty()) {
+                return this == STRING || this == OBJECT ? null : parseInitial(this == BOOLEAN ? "false" : "0");
+            }
+            switch (this) {
+                case BOOLEAN:
+                    return Boolean.parseBoolean(text);
+                case INT32:
+                    return Integer.parseInt(text);
+                case INT64:
+                    return Long.parseLong(text);
+                case DOUBLE:
+                    return Double.parseDouble(text);
+                case STRING:
+                    return text;
+                default:
+                    try {
+                        return MAPPER.readValue(text, Object.class);
+                    } catch (IOException e) {
+                        return text;
+                    }
+            }
+        }
+
+        private static boolean isIntegral(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+    }
+
+    public enum StatusCode {
+        GOOD("Good"),
+        BAD_NODE_ID_UNKNOWN("BadNodeIdUnknown"),
+        BAD_TYPE_MISMATCH("BadTypeMismatch");
+
+        private final String displayName;
+
+        StatusCode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public static final class DataValue {
+        private final Object value;
+        private final DataType dataType;
+        private final long sourceTimestamp;
+
+        DataValue(Object value, DataType dataType, long sourceTimestamp) {
+            this.value = value;
+            this.dataType = dataType;
+            this.sourceTimestamp = sourceTimestamp;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public DataType getDataType() {
+            return dataType;
+        }
+
+        public long getSourceTimestamp() {
+            return sourceTimestamp;
+        }
+    }
+
+    public static final class NodeRef {
+        private final String nodeId;
+        private final String name;
+        private final DataType dataType;
+
+        NodeRef(String nodeId, String name, DataType dataType) {
+            this.nodeId = nodeId;
+            this.name = name;
+            this.dataType = dataType;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataType getDataType() {
+            return dataType;
+        }
+    }
+
+    public static final class SubtreeValues {
+        private final Map<String, Object> values;
+        private final boolean truncated;
+
+        SubtreeValues(Map<String, Object> values, boolean truncated) {
+            this.values = values;
+            this.truncated = truncated;
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+
+    private static final class SeedNode {
+        private final String nodeId;
+        private final String parentNodeId;
+        private final String browseName;
+        private final DataType dataType;
+        private final Object initialValue;
+
+        SeedNode(String nodeId, String parentNodeId, String browseName, DataType dataType, Object initialValue) {
+            this.nodeId = nodeId;
+            this.parentNodeId = parentNodeId;
+            this.browseName = browseName;
+            this.dataType = dataType;
+            this.initialValue = initialValue;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+public class SimulatedAddressSpaceTest {
+    private static final String SEED = String.join("\n",
+        "# nodeId|parentNodeId|browseName|dataType|initialValue",
+        "ns=0;i=85||Objects|Object|",
+        "ns=3;s=Line|ns=0;i=85|Line|Object|",
+        "ns=3;s=Line.Running|ns=3;s=Line|Running|Boolean|true",
+        "ns=3;s=Line.Count|ns=3;s=Line|Count|Int32|7",
+        "ns=3;s=Line.Speed|ns=3;s=Line|Speed|Double|1.5",
+        "ns=3;s=Line.State|ns=3;s=Line|State|String|IDLE",
+        "");
+
+    @Test
+    public void testSeedHierarchyAndInitialValues() throws Exception {
+        SimulatedAddressSpace space = load(0);
+
+        List<String> children = space.browse("ns=3;s=Line").stream()
+            .map(SimulatedAddressSpace.NodeRef::getNodeId)
+            .collect(Collectors.toList());
+        assertEquals(children, List.of("ns=3;s=Line.Running", "ns=3;s=Line.Count", "ns=3;s=Line.Speed", "ns=3;s=Line.State"));
+        assertEquals(space.read("ns=3;s=Line.Running").getValue(), true);
+        assertEquals(space.read("ns=3;s=Line.Count").getValue(), 7);
+        assertEquals(space.read("ns=3;s=Line.Speed").getValue(), 1.5);
+        assertEquals(space.read("ns=3;s=Line.State").getDataType(), SimulatedAddressSpace.DataType.STRING);
+        assertNull(space.read("ns=9;s=Missing"));
+        assertNull(space.browse("ns=9;s=Missing"));
+    }
+
+    @Test
+    public void testReadAfterWriteAndTypeChecks() throws Exception {
+        SimulatedAddressSpace space = load(0);
+
+        assertEquals(space.write("ns=3;s=Line.Count", 42), SimulatedAddressSpace.StatusCode.GOOD);
+        assertEquals(space.write("ns=3;s=Line.State", "RUNNING"), SimulatedAddressSpace.StatusCode.GOOD);
+        assertEquals(space.read("ns=3;s=Line.Count").getValue(), 42);
+        assertEquals(space.read("ns=3;s=Line.State").getValue(), "RUNNING");
+
+        assertEquals(space.write("ns=3;s=Line.Count", "forty-two"), SimulatedAddressSpace.StatusCode.BAD_TYPE_MISMATCH);
+        assertEquals(space.write("ns=3;s=Line.Count", 1L << 40), SimulatedAddressSpace.StatusCode.BAD_TYPE_MISMATCH);
+        assertEquals(space.write("ns=3;s=Line.Running", 1), SimulatedAddressSpace.StatusCode.BAD_TYPE_MISMATCH);
+        assertEquals(space.write("ns=9;s=Missing", 1), SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN);
+        assertEquals(space.read("ns=3;s=Line.Count").getValue(), 42);
+    }
+
+    @Test
+    public void testMillionGeneratedTags() throws Exception {
+        SimulatedAddressSpace space = load(1_000_000);
+
+        assertTrue(space.size() > 1_000_000);
+        assertEquals(space.read("ns=4;i=1000000").getValue(), 1_000_000.0);
+        assertNull(space.read("ns=4;i=1000001"));
+        assertEquals(space.browse(SimulatedAddressSpace.GENERATED_ROOT).size(), 1000);
+
+        List<SimulatedAddressSpace.NodeRef> lastGroup = space.browse(SimulatedAddressSpace.GENERATED_ROOT + ".Group999");
+        assertEquals(lastGroup.size(), SimulatedAddressSpace.GROUP_SIZE);
+        assertEquals(lastGroup.get(lastGroup.size() - 1).getNodeId(), "ns=4;i=1000000");
+
+        assertEquals(space.write("ns=4;i=500000", 3.25), SimulatedAddressSpace.StatusCode.GOOD);
+        assertEquals(space.read("ns=4;i=500000").getValue(), 3.25);
+    }
+
+    @Test
+    public void testSubtreeReadIsBounded() throws Exception {
+        SimulatedAddressSpace space = load(5000);
+
+        SimulatedAddressSpace.SubtreeValues line = space.readSubtree("ns=3;s=Line", 100);
+        assertEquals(line.getValues().size(), 4);
+        assertFalse(line.isTruncated());
+
+        SimulatedAddressSpace.SubtreeValues generated = space.readSubtree(SimulatedAddressSpace.GENERATED_ROOT, 1500);
+        assertEquals(generated.getValues().size(), 1500);
+        assertTrue(generated.isTruncated());
+        assertNull(space.readSubtree("ns=9;s=Missing", 10));
+    }
+
+    @Test
+    public void testConcurrentWritersKeepEveryTagConsistent() throws Exception {
+        SimulatedAddressSpace space = load(10_000);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                int offset = writer;
+                writers.add(pool.submit(() -> {
+                    for (int tag = 1 + offset; tag <= 10_000; tag += 4) {
+                        assertEquals(space.write("ns=4;i=" + tag, tag * 2.0), SimulatedAddressSpace.StatusCode.GOOD);
+                        assertEquals(space.read("ns=4;i=" + tag).getValue(), tag * 2.0);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        for (int tag = 1; tag <= 10_000; tag++) {
+            assertEquals(space.read("ns=4;i=" + tag).getValue(), tag * 2.0);
+        }
+    }
+
+    private static SimulatedAddressSpace load(int generatedTags) throws Exception {
+        try (InputStream seed = new ByteArrayInputStream(SEED.getBytes(StandardCharsets.UTF_8))) {
+            return SimulatedAddressSpace.load(seed, generatedTags);
+        }
+    }
+}
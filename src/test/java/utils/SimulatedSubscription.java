@@ -0,0 +1,194 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Server-sent event stream of simulated tag value changes at a fixed rate.
+ *
+ * <p>Every update writes a new value (its sequence number) into the
+ * {@link SimulatedAddressSpace} and emits one event:
+ * <pre>
+ * id: 42
+ * data: {"seq":42,"nodeId":"ns=4;i=42","value":42.0,"sentAt":1792289875310123}
+ * </pre>
+ * where {@code sentAt} is the epoch time in microseconds at which the update was
+ * produced, so the consumer can measure end-to-end latency. Updates cycle over
+ * the subscribed nodes. The producer works in 1ms ticks: each tick it emits
+ * every update that is due by then, writes them in one chunk and flushes, so
+ * 100k updates/s cost a thousand writes per second, not a hundred thousand. A
+ * slow consumer pushes back through TCP; the producer then falls behind and
+ * catches up in bursts, which shows up as latency on the consumer side. With a
+ * {@code dropRate} some sequence numbers are skipped, simulating notifications
+ * lost in the server's queue. The stream ends with
+ * {@code event: end / data: {"lastSeq":N,"sent":M}}.
+ */
+public final class SimulatedSubscription implements StreamingResponseBody {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SimulatedAddressSpace addressSpace;
+    private final String[] nodeIds;
+    private final byte[][] nodeIdJson;
+    private final SimulatedAddressSpace.DataType[] types;
+    private final long updatesPerSecond;
+    private final long durationNanos;
+    private final double dropRate;
+
+    /** All nodes must exist and hold a numeric value; see {@link #isStreamable}. */
+    public SimulatedSubscription(SimulatedAddressSpace addressSpace, List<String> nodeIds, long updatesPerSecond,
+                                 long durationMillis, double dropRate) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A subscription needs at least one node");
+        }
+        if (updatesPerSecond <= 0 || durationMillis <= 0) {
+            throw new IllegalArgumentException("rate and duration must be positive");
+        }
+        if (dropRate < 0 || dropRate >= 1) {
+            throw new IllegalArgumentException("dropRate must be within [0, 1): " + dropRate);
+        }
+        this.addressSpace = addressSpace;
+        this.nodeIds = nodeIds.toArray(new String[0]);
+        this.nodeIdJson = new byte[this.nodeIds.length][];
+        this.types = new SimulatedAddressSpace.DataType[this.nodeIds.length];
+        for (int i = 0; i < this.nodeIds.length; i++) {
+            SimulatedAddressSpace.DataValue value = addressSpace.read(this.nodeIds[i]);
+            if (value == null || !isStreamable(value.getDataType())) {
+                throw new IllegalArgumentException("Not a numeric node: " + this.nodeIds[i]);
+            }
+            types[i] = value.getDataType();
+            try {
+                nodeIdJson[i] = MAPPER.writeValueAsBytes(this.nodeIds[i]);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize node id " + this.nodeIds[i] + ": " + e.getMessage(), e);
+            }
+        }
+        this.updatesPerSecond = updatesPerSecond;
+        this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        this.dropRate = dropRate;
+    }
+
+    public static boolean isStreamable(SimulatedAddressSpace.DataType type) {
+        return type == SimulatedAddressSpace.DataType.DOUBLE
+            || type == SimulatedAddressSpace.DataType.INT32
+            || type == SimulatedAddressSpace.DataType.INT64;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        EventBuffer buffer = new EventBuffer();
+        long start = System.nanoTime();
+        long seq = 0;
+        long sent = 0;
+        while (true) {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= durationNanos) {
+                break;
+            }
+            long due = (long) (elapsed / 1e9 * updatesPerSecond);
+            while (seq < due) {
+                seq++;
+                int node = (int) ((seq - 1) % nodeIds.length);
+                Number value = update(node, seq);
+                if (dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate) {
+                    continue;
+                }
+                buffer.event(seq, nodeIdJson[node], value, EventFields.epochMicros());
+                sent++;
+            }
+            if (buffer.size() > 0) {
+                buffer.writeTo(out);
+                out.flush();
+            }
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+        buffer.end(seq, sent);
+        buffer.writeTo(out);
+        out.flush();
+    }
+
+    private Number update(int node, long seq) {
+        Number value;
+        switch (types[node]) {
+            case DOUBLE:
+                value = (double) seq;
+                break;
+            case INT32:
+                value = (int) (seq & Integer.MAX_VALUE);
+                break;
+            default:
+                value = seq;
+        }
+        addressSpace.write(nodeIds[node], value);
+        return value;
+    }
+
+    /** Growable ASCII buffer the events of one tick are assembled in. */
+    private static final class EventBuffer {
+        private static final byte[] ID = "id: ".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SEQ = "\ndata: {\"seq\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NODE_ID = ",\"nodeId\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] VALUE = ",\"value\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SENT_AT = ",\"sentAt\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] EVENT_END = "}\n\n".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] bytes = new byte[64 * 1024];
+        private int size;
+
+        void event(long seq, byte[] nodeIdJson, Number value, long sentAtMicros) {
+            append(ID);
+            append(Long.toString(seq));
+            append(SEQ);
+            append(Long.toString(seq));
+            append(NODE_ID);
+            append(nodeIdJson);
+            append(VALUE);
+            append(value.toString());
+            append(SENT_AT);
+            append(Long.toString(sentAtMicros));
+            append(EVENT_END);
+        }
+
+        void end(long lastSeq, long sent) {
+            append("event: end\ndata: {\"lastSeq\":" + lastSeq + ",\"sent\":" + sent + "}\n\n");
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+            size = 0;
+        }
+
+        private void append(String ascii) {
+            ensure(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) {
+                bytes[size++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        private void append(byte[] chunk) {
+            ensure(chunk.length);
+            System.arraycopy(chunk, 0, bytes, size, chunk.length);
+            size += chunk.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
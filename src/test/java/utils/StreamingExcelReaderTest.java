@@ -0,0 +1,132 @@
+package utils;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class StreamingExcelReaderTest {
+    private final List<File> files = new ArrayList<>();
+
+    @AfterClass(alwaysRun = true)
+    public void deleteFiles() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRowsMatchTheInMemoryReader() throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("ignored");
+        Sheet sheet = workbook.createSheet("Tags");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("nodeId");
+        header.createCell(1).setCellValue("value");
+        header.createCell(2).setCellValue("enabled");
+        header.createCell(3).setCellValue("note");
+        Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("ns=4;i=1");
+        first.createCell(1).setCellValue(42);
+        first.createCell(2).setCellValue(true);
+        first.createCell(3).setCellValue("ns=4;i=1");
+        // Sparse row: the second column is missing, so references decide the column
+        Row second = sheet.createRow(2);
+        second.createCell(0).setCellValue("ns=4;i=2");
+        second.createCell(2).setCellValue(false);
+        File file = write(workbook);
+
+        ExcelReader inMemory = new ExcelReader(file.getPath());
+        inMemory.setSheet("Tags");
+        List<Map<String, String>> expected = inMemory.getDataAsMap();
+        inMemory.close();
+        List<Map<String, String>> streamed = new ArrayList<>();
+        try (StreamingExcelReader reader = ExcelReader.stream(file.getPath(), "Tags")) {
+            assertEquals(reader.getHeaders(), List.of("nodeId", "value", "enabled", "note"));
+            assertEquals(reader.getColumnIndex("enabled"), 2);
+            reader.forEachRemaining(streamed::add);
+        }
+
+        assertEquals(streamed, expected);
+        assertEquals(streamed.get(1).get("value"), "");
+        assertEquals(streamed.get(1).get("enabled"), "false");
+    }
+
+    @Test
+    public void testLargeSheetStreamsIntoDataProvider() throws IOException {
+        // SXSSF writes inline strings and keeps only a window of rows, like the sheets exported by our tooling
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        Sheet sheet = workbook.createSheet("Data");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("nodeId");
+        header.createCell(1).setCellValue("value");
+        header.createCell(2).setCellValue("unit");
+        int rows = 50_000;
+        for (int i = 1; i <= rows; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("ns=4;i=" + i);
+            row.createCell(1).setCellValue(i * 0.25);
+            row.createCell(2).setCellValue(i % 2 == 0 ? "bar" : "\u00b0C");
+        }
+        File file = write(workbook);
+        workbook.dispose();
+
+        StreamingExcelReader reader = new StreamingExcelReader(file.getPath(), 0);
+        Iterator<Object[]> provider = reader.asDataProvider();
+        int count = 0;
+        Map<String, String> last = null;
+        while (provider.hasNext()) {
+            Object[] parameters = provider.next();
+            assertEquals(parameters.length, 1);
+            @SuppressWarnings("unchecked")
+            Map<String, String> row = (Map<String, String>) parameters[0];
+            last = row;
+            count++;
+        }
+
+        assertEquals(count, rows);
+        assertEquals(reader.getRowCount(), rows);
+        assertEquals(last.get("nodeId"), "ns=4;i=" + rows);
+        assertEquals(last.get("value"), "12500");
+        assertEquals(last.get("unit"), "bar");
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testUnknownSheetAndColumnAreReported() throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        workbook.createSheet("Tags").createRow(0).createCell(0).setCellValue("nodeId");
+        File file = write(workbook);
+
+        RuntimeException sheet = expectThrows(RuntimeException.class, () -> new StreamingExcelReader(file.getPath(), "Missing"));
+        assertEquals(sheet.getMessage(), "Sheet 'Missing' not found");
+        try (StreamingExcelReader reader = new StreamingExcelReader(file.getPath(), "Tags")) {
+            assertFalse(reader.hasNext());
+            RuntimeException column = expectThrows(RuntimeException.class, () -> reader.getColumnIndex("value"));
+            assertEquals(column.getMessage(), "Column 'value' not found");
+        }
+    }
+
+    private File write(Workbook workbook) throws IOException {
+        File file = File.createTempFile("streaming-excel", ".xlsx");
+        files.add(file);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        return file;
+    }
+}
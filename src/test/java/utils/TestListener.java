@@ -1,46 +1,48 @@
 package utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.testng.ITestContext;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.Status;
 
 public class TestListener implements ITestListener {
+    private static final Logger log = LoggerFactory.getLogger(TestListener.class);
     
     @Override
     public void onTestStart(ITestResult result) {
-        System.out.println("Starting test: " + result.getMethod().getMethodName());
+        TestLogContext.begin(result);
+        log.info("Starting test: {}", result.getMethod().getMethodName());
     }
     
     @Override
     public void onTestSuccess(ITestResult result) {
-        System.out.println("Test passed: " + result.getMethod().getMethodName());
+        log.info("Test passed: {}", result.getMethod().getMethodName());
     }
     
     @Override
     public void onTestFailure(ITestResult result) {
-        System.out.println("Test failed: " + result.getMethod().getMethodName());
+        log.info("Test failed: {}", result.getMethod().getMethodName());
         if (result.getThrowable() != null) {
-            System.err.println("Failure reason: " + result.getThrowable().getMessage());
+            log.warn("Failure reason: {}", result.getThrowable().getMessage());
         }
     }
     
     @Override
     public void onTestSkipped(ITestResult result) {
-        System.out.println("Test skipped: " + result.getMethod().getMethodName());
+        log.info("Test skipped: {}", result.getMethod().getMethodName());
         if (result.getSkipCausedBy() != null && result.getSkipCausedBy().size() > 0) {
-            System.out.println("Skip reason: " + result.getSkipCausedBy().toString());
+            log.info("Skip reason: {}", result.getSkipCausedBy());
         }
     }
     
     @Override
     public void onStart(ITestContext context) {
-        System.out.println("Starting test suite: " + context.getName());
+        log.info("Starting test suite: {}", context.getName());
     }
     
     @Override
     public void onFinish(ITestContext context) {
-        System.out.println("Finishing test suite: " + context.getName());
+        log.info("Finishing test suite: {}", context.getName());
     }
 }
\ No newline at end of file
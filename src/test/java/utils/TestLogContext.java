@@ -0,0 +1,24 @@
+package utils;
+
+import org.slf4j.MDC;
+import org.testng.ITestResult;
+
+/**
+ * Tags log events with the test running on the current thread, through the
+ * {@code test} MDC key. Console lines show it after the logger name and the
+ * JSON log has it as a field, so output from parallel tests can be told apart.
+ */
+public final class TestLogContext {
+    public static final String TEST_KEY = "test";
+
+    private TestLogContext() {
+    }
+
+    public static void begin(ITestResult result) {
+        MDC.put(TEST_KEY, result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName());
+    }
+
+    public static void end() {
+        MDC.remove(TEST_KEY);
+    }
+}
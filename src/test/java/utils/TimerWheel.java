@@ -0,0 +1,159 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel for large numbers of short, imprecise delays.
+ *
+ * <p>Scheduling is a lock-free enqueue; a single daemon thread advances the
+ * wheel once per tick, files new timeouts into the bucket of their deadline and
+ * hands expired ones to the dispatcher. Ten thousand pending timeouts cost ten
+ * thousand small objects rather than ten thousand parked threads, at the price
+ * of firing up to one tick late. The worker thread starts on the first
+ * {@link #schedule} call.
+ */
+public final class TimerWheel {
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+    private final String name;
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int mask;
+    private final Executor dispatcher;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Thread worker;
+    private volatile boolean stopped;
+    private volatile long startNanos;
+
+    /**
+     * @param tick       resolution of the wheel
+     * @param wheelSize  number of buckets, rounded up to a power of two; delays
+     *                   longer than {@code tick * wheelSize} just go around more than once
+     * @param dispatcher runs expired tasks, so slow tasks never hold up the wheel
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String name, long tick, TimeUnit unit, int wheelSize, Executor dispatcher) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheelSize must be positive");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.name = name;
+        this.tickNanos = unit.toNanos(tick);
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.dispatcher = dispatcher;
+    }
+
+    /** Runs the task on the dispatcher once the delay has passed (rounded up to the next tick). */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer wheel " + name + " is stopped");
+        }
+        start();
+        long deadline = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        pending.incrementAndGet();
+        incoming.add(new Timeout(task, deadline));
+    }
+
+    /** Timeouts scheduled but not yet handed to the dispatcher. */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public int getWheelSize() {
+        return buckets.length;
+    }
+
+    /** Stops the worker; timeouts that have not fired yet are dropped. */
+    public void stop() {
+        stopped = true;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void start() {
+        if (worker != null) {
+            return;
+        }
+        synchronized (this) {
+            if (worker == null) {
+                startNanos = System.nanoTime();
+                Thread thread = new Thread(this::run, name);
+                thread.setDaemon(true);
+                thread.start();
+                worker = thread;
+            }
+        }
+    }
+
+    // ================= Worker =================
+
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long wait = tickNanos * (tick + 1) - (System.nanoTime() - startNanos);
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            transferIncoming(tick);
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferIncoming(long tick) {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            long due = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (due - tick) / buckets.length;
+            buckets[(int) (due & mask)].add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Timeout timeout = bucket.poll();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+                continue;
+            }
+            pending.decrementAndGet();
+            try {
+                dispatcher.execute(timeout.task);
+            } catch (RuntimeException e) {
+                log.error("Timer wheel {} could not dispatch task: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class TimerWheelTest {
+    private ExecutorService dispatcher;
+    private TimerWheel wheel;
+
+    @BeforeMethod
+    public void createWheel() {
+        dispatcher = Executors.newFixedThreadPool(2);
+        // Small wheel, so the delays below have to go around it several times
+        wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 6, dispatcher);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopWheel() {
+        wheel.stop();
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    public void testWheelSizeIsRoundedToPowerOfTwo() {
+        assertEquals(wheel.getWheelSize(), 8);
+    }
+
+    @Test
+    public void testTasksNeverFireEarly() throws Exception {
+        long[] delays = {0, 3, 20, 75};
+        ConcurrentHashMap<Long, Long> firedAfter = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(delays.length);
+        for (long delay : delays) {
+            long scheduled = System.nanoTime();
+            wheel.schedule(() -> {
+                firedAfter.put(delay, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduled));
+                done.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (long delay : delays) {
+            assertTrue(firedAfter.get(delay) >= delay, delay + "ms task fired after " + firedAfter.get(delay) + "ms");
+        }
+        assertEquals(wheel.getPendingCount(), 0);
+    }
+
+    @Test
+    public void testManyPendingTimeoutsShareOneThread() throws Exception {
+        int tasks = 10_000;
+        CountDownLatch done = new CountDownLatch(tasks);
+        int threadsBefore = Thread.activeCount();
+        for (int i = 0; i < tasks; i++) {
+            wheel.schedule(done::countDown, 50 + i % 100, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(wheel.getPendingCount() > 0);
+        assertTrue(Thread.activeCount() - threadsBefore <= 3, "Timer wheel should not add a thread per timeout");
+        assertTrue(done.await(10, TimeUnit.SECONDS), done.getCount() + " timeouts never fired");
+        assertEquals(wheel.getPendingCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testStoppedWheelRejectsTasks() {
+        wheel.stop();
+        wheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,25 +1,99 @@
 package utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.MicroservicesConfig;
 import config.TestConfigManager;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootApplication
 @RestController
 public class UnifiedMockServer {
-    private static UnifiedMockServer instance;
-    private static ConfigurableApplicationContext context;
-    private static boolean isRunning = false;
+    private static final Logger log = LoggerFactory.getLogger(UnifiedMockServer.class);
+    private static volatile UnifiedMockServer instance;
+    private static int references = 0;
     
-    // Use a single port for all mock services
-    private static final int MOCK_SERVER_PORT = 8085;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final String DEFAULT_STARTING_NODE = "ns=3;s=\"WMS TO PLC\"";
+    // Cap on readTagValuesSimplified results, so browsing a generated subtree stays bounded
+    private static final int MAX_TAG_VALUES = 10_000;
+    private static final int DEFAULT_STREAM_NODES = 100;
+    private static final long MAX_STREAM_RATE = 1_000_000;
+    private static final long MAX_STREAM_DURATION_MS = 600_000;
+    // Cap on the nodes of one readValues/writeNodes request
+    private static final int MAX_BATCH_NODES = 10_000;
+    // Cap on the paths listed per kind in a hasChanged answer; the counts are always complete
+    private static final int MAX_DIFF_PATHS = 1_000;
+    // Producer the mock Kafka service publishes processed browse data with
+    private static final String KAFKA_PRODUCER_CLIENT_ID = "kafka-service";
+    private static final String LOGGING_SYSTEM_PROPERTY = "org.springframework.boot.logging.LoggingSystem";
+    
+    private final int requestedPort;
+    private final SimulatedAddressSpace addressSpace;
+    private final Map<String, byte[]> browseCache = new ConcurrentHashMap<>();
+    private final ChangeDetector changeDetector;
+    private final FaultInjector faultInjector;
+    private ConfigurableApplicationContext context;
+    private LightweightMockServer lightweightServer;
+    private volatile boolean running;
+    private volatile int port;
+
+    /** Server on the configured {@code mock.server.port} (0 = ephemeral). */
+    public UnifiedMockServer() {
+        this(TestConfigManager.getMockServerPort());
+    }
+
+    /**
+     * Server on the given port, 0 for an ephemeral one. Instances are independent,
+     * so a class can run against its own server next to the shared one.
+     */
+    public UnifiedMockServer(int port) {
+        this(port, SimulatedAddressSpace.fromConfig(), new ChangeDetector(TestConfigManager.getMockChangeTrackedNodes()),
+            FaultInjector.fromConfig());
+    }
+
+    /**
+     * Controller bean of the Spring engine. It serves the state of the instance
+     * that started the application, registered as singletons in {@link #startSpring()},
+     * so both engines answer from the same address space, change detector and faults.
+     */
+    @Autowired
+    UnifiedMockServer(SimulatedAddressSpace mockAddressSpace, ChangeDetector mockChangeDetector, FaultInjector mockFaultInjector) {
+        this(0, mockAddressSpace, mockChangeDetector, mockFaultInjector);
+    }
+
+    private UnifiedMockServer(int port, SimulatedAddressSpace addressSpace, ChangeDetector changeDetector, FaultInjector faultInjector) {
+        this.requestedPort = port;
+        this.port = port;
+        this.addressSpace = addressSpace;
+        this.changeDetector = changeDetector;
+        this.faultInjector = faultInjector;
+    }
 
+    /** Shared suite-wide server; its bound port is published to {@link MicroservicesConfig}. */
     public static synchronized UnifiedMockServer getInstance() {
         if (instance == null) {
             instance = new UnifiedMockServer();
@@ -27,404 +101,773 @@ public class UnifiedMockServer {
         return instance;
     }
 
+    /**
+     * Takes a reference to the shared server, starting it for the first user.
+     * Every call must be paired with {@link #release()}; the server keeps running
+     * until the last reference is released, so classes finishing early in a
+     * parallel run can't stop it under the others.
+     */
+    public static synchronized UnifiedMockServer acquire() {
+        UnifiedMockServer server = getInstance();
+        if (!server.running) {
+            server.start();
+        }
+        references++;
+        return server;
+    }
+
+    /** Drops a reference taken by {@link #acquire()} and stops the server when none remain. */
+    public static synchronized void release() {
+        if (references == 0) {
+            return;
+        }
+        if (--references == 0) {
+            stopInstance();
+        }
+    }
+
+    public static synchronized int getReferenceCount() {
+        return references;
+    }
+
     public synchronized void start() {
-        if (isRunning) {
-            System.out.println("Unified mock server is already running on port " + MOCK_SERVER_PORT);
+        if (running) {
+            log.info("Unified mock server is already running on port {}", port);
             return;
         }
         
-        System.out.println("Starting unified mock server...");
+        long startNanos = System.nanoTime();
+        if (TestConfigManager.isLightweightMockServerEngine()) {
+            log.info("Starting unified mock server (lightweight engine)...");
+            try {
+                lightweightServer = new LightweightMockServer(this, requestedPort, faultInjector);
+                lightweightServer.start();
+                port = lightweightServer.getPort();
+            } catch (IOException e) {
+                lightweightServer = null;
+                throw new RuntimeException("Failed to start lightweight mock server on port " + requestedPort + ": " + e.getMessage(), e);
+            }
+        } else {
+            startSpring();
+        }
+        running = true;
+        if (this == instance) {
+            MicroservicesConfig.setMockServerPort(port);
+        }
         
-        System.setProperty("server.port", String.valueOf(MOCK_SERVER_PORT));
-        System.setProperty("spring.main.banner-mode", "off");
-        System.setProperty("logging.level.org.springframework", "WARN");
-        System.setProperty("logging.level.org.apache.catalina", "WARN");
+        String baseUrl = getBaseUrl();
+        log.info("✅ Unified mock server started successfully in {}ms!", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("All services available on: {}", baseUrl);
+        log.info("- Service Registry: {}/eureka", baseUrl);
+        log.info("- OPC UA Service: {}/opcua", baseUrl);
+        log.info("- Read Data Service: {}/read", baseUrl);
+        log.info("- Kafka Service: {}/kafka", baseUrl);
+        log.info("- Write Data Service: {}/write", baseUrl);
+    }
+
+    private void startSpring() {
+        log.info("Starting unified mock server (Spring Boot engine)...");
         
+        // Spring would re-initialize Logback from logback-test.xml, restarting the async appenders and
+        // truncating the JSON log mid-run; the test logging configuration stays in charge instead
+        if (System.getProperty(LOGGING_SYSTEM_PROPERTY) == null) {
+            System.setProperty(LOGGING_SYSTEM_PROPERTY, "none");
+        }
         SpringApplication app = new SpringApplication(UnifiedMockServer.class);
         app.setDefaultProperties(getServerProperties());
+        // The controller and filter beans answer through this instance's state, so seeding the address
+        // space or changing fault profiles at runtime applies to either engine
+        app.addInitializers(ctx -> {
+            ctx.getBeanFactory().registerSingleton("mockAddressSpace", addressSpace);
+            ctx.getBeanFactory().registerSingleton("mockChangeDetector", changeDetector);
+            ctx.getBeanFactory().registerSingleton("mockFaultInjector", faultInjector);
+        });
         context = app.run();
-        isRunning = true;
-        
-        System.out.println("✅ Unified mock server started successfully!");
-        System.out.println("All services available on: http://localhost:" + MOCK_SERVER_PORT);
-        System.out.println("- Service Registry: http://localhost:" + MOCK_SERVER_PORT + "/eureka");
-        System.out.println("- OPC UA Service: http://localhost:" + MOCK_SERVER_PORT + "/opcua");
-        System.out.println("- Read Data Service: http://localhost:" + MOCK_SERVER_PORT + "/read");
-        System.out.println("- Kafka Service: http://localhost:" + MOCK_SERVER_PORT + "/kafka");
-        System.out.println("- Write Data Service: http://localhost:" + MOCK_SERVER_PORT + "/write");
+        port = ((WebServerApplicationContext) context).getWebServer().getPort();
     }
 
     private Map<String, Object> getServerProperties() {
         Map<String, Object> props = new HashMap<>();
-        props.put("server.port", MOCK_SERVER_PORT);
+        props.put("server.port", requestedPort);
         props.put("spring.main.banner-mode", "off");
-        props.put("logging.level.org.springframework", "WARN");
-        props.put("logging.level.org.apache.catalina", "WARN");
+        // Keeps several instances in one JVM from clashing on the JMX application name
+        props.put("spring.jmx.enabled", false);
+        // Subscription streams end on their own (durationMs is capped); don't let the async timeout cut them
+        props.put("spring.mvc.async.request-timeout", MAX_STREAM_DURATION_MS + 60_000);
         return props;
     }
 
-    // ================= Service Registry APIs =================
-    
-    @GetMapping("/eureka/actuator/health")
-    public Map<String, Object> getServiceRegistryHealth() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> components = new HashMap<>();
-        Map<String, Object> eureka = new HashMap<>();
-        eureka.put("status", "UP");
-        Map<String, Object> discovery = new HashMap<>();
-        discovery.put("status", "UP");
-        components.put("eureka", eureka);
-        components.put("discoveryComposite", discovery);
-        response.put("components", components);
-        
-        return response;
+    @Bean
+    public FilterRegistrationBean<FaultInjectionFilter> faultInjectionFilter(FaultInjector mockFaultInjector) {
+        return new FilterRegistrationBean<>(new FaultInjectionFilter(mockFaultInjector));
+    }
+
+    /** Latency/error/bandwidth profiles applied to this server's routes; see {@link FaultInjector}. */
+    public FaultInjector getFaultInjector() {
+        return faultInjector;
+    }
+
+    /**
+     * Producer of the mock Kafka service, shared by every instance and engine;
+     * reconfigure it to compare batching and compression settings.
+     */
+    public static EmbeddedKafkaProducer getKafkaServiceProducer() {
+        return EmbeddedKafkaBroker.getInstance().producer(KAFKA_PRODUCER_CLIENT_ID);
     }
+
+    /** Port this instance is bound to; only final once started when an ephemeral port was requested. */
+    public int getLocalPort() {
+        return port;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    // ================= Response Templates =================
+    // Static parts of every response are serialized once; handlers only splice in the dynamic fields
+    
+    private static final ResponseTemplate SERVICE_REGISTRY_HEALTH = healthTemplate("eureka", "discoveryComposite");
+    private static final ResponseTemplate OPCUA_HEALTH = healthTemplate("opcua", "connection");
+    private static final ResponseTemplate READ_DATA_HEALTH = healthTemplate("readdata", "database");
+    private static final ResponseTemplate KAFKA_HEALTH = healthTemplate("kafka", "producer", "consumer");
+    private static final ResponseTemplate WRITE_DATA_HEALTH = healthTemplate("writedata", "database");
     
-    @GetMapping("/eureka/apps")
-    public Map<String, Object> getEurekaApps() {
-        Map<String, Object> response = new HashMap<>();
-        Map<String, Object> applications = new HashMap<>();
+    private static final ResponseTemplate EUREKA_APPS;
+    private static final ResponseTemplate CONNECTION_STATUS;
+    private static final ResponseTemplate CONNECTION_INIT;
+    private static final ResponseTemplate CONNECTION_ESTABLISHED;
+    private static final ResponseTemplate BROWSE_TAGS;
+    private static final ResponseTemplate NODE_VALUE;
+    private static final ResponseTemplate NODE_ERROR;
+    private static final ResponseTemplate TAG_VALUES;
+    private static final ResponseTemplate SUBSCRIPTION;
+    private static final ResponseTemplate BROWSE_DATA_PROCESSED;
+    private static final ResponseTemplate HAS_CHANGED;
+    private static final ResponseTemplate HAS_CHANGED_TRACKED;
+    private static final ResponseTemplate CHANGE_RESYNC;
+    private static final ResponseTemplate VARIANT_CONVERTED;
+    private static final ResponseTemplate DATA_VALUE_CONVERTED;
+    private static final ResponseTemplate VALUE_PROCESSED;
+    private static final ResponseTemplate NODE_WRITTEN;
+    private static final ResponseTemplate NODE_VALUES;
+    private static final ResponseTemplate NODES_WRITTEN;
+    private static final ResponseTemplate GENERAL_HEALTH;
+    
+    static {
+        Map<String, Object> applications = new LinkedHashMap<>();
         applications.put("versions__delta", "1");
         applications.put("apps__hashcode", "UP_1_");
         applications.put("application", new Object[0]);
-        response.put("applications", applications);
-        return response;
+        EUREKA_APPS = ResponseTemplate.compile(Map.of("applications", applications));
+        
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "Connected");
+        status.put("timestamp", ResponseTemplate.slot("timestamp"));
+        status.put("connectionId", "mock-connection-" + ResponseTemplate.slot("timestamp"));
+        CONNECTION_STATUS = ResponseTemplate.compile(status, "timestamp");
+        
+        Map<String, Object> init = new LinkedHashMap<>();
+        init.put("status", "success");
+        init.put("message", "OPC UA connection initialized");
+        init.put("timestamp", ResponseTemplate.slot("timestamp"));
+        CONNECTION_INIT = ResponseTemplate.compile(init, "timestamp");
+        
+        Map<String, Object> connected = new LinkedHashMap<>();
+        connected.put("status", "success");
+        connected.put("message", "OPC UA connection established");
+        connected.put("connectionId", "mock-connection-" + ResponseTemplate.slot("timestamp"));
+        connected.put("timestamp", ResponseTemplate.slot("timestamp"));
+        CONNECTION_ESTABLISHED = ResponseTemplate.compile(connected, "timestamp");
+        
+        Map<String, Object> browse = new LinkedHashMap<>();
+        browse.put("status", "success");
+        browse.put("startingNode", ResponseTemplate.slot("startingNode"));
+        browse.put("tags", ResponseTemplate.slot("tags"));
+        browse.put("timestamp", ResponseTemplate.slot("timestamp"));
+        BROWSE_TAGS = ResponseTemplate.compile(browse, "startingNode", "tags", "timestamp");
+        
+        Map<String, Object> nodeValue = new LinkedHashMap<>();
+        nodeValue.put("status", "success");
+        nodeValue.put("nodeId", ResponseTemplate.slot("nodeId"));
+        nodeValue.put("value", ResponseTemplate.slot("value"));
+        nodeValue.put("dataType", ResponseTemplate.slot("dataType"));
+        nodeValue.put("sourceTimestamp", ResponseTemplate.slot("sourceTimestamp"));
+        nodeValue.put("timestamp", ResponseTemplate.slot("timestamp"));
+        nodeValue.put("quality", "GOOD");
+        NODE_VALUE = ResponseTemplate.compile(nodeValue, "nodeId", "value", "dataType", "sourceTimestamp", "timestamp");
+        
+        Map<String, Object> nodeError = new LinkedHashMap<>();
+        nodeError.put("status", "error");
+        nodeError.put("nodeId", ResponseTemplate.slot("nodeId"));
+        nodeError.put("statusCode", ResponseTemplate.slot("statusCode"));
+        nodeError.put("message", ResponseTemplate.slot("message"));
+        nodeError.put("timestamp", ResponseTemplate.slot("timestamp"));
+        NODE_ERROR = ResponseTemplate.compile(nodeError, "nodeId", "statusCode", "message", "timestamp");
+        
+        Map<String, Object> tagValues = new LinkedHashMap<>();
+        tagValues.put("status", "success");
+        tagValues.put("startingNode", ResponseTemplate.slot("startingNode"));
+        tagValues.put("values", ResponseTemplate.slot("values"));
+        tagValues.put("count", ResponseTemplate.slot("count"));
+        tagValues.put("truncated", ResponseTemplate.slot("truncated"));
+        tagValues.put("timestamp", ResponseTemplate.slot("timestamp"));
+        TAG_VALUES = ResponseTemplate.compile(tagValues, "startingNode", "values", "count", "truncated", "timestamp");
+        
+        Map<String, Object> subscription = new LinkedHashMap<>();
+        subscription.put("status", "success");
+        subscription.put("message", "Successfully subscribed to data updates");
+        subscription.put("subscriptionId", "mock-subscription-" + ResponseTemplate.slot("timestamp"));
+        subscription.put("streamPath", "/read/api/read/subscriptionStream");
+        subscription.put("timestamp", ResponseTemplate.slot("timestamp"));
+        SUBSCRIPTION = ResponseTemplate.compile(subscription, "timestamp");
+        
+        Map<String, Object> processed = new LinkedHashMap<>();
+        processed.put("status", "success");
+        processed.put("nodeId", ResponseTemplate.slot("nodeId"));
+        processed.put("browseData", ResponseTemplate.slot("browseData"));
+        processed.put("processedAt", ResponseTemplate.slot("timestamp"));
+        processed.put("message", "Browse data processed successfully");
+        BROWSE_DATA_PROCESSED = ResponseTemplate.compile(processed, "nodeId", "browseData", "timestamp");
+        
+        Map<String, Object> changed = new LinkedHashMap<>();
+        changed.put("status", "success");
+        changed.put("hasChanged", ResponseTemplate.slot("hasChanged"));
+        changed.put("changes", ResponseTemplate.slot("changes"));
+        changed.put("added", ResponseTemplate.slot("added"));
+        changed.put("removed", ResponseTemplate.slot("removed"));
+        changed.put("changed", ResponseTemplate.slot("changed"));
+        changed.put("timestamp", ResponseTemplate.slot("timestamp"));
+        HAS_CHANGED = ResponseTemplate.compile(changed, "hasChanged", "changes", "added", "removed", "changed", "timestamp");
+        
+        Map<String, Object> tracked = new LinkedHashMap<>();
+        tracked.put("status", "success");
+        tracked.put("nodeId", ResponseTemplate.slot("nodeId"));
+        tracked.put("version", ResponseTemplate.slot("version"));
+        tracked.put("hasChanged", ResponseTemplate.slot("hasChanged"));
+        tracked.put("changes", ResponseTemplate.slot("changes"));
+        tracked.put("added", ResponseTemplate.slot("added"));
+        tracked.put("removed", ResponseTemplate.slot("removed"));
+        tracked.put("changed", ResponseTemplate.slot("changed"));
+        tracked.put("timestamp", ResponseTemplate.slot("timestamp"));
+        HAS_CHANGED_TRACKED = ResponseTemplate.compile(tracked, "nodeId", "version", "hasChanged", "changes", "added", "removed", "changed", "timestamp");
+        
+        Map<String, Object> resync = new LinkedHashMap<>();
+        resync.put("status", "resync");
+        resync.put("nodeId", ResponseTemplate.slot("nodeId"));
+        resync.put("version", ResponseTemplate.slot("version"));
+        resync.put("message", "Snapshot is not at baseVersion; send the full current tree");
+        resync.put("timestamp", ResponseTemplate.slot("timestamp"));
+        CHANGE_RESYNC = ResponseTemplate.compile(resync, "nodeId", "version", "timestamp");
+        
+        Map<String, Object> variant = new LinkedHashMap<>();
+        variant.put("status", "success");
+        variant.put("originalVariant", ResponseTemplate.slot("original"));
+        variant.put("convertedValue", "converted-" + ResponseTemplate.slot("original"));
+        variant.put("timestamp", ResponseTemplate.slot("timestamp"));
+        VARIANT_CONVERTED = ResponseTemplate.compile(variant, "original", "timestamp");
+        
+        Map<String, Object> dataValue = new LinkedHashMap<>();
+        dataValue.put("status", "success");
+        dataValue.put("originalValue", ResponseTemplate.slot("original"));
+        dataValue.put("convertedValue", "converted-" + ResponseTemplate.slot("original"));
+        dataValue.put("timestamp", ResponseTemplate.slot("timestamp"));
+        DATA_VALUE_CONVERTED = ResponseTemplate.compile(dataValue, "original", "timestamp");
+        
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("status", "success");
+        value.put("originalValue", ResponseTemplate.slot("value"));
+        value.put("processedValue", "processed-" + ResponseTemplate.slot("value"));
+        value.put("timestamp", ResponseTemplate.slot("timestamp"));
+        VALUE_PROCESSED = ResponseTemplate.compile(value, "value", "timestamp");
+        
+        Map<String, Object> written = new LinkedHashMap<>();
+        written.put("status", "success");
+        written.put("nodeId", ResponseTemplate.slot("nodeId"));
+        written.put("value", ResponseTemplate.slot("value"));
+        written.put("timestamp", ResponseTemplate.slot("timestamp"));
+        written.put("message", "Data written successfully");
+        NODE_WRITTEN = ResponseTemplate.compile(written, "nodeId", "value", "timestamp");
+        
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("results", ResponseTemplate.slot("results"));
+        values.put("count", ResponseTemplate.slot("count"));
+        values.put("failed", ResponseTemplate.slot("failed"));
+        values.put("timestamp", ResponseTemplate.slot("timestamp"));
+        NODE_VALUES = ResponseTemplate.compile(values, "results", "count", "failed", "timestamp");
+        
+        Map<String, Object> writes = new LinkedHashMap<>();
+        writes.put("status", ResponseTemplate.slot("status"));
+        writes.put("results", ResponseTemplate.slot("results"));
+        writes.put("count", ResponseTemplate.slot("count"));
+        writes.put("failed", ResponseTemplate.slot("failed"));
+        writes.put("timestamp", ResponseTemplate.slot("timestamp"));
+        NODES_WRITTEN = ResponseTemplate.compile(writes, "status", "results", "count", "failed", "timestamp");
+        
+        Map<String, Object> services = new LinkedHashMap<>();
+        services.put("opcua", "Connected");
+        services.put("kafka", "Active");
+        services.put("database", "Connected");
+        services.put("readdata", "Active");
+        services.put("writedata", "Active");
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("timestamp", ResponseTemplate.slot("timestamp"));
+        health.put("services", services);
+        GENERAL_HEALTH = ResponseTemplate.compile(health, "timestamp");
     }
-
-    // ================= OPC UA Service APIs =================
     
-    @GetMapping("/opcua/actuator/health")
-    public Map<String, Object> getOpcUaHealth() {
-        Map<String, Object> response = new HashMap<>();
+    private static ResponseTemplate healthTemplate(String... componentNames) {
+        Map<String, Object> components = new LinkedHashMap<>();
+        for (String name : componentNames) {
+            components.put(name, Map.of("status", "UP"));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
         response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> components = new HashMap<>();
-        Map<String, Object> opcua = new HashMap<>();
-        opcua.put("status", "UP");
-        Map<String, Object> connection = new HashMap<>();
-        connection.put("status", "UP");
-        components.put("opcua", opcua);
-        components.put("connection", connection);
+        response.put("timestamp", ResponseTemplate.slot("timestamp"));
         response.put("components", components);
-        
-        return response;
+        return ResponseTemplate.compile(response, "timestamp");
+    }
+    
+    // ================= Simulated Address Space =================
+    
+    /** Address space served by this instance, whichever engine it runs on. */
+    public SimulatedAddressSpace getAddressSpace() {
+        return addressSpace;
+    }
+    
+    private ResponseEntity<byte[]> readFromAddressSpace(Object nodeId) {
+        SimulatedAddressSpace.DataValue value = nodeId instanceof String ? addressSpace.read((String) nodeId) : null;
+        if (value == null) {
+            return nodeError(HttpStatus.NOT_FOUND, nodeId, SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN, "Node not found in address space");
+        }
+        return ResponseEntity.ok(NODE_VALUE.render(nodeId, value.getValue(), value.getDataType().getDisplayName(),
+            value.getSourceTimestamp(), System.currentTimeMillis()));
+    }
+    
+    private ResponseEntity<byte[]> writeToAddressSpace(Map<String, Object> request) {
+        Object nodeId = request.get("nodeId");
+        Object value = request.get("value");
+        SimulatedAddressSpace.StatusCode status = nodeId instanceof String
+            ? addressSpace.write((String) nodeId, value)
+            : SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN;
+        switch (status) {
+            case GOOD:
+                return ResponseEntity.ok(NODE_WRITTEN.render(nodeId, value, System.currentTimeMillis()));
+            case BAD_TYPE_MISMATCH:
+                return nodeError(HttpStatus.BAD_REQUEST, nodeId, status, "Value does not match the data type of the node");
+            default:
+                return nodeError(HttpStatus.BAD_REQUEST, nodeId, status, "Node not found in address space");
+        }
+    }
+    
+    private static ResponseEntity<byte[]> nodeError(HttpStatus httpStatus, Object nodeId, SimulatedAddressSpace.StatusCode status, String message) {
+        return nodeError(httpStatus, nodeId, status.getDisplayName(), message);
+    }
+    
+    private static ResponseEntity<byte[]> nodeError(HttpStatus httpStatus, Object nodeId, String statusCode, String message) {
+        return ResponseEntity.status(httpStatus)
+            .body(NODE_ERROR.render(nodeId, statusCode, message, System.currentTimeMillis()));
+    }
+    
+    /**
+     * Reads every node of a batch. Unknown nodes don't fail the request but get
+     * a bad status code in their own result, as an OPC UA Read service call does.
+     */
+    private ResponseEntity<byte[]> readBatchFromAddressSpace(Object nodeIds) {
+        if (!(nodeIds instanceof List)) {
+            return nodeError(HttpStatus.BAD_REQUEST, null, "BadNothingToDo", "nodeIds must be a list of node ids");
+        }
+        List<?> ids = (List<?>) nodeIds;
+        if (ids.size() > MAX_BATCH_NODES) {
+            return nodeError(HttpStatus.BAD_REQUEST, null, "BadTooManyOperations", "At most " + MAX_BATCH_NODES + " nodes per request");
+        }
+        List<Map<String, Object>> results = new ArrayList<>(ids.size());
+        int failed = 0;
+        for (Object nodeId : ids) {
+            SimulatedAddressSpace.DataValue value = nodeId instanceof String ? addressSpace.read((String) nodeId) : null;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("nodeId", nodeId);
+            if (value == null) {
+                result.put("statusCode", SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN.getDisplayName());
+                failed++;
+            } else {
+                result.put("statusCode", SimulatedAddressSpace.StatusCode.GOOD.getDisplayName());
+                result.put("value", value.getValue());
+                result.put("dataType", value.getDataType().getDisplayName());
+                result.put("sourceTimestamp", value.getSourceTimestamp());
+            }
+            results.add(result);
+        }
+        return ResponseEntity.ok(NODE_VALUES.render(serialize(results), results.size(), failed, System.currentTimeMillis()));
+    }
+    
+    /** Writes every entry of a batch, each with its own status code; see {@link #readBatchFromAddressSpace}. */
+    private ResponseEntity<byte[]> writeBatchToAddressSpace(Object writes) {
+        if (!(writes instanceof List)) {
+            return nodeError(HttpStatus.BAD_REQUEST, null, "BadNothingToDo", "writes must be a list of {nodeId, value} objects");
+        }
+        List<?> entries = (List<?>) writes;
+        if (entries.size() > MAX_BATCH_NODES) {
+            return nodeError(HttpStatus.BAD_REQUEST, null, "BadTooManyOperations", "At most " + MAX_BATCH_NODES + " nodes per request");
+        }
+        List<Map<String, Object>> results = new ArrayList<>(entries.size());
+        int failed = 0;
+        for (Object entry : entries) {
+            Object nodeId = entry instanceof Map ? ((Map<?, ?>) entry).get("nodeId") : null;
+            SimulatedAddressSpace.StatusCode status = nodeId instanceof String
+                ? addressSpace.write((String) nodeId, ((Map<?, ?>) entry).get("value"))
+                : SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN;
+            if (status != SimulatedAddressSpace.StatusCode.GOOD) {
+                failed++;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("nodeId", nodeId);
+            result.put("statusCode", status.getDisplayName());
+            results.add(result);
+        }
+        String outcome = failed == 0 ? "success" : failed < results.size() ? "partial" : "failed";
+        return ResponseEntity.ok(NODES_WRITTEN.render(outcome, serialize(results), results.size(), failed, System.currentTimeMillis()));
     }
     
-    @GetMapping("/opcua/api/connection/status")
-    public Map<String, Object> getOpcUaConnectionStatus() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "Connected");
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("connectionId", "mock-connection-" + System.currentTimeMillis());
-        return response;
+    private static byte[] serialize(Object value) {
+        try {
+            return JSON_MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize batch result: " + e.getMessage(), e);
+        }
     }
     
-    @GetMapping("/opcua/api/connection/init")
-    public Map<String, Object> initOpcUaConnection() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("message", "OPC UA connection initialized");
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    /** Children of a node as a serialized JSON array; cached, since the shape of the space never changes. */
+    private byte[] browseChildren(String nodeId) {
+        return browseCache.computeIfAbsent(nodeId, id -> {
+            List<SimulatedAddressSpace.NodeRef> children = addressSpace.browse(id);
+            if (children == null) {
+                return null;
+            }
+            List<Map<String, Object>> tags = new ArrayList<>(children.size());
+            for (SimulatedAddressSpace.NodeRef child : children) {
+                Map<String, Object> tag = new LinkedHashMap<>();
+                tag.put("nodeId", child.getNodeId());
+                tag.put("name", child.getName());
+                tag.put("type", child.getDataType().getDisplayName());
+                tags.add(tag);
+            }
+            try {
+                return JSON_MAPPER.writeValueAsBytes(tags);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize browse result for " + id + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    // ================= Service Registry APIs =================
+    
+    @GetMapping(value = "/eureka/actuator/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getServiceRegistryHealth() {
+        return SERVICE_REGISTRY_HEALTH.render(System.currentTimeMillis());
+    }
+    
+    @GetMapping(value = "/eureka/apps", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getEurekaApps() {
+        return EUREKA_APPS.render();
+    }
+
+    // ================= OPC UA Service APIs =================
+    
+    @GetMapping(value = "/opcua/actuator/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getOpcUaHealth() {
+        return OPCUA_HEALTH.render(System.currentTimeMillis());
     }
     
-    @GetMapping("/opcua/api/connection/connect")
-    public Map<String, Object> connectOpcUa() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("message", "OPC UA connection established");
-        response.put("connectionId", "mock-connection-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    @GetMapping(value = "/opcua/api/connection/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getOpcUaConnectionStatus() {
+        return CONNECTION_STATUS.render(System.currentTimeMillis());
+    }
+    
+    @GetMapping(value = "/opcua/api/connection/init", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] initOpcUaConnection() {
+        return CONNECTION_INIT.render(System.currentTimeMillis());
+    }
+    
+    @GetMapping(value = "/opcua/api/connection/connect", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] connectOpcUa() {
+        return CONNECTION_ESTABLISHED.render(System.currentTimeMillis());
     }
     
     @PostMapping(value = "/opcua/api/connect", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> connectOpcUaPost(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("message", "OPC UA connection established");
-        response.put("connectionId", "mock-connection-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    public byte[] connectOpcUaPost(@RequestBody Map<String, Object> request) {
+        return CONNECTION_ESTABLISHED.render(System.currentTimeMillis());
     }
 
     // ================= Read Data Service APIs =================
     
-    @GetMapping("/read/actuator/health")
-    public Map<String, Object> getReadDataHealth() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> components = new HashMap<>();
-        Map<String, Object> readdata = new HashMap<>();
-        readdata.put("status", "UP");
-        Map<String, Object> database = new HashMap<>();
-        database.put("status", "UP");
-        components.put("readdata", readdata);
-        components.put("database", database);
-        response.put("components", components);
-        
-        return response;
+    @GetMapping(value = "/read/actuator/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getReadDataHealth() {
+        return READ_DATA_HEALTH.render(System.currentTimeMillis());
     }
     
-    @GetMapping("/read/api/read/browse")
-    public Map<String, Object> browseTags(@RequestParam(required = false) String startingNodeParam) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("startingNode", startingNodeParam != null ? startingNodeParam : "ns=3;s=\"WMS TO PLC\"");
-        
-        Object[] tags = new Object[3];
-        Map<String, Object> tag1 = new HashMap<>();
-        tag1.put("nodeId", "ns=3;s=\"PLC_To_WMS\"");
-        tag1.put("name", "PLC_To_WMS");
-        tag1.put("type", "String");
-        tags[0] = tag1;
-        
-        Map<String, Object> tag2 = new HashMap<>();
-        tag2.put("nodeId", "ns=3;s=\"WMS_To_PLC\"");
-        tag2.put("name", "WMS_To_PLC");
-        tag2.put("type", "String");
-        tags[1] = tag2;
-        
-        Map<String, Object> tag3 = new HashMap<>();
-        tag3.put("nodeId", "ns=3;s=DataBlocksGlobal");
-        tag3.put("name", "DataBlocksGlobal");
-        tag3.put("type", "Object");
-        tags[2] = tag3;
-        
-        response.put("tags", tags);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
-    }
-    
-    @GetMapping("/read/api/read/readValue")
-    public Map<String, Object> readValue(@RequestParam String nodeId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", nodeId);
-        response.put("value", "mock-value-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("quality", "GOOD");
-        return response;
-    }
-    
-    @GetMapping("/read/api/read/subscribeToData")
-    public Map<String, Object> subscribeToData() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("message", "Successfully subscribed to data updates");
-        response.put("subscriptionId", "mock-subscription-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
-    }
-    
-    @GetMapping("/read/api/read/read-node")
-    public Map<String, Object> readNode(@RequestParam String nodeId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", nodeId);
-        response.put("value", "mock-value-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("quality", "GOOD");
-        return response;
-    }
-    
-    @GetMapping("/read/api/read/read-node2")
-    public Map<String, Object> readNode2(@RequestParam String nodeId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", nodeId);
-        response.put("value", "mock-value-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("quality", "GOOD");
-        return response;
+    @GetMapping(value = "/read/api/read/browse", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> browseTags(@RequestParam(required = false) String startingNodeParam) {
+        String startingNode = startingNodeParam != null ? startingNodeParam : DEFAULT_STARTING_NODE;
+        byte[] tags = browseChildren(startingNode);
+        if (tags == null) {
+            return nodeError(HttpStatus.NOT_FOUND, startingNode, SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN, "Starting node not found in address space");
+        }
+        return ResponseEntity.ok(BROWSE_TAGS.render(startingNode, tags, System.currentTimeMillis()));
+    }
+    
+    @GetMapping(value = "/read/api/read/readValue", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> readValue(@RequestParam String nodeId) {
+        return readFromAddressSpace(nodeId);
+    }
+    
+    @GetMapping(value = "/read/api/read/readTagValuesSimplified", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> readTagValuesSimplified(@RequestParam(required = false) String startingNode) {
+        String start = startingNode != null ? startingNode : DEFAULT_STARTING_NODE;
+        SimulatedAddressSpace.SubtreeValues subtree = addressSpace.readSubtree(start, MAX_TAG_VALUES);
+        if (subtree == null) {
+            return nodeError(HttpStatus.NOT_FOUND, start, SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN, "Starting node not found in address space");
+        }
+        return ResponseEntity.ok(TAG_VALUES.render(start, subtree.getValues(), subtree.getValues().size(),
+            subtree.isTruncated(), System.currentTimeMillis()));
+    }
+    
+    @GetMapping(value = "/read/api/read/subscribeToData", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] subscribeToData() {
+        return SUBSCRIPTION.render(System.currentTimeMillis());
+    }
+    
+    /**
+     * Server-sent event stream of value changes at {@code rate} updates/s for
+     * {@code durationMs}; see {@link SimulatedSubscription}. {@code nodeIds} is a
+     * comma-separated list of numeric nodes, by default the first generated tags.
+     */
+    @GetMapping(value = "/read/api/read/subscriptionStream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> subscriptionStream(@RequestParam(required = false) String nodeIds,
+                                                                    @RequestParam(defaultValue = "1000") long rate,
+                                                                    @RequestParam(defaultValue = "5000") long durationMs,
+                                                                    @RequestParam(defaultValue = "0") double dropRate) {
+        if (rate < 1 || rate > MAX_STREAM_RATE || durationMs < 1 || durationMs > MAX_STREAM_DURATION_MS || dropRate < 0 || dropRate >= 1) {
+            return streamError(HttpStatus.BAD_REQUEST, null, "BadInvalidArgument",
+                "rate must be 1.." + MAX_STREAM_RATE + ", durationMs 1.." + MAX_STREAM_DURATION_MS + " and dropRate within [0, 1)");
+        }
+        List<String> nodes = new ArrayList<>();
+        if (nodeIds != null && !nodeIds.isBlank()) {
+            for (String nodeId : nodeIds.split(",")) {
+                nodes.add(nodeId.trim());
+            }
+        } else {
+            for (int tag = 1; tag <= Math.min(DEFAULT_STREAM_NODES, addressSpace.getGeneratedTagCount()); tag++) {
+                nodes.add("ns=4;i=" + tag);
+            }
+            if (nodes.isEmpty()) {
+                return streamError(HttpStatus.BAD_REQUEST, null, "BadInvalidArgument", "nodeIds is required when no tags are generated");
+            }
+        }
+        for (String nodeId : nodes) {
+            SimulatedAddressSpace.DataValue value = addressSpace.read(nodeId);
+            if (value == null) {
+                return streamError(HttpStatus.NOT_FOUND, nodeId, SimulatedAddressSpace.StatusCode.BAD_NODE_ID_UNKNOWN.getDisplayName(), "Node not found in address space");
+            }
+            if (!SimulatedSubscription.isStreamable(value.getDataType())) {
+                return streamError(HttpStatus.BAD_REQUEST, nodeId, SimulatedAddressSpace.StatusCode.BAD_TYPE_MISMATCH.getDisplayName(), "Only numeric nodes can be streamed");
+            }
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(new SimulatedSubscription(addressSpace, nodes, rate, durationMs, dropRate));
+    }
+    
+    private static ResponseEntity<StreamingResponseBody> streamError(HttpStatus httpStatus, String nodeId, String statusCode, String message) {
+        byte[] body = NODE_ERROR.render(nodeId, statusCode, message, System.currentTimeMillis());
+        return ResponseEntity.status(httpStatus)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> out.write(body));
+    }
+    
+    @GetMapping(value = "/read/api/read/read-node", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> readNode(@RequestParam String nodeId) {
+        return readFromAddressSpace(nodeId);
+    }
+    
+    @GetMapping(value = "/read/api/read/read-node2", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> readNode2(@RequestParam String nodeId) {
+        return readFromAddressSpace(nodeId);
     }
     
     @PostMapping(value = "/read/api/read-node", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> readNodePost(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", request.get("nodeId"));
-        response.put("value", "mock-value-" + System.currentTimeMillis());
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("quality", "GOOD");
-        return response;
+    public ResponseEntity<byte[]> readNodePost(@RequestBody Map<String, Object> request) {
+        return readFromAddressSpace(request.get("nodeId"));
+    }
+    
+    /** Batch read: {@code {"nodeIds":[...]}}, one result per node in request order. */
+    @PostMapping(value = "/read/api/read/readValues", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> readValues(@RequestBody Map<String, Object> request) {
+        return readBatchFromAddressSpace(request.get("nodeIds"));
     }
 
     // ================= Kafka Service APIs =================
     
-    @GetMapping("/kafka/actuator/health")
-    public Map<String, Object> getKafkaHealth() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> components = new HashMap<>();
-        Map<String, Object> kafka = new HashMap<>();
-        kafka.put("status", "UP");
-        Map<String, Object> producer = new HashMap<>();
-        producer.put("status", "UP");
-        Map<String, Object> consumer = new HashMap<>();
-        consumer.put("status", "UP");
-        components.put("kafka", kafka);
-        components.put("producer", producer);
-        components.put("consumer", consumer);
-        response.put("components", components);
-        
-        return response;
+    @GetMapping(value = "/kafka/actuator/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getKafkaHealth() {
+        return KAFKA_HEALTH.render(System.currentTimeMillis());
     }
     
     @PostMapping(value = "/kafka/api/kafkaBrowse/processBrowseData", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> processBrowseData(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", request.get("nodeId"));
-        response.put("browseData", request.get("browseData"));
-        response.put("processedAt", System.currentTimeMillis());
-        response.put("message", "Browse data processed successfully");
-        return response;
+    public byte[] processBrowseData(@RequestBody Map<String, Object> request) {
+        Object nodeId = request.get("nodeId");
+        byte[] processed = BROWSE_DATA_PROCESSED.render(nodeId, request.get("browseData"), System.currentTimeMillis());
+        // Published like the service's KafkaTemplate.send: keyed by node, without waiting for the broker
+        byte[] key = nodeId == null ? null : String.valueOf(nodeId).getBytes(StandardCharsets.UTF_8);
+        getKafkaServiceProducer().send(MicroservicesConfig.getKafkaBrowseTopic(), key, processed);
+        return processed;
     }
     
+    /**
+     * Structural diff, in one of three forms:
+     * {@code {"previous":..., "current":...}} compares two trees;
+     * {@code {"nodeId":..., "current":...}} compares with the node's last tree and keeps this one;
+     * {@code {"nodeId":..., "baseVersion":n, "delta":{"set":{...}, "remove":[...]}}} applies only
+     * the changes, answering 409 (status resync) when the node is not at that version.
+     * See {@link ChangeDetector}.
+     */
     @PostMapping(value = "/kafka/api/kafkaBrowse/hasChanged", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> hasChanged(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("hasChanged", true);
-        response.put("previous", request.get("previous"));
-        response.put("current", request.get("current"));
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    public ResponseEntity<byte[]> hasChanged(@RequestBody Map<String, Object> request) {
+        Object nodeId = request.get("nodeId");
+        if (nodeId == null) {
+            ChangeDetector.Diff diff = ChangeDetector.diff(ChangeDetector.snapshot(request.get("previous")),
+                ChangeDetector.snapshot(request.get("current")));
+            return ResponseEntity.ok(HAS_CHANGED.render(!diff.isEmpty(), changeCounts(diff), firstPaths(diff.getAdded()),
+                firstPaths(diff.getRemoved()), firstPaths(diff.getChanged()), System.currentTimeMillis()));
+        }
+        String node = String.valueOf(nodeId);
+        ChangeDetector.Update update;
+        if (request.containsKey("delta")) {
+            Object delta = request.get("delta");
+            Object baseVersion = request.get("baseVersion");
+            if (!(delta instanceof Map) || !(baseVersion instanceof Number)) {
+                return nodeError(HttpStatus.BAD_REQUEST, node, "BadInvalidArgument", "delta must be an object and baseVersion a number");
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> changes = (Map<String, Object>) delta;
+                update = changeDetector.applyDelta(node, ((Number) baseVersion).longValue(), changes);
+            } catch (IllegalArgumentException e) {
+                return nodeError(HttpStatus.BAD_REQUEST, node, "BadInvalidArgument", e.getMessage());
+            }
+            if (update == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CHANGE_RESYNC.render(node, changeDetector.getVersion(node), System.currentTimeMillis()));
+            }
+        } else {
+            update = changeDetector.track(node, request.get("current"));
+        }
+        ChangeDetector.Diff diff = update.getDiff();
+        return ResponseEntity.ok(HAS_CHANGED_TRACKED.render(node, update.getVersion(), !diff.isEmpty(), changeCounts(diff),
+            firstPaths(diff.getAdded()), firstPaths(diff.getRemoved()), firstPaths(diff.getChanged()), System.currentTimeMillis()));
+    }
+    
+    private static Map<String, Object> changeCounts(ChangeDetector.Diff diff) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("added", diff.getAdded().size());
+        counts.put("removed", diff.getRemoved().size());
+        counts.put("changed", diff.getChanged().size());
+        return counts;
+    }
+    
+    private static List<String> firstPaths(List<String> paths) {
+        return paths.size() <= MAX_DIFF_PATHS ? paths : paths.subList(0, MAX_DIFF_PATHS);
     }
     
     @PostMapping(value = "/kafka/api/opcUaValueConverter/convertValue", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> convertValue(@RequestParam String variant) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("originalVariant", variant);
-        response.put("convertedValue", "converted-" + variant);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    public byte[] convertValue(@RequestParam String variant) {
+        return VARIANT_CONVERTED.render(variant, System.currentTimeMillis());
     }
     
     @PostMapping(value = "/kafka/api/opcUaValueConverter/convertDataValue", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> convertDataValue(@RequestParam String originalValue) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("originalValue", originalValue);
-        response.put("convertedValue", "converted-" + originalValue);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    public byte[] convertDataValue(@RequestParam String originalValue) {
+        return DATA_VALUE_CONVERTED.render(originalValue, System.currentTimeMillis());
     }
     
     @PostMapping(value = "/kafka/api/process-value", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> processValue(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("originalValue", request.get("value"));
-        response.put("processedValue", "processed-" + request.get("value"));
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    public byte[] processValue(@RequestBody Map<String, Object> request) {
+        return VALUE_PROCESSED.render(request.get("value"), System.currentTimeMillis());
     }
 
     // ================= Write Data Service APIs =================
     
-    @GetMapping("/write/actuator/health")
-    public Map<String, Object> getWriteDataHealth() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> components = new HashMap<>();
-        Map<String, Object> writedata = new HashMap<>();
-        writedata.put("status", "UP");
-        Map<String, Object> database = new HashMap<>();
-        database.put("status", "UP");
-        components.put("writedata", writedata);
-        components.put("database", database);
-        response.put("components", components);
-        
-        return response;
+    @GetMapping(value = "/write/actuator/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getWriteDataHealth() {
+        return WRITE_DATA_HEALTH.render(System.currentTimeMillis());
     }
     
     @PostMapping(value = "/write/api/write/write-node", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> writeNode(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", request.get("nodeId"));
-        response.put("value", request.get("value"));
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("message", "Data written successfully");
-        return response;
+    public ResponseEntity<byte[]> writeNode(@RequestBody Map<String, Object> request) {
+        return writeToAddressSpace(request);
     }
     
     @PostMapping(value = "/write/api/write-node", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> writeNodeAlt(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("nodeId", request.get("nodeId"));
-        response.put("value", request.get("value"));
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("message", "Data written successfully");
-        return response;
+    public ResponseEntity<byte[]> writeNodeAlt(@RequestBody Map<String, Object> request) {
+        return writeToAddressSpace(request);
+    }
+    
+    /** Batch write: {@code {"writes":[{"nodeId":...,"value":...}, ...]}}, one result per entry in request order. */
+    @PostMapping(value = "/write/api/write/writeNodes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> writeNodes(@RequestBody Map<String, Object> request) {
+        return writeBatchToAddressSpace(request.get("writes"));
     }
 
     // ================= General Health Check =================
     
-    @GetMapping("/health")
-    public Map<String, Object> healthCheck() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        
-        Map<String, Object> services = new HashMap<>();
-        services.put("opcua", "Connected");
-        services.put("kafka", "Active");
-        services.put("database", "Connected");
-        services.put("readdata", "Active");
-        services.put("writedata", "Active");
-        response.put("services", services);
-        
-        return response;
+    @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] healthCheck() {
+        return GENERAL_HEALTH.render(System.currentTimeMillis());
     }
 
     public synchronized void stop() {
-        if (!isRunning) {
-            System.out.println("Unified mock server is not running");
+        if (!running) {
+            log.info("Unified mock server is not running");
             return;
         }
         
-        System.out.println("Stopping unified mock server...");
+        log.info("Stopping unified mock server on port {}...", port);
         
+        if (lightweightServer != null) {
+            lightweightServer.stop();
+            lightweightServer = null;
+            log.info("Unified mock server stopped");
+        }
         if (context != null) {
             try {
                 context.close();
-                System.out.println("SUCCESS: Unified mock server stopped");
+                log.info("Unified mock server stopped");
             } catch (Exception e) {
-                System.err.println("ERROR: Error stopping unified mock server: " + e.getMessage());
+                log.error("Error stopping unified mock server: {}", e.getMessage());
             }
+            context = null;
         }
         
-        isRunning = false;
+        running = false;
+        port = requestedPort;
     }
 
+    /** Stops the shared server regardless of outstanding references. */
     public static synchronized void stopInstance() {
+        references = 0;
         if (instance != null) {
             instance.stop();
             instance = null;
-            System.out.println("Unified mock server instance stopped");
+            log.info("Unified mock server instance stopped");
         }
     }
 
-    public static boolean isRunning() {
-        return isRunning;
+    public static synchronized boolean isRunning() {
+        return instance != null && instance.running;
     }
     
-    public static int getPort() {
-        return MOCK_SERVER_PORT;
+    /** Bound port of the shared server (the configured port while it isn't running). */
+    public static synchronized int getPort() {
+        return instance != null ? instance.port : TestConfigManager.getMockServerPort();
     }
-}
\ No newline at end of file
+}